@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.javaavc.ffmpeg.avcodec.Decoder;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end throughput of decode: demux of whole file and decode of all video frames. One operation is one processed
+ * file. Should be run from root directory of project.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class DecodeBenchmark {
+
+    @Param({ "resources/Castle.mp4", "resources/Castle.flv" })
+    public String   fileName;
+
+    private JavaAVC avc;
+
+    @Setup
+    public void setup() throws IOException {
+        this.avc = JavaAVC.getInstance();
+    }
+
+    @Benchmark
+    public int decode() throws IOException {
+        int frames = 0;
+
+        final Demuxer demuxer = new Demuxer(this.avc, this.fileName);
+        final Packet packet = new Packet(this.avc.getAvcodec());
+        final Frame frame = new Frame(this.avc.getAvutil());
+        try {
+            final StreamInfo stream = demuxer.findStream(MediaType.VIDEO);
+
+            final Decoder decoder = new Decoder(this.avc, stream.getCodecContext());
+            try {
+                while (demuxer.read(packet)) {
+                    if (packet.getStreamIndex() == stream.getIndex()) {
+                        decoder.send(packet);
+                        while (decoder.receive(frame)) {
+                            ++frames;
+                        }
+                    }
+                }
+
+                decoder.send(null);
+                while (decoder.receive(frame)) {
+                    ++frames;
+                }
+            } finally {
+                decoder.close();
+            }
+        } finally {
+            frame.close();
+            packet.close();
+            demuxer.close();
+        }
+
+        return frames;
+    }
+
+}
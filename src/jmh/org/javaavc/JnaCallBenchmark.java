@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.ffmpeg.avutil.LibavutilDirect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+
+/**
+ * Per-call overhead of {@link JavaAVC.Binding#PROXY} and {@link JavaAVC.Binding#DIRECT} bindings.
+ *
+ * <p> <code>avutil_version()</code> do almost nothing, so it measures the cost of crossing Java/native boundary;
+ * <code>av_rescale_rnd()</code> also shows cost of passing arguments. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JnaCallBenchmark {
+
+    private Libavutil proxy;
+
+    private Libavutil direct;
+
+    private long      value;
+
+    @Setup
+    public void setup() throws IOException {
+        final String path = JavaAVC.getInstance().findLib("avutil");
+
+        this.proxy = (Libavutil) Native.loadLibrary(path, Libavutil.class);
+
+        Native.register(LibavutilDirect.class, NativeLibrary.getInstance(path));
+        this.direct = new LibavutilDirect();
+    }
+
+    @Benchmark
+    public int proxyVersion() {
+        return this.proxy.avutil_version();
+    }
+
+    @Benchmark
+    public int directVersion() {
+        return this.direct.avutil_version();
+    }
+
+    @Benchmark
+    public long proxyRescale() {
+        return this.proxy.av_rescale_rnd(++this.value, 1001, 30000, Libavutil.AV_ROUND_NEAR_INF);
+    }
+
+    @Benchmark
+    public long directRescale() {
+        return this.direct.av_rescale_rnd(++this.value, 1001, 30000, Libavutil.AV_ROUND_NEAR_INF);
+    }
+}
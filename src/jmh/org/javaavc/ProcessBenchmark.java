@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.javaavc.process.OutputHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of start of FFmpeg utils: process spawn, drain of output and wait for exit code. Uses the same path as
+ * {@link JavaAVC#commandLineExecute(String, String)}, but drops output, so it is not mixed with report of JMH.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProcessBenchmark {
+
+    private JavaAVC avc;
+
+    @Setup
+    public void setup() throws IOException {
+        this.avc = JavaAVC.getInstance();
+    }
+
+    @Benchmark
+    public int ffmpegVersion() throws InterruptedException, ExecutionException {
+        return this.avc.commandLineExecuteAsync(JavaAVC.BIN_FFMPEG, "-version", OutputHandler.discard(),
+                OutputHandler.discard()).get();
+    }
+
+    @Benchmark
+    public int ffprobeVersion() throws InterruptedException, ExecutionException {
+        return this.avc.commandLineExecuteAsync(JavaAVC.BIN_PROBE, "-version", OutputHandler.discard(),
+                OutputHandler.discard()).get();
+    }
+}
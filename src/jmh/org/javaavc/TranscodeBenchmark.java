@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.javaavc.transcode.SegmentTranscoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end throughput of transcode of whole file with {@link SegmentTranscoder} into
+ * {@link SegmentTranscoder#DEFAULT_CODEC}. One operation is one processed file. Should be run from root directory of
+ * project.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class TranscodeBenchmark {
+
+    @Param({ "resources/Castle.mp4", "resources/Castle.flv" })
+    public String   fileName;
+
+    @Param({ "1", "4" })
+    public int      segments;
+
+    private JavaAVC avc;
+
+    private File    output;
+
+    @Setup
+    public void setup() throws IOException {
+        this.avc = JavaAVC.getInstance();
+        this.output = File.createTempFile("benchmark-", ".mkv");
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.output.delete();
+    }
+
+    @Benchmark
+    public long transcode() throws IOException {
+        new SegmentTranscoder(this.avc, this.segments).transcode(this.fileName, this.output.getPath());
+        return this.output.length();
+    }
+}
@@ -18,22 +18,40 @@
  */
 package org.javaavc;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import org.javaavc.ffmpeg.avcodec.Libavcodec;
+import org.javaavc.ffmpeg.avcodec.LibavcodecDirect;
+import org.javaavc.ffmpeg.avcodec.LockManager;
 import org.javaavc.ffmpeg.avdevice.Libavdevice;
+import org.javaavc.ffmpeg.avdevice.LibavdeviceDirect;
 import org.javaavc.ffmpeg.avfilter.Libavfilter;
+import org.javaavc.ffmpeg.avfilter.LibavfilterDirect;
 import org.javaavc.ffmpeg.avformat.Libavformat;
+import org.javaavc.ffmpeg.avformat.LibavformatDirect;
 import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.ffmpeg.avutil.LibavutilDirect;
 import org.javaavc.ffmpeg.swresample.Libswresample;
+import org.javaavc.ffmpeg.swresample.LibswresampleDirect;
 import org.javaavc.ffmpeg.swscale.Libswscale;
+import org.javaavc.ffmpeg.swscale.LibswscaleDirect;
 import org.javaavc.platform.Platform;
+import org.javaavc.process.OutputHandler;
+import org.javaavc.process.PipedProcess;
+import org.javaavc.process.ProcessThreads;
+import org.javaavc.process.ProgressHandler;
+import org.javaavc.process.ProgressListener;
+import org.javaavc.process.ProgressStatistics;
 
 import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
 
 /**
  * The main class of wrapper.
@@ -66,25 +84,27 @@ import com.sun.jna.Native;
  */
 public class JavaAVC {
 
-    public static final String        LIB_NAME    = "JavaAVC";
-    public static final String        LIB_VER     = "2.0.0";
+    public static final String               LIB_NAME    = "JavaAVC";
+    public static final String               LIB_VER     = "2.0.0";
 
-    public static final String        NATIVE_NAME = "javaavc";
-    public static final String        NATIVE_VER  = "2.2.8";
+    public static final String               NATIVE_NAME = "javaavc";
+    public static final String               NATIVE_VER  = "2.2.8";
 
-    protected static volatile JavaAVC INSTANCE    = null;
+    protected static volatile JavaAVC        INSTANCE    = null;
 
-    public final Libavutil            avutil;
-    public final Libavcodec           avcodec;
-    public final Libavformat          avformat;
-    public final Libswresample        swresample;
-    public final Libswscale           swscale;
-    public final Libavfilter          avfilter;
-    public final Libavdevice          avdevice;
+    private final LazyLibrary<Libavutil>     avutil;
+    private final LazyLibrary<Libavcodec>    avcodec;
+    private final LazyLibrary<Libavformat>   avformat;
+    private final LazyLibrary<Libswresample> swresample;
+    private final LazyLibrary<Libswscale>    swscale;
+    private final LazyLibrary<Libavfilter>   avfilter;
+    private final LazyLibrary<Libavdevice>   avdevice;
 
-    protected final Platform          platform;
+    protected final Binding                  binding;
 
-    protected final File              nativeDir;
+    protected final Platform                 platform;
+
+    protected final File                     nativeDir;
 
     /**
      * ffmpeg is a very fast video and audio converter that can also grab from a live audio/video source. It can also
@@ -97,7 +117,7 @@ public class JavaAVC {
      * </ol>
      * </p>
      */
-    public static final String        BIN_FFMPEG  = "ffmpeg";
+    public static final String               BIN_FFMPEG  = "ffmpeg";
 
     /**
      * ffserver is a streaming server for both audio and video. It supports several live feeds, streaming from files and
@@ -110,7 +130,7 @@ public class JavaAVC {
      * </ol>
      * </p>
      */
-    public static final String        BIN_SERVER  = "ffserver";
+    public static final String               BIN_SERVER  = "ffserver";
 
     /**
      * ffprobe gathers information from multimedia streams and prints it in human- and machine-readable fashion.
@@ -122,7 +142,7 @@ public class JavaAVC {
      * </ol>
      * </p>
      */
-    public static final String        BIN_PROBE   = "ffprobe";
+    public static final String               BIN_PROBE   = "ffprobe";
 
     /**
      * Unpack native library and load wrapper.
@@ -144,6 +164,10 @@ public class JavaAVC {
 
     protected String findLib(final String name) throws IOException {
         final List<File> files = this.platform.findSharedLibs(name);
+        if (files.isEmpty()) {
+            throw new IOException("Library '" + name + "' was not found!");
+        }
+
         return files.get(files.size() - 1).getPath();
     }
 
@@ -154,7 +178,42 @@ public class JavaAVC {
     }
 
     /**
-     * Unpack native libraries and load wrappers.
+     * Load library with current {@link Binding}.
+     *
+     * @param name
+     *            Short name of library (for example, <code>avutil</code>).
+     * @param proxyClass
+     *            Interface of library, used for {@link Binding#PROXY} mode.
+     * @param directClass
+     *            Implementation with <code>native</code> methods, used for {@link Binding#DIRECT} mode.
+     */
+    protected <T> T loadLibrary(final String name, final Class<T> proxyClass, final Class<? extends T> directClass)
+            throws IOException {
+        final String path = findLib(name);
+
+        T library = null;
+        switch (this.binding) {
+            case DIRECT:
+                Native.register(directClass, NativeLibrary.getInstance(path));
+                try {
+                    library = directClass.getConstructor().newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IOException(e);
+                }
+                break;
+
+            case PROXY:
+                library = proxyClass.cast(Native.loadLibrary(path, proxyClass));
+                break;
+        }
+        checkLib(library, name);
+
+        return library;
+    }
+
+    /**
+     * Unpack native libraries. Libraries are loaded on first access (see {@link #getAvutil()}, {@link #getAvcodec()},
+     * etc.), so process maps only libraries that it really uses. Dependencies of library are loaded before it.
      */
     protected JavaAVC() throws IOException {
         // Unpack library.
@@ -162,81 +221,293 @@ public class JavaAVC {
 
         this.nativeDir = platform.unpackNativeLibrary(NATIVE_NAME, NATIVE_VER);
 
+        // Select binding mode.
+        this.binding = Binding.getBinding();
+
         // Load "avutil". Require: nothing.
-        final String avutilName = "avutil";
-        this.avutil = (Libavutil) Native.loadLibrary(findLib(avutilName), Libavutil.class);
-        checkLib(this.avutil, avutilName);
+        this.avutil = new LazyLibrary<Libavutil>("avutil", Libavutil.class, LibavutilDirect.class);
 
         // Load "avcodec". Require: "avutil".
-        final String avcodecName = "avcodec";
-        this.avcodec = (Libavcodec) Native.loadLibrary(findLib(avcodecName), Libavcodec.class);
-        checkLib(this.avcodec, avcodecName);
+        this.avcodec = new LazyLibrary<Libavcodec>("avcodec", Libavcodec.class, LibavcodecDirect.class) {
+
+            @Override
+            protected void loadDependencies() {
+                getAvutil();
+            }
+
+            @Override
+            protected void init(final Libavcodec library) {
+                library.av_lockmgr_register(LockManager.getInstance());
+            }
+        };
 
         // Load "avformat". Require: "avcodec".
-        final String avformatName = "avformat";
-        this.avformat = (Libavformat) Native.loadLibrary(findLib(avformatName), Libavformat.class);
-        checkLib(this.avformat, avformatName);
+        this.avformat = new LazyLibrary<Libavformat>("avformat", Libavformat.class, LibavformatDirect.class) {
+
+            @Override
+            protected void loadDependencies() {
+                getAvcodec();
+            }
+
+            @Override
+            protected void init(final Libavformat library) {
+                library.av_register_all();
+            }
+        };
 
         // Load "swresample". Require: "avutil".
-        final String swresampleName = "swresample";
-        this.swresample = (Libswresample) Native.loadLibrary(findLib(swresampleName), Libswresample.class);
-        checkLib(this.swresample, swresampleName);
+        this.swresample = new LazyLibrary<Libswresample>("swresample", Libswresample.class,
+                LibswresampleDirect.class) {
+
+            @Override
+            protected void loadDependencies() {
+                getAvutil();
+            }
+        };
 
         // Load "swscale". Require: "avutil".
-        final String swscaleName = "swscale";
-        this.swscale = (Libswscale) Native.loadLibrary(findLib(swscaleName), Libswscale.class);
-        checkLib(this.swscale, swscaleName);
+        this.swscale = new LazyLibrary<Libswscale>("swscale", Libswscale.class, LibswscaleDirect.class) {
+
+            @Override
+            protected void loadDependencies() {
+                getAvutil();
+            }
+        };
 
         // Load "avfilter". Require: "swresample", "swscale", "avformat", "avcodec", "avutil".
-        final String avfilterName = "avfilter";
-        this.avfilter = (Libavfilter) Native.loadLibrary(findLib(avfilterName), Libavfilter.class);
-        checkLib(this.avfilter, avfilterName);
+        this.avfilter = new LazyLibrary<Libavfilter>("avfilter", Libavfilter.class, LibavfilterDirect.class) {
+
+            @Override
+            protected void loadDependencies() {
+                getSwresample();
+                getSwscale();
+                getAvformat();
+            }
+
+            @Override
+            protected void init(final Libavfilter library) {
+                library.avfilter_register_all();
+            }
+        };
 
         // Load "avdevice". Require: "avfilter", "avformat".
-        final String avdeviceName = "avdevice";
-        this.avdevice = (Libavdevice) Native.loadLibrary(findLib(avdeviceName), Libavdevice.class);
-        checkLib(this.avdevice, avdeviceName);
+        this.avdevice = new LazyLibrary<Libavdevice>("avdevice", Libavdevice.class, LibavdeviceDirect.class) {
+
+            @Override
+            protected void loadDependencies() {
+                getAvfilter();
+            }
+        };
+    }
+
+    /**
+     * Return "avutil" library. Library is loaded on first call.
+     */
+    public Libavutil getAvutil() {
+        return this.avutil.get();
+    }
+
+    /**
+     * Return "avcodec" library. Library (and its dependencies) is loaded on first call.
+     */
+    public Libavcodec getAvcodec() {
+        return this.avcodec.get();
+    }
+
+    /**
+     * Return "avformat" library. Library (and its dependencies) is loaded on first call.
+     */
+    public Libavformat getAvformat() {
+        return this.avformat.get();
+    }
+
+    /**
+     * Return "swresample" library. Library (and its dependencies) is loaded on first call.
+     */
+    public Libswresample getSwresample() {
+        return this.swresample.get();
     }
 
     /**
-     * Execute command line of FFmpeg utils. Use <code>BIN_*</code> constants.
+     * Return "swscale" library. Library (and its dependencies) is loaded on first call.
+     */
+    public Libswscale getSwscale() {
+        return this.swscale.get();
+    }
+
+    /**
+     * Return "avfilter" library. Library (and its dependencies) is loaded on first call.
+     */
+    public Libavfilter getAvfilter() {
+        return this.avfilter.get();
+    }
+
+    /**
+     * Return "avdevice" library. Library (and its dependencies) is loaded on first call.
+     */
+    public Libavdevice getAvdevice() {
+        return this.avdevice.get();
+    }
+
+    /**
+     * Return <code>true</code> if library with defined short name (for example, <code>avutil</code>) is already
+     * loaded.
+     */
+    public boolean isLoaded(final String name) {
+        for (LazyLibrary<?> library : Arrays.asList(this.avutil, this.avcodec, this.avformat, this.swresample,
+                this.swscale, this.avfilter, this.avdevice)) {
+            if (library.name.equals(name)) {
+                return library.isLoaded();
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unknown library: %s!", name));
+    }
+
+    /**
+     * Start process of FFmpeg utils. Use <code>BIN_*</code> constants. Caller is responsible for read output of
+     * process and wait for it.
      *
      * @param binName
      *            Name of binary file.
      * @param command
      *            Command to execute.
      */
-    public void commandLineExecute(final String binName, final String command, final boolean outputError) {
-        /*
-         * See:
-         * * http://www.rgagnon.com/javadetails/java-0014.html
-         */
+    public Process startProcess(final String binName, final String command) throws IOException {
+        return this.platform.getNativeProcess(getBinFile(binName), command);
+    }
+
+    /**
+     * Start process of FFmpeg utils with given arguments (without split of command line). Use <code>BIN_*</code>
+     * constants.
+     *
+     * @param binName
+     *            Name of binary file.
+     * @param arguments
+     *            Arguments of command.
+     */
+    public Process startProcess(final String binName, final List<String> arguments) throws IOException {
+        return this.platform.getNativeProcess(getBinFile(binName), arguments);
+    }
+
+    private File getBinFile(final String binName) throws IOException {
+        return new File(this.nativeDir.getCanonicalPath() + File.separatorChar + binName);
+    }
+
+    /**
+     * Execute command line of FFmpeg utils asynchronously. Use <code>BIN_*</code> constants.
+     *
+     * <p> Standard and error output are drained concurrently in threads of {@link ProcessThreads} (virtual threads, if
+     * available), caller is not blocked. Cancel of returned future kills process. </p>
+     *
+     * @param binName
+     *            Name of binary file.
+     * @param command
+     *            Command to execute.
+     * @param output
+     *            Handler of standard output (see {@link OutputHandler#lines(java.util.function.Consumer)}).
+     * @param error
+     *            Handler of error output.
+     * @return Future of exit code of process.
+     */
+    public CompletableFuture<Integer> commandLineExecuteAsync(final String binName, final String command,
+            final OutputHandler output, final OutputHandler error) {
+        final Process process;
         try {
-            String line;
+            process = startProcess(binName, command);
+        } catch (IOException e) {
+            final CompletableFuture<Integer> failed = new CompletableFuture<Integer>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
 
-            // Run FFmpeg.
-            final File binFile = new File(this.nativeDir.getCanonicalPath() + File.separatorChar + binName);
-            final Process run = this.platform.getNativeProcess(binFile, command);
+        return ProcessThreads.execute(process, output, error);
+    }
 
-            // Print standard output.
-            final BufferedReader input = new BufferedReader(new InputStreamReader(run.getInputStream()));
-            while ((line = input.readLine()) != null) {
-                System.out.println(line);
-            }
-            input.close();
+    /**
+     * Execute command line of FFmpeg utils with streaming input and output. Use <code>BIN_*</code> constants and
+     * <code>pipe:0</code>/<code>pipe:1</code> as names of input/output in command.
+     *
+     * @param binName
+     *            Name of binary file.
+     * @param command
+     *            Command to execute.
+     * @param error
+     *            Handler of error output.
+     * @return Running process. It should be closed after use.
+     */
+    public PipedProcess commandLineExecutePiped(final String binName, final String command,
+            final OutputHandler error) throws IOException {
+        return new PipedProcess(startProcess(binName, command), error);
+    }
 
-            // Print error output.
-            if (outputError) {
-                final BufferedReader error = new BufferedReader(new InputStreamReader(run.getErrorStream()));
-                while ((line = error.readLine()) != null) {
-                    System.err.println(line);
+    /**
+     * Execute <code>ffmpeg</code> asynchronously with machine-readable progress reports. Standard output of process
+     * is used as progress channel (<code>-progress pipe:1</code>), so command should not write output into
+     * <code>pipe:1</code>. Console statistics are disabled (<code>-nostats</code>).
+     *
+     * @param command
+     *            Command of <code>ffmpeg</code> to execute.
+     * @param listener
+     *            Listener of progress, can be <code>null</code>.
+     * @param error
+     *            Handler of error output.
+     * @return Future of final statistics of run.
+     */
+    public CompletableFuture<ProgressStatistics> commandLineExecuteWithProgress(final String command,
+            final ProgressListener listener, final OutputHandler error) {
+        final ProgressHandler progress = new ProgressHandler(listener);
+        final long startTime = System.nanoTime();
+
+        final CompletableFuture<Integer> execution = commandLineExecuteAsync(BIN_FFMPEG,
+                "-nostats -progress pipe:1 " + command, progress, error);
+        final CompletableFuture<ProgressStatistics> result = execution.thenApply(
+                new Function<Integer, ProgressStatistics>() {
+
+                    @Override
+                    public ProgressStatistics apply(final Integer exitCode) {
+                        return new ProgressStatistics(exitCode, progress.getLastProgress(),
+                                System.nanoTime() - startTime);
+                    }
+                });
+
+        // Cancel of result should kill process.
+        result.whenComplete(new BiConsumer<ProgressStatistics, Throwable>() {
+
+            @Override
+            public void accept(final ProgressStatistics statistics, final Throwable failure) {
+                if (failure != null) {
+                    execution.cancel(true);
                 }
-                error.close();
             }
+        });
 
-            run.waitFor();
-        } catch (Exception e) {
+        return result;
+    }
+
+    /**
+     * Execute command line of FFmpeg utils. Use <code>BIN_*</code> constants. Output is printed into
+     * {@link System#out} and {@link System#err}.
+     *
+     * @param binName
+     *            Name of binary file.
+     * @param command
+     *            Command to execute.
+     * @param outputError
+     *            Print error output or drop it.
+     */
+    public void commandLineExecute(final String binName, final String command, final boolean outputError) {
+        final CompletableFuture<Integer> execution = commandLineExecuteAsync(binName, command,
+                OutputHandler.print(System.out), outputError ? OutputHandler.print(System.err)
+                        : OutputHandler.discard());
+        try {
+            execution.get();
+        } catch (InterruptedException e) {
+            execution.cancel(true);
+            Thread.currentThread().interrupt();
             throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
         }
     }
 
@@ -246,4 +517,119 @@ public class JavaAVC {
     public void commandLineExecute(final String binName, final String command) {
         commandLineExecute(binName, command, true);
     }
+
+    /**
+     * Return binding mode, used for load native libraries.
+     */
+    public Binding getBinding() {
+        return this.binding;
+    }
+
+    /**
+     * Library that is loaded on first access. All libraries are loaded under the lock of {@link JavaAVC} instance, so
+     * dependencies can be loaded from {@link #loadDependencies()} without risk of deadlock.
+     */
+    private class LazyLibrary<T> {
+
+        private final String             name;
+
+        private final Class<T>           proxyClass;
+
+        private final Class<? extends T> directClass;
+
+        private volatile T               library;
+
+        public LazyLibrary(final String name, final Class<T> proxyClass, final Class<? extends T> directClass) {
+            this.name = name;
+            this.proxyClass = proxyClass;
+            this.directClass = directClass;
+        }
+
+        /**
+         * Load libraries, required by this one.
+         */
+        protected void loadDependencies() {
+        }
+
+        /**
+         * Initialize just loaded library.
+         */
+        protected void init(final T library) {
+        }
+
+        public boolean isLoaded() {
+            return this.library != null;
+        }
+
+        public T get() {
+            T localLibrary = this.library;
+
+            if (localLibrary == null) {
+                synchronized (JavaAVC.this) {
+                    localLibrary = this.library;
+                    if (localLibrary == null) {
+                        loadDependencies();
+                        try {
+                            localLibrary = loadLibrary(this.name, this.proxyClass, this.directClass);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(String.format("Library '%s' was not loaded!", this.name),
+                                    e);
+                        }
+                        init(localLibrary);
+                        this.library = localLibrary;
+                    }
+                }
+            }
+
+            return localLibrary;
+        }
+    }
+
+    /**
+     * Mode of binding Java methods to native functions of FFmpeg libraries.
+     *
+     * <p>
+     * <h6>Links:</h6>
+     * <ol>
+     * <li><a href="https://github.com/java-native-access/jna/blob/master/www/DirectMapping.md">Direct Mapping -- JNA
+     * Documentation</a>.</li>
+     * </ol>
+     * </p>
+     */
+    public enum Binding {
+        /**
+         * Libraries are loaded by {@link Native#loadLibrary(String, Class)} and each call is dispatched through
+         * reflection proxy. Slower, but support all JNA types.
+         */
+        PROXY,
+
+        /**
+         * Libraries are registered by {@link Native#register(Class, NativeLibrary)} and each call is a JNI native
+         * method call. Much less overhead per call.
+         */
+        DIRECT;
+
+        /**
+         * Name of system property for select binding mode (<code>proxy</code> or <code>direct</code>).
+         */
+        public static final String NAME_SYSTEM_PROPERTY = "javaavc.binding";
+
+        /**
+         * Return binding mode, defined by system property. By default return {@link #PROXY}.
+         */
+        public static Binding getBinding() {
+            final String name = System.getProperty(NAME_SYSTEM_PROPERTY);
+            if (name == null || name.isEmpty()) {
+                return PROXY;
+            }
+
+            for (Binding binding : values()) {
+                if (binding.name().equalsIgnoreCase(name)) {
+                    return binding;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("Unsupported binding: %s!", name));
+        }
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg;
+
+import java.io.IOException;
+
+import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.platform.NativeSize;
+
+import com.sun.jna.Native;
+
+/**
+ * Error, returned by FFmpeg function as negative <code>AVERROR</code> code.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class FFmpegException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String      function;
+
+    private final int         errorCode;
+
+    public FFmpegException(final String function, final int errorCode, final String description) {
+        super(String.format("%s() failed with error %d: %s", function, errorCode, description));
+
+        this.function = function;
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Return name of failed function.
+     */
+    public String getFunction() {
+        return this.function;
+    }
+
+    /**
+     * Return <code>AVERROR</code> code.
+     */
+    public int getErrorCode() {
+        return this.errorCode;
+    }
+
+    /**
+     * Return description of <code>AVERROR</code> code.
+     */
+    public static String describe(final Libavutil avutil, final int errorCode) {
+        final byte[] buffer = new byte[Libavutil.AV_ERROR_MAX_STRING_SIZE];
+        if (avutil.av_strerror(errorCode, buffer, new NativeSize(buffer.length)) < 0) {
+            return "unknown error";
+        }
+
+        return Native.toString(buffer);
+    }
+
+    /**
+     * Throw exception if FFmpeg function return negative code. Otherwise return code as is.
+     *
+     * @param avutil
+     *            Library for describe error code.
+     * @param code
+     *            Returned value.
+     * @param function
+     *            Name of called function.
+     */
+    public static int check(final Libavutil avutil, final int code, final String function) throws FFmpegException {
+        if (code < 0) {
+            throw new FFmpegException(function, code, describe(avutil, code));
+        }
+
+        return code;
+    }
+}
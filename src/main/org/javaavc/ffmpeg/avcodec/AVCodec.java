@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Description of registered codec (FFmpeg 2.2 layout).
+ *
+ * <p> <strong>Only leading fields (up to <code>channel_layouts</code>) are mapped.</strong> Never allocate this
+ * structure from Java, use <code>avcodec_find_decoder()</code> or <code>avcodec_find_encoder()</code>. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVCodec.html">AVCodec Struct
+ * Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVCodec extends Structure {
+
+    /**
+     * Value of <code>CODEC_CAP_DELAY</code> macro: codec has delay and should be flushed with <code>NULL</code> input
+     * at the end of stream.
+     */
+    public static final int CODEC_CAP_DELAY = 0x0020;
+
+    public String           name;
+
+    public String           long_name;
+
+    public int              type;
+
+    public int              id;
+
+    public int              capabilities;
+
+    public Pointer          supported_framerates;
+
+    public Pointer          pix_fmts;
+
+    public Pointer          supported_samplerates;
+
+    public Pointer          sample_fmts;
+
+    public Pointer          channel_layouts;
+
+    public AVCodec(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        //@formatter:off
+        return Arrays.asList(
+                "name", "long_name", "type", "id", "capabilities", "supported_framerates", "pix_fmts",
+                "supported_samplerates", "sample_fmts", "channel_layouts"
+            );
+        //@formatter:on
+    }
+
+    /**
+     * Return supported pixel formats or empty array if codec does not declare them (or it is not video codec).
+     */
+    public int[] getPixelFormats() {
+        return readList(this.pix_fmts);
+    }
+
+    /**
+     * Return supported sample formats or empty array if codec does not declare them (or it is not audio codec).
+     */
+    public int[] getSampleFormats() {
+        return readList(this.sample_fmts);
+    }
+
+    /**
+     * Read list of <code>int</code> values terminated by <code>-1</code>.
+     */
+    private static int[] readList(final Pointer list) {
+        if (list == null) {
+            return new int[0];
+        }
+
+        int count = 0;
+        while (list.getInt(count * 4) != -1) {
+            ++count;
+        }
+
+        return list.getIntArray(0, count);
+    }
+}
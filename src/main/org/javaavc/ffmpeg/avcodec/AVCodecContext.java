@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.javaavc.ffmpeg.avutil.AVRational;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Main external API structure of codec (FFmpeg 2.2 layout).
+ *
+ * <p> <strong>Only leading fields (up to <code>pix_fmt</code>) are mapped.</strong> Never allocate this structure from
+ * Java, use <code>avcodec_alloc_context3()</code>. Other fields can be accessed through <code>AVOptions</code> (for
+ * example, <code>"ar"</code> for sample rate or <code>"threads"</code> for thread count). </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVCodecContext.html">AVCodecContext
+ * Struct Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVCodecContext extends Structure {
+
+    /**
+     * Value of <code>CODEC_FLAG_GLOBAL_HEADER</code> macro: place global headers in extradata instead of every
+     * keyframe.
+     */
+    public static final int CODEC_FLAG_GLOBAL_HEADER = 0x00400000;
+
+    public Pointer          av_class;
+
+    public int              log_level_offset;
+
+    public int              codec_type;
+
+    public Pointer          codec;
+
+    public byte[]           codec_name               = new byte[32];
+
+    public int              codec_id;
+
+    public int              codec_tag;
+
+    public int              stream_codec_tag;
+
+    public Pointer          priv_data;
+
+    public Pointer          internal;
+
+    public Pointer          opaque;
+
+    public int              bit_rate;
+
+    public int              bit_rate_tolerance;
+
+    public int              global_quality;
+
+    public int              compression_level;
+
+    public int              flags;
+
+    public int              flags2;
+
+    public Pointer          extradata;
+
+    public int              extradata_size;
+
+    public AVRational       time_base;
+
+    public int              ticks_per_frame;
+
+    public int              delay;
+
+    public int              width;
+
+    public int              height;
+
+    public int              coded_width;
+
+    public int              coded_height;
+
+    public int              gop_size;
+
+    public int              pix_fmt;
+
+    public AVCodecContext(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        //@formatter:off
+        return Arrays.asList(
+                "av_class", "log_level_offset", "codec_type", "codec", "codec_name", "codec_id", "codec_tag",
+                "stream_codec_tag", "priv_data", "internal", "opaque", "bit_rate", "bit_rate_tolerance",
+                "global_quality", "compression_level", "flags", "flags2", "extradata", "extradata_size", "time_base",
+                "ticks_per_frame", "delay", "width", "height", "coded_width", "coded_height", "gop_size", "pix_fmt"
+            );
+        //@formatter:on
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Stores compressed data (FFmpeg 2.2 layout).
+ *
+ * <p> This structure is used mostly as description of memory layout: offsets of fields are published as constants, so
+ * {@link Packet} can read fields without {@link Structure#read()} on each packet. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVPacket.html">AVPacket Struct
+ * Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVPacket extends Structure {
+
+    /**
+     * The packet contains a keyframe.
+     */
+    public static final int AV_PKT_FLAG_KEY     = 0x0001;
+
+    /**
+     * The packet content is corrupted.
+     */
+    public static final int AV_PKT_FLAG_CORRUPT = 0x0002;
+
+    public Pointer          buf;
+
+    public long             pts;
+
+    public long             dts;
+
+    public Pointer          data;
+
+    public int              size;
+
+    public int              stream_index;
+
+    public int              flags;
+
+    public Pointer          side_data;
+
+    public int              side_data_elems;
+
+    public int              duration;
+
+    public Pointer          destruct;
+
+    public Pointer          priv;
+
+    public long             pos;
+
+    public long             convergence_duration;
+
+    public static final int SIZE;
+
+    public static final int OFFSET_PTS;
+
+    public static final int OFFSET_DTS;
+
+    public static final int OFFSET_DATA;
+
+    public static final int OFFSET_SIZE;
+
+    public static final int OFFSET_STREAM_INDEX;
+
+    public static final int OFFSET_FLAGS;
+
+    public static final int OFFSET_DURATION;
+
+    public static final int OFFSET_POS;
+
+    static {
+        final AVPacket layout = new AVPacket();
+        SIZE = layout.size();
+        OFFSET_PTS = layout.fieldOffset("pts");
+        OFFSET_DTS = layout.fieldOffset("dts");
+        OFFSET_DATA = layout.fieldOffset("data");
+        OFFSET_SIZE = layout.fieldOffset("size");
+        OFFSET_STREAM_INDEX = layout.fieldOffset("stream_index");
+        OFFSET_FLAGS = layout.fieldOffset("flags");
+        OFFSET_DURATION = layout.fieldOffset("duration");
+        OFFSET_POS = layout.fieldOffset("pos");
+    }
+
+    public AVPacket() {
+        super();
+    }
+
+    public AVPacket(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        //@formatter:off
+        return Arrays.asList(
+                "buf", "pts", "dts", "data", "size", "stream_index", "flags", "side_data", "side_data_elems",
+                "duration", "destruct", "priv", "pos", "convergence_duration"
+            );
+        //@formatter:on
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.javaavc.ffmpeg.FFmpegException;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Threading settings of decoder or encoder: number of threads (<code>thread_count</code>) and allowed kinds of
+ * threading (<code>thread_type</code>). Instances are immutable.
+ *
+ * <p> Frame threading decodes several frames at once and adds delay of one frame per thread. Slice threading decodes
+ * parts of one frame at once and does not add delay, but is supported by fewer codecs and streams. Codec uses the
+ * kinds it supports. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVCodecContext.html">thread_count and
+ * thread_type -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public final class CodecThreading {
+
+    /**
+     * Number of threads, which FFmpeg uses itself for automatic detection (<code>MAX_AUTO_THREADS</code>). More
+     * threads rarely give speed up, but increase memory usage and delay.
+     */
+    public static final int MAX_AUTO_THREADS = 16;
+
+    /**
+     * Value of <code>thread_count</code> for let FFmpeg choose number of threads.
+     */
+    public static final int AUTO             = 0;
+
+    private final int       count;
+
+    private final Set<Type> types;
+
+    /**
+     * @param count
+     *            Number of threads ({@link #AUTO} for automatic detection by FFmpeg, <code>1</code> for disable
+     *            threading).
+     * @param types
+     *            Allowed kinds of threading.
+     */
+    public CodecThreading(final int count, final Type... types) {
+        if (count < 0) {
+            throw new IllegalArgumentException(String.format("Incorrect number of threads: %d!", count));
+        }
+        if (types.length == 0) {
+            throw new IllegalArgumentException("At least one type of threading should be defined!");
+        }
+
+        this.count = count;
+        this.types = Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(types)));
+    }
+
+    /**
+     * Return default settings: one thread per available processor (but not more than {@link #MAX_AUTO_THREADS}),
+     * frame and slice threading are allowed.
+     */
+    public static CodecThreading getDefault() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        return new CodecThreading(Math.max(1, Math.min(processors, MAX_AUTO_THREADS)), Type.FRAME, Type.SLICE);
+    }
+
+    /**
+     * Return settings without threading. Useful when many codecs work in parallel (one per core).
+     */
+    public static CodecThreading getSingleThread() {
+        return new CodecThreading(1, Type.FRAME, Type.SLICE);
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    public Set<Type> getTypes() {
+        return this.types;
+    }
+
+    /**
+     * Return value of <code>thread_type</code> field.
+     */
+    public int getTypeFlags() {
+        int flags = 0;
+        for (Type type : this.types) {
+            flags |= type.getFlag();
+        }
+
+        return flags;
+    }
+
+    /**
+     * Set threading options of codec context. Should be called before codec is opened.
+     *
+     * @param avutil
+     *            Library for set options.
+     * @param codecContext
+     *            Pointer to <code>AVCodecContext</code>.
+     */
+    public void apply(final Libavutil avutil, final Pointer codecContext) throws FFmpegException {
+        FFmpegException.check(avutil, avutil.av_opt_set_int(codecContext, "threads", this.count, 0), "av_opt_set_int");
+        FFmpegException.check(avutil, avutil.av_opt_set_int(codecContext, "thread_type", getTypeFlags(), 0),
+                "av_opt_set_int");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s threads, %s", this.count == AUTO ? "auto" : String.valueOf(this.count), this.types);
+    }
+
+    /**
+     * Kind of threading.
+     */
+    public enum Type {
+        /**
+         * Decode more than one frame at once (<code>FF_THREAD_FRAME</code>).
+         */
+        FRAME(1),
+
+        /**
+         * Decode more than one part of a single frame at once (<code>FF_THREAD_SLICE</code>).
+         */
+        SLICE(2);
+
+        private final int flag;
+
+        private Type(final int flag) {
+            this.flag = flag;
+        }
+
+        public int getFlag() {
+            return this.flag;
+        }
+    }
+}
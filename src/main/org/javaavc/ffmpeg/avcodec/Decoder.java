@@ -0,0 +1,256 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.FFmpegException;
+import org.javaavc.ffmpeg.avutil.Dictionary;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Audio or video decoder, opened over codec context of input stream.
+ *
+ * <p> Usage: <pre>
+ * try (Decoder decoder = new Decoder(avc, stream.getCodecContext()); Frame frame = new Frame(avc.getAvutil())) {
+ *     while (demuxer.read(packet)) {
+ *         if (packet.getStreamIndex() == stream.getIndex()) {
+ *             decoder.send(packet);
+ *             while (decoder.receive(frame)) {
+ *                 // Process frame.
+ *             }
+ *         }
+ *     }
+ *     // Drain delayed frames.
+ *     decoder.send(null);
+ *     while (decoder.receive(frame)) {
+ *         // Process frame.
+ *     }
+ * }
+ * </pre> </p>
+ *
+ * <p> Frames are reference-counted (<code>refcounted_frames</code> option is enabled): data of decoded frame belongs
+ * to the {@link Frame} and stays valid until the frame is released or refilled. </p>
+ *
+ * <p> Decoder is not thread-safe. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/group__lavc__decoding.html">Decoding --
+ * FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Decoder implements Closeable {
+
+    protected final JavaAVC        avc;
+
+    protected final Pointer        context;
+
+    protected final MediaType      mediaType;
+
+    /*
+     * Shallow copy of current packet. Audio decoders can consume packet partially, so data pointer and size of copy
+     * are moved forward, while original packet is not touched.
+     */
+    private final Memory           pending;
+
+    private final IntByReference   gotFrame = new IntByReference();
+
+    private boolean                draining;
+
+    private boolean                opened;
+
+    /**
+     * Open decoder with {@link CodecThreading#getDefault()} threading.
+     */
+    public Decoder(final JavaAVC avc, final Pointer codecContext) throws IOException {
+        this(avc, codecContext, CodecThreading.getDefault(), null);
+    }
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param codecContext
+     *            Pointer to <code>AVCodecContext</code> of input stream (see
+     *            {@link org.javaavc.ffmpeg.avformat.StreamInfo#getCodecContext()}).
+     * @param threading
+     *            Threading settings.
+     * @param options
+     *            Options of decoder (see <code>ffmpeg -h decoder=...</code>), can be <code>null</code>. Options have
+     *            priority over threading settings.
+     */
+    public Decoder(final JavaAVC avc, final Pointer codecContext, final CodecThreading threading,
+            final Map<String, String> options) throws IOException {
+        this.avc = avc;
+        this.context = codecContext;
+
+        final AVCodecContext cc = new AVCodecContext(codecContext);
+        this.mediaType = MediaType.valueOf(cc.codec_type);
+        if (this.mediaType != MediaType.VIDEO && this.mediaType != MediaType.AUDIO) {
+            throw new IllegalArgumentException(String.format("Unsupported media type: %s!", this.mediaType));
+        }
+
+        final Pointer codec = avc.getAvcodec().avcodec_find_decoder(cc.codec_id);
+        if (codec == null) {
+            throw new IOException(String.format("Decoder for codec '%s' was not found!",
+                    avc.getAvcodec().avcodec_get_name(cc.codec_id)));
+        }
+
+        threading.apply(avc.getAvutil(), codecContext);
+
+        final Map<String, String> decoderOptions = new HashMap<String, String>();
+        if (options != null) {
+            decoderOptions.putAll(options);
+        }
+        decoderOptions.put("refcounted_frames", "1");
+
+        final PointerByReference dict = Dictionary.create(avc.getAvutil(), decoderOptions);
+        try {
+            FFmpegException.check(avc.getAvutil(), avc.getAvcodec().avcodec_open2(codecContext, codec, dict),
+                    "avcodec_open2");
+        } finally {
+            Dictionary.free(avc.getAvutil(), dict);
+        }
+        this.opened = true;
+
+        this.pending = new Memory(AVPacket.SIZE);
+        resetPending();
+    }
+
+    /**
+     * Return pointer to native <code>AVCodecContext</code>.
+     */
+    public Pointer getContext() {
+        return this.context;
+    }
+
+    public MediaType getMediaType() {
+        return this.mediaType;
+    }
+
+    /**
+     * Pass packet to decoder. Decoded frames should be taken by {@link #receive(Frame)} before next packet is sent.
+     * Packet should not be released until all frames are received.
+     *
+     * @param packet
+     *            Packet with compressed data or <code>null</code> for drain frames, delayed by decoder (at the end of
+     *            stream).
+     */
+    public void send(final Packet packet) {
+        if (packet == null) {
+            this.draining = true;
+            resetPending();
+        } else {
+            this.draining = false;
+
+            // Shallow copy of AVPacket, word by word to avoid allocations.
+            final Pointer src = packet.getPointer();
+            for (int offset = 0; offset < AVPacket.SIZE; offset += 4) {
+                this.pending.setInt(offset, src.getInt(offset));
+            }
+        }
+    }
+
+    /**
+     * Decode next frame from packet, passed by {@link #send(Packet)}. Previous data of frame is released.
+     *
+     * @return <code>true</code> if frame was decoded and <code>false</code> if more packets are needed (or, after
+     *         <code>send(null)</code>, if all delayed frames were returned).
+     */
+    public boolean receive(final Frame frame) throws IOException {
+        frame.unref();
+
+        while (this.draining || this.pending.getInt(AVPacket.OFFSET_SIZE) > 0) {
+            final int ret;
+            if (this.mediaType == MediaType.VIDEO) {
+                ret = this.avc.getAvcodec().avcodec_decode_video2(this.context, frame.getPointer(), this.gotFrame,
+                        this.pending);
+            } else {
+                ret = this.avc.getAvcodec().avcodec_decode_audio4(this.context, frame.getPointer(), this.gotFrame,
+                        this.pending);
+            }
+            FFmpegException.check(this.avc.getAvutil(), ret, this.mediaType == MediaType.VIDEO ? "avcodec_decode_video2"
+                    : "avcodec_decode_audio4");
+
+            if (this.draining) {
+                return this.gotFrame.getValue() != 0;
+            }
+
+            // Video decoders always consume whole packet.
+            final int size = this.pending.getInt(AVPacket.OFFSET_SIZE);
+            skipPending(this.mediaType == MediaType.VIDEO ? size : Math.min(ret, size));
+
+            if (this.gotFrame.getValue() != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Move data of pending packet forward without allocation of new {@link Pointer}.
+     */
+    private void skipPending(final int bytes) {
+        this.pending.setInt(AVPacket.OFFSET_SIZE, this.pending.getInt(AVPacket.OFFSET_SIZE) - bytes);
+        if (Pointer.SIZE == 8) {
+            this.pending.setLong(AVPacket.OFFSET_DATA, this.pending.getLong(AVPacket.OFFSET_DATA) + bytes);
+        } else {
+            this.pending.setInt(AVPacket.OFFSET_DATA, this.pending.getInt(AVPacket.OFFSET_DATA) + bytes);
+        }
+    }
+
+    /**
+     * Make pending packet empty. It should not reference data of released packets.
+     */
+    private void resetPending() {
+        this.avc.getAvcodec().av_init_packet(this.pending);
+        this.pending.setPointer(AVPacket.OFFSET_DATA, null);
+        this.pending.setInt(AVPacket.OFFSET_SIZE, 0);
+    }
+
+    /**
+     * Reset internal state of decoder and drop current packet. Should be called after seek.
+     */
+    public void flush() {
+        this.draining = false;
+        resetPending();
+        this.avc.getAvcodec().avcodec_flush_buffers(this.context);
+    }
+
+    /**
+     * Close decoder. Codec context itself belongs to input and is released with it.
+     */
+    @Override
+    public void close() {
+        if (this.opened) {
+            this.opened = false;
+            this.avc.getAvcodec().avcodec_close(this.context);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.FFmpegException;
+import org.javaavc.ffmpeg.avutil.AVRational;
+import org.javaavc.ffmpeg.avutil.Dictionary;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Audio or video encoder with own codec context.
+ *
+ * <p> Encoder should be configured by setters before {@link #open(CodecThreading, Map)}. Usage: <pre>
+ * try (Encoder encoder = new Encoder(avc, "mpeg4"); Packet packet = new Packet(avc.getAvcodec())) {
+ *     encoder.setSize(width, height);
+ *     encoder.setPixelFormat(pixelFormat);
+ *     encoder.setTimeBase(new AVRational(1, 25));
+ *     encoder.open(CodecThreading.getDefault(), null);
+ *
+ *     // For each frame.
+ *     encoder.send(frame);
+ *     while (encoder.receive(packet)) {
+ *         // Process packet.
+ *     }
+ *
+ *     // Drain delayed packets.
+ *     encoder.send(null);
+ *     while (encoder.receive(packet)) {
+ *         // Process packet.
+ *     }
+ * }
+ * </pre> </p>
+ *
+ * <p> Timestamps of frames and packets are in time base of encoder. Encoder is not thread-safe. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/group__lavc__encoding.html">Encoding --
+ * FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Encoder implements Closeable {
+
+    protected final JavaAVC      avc;
+
+    protected final Pointer      codec;
+
+    protected final Pointer      context;
+
+    protected final MediaType    mediaType;
+
+    private final boolean        delayed;
+
+    private final int[]          pixelFormats;
+
+    private final IntByReference gotPacket = new IntByReference();
+
+    private Pointer              pendingFrame;
+
+    private boolean              pending;
+
+    private boolean              draining;
+
+    private boolean              opened;
+
+    private boolean              closed;
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param codecName
+     *            Name of encoder (see <code>ffmpeg -encoders</code>).
+     */
+    public Encoder(final JavaAVC avc, final String codecName) throws IOException {
+        this.avc = avc;
+
+        this.codec = avc.getAvcodec().avcodec_find_encoder_by_name(codecName);
+        if (this.codec == null) {
+            throw new IOException(String.format("Encoder '%s' was not found!", codecName));
+        }
+
+        final AVCodec c = new AVCodec(this.codec);
+        this.mediaType = MediaType.valueOf(c.type);
+        if (this.mediaType != MediaType.VIDEO && this.mediaType != MediaType.AUDIO) {
+            throw new IllegalArgumentException(String.format("Unsupported media type: %s!", this.mediaType));
+        }
+        this.delayed = (c.capabilities & AVCodec.CODEC_CAP_DELAY) != 0;
+        this.pixelFormats = c.getPixelFormats();
+
+        this.context = avc.getAvcodec().avcodec_alloc_context3(this.codec);
+        if (this.context == null) {
+            throw new OutOfMemoryError("Can not allocate AVCodecContext!");
+        }
+    }
+
+    /**
+     * Return pointer to native <code>AVCodecContext</code>.
+     */
+    public Pointer getContext() {
+        return this.context;
+    }
+
+    public MediaType getMediaType() {
+        return this.mediaType;
+    }
+
+    /**
+     * Return pixel formats, supported by video encoder, or empty array if encoder does not declare them.
+     */
+    public int[] getSupportedPixelFormats() {
+        return this.pixelFormats.clone();
+    }
+
+    /**
+     * Return <code>true</code> if encoder supports given pixel format (or does not declare supported formats).
+     */
+    public boolean isPixelFormatSupported(final int pixelFormat) {
+        if (this.pixelFormats.length == 0) {
+            return true;
+        }
+        for (int format : this.pixelFormats) {
+            if (format == pixelFormat) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Return time base of encoder. Timestamps of frames and packets are in this time base.
+     */
+    public AVRational getTimeBase() {
+        final AVCodecContext cc = new AVCodecContext(this.context);
+        return new AVRational(cc.time_base.num, cc.time_base.den);
+    }
+
+    public void setTimeBase(final AVRational timeBase) {
+        checkNotOpened();
+
+        final AVCodecContext cc = new AVCodecContext(this.context);
+        cc.time_base.num = timeBase.num;
+        cc.time_base.den = timeBase.den;
+        cc.writeField("time_base");
+    }
+
+    public void setSize(final int width, final int height) {
+        checkNotOpened();
+
+        final AVCodecContext cc = new AVCodecContext(this.context);
+        cc.width = width;
+        cc.height = height;
+        cc.writeField("width");
+        cc.writeField("height");
+    }
+
+    /**
+     * Set value of <code>enum AVPixelFormat</code>.
+     */
+    public void setPixelFormat(final int pixelFormat) {
+        checkNotOpened();
+
+        final AVCodecContext cc = new AVCodecContext(this.context);
+        cc.pix_fmt = pixelFormat;
+        cc.writeField("pix_fmt");
+    }
+
+    /**
+     * Set average bit rate in bit/s.
+     */
+    public void setBitRate(final int bitRate) {
+        checkNotOpened();
+
+        final AVCodecContext cc = new AVCodecContext(this.context);
+        cc.bit_rate = bitRate;
+        cc.writeField("bit_rate");
+    }
+
+    /**
+     * Set maximal distance between keyframes (in frames).
+     */
+    public void setGopSize(final int gopSize) {
+        checkNotOpened();
+
+        final AVCodecContext cc = new AVCodecContext(this.context);
+        cc.gop_size = gopSize;
+        cc.writeField("gop_size");
+    }
+
+    /**
+     * Place global headers into extradata of codec context. Should be set if output format requires it (see
+     * {@link org.javaavc.ffmpeg.avformat.Muxer#isGlobalHeader()}).
+     */
+    public void setGlobalHeader(final boolean globalHeader) {
+        checkNotOpened();
+
+        final AVCodecContext cc = new AVCodecContext(this.context);
+        if (globalHeader) {
+            cc.flags |= AVCodecContext.CODEC_FLAG_GLOBAL_HEADER;
+        } else {
+            cc.flags &= ~AVCodecContext.CODEC_FLAG_GLOBAL_HEADER;
+        }
+        cc.writeField("flags");
+    }
+
+    public void setSampleRate(final int sampleRate) {
+        setOption("ar", sampleRate);
+    }
+
+    public void setChannels(final int channels) {
+        setOption("ac", channels);
+    }
+
+    /**
+     * Set value of <code>enum AVSampleFormat</code>.
+     */
+    public void setSampleFormat(final int sampleFormat) {
+        setOption("sample_fmt", sampleFormat);
+    }
+
+    /**
+     * Set channel layout (mask of <code>AV_CH_*</code> values).
+     */
+    public void setChannelLayout(final long channelLayout) {
+        setOption("channel_layout", channelLayout);
+    }
+
+    private void setOption(final String name, final long value) {
+        checkNotOpened();
+
+        final int ret = this.avc.getAvutil().av_opt_set_int(this.context, name, value, 0);
+        if (ret < 0) {
+            throw new IllegalArgumentException(String.format("Incorrect value of option '%s': %d!", name, value));
+        }
+    }
+
+    private void checkNotOpened() {
+        if (this.opened) {
+            throw new IllegalStateException("Encoder is already opened!");
+        }
+    }
+
+    /**
+     * Open encoder with current settings.
+     *
+     * @param threading
+     *            Threading settings.
+     * @param options
+     *            Options of encoder (see <code>ffmpeg -h encoder=...</code>), can be <code>null</code>. Options have
+     *            priority over threading settings.
+     */
+    public void open(final CodecThreading threading, final Map<String, String> options) throws IOException {
+        checkNotOpened();
+
+        threading.apply(this.avc.getAvutil(), this.context);
+
+        final PointerByReference dict = Dictionary.create(this.avc.getAvutil(), options);
+        try {
+            FFmpegException.check(this.avc.getAvutil(),
+                    this.avc.getAvcodec().avcodec_open2(this.context, this.codec, dict), "avcodec_open2");
+        } finally {
+            Dictionary.free(this.avc.getAvutil(), dict);
+        }
+        this.opened = true;
+    }
+
+    /**
+     * Pass frame to encoder. Encoded packets should be taken by {@link #receive(Packet)} before next frame is sent.
+     * Frame should not be released until packets are received.
+     *
+     * @param frame
+     *            Frame with raw data and timestamp in time base of encoder or <code>null</code> for drain packets,
+     *            delayed by encoder (at the end of stream).
+     */
+    public void send(final Frame frame) {
+        if (!this.opened) {
+            throw new IllegalStateException("Encoder is not opened!");
+        }
+
+        if (frame == null) {
+            this.draining = true;
+            this.pendingFrame = null;
+        } else {
+            this.draining = false;
+            this.pendingFrame = frame.getPointer();
+        }
+        this.pending = true;
+    }
+
+    /**
+     * Encode frame, passed by {@link #send(Frame)}. Previous data of packet is released.
+     *
+     * @return <code>true</code> if packet was encoded and <code>false</code> if more frames are needed (or, after
+     *         <code>send(null)</code>, if all delayed packets were returned).
+     */
+    public boolean receive(final Packet packet) throws IOException {
+        packet.unref();
+
+        if (!this.pending || (this.draining && !this.delayed)) {
+            return false;
+        }
+
+        final int ret;
+        if (this.mediaType == MediaType.VIDEO) {
+            ret = this.avc.getAvcodec().avcodec_encode_video2(this.context, packet.getPointer(), this.pendingFrame,
+                    this.gotPacket);
+        } else {
+            ret = this.avc.getAvcodec().avcodec_encode_audio2(this.context, packet.getPointer(), this.pendingFrame,
+                    this.gotPacket);
+        }
+        FFmpegException.check(this.avc.getAvutil(), ret, this.mediaType == MediaType.VIDEO ? "avcodec_encode_video2"
+                : "avcodec_encode_audio2");
+
+        // One frame gives at most one packet, but delayed packets are returned one by one until drained.
+        if (!this.draining) {
+            this.pending = false;
+            this.pendingFrame = null;
+        }
+
+        return this.gotPacket.getValue() != 0;
+    }
+
+    /**
+     * Close encoder and release codec context.
+     */
+    @Override
+    public void close() {
+        if (!this.closed) {
+            this.closed = true;
+            this.opened = false;
+            this.avc.getAvcodec().avcodec_close(this.context);
+            this.avc.getAvutil().av_free(this.context);
+        }
+    }
+}
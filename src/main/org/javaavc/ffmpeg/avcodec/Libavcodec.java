@@ -18,16 +18,231 @@
  */
 package org.javaavc.ffmpeg.avcodec;
 
+import com.sun.jna.Callback;
 import com.sun.jna.Library;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
 
 /**
  * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
  */
 public interface Libavcodec extends Library {
 
+    /**
+     * Value of <code>AV_LOCK_CREATE</code>: create a mutex.
+     */
+    public static final int AV_LOCK_CREATE  = 0;
+
+    /**
+     * Value of <code>AV_LOCK_OBTAIN</code>: lock the mutex.
+     */
+    public static final int AV_LOCK_OBTAIN  = 1;
+
+    /**
+     * Value of <code>AV_LOCK_RELEASE</code>: unlock the mutex.
+     */
+    public static final int AV_LOCK_RELEASE = 2;
+
+    /**
+     * Value of <code>AV_LOCK_DESTROY</code>: free mutex resources.
+     */
+    public static final int AV_LOCK_DESTROY = 3;
+
     public int avcodec_version();
 
     public String avcodec_license();
 
     public String avcodec_configuration();
+
+    /**
+     * Return a name for the specified codec ID.
+     *
+     * <p> Original signature: <code>const char *avcodec_get_name(enum AVCodecID id)</code>. </p>
+     */
+    public String avcodec_get_name(int id);
+
+    /**
+     * Initialize optional fields of a packet with default values. Fields <code>data</code> and <code>size</code> are
+     * not touched.
+     *
+     * <p> Original signature: <code>void av_init_packet(AVPacket *pkt)</code>. </p>
+     */
+    public void av_init_packet(Pointer pkt);
+
+    /**
+     * Free a packet: release (or unreference) its data and reset it to default values.
+     *
+     * <p> Original signature: <code>void av_free_packet(AVPacket *pkt)</code>. </p>
+     */
+    public void av_free_packet(Pointer pkt);
+
+    /**
+     * Find a registered decoder with a matching codec ID.
+     *
+     * <p> Original signature: <code>AVCodec *avcodec_find_decoder(enum AVCodecID id)</code>. </p>
+     *
+     * @return Pointer to <code>AVCodec</code> or <code>NULL</code> if no decoder was found.
+     */
+    public Pointer avcodec_find_decoder(int id);
+
+    /**
+     * Initialize the <code>AVCodecContext</code> to use the given <code>AVCodec</code>.
+     *
+     * <p> Original signature: <code>int avcodec_open2(AVCodecContext *avctx, const AVCodec *codec, AVDictionary
+     * **options)</code>. </p>
+     *
+     * @return <code>0</code> on success, a negative <code>AVERROR</code> on failure.
+     */
+    public int avcodec_open2(Pointer avctx, Pointer codec, PointerByReference options);
+
+    /**
+     * Close a given <code>AVCodecContext</code> and free all the data associated with it (but not the context itself).
+     *
+     * <p> Original signature: <code>int avcodec_close(AVCodecContext *avctx)</code>. </p>
+     */
+    public int avcodec_close(Pointer avctx);
+
+    /**
+     * Decode the video frame of size <code>avpkt-&gt;size</code> from <code>avpkt-&gt;data</code> into picture.
+     *
+     * <p> Original signature: <code>int avcodec_decode_video2(AVCodecContext *avctx, AVFrame *picture, int
+     * *got_picture_ptr, const AVPacket *avpkt)</code>. </p>
+     *
+     * @return Number of bytes used or a negative <code>AVERROR</code> on failure. <code>*got_picture_ptr</code> is zero
+     *         if no frame could be decompressed.
+     */
+    public int avcodec_decode_video2(Pointer avctx, Pointer picture, IntByReference got_picture_ptr, Pointer avpkt);
+
+    /**
+     * Decode the audio frame of size <code>avpkt-&gt;size</code> from <code>avpkt-&gt;data</code> into frame. Some
+     * decoders can consume only part of packet, the rest should be passed in next call.
+     *
+     * <p> Original signature: <code>int avcodec_decode_audio4(AVCodecContext *avctx, AVFrame *frame, int
+     * *got_frame_ptr, const AVPacket *avpkt)</code>. </p>
+     *
+     * @return Number of bytes used or a negative <code>AVERROR</code> on failure. <code>*got_frame_ptr</code> is zero
+     *         if no frame could be decoded.
+     */
+    public int avcodec_decode_audio4(Pointer avctx, Pointer frame, IntByReference got_frame_ptr, Pointer avpkt);
+
+    /**
+     * Reset the internal decoder state / flush internal buffers. Should be called e.g. when seeking.
+     *
+     * <p> Original signature: <code>void avcodec_flush_buffers(AVCodecContext *avctx)</code>. </p>
+     */
+    public void avcodec_flush_buffers(Pointer avctx);
+
+    /**
+     * Find a registered encoder with a matching codec ID.
+     *
+     * <p> Original signature: <code>AVCodec *avcodec_find_encoder(enum AVCodecID id)</code>. </p>
+     *
+     * @return Pointer to <code>AVCodec</code> or <code>NULL</code> if no encoder was found.
+     */
+    public Pointer avcodec_find_encoder(int id);
+
+    /**
+     * Find a registered encoder with the specified name.
+     *
+     * <p> Original signature: <code>AVCodec *avcodec_find_encoder_by_name(const char *name)</code>. </p>
+     *
+     * @return Pointer to <code>AVCodec</code> or <code>NULL</code> if no encoder was found.
+     */
+    public Pointer avcodec_find_encoder_by_name(String name);
+
+    /**
+     * Allocate an <code>AVCodecContext</code> and set its fields to default values for given codec. Should be freed
+     * with <code>av_free()</code> after <code>avcodec_close()</code>.
+     *
+     * <p> Original signature: <code>AVCodecContext *avcodec_alloc_context3(const AVCodec *codec)</code>. </p>
+     */
+    public Pointer avcodec_alloc_context3(Pointer codec);
+
+    /**
+     * Copy the settings of the source <code>AVCodecContext</code> into the destination <code>AVCodecContext</code>.
+     * Destination should be not opened.
+     *
+     * <p> Original signature: <code>int avcodec_copy_context(AVCodecContext *dest, const AVCodecContext *src)</code>.
+     * </p>
+     *
+     * @return <code>0</code> on success, a negative <code>AVERROR</code> on failure.
+     */
+    public int avcodec_copy_context(Pointer dest, Pointer src);
+
+    /**
+     * Encode a frame of video. Packet is allocated by encoder.
+     *
+     * <p> Original signature: <code>int avcodec_encode_video2(AVCodecContext *avctx, AVPacket *avpkt, const AVFrame
+     * *frame, int *got_packet_ptr)</code>. </p>
+     *
+     * @param avctx
+     *            Codec context.
+     * @param avpkt
+     *            Output packet.
+     * @param frame
+     *            Frame with raw video data or <code>NULL</code> for flush delayed packets.
+     * @param got_packet_ptr
+     *            Set to <code>1</code> if output packet is non-empty.
+     * @return <code>0</code> on success, a negative <code>AVERROR</code> on failure.
+     */
+    public int avcodec_encode_video2(Pointer avctx, Pointer avpkt, Pointer frame, IntByReference got_packet_ptr);
+
+    /**
+     * Encode a frame of audio. Packet is allocated by encoder.
+     *
+     * <p> Original signature: <code>int avcodec_encode_audio2(AVCodecContext *avctx, AVPacket *avpkt, const AVFrame
+     * *frame, int *got_packet_ptr)</code>. </p>
+     *
+     * @param avctx
+     *            Codec context.
+     * @param avpkt
+     *            Output packet.
+     * @param frame
+     *            Frame with raw audio data or <code>NULL</code> for flush delayed packets.
+     * @param got_packet_ptr
+     *            Set to <code>1</code> if output packet is non-empty.
+     * @return <code>0</code> on success, a negative <code>AVERROR</code> on failure.
+     */
+    public int avcodec_encode_audio2(Pointer avctx, Pointer avpkt, Pointer frame, IntByReference got_packet_ptr);
+
+    /**
+     * Copy packet, including contents. Reference-counted data is referenced, not copied.
+     *
+     * <p> Original signature: <code>int av_copy_packet(AVPacket *dst, const AVPacket *src)</code>. </p>
+     *
+     * @return <code>0</code> on success, a negative <code>AVERROR</code> on failure.
+     */
+    public int av_copy_packet(Pointer dst, Pointer src);
+
+    /**
+     * Register a user provided lock manager supporting the operations specified by <code>AVLockOp</code>. It is
+     * required for use of codecs from several threads: without lock manager concurrent calls of
+     * <code>avcodec_open2()</code> fail.
+     *
+     * <p> Original signature: <code>int av_lockmgr_register(int (*cb)(void **mutex, enum AVLockOp op))</code>. </p>
+     *
+     * @param cb
+     *            User defined callback or <code>NULL</code> for unregister lock manager.
+     * @return <code>0</code> on success, non-zero on failure.
+     */
+    public int av_lockmgr_register(LockManagerCallback cb);
+
+    /**
+     * Lock manager callback.
+     *
+     * <p> Original signature: <code>int (*cb)(void **mutex, enum AVLockOp op)</code>. </p>
+     */
+    public static interface LockManagerCallback extends Callback {
+
+        /**
+         * @param mutex
+         *            Pointer to mutex handle: set on {@link #AV_LOCK_CREATE}, cleared on {@link #AV_LOCK_DESTROY}.
+         * @param op
+         *            Operation ({@link #AV_LOCK_CREATE}, {@link #AV_LOCK_OBTAIN}, {@link #AV_LOCK_RELEASE} or
+         *            {@link #AV_LOCK_DESTROY}).
+         * @return <code>0</code> on success, non-zero on failure.
+         */
+        public int invoke(PointerByReference mutex, int op);
+    }
 }
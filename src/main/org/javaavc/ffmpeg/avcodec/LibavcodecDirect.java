@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Direct-mapped implementation of {@link Libavcodec}. Methods are bound to native symbols by
+ * {@link com.sun.jna.Native#register(Class, com.sun.jna.NativeLibrary)} and called without proxy dispatch.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class LibavcodecDirect implements Libavcodec {
+
+    @Override
+    public native int avcodec_version();
+
+    @Override
+    public native String avcodec_license();
+
+    @Override
+    public native String avcodec_configuration();
+
+    @Override
+    public native String avcodec_get_name(int id);
+
+    @Override
+    public native void av_init_packet(Pointer pkt);
+
+    @Override
+    public native void av_free_packet(Pointer pkt);
+
+    @Override
+    public native Pointer avcodec_find_decoder(int id);
+
+    @Override
+    public native int avcodec_open2(Pointer avctx, Pointer codec, PointerByReference options);
+
+    @Override
+    public native int avcodec_close(Pointer avctx);
+
+    @Override
+    public native int avcodec_decode_video2(Pointer avctx, Pointer picture, IntByReference got_picture_ptr, Pointer avpkt);
+
+    @Override
+    public native int avcodec_decode_audio4(Pointer avctx, Pointer frame, IntByReference got_frame_ptr, Pointer avpkt);
+
+    @Override
+    public native void avcodec_flush_buffers(Pointer avctx);
+
+    @Override
+    public native Pointer avcodec_find_encoder(int id);
+
+    @Override
+    public native Pointer avcodec_find_encoder_by_name(String name);
+
+    @Override
+    public native Pointer avcodec_alloc_context3(Pointer codec);
+
+    @Override
+    public native int avcodec_copy_context(Pointer dest, Pointer src);
+
+    @Override
+    public native int avcodec_encode_video2(Pointer avctx, Pointer avpkt, Pointer frame, IntByReference got_packet_ptr);
+
+    @Override
+    public native int avcodec_encode_audio2(Pointer avctx, Pointer avpkt, Pointer frame, IntByReference got_packet_ptr);
+
+    @Override
+    public native int av_copy_packet(Pointer dst, Pointer src);
+
+    @Override
+    public native int av_lockmgr_register(LockManagerCallback cb);
+}
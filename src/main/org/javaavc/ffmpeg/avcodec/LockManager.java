@@ -0,0 +1,100 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Lock manager for FFmpeg, based on Java semaphores.
+ *
+ * <p> FFmpeg 2.2 has no default lock manager, so codecs can not be opened or closed from several threads at the same
+ * time (also inside of <code>avformat_find_stream_info()</code>). Lock manager is registered once, when libraries are
+ * loaded. </p>
+ *
+ * <p> Native mutex handle is a key of semaphore in the table (not real address). Semaphore is used instead of lock,
+ * because FFmpeg does not require mutex to be released by owner thread. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/group__lavc__misc.html">Miscellaneous --
+ * FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class LockManager implements Libavcodec.LockManagerCallback {
+
+    private static final LockManager   INSTANCE = new LockManager();
+
+    private final Map<Long, Semaphore> mutexes  = new ConcurrentHashMap<Long, Semaphore>();
+
+    private final AtomicLong           counter  = new AtomicLong();
+
+    private LockManager() {
+    }
+
+    /**
+     * Return shared instance. Instance is never released, so native code can call it while libraries are loaded.
+     */
+    public static LockManager getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public int invoke(final PointerByReference mutex, final int op) {
+        switch (op) {
+            case Libavcodec.AV_LOCK_CREATE: {
+                // Zero handle means "no mutex", so keys start from 1.
+                final long key = this.counter.incrementAndGet();
+                this.mutexes.put(key, new Semaphore(1));
+                mutex.setValue(Pointer.createConstant(key));
+                return 0;
+            }
+            case Libavcodec.AV_LOCK_OBTAIN: {
+                final Semaphore semaphore = this.mutexes.get(Pointer.nativeValue(mutex.getValue()));
+                if (semaphore == null) {
+                    return 1;
+                }
+                semaphore.acquireUninterruptibly();
+                return 0;
+            }
+            case Libavcodec.AV_LOCK_RELEASE: {
+                final Semaphore semaphore = this.mutexes.get(Pointer.nativeValue(mutex.getValue()));
+                if (semaphore == null) {
+                    return 1;
+                }
+                semaphore.release();
+                return 0;
+            }
+            case Libavcodec.AV_LOCK_DESTROY: {
+                final Pointer handle = mutex.getValue();
+                if (handle != null) {
+                    this.mutexes.remove(Pointer.nativeValue(handle));
+                }
+                mutex.setValue(null);
+                return 0;
+            }
+            default:
+                return 1;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+import org.javaavc.ffmpeg.avutil.AVRational;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+/**
+ * Reusable native <code>AVPacket</code>.
+ *
+ * <p> Packet is allocated once and refilled by each read, so reading loop does not allocate objects on Java heap
+ * (when {@link org.javaavc.JavaAVC.Binding#DIRECT} binding is used). Fields are read directly from native memory on
+ * each getter call. </p>
+ *
+ * <p> Packet is not thread-safe. Data of packet is valid until next read into this packet, {@link #unref()} or
+ * {@link #close()}. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Packet implements Closeable {
+
+    private final Libavcodec avcodec;
+
+    private final Memory     memory;
+
+    public Packet(final Libavcodec avcodec) {
+        this.avcodec = avcodec;
+
+        this.memory = new Memory(AVPacket.SIZE);
+        this.memory.clear();
+        this.avcodec.av_init_packet(this.memory);
+    }
+
+    /**
+     * Return pointer to native <code>AVPacket</code>.
+     */
+    public Pointer getPointer() {
+        return this.memory;
+    }
+
+    public long getPts() {
+        return this.memory.getLong(AVPacket.OFFSET_PTS);
+    }
+
+    public void setPts(final long pts) {
+        this.memory.setLong(AVPacket.OFFSET_PTS, pts);
+    }
+
+    public long getDts() {
+        return this.memory.getLong(AVPacket.OFFSET_DTS);
+    }
+
+    public void setDts(final long dts) {
+        this.memory.setLong(AVPacket.OFFSET_DTS, dts);
+    }
+
+    public int getSize() {
+        return this.memory.getInt(AVPacket.OFFSET_SIZE);
+    }
+
+    public int getStreamIndex() {
+        return this.memory.getInt(AVPacket.OFFSET_STREAM_INDEX);
+    }
+
+    public void setStreamIndex(final int index) {
+        this.memory.setInt(AVPacket.OFFSET_STREAM_INDEX, index);
+    }
+
+    public int getFlags() {
+        return this.memory.getInt(AVPacket.OFFSET_FLAGS);
+    }
+
+    public boolean isKeyFrame() {
+        return (getFlags() & AVPacket.AV_PKT_FLAG_KEY) != 0;
+    }
+
+    public int getDuration() {
+        return this.memory.getInt(AVPacket.OFFSET_DURATION);
+    }
+
+    public void setDuration(final int duration) {
+        this.memory.setInt(AVPacket.OFFSET_DURATION, duration);
+    }
+
+    /**
+     * Convert timestamps and duration of packet from one time base to another.
+     */
+    public void rescaleTimestamps(final Libavutil avutil, final AVRational from, final AVRational to) {
+        setPts(AVRational.rescale(avutil, getPts(), from, to));
+        setDts(AVRational.rescale(avutil, getDts(), from, to));
+        if (getDuration() > 0) {
+            setDuration((int) AVRational.rescale(avutil, getDuration(), from, to));
+        }
+    }
+
+    /**
+     * Return byte position in stream or <code>-1</code> if unknown.
+     */
+    public long getPos() {
+        return this.memory.getLong(AVPacket.OFFSET_POS);
+    }
+
+    /**
+     * Return view of packet data over native memory (without copy) or <code>null</code> if packet is empty. View is
+     * valid until packet will be refilled or released.
+     */
+    public ByteBuffer getData() {
+        final Pointer data = this.memory.getPointer(AVPacket.OFFSET_DATA);
+        if (data == null) {
+            return null;
+        }
+
+        return data.getByteBuffer(0, getSize());
+    }
+
+    /**
+     * Release data of packet. Packet can be reused after that.
+     */
+    public void unref() {
+        this.avcodec.av_free_packet(this.memory);
+    }
+
+    /**
+     * Make packet empty without release of data. Should be used only when ownership of data was taken by FFmpeg (for
+     * example, by <code>av_interleaved_write_frame()</code>).
+     */
+    public void detach() {
+        this.avcodec.av_init_packet(this.memory);
+        this.memory.setPointer(AVPacket.OFFSET_DATA, null);
+        this.memory.setInt(AVPacket.OFFSET_SIZE, 0);
+    }
+
+    @Override
+    public void close() {
+        unref();
+    }
+}
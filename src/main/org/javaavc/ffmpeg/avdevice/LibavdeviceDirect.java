@@ -0,0 +1,37 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avdevice;
+
+/**
+ * Direct-mapped implementation of {@link Libavdevice}. Methods are bound to native symbols by
+ * {@link com.sun.jna.Native#register(Class, com.sun.jna.NativeLibrary)} and called without proxy dispatch.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class LibavdeviceDirect implements Libavdevice {
+
+    @Override
+    public native int avdevice_version();
+
+    @Override
+    public native String avdevice_license();
+
+    @Override
+    public native String avdevice_configuration();
+}
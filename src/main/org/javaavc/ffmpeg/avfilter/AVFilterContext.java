@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avfilter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * An instance of a filter (FFmpeg 2.2 layout).
+ *
+ * <p> <strong>Only leading fields (up to <code>nb_inputs</code>) are mapped.</strong> Never allocate this structure
+ * from Java, use <code>avfilter_graph_create_filter()</code>. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVFilterContext.html">
+ * AVFilterContext Struct Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVFilterContext extends Structure {
+
+    public Pointer av_class;
+
+    public Pointer filter;
+
+    public String  name;
+
+    public Pointer input_pads;
+
+    /**
+     * Array of pointers to input links (<code>AVFilterLink **</code>).
+     */
+    public Pointer inputs;
+
+    public int     nb_inputs;
+
+    public AVFilterContext(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    /**
+     * Return input link or <code>null</code> if filter does not have such input.
+     */
+    public AVFilterLink getInput(final int index) {
+        if (index < 0 || index >= this.nb_inputs || this.inputs == null) {
+            return null;
+        }
+
+        return new AVFilterLink(this.inputs.getPointer((long) index * Pointer.SIZE));
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        //@formatter:off
+        return Arrays.asList(
+                "av_class", "filter", "name", "input_pads", "inputs", "nb_inputs"
+            );
+        //@formatter:on
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avfilter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Linked list of open inputs or outputs of filter graph, used by <code>avfilter_graph_parse_ptr()</code>.
+ *
+ * <p> Never allocate this structure from Java, use <code>avfilter_inout_alloc()</code>; <code>name</code> should be
+ * allocated by <code>av_strdup()</code>, because it is freed by <code>avfilter_inout_free()</code>. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVFilterInOut.html">
+ * AVFilterInOut Struct Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVFilterInOut extends Structure {
+
+    /**
+     * Unique name for this input/output in the list.
+     */
+    public Pointer name;
+
+    /**
+     * Filter context associated to this input/output.
+     */
+    public Pointer filter_ctx;
+
+    /**
+     * Index of the filt_ctx pad to use for linking.
+     */
+    public int     pad_idx;
+
+    /**
+     * Next input/output in the list, <code>NULL</code> if this is the last.
+     */
+    public Pointer next;
+
+    public AVFilterInOut(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        //@formatter:off
+        return Arrays.asList(
+                "name", "filter_ctx", "pad_idx", "next"
+            );
+        //@formatter:on
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avfilter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.javaavc.ffmpeg.avutil.AVRational;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * A link between two filters (FFmpeg 2.2 layout). Contains parameters of frames, which are passed by the link.
+ *
+ * <p> <strong>Only leading fields (up to <code>time_base</code>) are mapped.</strong> Never allocate this structure
+ * from Java, links are created by filter graph. Fields are valid after <code>avfilter_graph_config()</code>. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVFilterLink.html">
+ * AVFilterLink Struct Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVFilterLink extends Structure {
+
+    public Pointer    src;
+
+    public Pointer    srcpad;
+
+    public Pointer    dst;
+
+    public Pointer    dstpad;
+
+    /**
+     * Value of <code>enum AVMediaType</code>.
+     */
+    public int        type;
+
+    public int        w;
+
+    public int        h;
+
+    public AVRational sample_aspect_ratio;
+
+    public long       channel_layout;
+
+    public int        sample_rate;
+
+    /**
+     * Value of <code>enum AVPixelFormat</code> for video or <code>enum AVSampleFormat</code> for audio.
+     */
+    public int        format;
+
+    public AVRational time_base;
+
+    public AVFilterLink(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        //@formatter:off
+        return Arrays.asList(
+                "src", "srcpad", "dst", "dstpad", "type", "w", "h", "sample_aspect_ratio", "channel_layout",
+                "sample_rate", "format", "time_base"
+            );
+        //@formatter:on
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avfilter;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.FFmpegException;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.AVRational;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Filter graph with one input and one output, configured once and reused for all frames of stream.
+ *
+ * <p> Graph is described by the same syntax as <code>-vf</code>/<code>-af</code> options of <code>ffmpeg</code> (for
+ * example, <code>"scale=320:-1,hflip"</code> or <code>"aresample=16000,volume=0.5"</code>). Input is connected to
+ * <code>buffer</code> (<code>abuffer</code>) source, output is connected to <code>buffersink</code>
+ * (<code>abuffersink</code>). </p>
+ *
+ * <p> Usage: <pre>
+ * try (FilterGraph graph = new FilterGraph(avc, stream, "scale=320:-1"); Frame out = new Frame(avc.getAvutil())) {
+ *     while (decoder.receive(frame)) {
+ *         graph.send(frame);
+ *         while (graph.receive(out)) {
+ *             // Process filtered frame.
+ *         }
+ *     }
+ *     // Drain delayed frames.
+ *     graph.send(null);
+ *     while (graph.receive(out)) {
+ *         // Process filtered frame.
+ *     }
+ * }
+ * </pre> </p>
+ *
+ * <p> Timestamps of input frames should be in time base of source (time base of stream), timestamps of output frames
+ * are in {@link #getOutputTimeBase()}. </p>
+ *
+ * <p> Filter graph is not thread-safe. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/group__lavfi.html">Libavfilter -- FFmpeg
+ * Doxygen</a>.</li> <li><a href="http://www.ffmpeg.org/ffmpeg-filters.html">FFmpeg Filters Documentation</a>.</li>
+ * </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class FilterGraph implements Closeable {
+
+    private final JavaAVC            avc;
+
+    private final MediaType          mediaType;
+
+    private final String             description;
+
+    private final PointerByReference graphRef = new PointerByReference();
+
+    private Pointer                  source;
+
+    private Pointer                  sink;
+
+    private AVFilterLink             output;
+
+    private boolean                  finished;
+
+    /**
+     * Create graph for decoded frames of stream.
+     *
+     * @param avc
+     *            Loaded wrapper.
+     * @param stream
+     *            Audio or video stream of input.
+     * @param description
+     *            Description of filters.
+     */
+    public FilterGraph(final JavaAVC avc, final StreamInfo stream, final String description) throws IOException {
+        this(avc, stream.getMediaType(), getSourceArgs(avc.getAvutil(), stream), description);
+    }
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param mediaType
+     *            Type of frames ({@link MediaType#VIDEO} or {@link MediaType#AUDIO}).
+     * @param sourceArgs
+     *            Options of <code>buffer</code> or <code>abuffer</code> source, which describe input frames (see
+     *            {@link #getSourceArgs(Libavutil, StreamInfo)}).
+     * @param description
+     *            Description of filters.
+     */
+    public FilterGraph(final JavaAVC avc, final MediaType mediaType, final String sourceArgs,
+            final String description) throws IOException {
+        if (mediaType != MediaType.VIDEO && mediaType != MediaType.AUDIO) {
+            throw new IllegalArgumentException(String.format("Unsupported media type: %s!", mediaType));
+        }
+        if (description == null || description.isEmpty()) {
+            throw new IllegalArgumentException("Description of filters is empty!");
+        }
+
+        this.avc = avc;
+        this.mediaType = mediaType;
+        this.description = description;
+
+        final Libavutil avutil = avc.getAvutil();
+        final Libavfilter avfilter = avc.getAvfilter();
+
+        final Pointer graph = avfilter.avfilter_graph_alloc();
+        if (graph == null) {
+            throw new OutOfMemoryError("Can not allocate AVFilterGraph!");
+        }
+        this.graphRef.setValue(graph);
+
+        try {
+            final boolean video = mediaType == MediaType.VIDEO;
+            this.source = createFilter(video ? "buffer" : "abuffer", "in", sourceArgs);
+            this.sink = createFilter(video ? "buffersink" : "abuffersink", "out", null);
+
+            // Open output of source is input of parsed graph and vice versa.
+            final PointerByReference outputs = new PointerByReference(createInOut("in", this.source));
+            final PointerByReference inputs = new PointerByReference(createInOut("out", this.sink));
+            try {
+                FFmpegException.check(avutil,
+                        avfilter.avfilter_graph_parse_ptr(graph, description, inputs, outputs, null),
+                        "avfilter_graph_parse_ptr");
+            } finally {
+                avfilter.avfilter_inout_free(inputs);
+                avfilter.avfilter_inout_free(outputs);
+            }
+
+            FFmpegException.check(avutil, avfilter.avfilter_graph_config(graph, null), "avfilter_graph_config");
+
+            this.output = new AVFilterContext(this.sink).getInput(0);
+        } catch (IOException e) {
+            close();
+            throw e;
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Return options of source filter, which describe decoded frames of stream.
+     */
+    public static String getSourceArgs(final Libavutil avutil, final StreamInfo stream) {
+        final AVRational timeBase = stream.getTimeBase();
+
+        switch (stream.getMediaType()) {
+            case VIDEO:
+                return String.format("video_size=%dx%d:pix_fmt=%s:time_base=%d/%d", stream.getWidth(),
+                        stream.getHeight(), avutil.av_get_pix_fmt_name(stream.getPixelFormat()), timeBase.num,
+                        timeBase.den);
+            case AUDIO:
+                return String.format("time_base=%d/%d:sample_rate=%d:sample_fmt=%s:channel_layout=0x%x", timeBase.num,
+                        timeBase.den, stream.getSampleRate(), avutil.av_get_sample_fmt_name(stream.getSampleFormat()),
+                        getChannelLayout(avutil, stream));
+            default:
+                throw new IllegalArgumentException(String.format("Unsupported media type: %s!", stream.getMediaType()));
+        }
+    }
+
+    /**
+     * Return channel layout of codec. Decoder can use layout, which is not default for number of channels (like
+     * 5.1(side) of AC3), and source rejects frames with other layout. Default layout is used only if codec does not
+     * define it.
+     */
+    private static long getChannelLayout(final Libavutil avutil, final StreamInfo stream) {
+        if (stream.getChannelLayout() > 0) {
+            return stream.getChannelLayout();
+        }
+
+        return avutil.av_get_default_channel_layout(stream.getChannels());
+    }
+
+    private Pointer createFilter(final String filterName, final String name, final String args) throws IOException {
+        final Libavfilter avfilter = this.avc.getAvfilter();
+
+        final Pointer filter = avfilter.avfilter_get_by_name(filterName);
+        if (filter == null) {
+            throw new IllegalStateException(String.format("Filter '%s' is not found!", filterName));
+        }
+
+        final PointerByReference contextRef = new PointerByReference();
+        FFmpegException.check(this.avc.getAvutil(),
+                avfilter.avfilter_graph_create_filter(contextRef, filter, name, args, null, this.graphRef.getValue()),
+                "avfilter_graph_create_filter");
+
+        return contextRef.getValue();
+    }
+
+    private Pointer createInOut(final String name, final Pointer context) {
+        final Pointer pointer = this.avc.getAvfilter().avfilter_inout_alloc();
+        if (pointer == null) {
+            throw new OutOfMemoryError("Can not allocate AVFilterInOut!");
+        }
+
+        final AVFilterInOut inOut = new AVFilterInOut(pointer);
+        inOut.name = this.avc.getAvutil().av_strdup(name);
+        inOut.filter_ctx = context;
+        inOut.pad_idx = 0;
+        inOut.next = null;
+        inOut.write();
+
+        return pointer;
+    }
+
+    public MediaType getMediaType() {
+        return this.mediaType;
+    }
+
+    public String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Return width of output frames (for video).
+     */
+    public int getOutputWidth() {
+        return this.output.w;
+    }
+
+    /**
+     * Return height of output frames (for video).
+     */
+    public int getOutputHeight() {
+        return this.output.h;
+    }
+
+    /**
+     * Return value of <code>enum AVPixelFormat</code> for video or <code>enum AVSampleFormat</code> for audio.
+     */
+    public int getOutputFormat() {
+        return this.output.format;
+    }
+
+    /**
+     * Return sample rate of output frames (for audio).
+     */
+    public int getOutputSampleRate() {
+        return this.output.sample_rate;
+    }
+
+    /**
+     * Return channel layout of output frames (for audio).
+     */
+    public long getOutputChannelLayout() {
+        return this.output.channel_layout;
+    }
+
+    /**
+     * Return time base of timestamps of output frames.
+     */
+    public AVRational getOutputTimeBase() {
+        return new AVRational(this.output.time_base.num, this.output.time_base.den);
+    }
+
+    /**
+     * Push frame into graph. Frame is not changed (graph takes new reference to its data), so it can be reused by
+     * caller.
+     *
+     * @param frame
+     *            Decoded frame or <code>null</code> to signal end of stream.
+     */
+    public void send(final Frame frame) throws IOException {
+        FFmpegException.check(this.avc.getAvutil(), this.avc.getAvfilter().av_buffersrc_add_frame_flags(this.source,
+                frame != null ? frame.getPointer() : null, Libavfilter.AV_BUFFERSRC_FLAG_KEEP_REF),
+                "av_buffersrc_add_frame_flags");
+    }
+
+    /**
+     * Pull filtered frame from graph.
+     *
+     * @return <code>true</code> if frame was received, <code>false</code> if graph needs more input or all frames were
+     *         received after end of stream.
+     */
+    public boolean receive(final Frame frame) throws IOException {
+        frame.unref();
+
+        if (this.finished) {
+            return false;
+        }
+
+        final int ret = this.avc.getAvfilter().av_buffersink_get_frame(this.sink, frame.getPointer());
+        if (ret == Libavutil.AVERROR_EAGAIN) {
+            return false;
+        }
+        if (ret == Libavutil.AVERROR_EOF) {
+            this.finished = true;
+            return false;
+        }
+        FFmpegException.check(this.avc.getAvutil(), ret, "av_buffersink_get_frame");
+
+        return true;
+    }
+
+    /**
+     * Return <code>true</code> if all frames were received after end of stream.
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    /**
+     * Free graph with all filters. Graph can not be used after that.
+     */
+    @Override
+    public void close() {
+        if (this.graphRef.getValue() != null) {
+            this.avc.getAvfilter().avfilter_graph_free(this.graphRef);
+        }
+        this.source = null;
+        this.sink = null;
+    }
+}
@@ -19,15 +19,109 @@
 package org.javaavc.ffmpeg.avfilter;
 
 import com.sun.jna.Library;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
 
 /**
  * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
  */
 public interface Libavfilter extends Library {
 
+    /**
+     * Value of <code>AV_BUFFERSRC_FLAG_KEEP_REF</code>: add new reference to frame instead of taking the reference of
+     * caller.
+     */
+    public static final int AV_BUFFERSRC_FLAG_KEEP_REF = 8;
+
     public int avfilter_version();
 
     public String avfilter_license();
 
     public String avfilter_configuration();
+
+    /**
+     * Initialize the filter system. Register all builtin filters.
+     *
+     * <p> Original signature: <code>void avfilter_register_all(void)</code>. </p>
+     */
+    public void avfilter_register_all();
+
+    /**
+     * Get a filter definition matching the given name or <code>NULL</code> if filter is not found.
+     *
+     * <p> Original signature: <code>AVFilter *avfilter_get_by_name(const char *name)</code>. </p>
+     */
+    public Pointer avfilter_get_by_name(String name);
+
+    /**
+     * Allocate a filter graph. Return <code>NULL</code> on error.
+     *
+     * <p> Original signature: <code>AVFilterGraph *avfilter_graph_alloc(void)</code>. </p>
+     */
+    public Pointer avfilter_graph_alloc();
+
+    /**
+     * Free a graph, destroy its links, and set pointer to <code>NULL</code>.
+     *
+     * <p> Original signature: <code>void avfilter_graph_free(AVFilterGraph **graph)</code>. </p>
+     */
+    public void avfilter_graph_free(PointerByReference graph);
+
+    /**
+     * Create and add a filter instance into an existing graph. Return a negative error code on failure.
+     *
+     * <p> Original signature: <code>int avfilter_graph_create_filter(AVFilterContext **filt_ctx, const AVFilter *filt,
+     * const char *name, const char *args, void *opaque, AVFilterGraph *graph_ctx)</code>. </p>
+     */
+    public int avfilter_graph_create_filter(PointerByReference filt_ctx, Pointer filt, String name, String args,
+            Pointer opaque, Pointer graph_ctx);
+
+    /**
+     * Allocate a single <code>AVFilterInOut</code> entry. Must be freed with <code>avfilter_inout_free()</code>.
+     *
+     * <p> Original signature: <code>AVFilterInOut *avfilter_inout_alloc(void)</code>. </p>
+     */
+    public Pointer avfilter_inout_alloc();
+
+    /**
+     * Free the supplied list of <code>AVFilterInOut</code> and set pointer to <code>NULL</code>.
+     *
+     * <p> Original signature: <code>void avfilter_inout_free(AVFilterInOut **inout)</code>. </p>
+     */
+    public void avfilter_inout_free(PointerByReference inout);
+
+    /**
+     * Add a graph described by a string to a graph. Open inputs and outputs of parsed graph are linked with lists of
+     * inputs and outputs, which are updated with unlinked pads. Return a negative error code on failure.
+     *
+     * <p> Original signature: <code>int avfilter_graph_parse_ptr(AVFilterGraph *graph, const char *filters,
+     * AVFilterInOut **inputs, AVFilterInOut **outputs, void *log_ctx)</code>. </p>
+     */
+    public int avfilter_graph_parse_ptr(Pointer graph, String filters, PointerByReference inputs,
+            PointerByReference outputs, Pointer log_ctx);
+
+    /**
+     * Check validity and configure all the links and formats in the graph. Return a negative error code on failure.
+     *
+     * <p> Original signature: <code>int avfilter_graph_config(AVFilterGraph *graphctx, void *log_ctx)</code>. </p>
+     */
+    public int avfilter_graph_config(Pointer graphctx, Pointer log_ctx);
+
+    /**
+     * Add a frame to the buffer source. If frame is <code>NULL</code>, end of stream is signalled. Return a negative
+     * error code on failure.
+     *
+     * <p> Original signature: <code>int av_buffersrc_add_frame_flags(AVFilterContext *buffer_src, AVFrame *frame, int
+     * flags)</code>. </p>
+     */
+    public int av_buffersrc_add_frame_flags(Pointer buffer_src, Pointer frame, int flags);
+
+    /**
+     * Get a frame with filtered data from sink and put it in frame. Return <code>AVERROR(EAGAIN)</code> if more input
+     * is needed, <code>AVERROR_EOF</code> if there will be no more output frames or other negative error code on
+     * failure.
+     *
+     * <p> Original signature: <code>int av_buffersink_get_frame(AVFilterContext *ctx, AVFrame *frame)</code>. </p>
+     */
+    public int av_buffersink_get_frame(Pointer ctx, Pointer frame);
 }
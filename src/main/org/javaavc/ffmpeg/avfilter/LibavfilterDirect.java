@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avfilter;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Direct-mapped implementation of {@link Libavfilter}. Methods are bound to native symbols by
+ * {@link com.sun.jna.Native#register(Class, com.sun.jna.NativeLibrary)} and called without proxy dispatch.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class LibavfilterDirect implements Libavfilter {
+
+    @Override
+    public native int avfilter_version();
+
+    @Override
+    public native String avfilter_license();
+
+    @Override
+    public native String avfilter_configuration();
+
+    @Override
+    public native void avfilter_register_all();
+
+    @Override
+    public native Pointer avfilter_get_by_name(String name);
+
+    @Override
+    public native Pointer avfilter_graph_alloc();
+
+    @Override
+    public native void avfilter_graph_free(PointerByReference graph);
+
+    @Override
+    public native int avfilter_graph_create_filter(PointerByReference filt_ctx, Pointer filt, String name, String args,
+            Pointer opaque, Pointer graph_ctx);
+
+    @Override
+    public native Pointer avfilter_inout_alloc();
+
+    @Override
+    public native void avfilter_inout_free(PointerByReference inout);
+
+    @Override
+    public native int avfilter_graph_parse_ptr(Pointer graph, String filters, PointerByReference inputs,
+            PointerByReference outputs, Pointer log_ctx);
+
+    @Override
+    public native int avfilter_graph_config(Pointer graphctx, Pointer log_ctx);
+
+    @Override
+    public native int av_buffersrc_add_frame_flags(Pointer buffer_src, Pointer frame, int flags);
+
+    @Override
+    public native int av_buffersink_get_frame(Pointer ctx, Pointer frame);
+}
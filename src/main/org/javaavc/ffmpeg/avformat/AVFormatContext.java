@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Format I/O context (FFmpeg 2.2 layout).
+ *
+ * <p> <strong>Only leading fields (up to <code>bit_rate</code>) are mapped.</strong> Never allocate this structure
+ * from Java, use <code>avformat_alloc_context()</code> or <code>avformat_open_input()</code>. Other fields can be
+ * accessed through <code>AVOptions</code> (for example, <code>"probesize"</code>). </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVFormatContext.html">
+ * AVFormatContext Struct Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVFormatContext extends Structure {
+
+    public Pointer av_class;
+
+    public Pointer iformat;
+
+    public Pointer oformat;
+
+    public Pointer priv_data;
+
+    public Pointer pb;
+
+    public int     ctx_flags;
+
+    public int     nb_streams;
+
+    public Pointer streams;
+
+    public byte[]  filename = new byte[1024];
+
+    public long    start_time;
+
+    public long    duration;
+
+    public int     bit_rate;
+
+    public AVFormatContext(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        //@formatter:off
+        return Arrays.asList(
+                "av_class", "iformat", "oformat", "priv_data", "pb", "ctx_flags", "nb_streams", "streams", "filename",
+                "start_time", "duration", "bit_rate"
+            );
+        //@formatter:on
+    }
+
+    /**
+     * Return pointers to <code>AVStream</code> structures.
+     */
+    public Pointer[] getStreams() {
+        if (this.nb_streams == 0) {
+            return new Pointer[0];
+        }
+
+        return this.streams.getPointerArray(0, this.nb_streams);
+    }
+}
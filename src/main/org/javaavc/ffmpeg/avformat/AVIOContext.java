@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Bytestream I/O context (FFmpeg 2.2 layout).
+ *
+ * <p> <strong>Only leading fields (up to <code>buffer_size</code>) are mapped.</strong> Never allocate this structure
+ * from Java, use <code>avio_alloc_context()</code>. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVIOContext.html">AVIOContext Struct
+ * Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVIOContext extends Structure {
+
+    public Pointer av_class;
+
+    /**
+     * Start of the buffer. Can be replaced by FFmpeg, so should be read before release.
+     */
+    public Pointer buffer;
+
+    public int     buffer_size;
+
+    public AVIOContext(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        return Arrays.asList("av_class", "buffer", "buffer_size");
+    }
+}
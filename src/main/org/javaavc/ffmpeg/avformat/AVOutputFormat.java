@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Description of output format (FFmpeg 2.2 layout).
+ *
+ * <p> <strong>Only leading fields (up to <code>flags</code>) are mapped.</strong> Never allocate this structure from
+ * Java, output formats are static and registered by <code>av_register_all()</code>. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVOutputFormat.html">
+ * AVOutputFormat Struct Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVOutputFormat extends Structure {
+
+    public String name;
+
+    public String long_name;
+
+    public String mime_type;
+
+    public String extensions;
+
+    public int    audio_codec;
+
+    public int    video_codec;
+
+    public int    subtitle_codec;
+
+    public int    flags;
+
+    public AVOutputFormat(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        //@formatter:off
+        return Arrays.asList(
+                "name", "long_name", "mime_type", "extensions", "audio_codec", "video_codec", "subtitle_codec",
+                "flags"
+            );
+        //@formatter:on
+    }
+}
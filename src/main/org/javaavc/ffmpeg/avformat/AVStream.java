@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.javaavc.ffmpeg.avutil.AVRational;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Stream structure (FFmpeg 2.2 layout).
+ *
+ * <p> <strong>Only leading fields (up to <code>avg_frame_rate</code>) are mapped.</strong> Never allocate this
+ * structure from Java, use <code>avformat_new_stream()</code>. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVStream.html">AVStream Struct
+ * Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVStream extends Structure {
+
+    public int        index;
+
+    public int        id;
+
+    public Pointer    codec;
+
+    public Pointer    priv_data;
+
+    /*
+     * Fields of "struct AVFrac pts".
+     */
+    public long       pts_val;
+
+    public long       pts_num;
+
+    public long       pts_den;
+
+    public AVRational time_base;
+
+    public long       start_time;
+
+    public long       duration;
+
+    public long       nb_frames;
+
+    public int        disposition;
+
+    public int        discard;
+
+    public AVRational sample_aspect_ratio;
+
+    public Pointer    metadata;
+
+    public AVRational avg_frame_rate;
+
+    public AVStream(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        //@formatter:off
+        return Arrays.asList(
+                "index", "id", "codec", "priv_data", "pts_val", "pts_num", "pts_den", "time_base", "start_time",
+                "duration", "nb_frames", "disposition", "discard", "sample_aspect_ratio", "metadata", "avg_frame_rate"
+            );
+        //@formatter:on
+    }
+}
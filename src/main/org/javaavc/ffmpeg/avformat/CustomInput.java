@@ -0,0 +1,186 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avformat.Libavformat.ReadPacketCallback;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.platform.NativeSize;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Input, that feeds FFmpeg from Java code through custom <code>AVIOContext</code> (instead of FFmpeg protocols).
+ *
+ * <p> Sub-classes implement {@link #read(Pointer, int)}, {@link #seek(long)} and {@link #size()}. Methods are called
+ * from FFmpeg thread, that reads input (the thread, that calls {@link Demuxer} methods). </p>
+ *
+ * <p> Input can be used by one {@link Demuxer} only and should be closed after it (demuxer do this on close). </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/avio_reading_8c-example.html">avio_reading.c
+ * -- FFmpeg Examples</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public abstract class CustomInput implements Closeable {
+
+    /**
+     * Default size of I/O buffer (how many bytes are requested from input by one read).
+     */
+    public static final int           DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Libavutil           avutil;
+
+    private final Pointer             context;
+
+    private long                      position;
+
+    private boolean                   closed;
+
+    /*
+     * Callbacks should be referenced while context exists, otherwise they can be garbage collected.
+     */
+    private final ReadPacketCallback  readCallback;
+
+    private final CustomSeekCallback  seekCallback;
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param bufferSize
+     *            Size of I/O buffer (see {@link #DEFAULT_BUFFER_SIZE}).
+     */
+    protected CustomInput(final JavaAVC avc, final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect buffer size: %d!", bufferSize));
+        }
+
+        this.avutil = avc.getAvutil();
+
+        this.readCallback = new ReadPacketCallback() {
+
+            @Override
+            public int invoke(final Pointer opaque, final Pointer buf, final int bufSize) {
+                try {
+                    final int read = read(buf, bufSize);
+                    if (read <= 0) {
+                        return Libavutil.AVERROR_EOF;
+                    }
+                    CustomInput.this.position += read;
+
+                    return read;
+                } catch (IOException e) {
+                    return Libavutil.AVERROR_EIO;
+                }
+            }
+        };
+
+        this.seekCallback = new CustomSeekCallback() {
+
+            @Override
+            protected long position() {
+                return CustomInput.this.position;
+            }
+
+            @Override
+            protected long size() throws IOException {
+                return CustomInput.this.size();
+            }
+
+            @Override
+            protected void seek(final long position) throws IOException {
+                CustomInput.this.seek(position);
+                CustomInput.this.position = position;
+            }
+        };
+
+        final Pointer buffer = this.avutil.av_malloc(new NativeSize(bufferSize));
+        if (buffer == null) {
+            throw new OutOfMemoryError("Can not allocate I/O buffer!");
+        }
+
+        this.context = avc.getAvformat().avio_alloc_context(buffer, bufferSize, 0, null, this.readCallback, null,
+                this.seekCallback);
+        if (this.context == null) {
+            this.avutil.av_free(buffer);
+            throw new OutOfMemoryError("Can not allocate AVIOContext!");
+        }
+    }
+
+    /**
+     * Return pointer to native <code>AVIOContext</code>.
+     */
+    public Pointer getContext() {
+        return this.context;
+    }
+
+    /**
+     * Return current position in input.
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Return name of input, used as hint for format detection (for example, file name with extension). By default
+     * return empty string.
+     */
+    public String getName() {
+        return "";
+    }
+
+    /**
+     * Read data from current position into native buffer.
+     *
+     * @return Number of bytes read or <code>-1</code> on end of input.
+     */
+    protected abstract int read(Pointer buffer, int size) throws IOException;
+
+    /**
+     * Set current position.
+     *
+     * @param position
+     *            Absolute position from the beginning of input.
+     */
+    protected abstract void seek(long position) throws IOException;
+
+    /**
+     * Return size of input or <code>-1</code> if unknown.
+     */
+    protected abstract long size() throws IOException;
+
+    /**
+     * Release I/O context and its buffer. Should be called after input was closed by demuxer.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+
+        // FFmpeg can replace buffer, so it should be taken from context.
+        final AVIOContext io = new AVIOContext(this.context);
+        this.avutil.av_free(io.buffer);
+        this.avutil.av_free(this.context);
+    }
+}
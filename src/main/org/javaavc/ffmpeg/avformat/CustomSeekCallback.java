@@ -0,0 +1,100 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.io.IOException;
+
+import org.javaavc.ffmpeg.avformat.Libavformat.SeekCallback;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Seek callback of custom <code>AVIOContext</code>, shared by {@link CustomInput} and {@link CustomOutput}.
+ *
+ * <p> Callback decodes <code>whence</code> of FFmpeg into absolute position and delegates to {@link #seek(long)}.
+ * Errors are returned as negative <code>AVERROR</code> codes, because exceptions can not be thrown into native
+ * code. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+abstract class CustomSeekCallback implements SeekCallback {
+
+    static final int SEEK_SET = 0;
+
+    static final int SEEK_CUR = 1;
+
+    static final int SEEK_END = 2;
+
+    @Override
+    public long invoke(final Pointer opaque, final long offset, final int whence) {
+        try {
+            if ((whence & Libavformat.AVSEEK_SIZE) != 0) {
+                final long size = size();
+                return size >= 0 ? size : Libavutil.AVERROR_EINVAL;
+            }
+
+            final long target;
+            switch (whence & ~Libavformat.AVSEEK_FORCE) {
+                case SEEK_SET:
+                    target = offset;
+                    break;
+                case SEEK_CUR:
+                    target = position() + offset;
+                    break;
+                case SEEK_END:
+                    final long size = size();
+                    if (size < 0) {
+                        return Libavutil.AVERROR_EINVAL;
+                    }
+                    target = size + offset;
+                    break;
+                default:
+                    return Libavutil.AVERROR_EINVAL;
+            }
+            if (target < 0) {
+                return Libavutil.AVERROR_EINVAL;
+            }
+
+            seek(target);
+
+            return target;
+        } catch (IOException e) {
+            return Libavutil.AVERROR_EIO;
+        }
+    }
+
+    /**
+     * Return current position.
+     */
+    protected abstract long position();
+
+    /**
+     * Return size of stream or <code>-1</code> if unknown.
+     */
+    protected abstract long size() throws IOException;
+
+    /**
+     * Set current position.
+     *
+     * @param position
+     *            Absolute position from the beginning of stream.
+     */
+    protected abstract void seek(long position) throws IOException;
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.FFmpegException;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avutil.Dictionary;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Demuxing session: open input, find streams and read packets in a pull loop.
+ *
+ * <p> Usage: <pre>
+ * try (Demuxer demuxer = new Demuxer(avc, "input.mp4"); Packet packet = new Packet(avc.getAvcodec())) {
+ *     while (demuxer.read(packet)) {
+ *         // Process packet.
+ *     }
+ * }
+ * </pre> The same {@link Packet} should be reused for all reads: steady-state loop does not allocate on Java heap. </p>
+ *
+ * <p> Demuxer is not thread-safe. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/group__lavf__decoding.html">Demuxing --
+ * FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Demuxer implements Closeable {
+
+    protected final JavaAVC            avc;
+
+    protected final CustomInput        input;
+
+    protected final PointerByReference contextRef;
+
+    protected final Pointer            context;
+
+    protected final List<StreamInfo>   streams;
+
+    protected final long               startTime;
+
+    protected final long               duration;
+
+    protected final int                bitRate;
+
+    protected final String             formatName;
+
+    protected final int                formatFlags;
+
+    public Demuxer(final JavaAVC avc, final String url) throws IOException {
+        this(avc, url, null);
+    }
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param url
+     *            File name or URL of input.
+     * @param options
+     *            Options of demuxer (see <code>ffmpeg -h demuxer=...</code>), can be <code>null</code>.
+     */
+    public Demuxer(final JavaAVC avc, final String url, final Map<String, String> options) throws IOException {
+        this(avc, null, url, options);
+    }
+
+    /**
+     * Open custom input (for example, {@link MappedInput}). Input will be closed with demuxer (or on error).
+     *
+     * @param avc
+     *            Loaded wrapper.
+     * @param input
+     *            Custom input.
+     * @param options
+     *            Options of demuxer (see <code>ffmpeg -h demuxer=...</code>), can be <code>null</code>.
+     */
+    public Demuxer(final JavaAVC avc, final CustomInput input, final Map<String, String> options) throws IOException {
+        this(avc, input, input.getName(), options);
+    }
+
+    /**
+     * @param input
+     *            Custom input or <code>null</code> for use FFmpeg protocols.
+     * @param url
+     *            URL of input. For custom input it is used only as hint for format detection.
+     */
+    protected Demuxer(final JavaAVC avc, final CustomInput input, final String url,
+            final Map<String, String> options) throws IOException {
+        this.avc = avc;
+        this.input = input;
+        this.contextRef = new PointerByReference();
+
+        final Libavutil avutil = avc.getAvutil();
+
+        try {
+            // Pre-allocate context with custom I/O.
+            if (input != null) {
+                final Pointer context = avc.getAvformat().avformat_alloc_context();
+                if (context == null) {
+                    throw new OutOfMemoryError("Can not allocate AVFormatContext!");
+                }
+                final AVFormatContext fc = new AVFormatContext(context);
+                fc.pb = input.getContext();
+                fc.writeField("pb");
+                this.contextRef.setValue(context);
+            }
+
+            // Open input. On failure user-supplied context is released by FFmpeg.
+            final PointerByReference dict = Dictionary.create(avutil, options);
+            try {
+                FFmpegException.check(avutil, avc.getAvformat().avformat_open_input(this.contextRef, url, null, dict),
+                        "avformat_open_input");
+            } finally {
+                Dictionary.free(avutil, dict);
+            }
+            this.context = this.contextRef.getValue();
+
+            // Find streams.
+            FFmpegException.check(avutil, avc.getAvformat().avformat_find_stream_info(this.context, null),
+                    "avformat_find_stream_info");
+
+            final AVFormatContext fc = new AVFormatContext(this.context);
+            this.startTime = fc.start_time;
+            this.duration = fc.duration;
+            this.bitRate = fc.bit_rate;
+            final AVInputFormat format = fc.iformat != null ? new AVInputFormat(fc.iformat) : null;
+            this.formatName = format != null ? format.name : null;
+            this.formatFlags = format != null ? format.flags : 0;
+
+            final List<StreamInfo> list = new ArrayList<StreamInfo>();
+            for (Pointer stream : fc.getStreams()) {
+                list.add(new StreamInfo(avutil, avc.getAvcodec(), stream));
+            }
+            this.streams = Collections.unmodifiableList(list);
+        } catch (IOException e) {
+            close();
+            throw e;
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Return pointer to native <code>AVFormatContext</code>.
+     */
+    public Pointer getContext() {
+        return this.context;
+    }
+
+    public List<StreamInfo> getStreams() {
+        return this.streams;
+    }
+
+    public StreamInfo getStream(final int index) {
+        return this.streams.get(index);
+    }
+
+    /**
+     * Return first stream of given type or <code>null</code> if input have no such streams.
+     */
+    public StreamInfo findStream(final MediaType type) {
+        for (StreamInfo stream : this.streams) {
+            if (stream.getMediaType() == type) {
+                return stream;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Return start time in microseconds or {@link Libavformat#AV_NOPTS_VALUE}.
+     */
+    public long getStartTime() {
+        return this.startTime;
+    }
+
+    /**
+     * Return duration in microseconds or {@link Libavformat#AV_NOPTS_VALUE}.
+     */
+    public long getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * Return total bit rate in bit/s or <code>0</code> if unknown.
+     */
+    public int getBitRate() {
+        return this.bitRate;
+    }
+
+    /**
+     * Return short name of detected input format (for example, <code>mov,mp4,m4a,3gp,3g2,mj2</code>).
+     */
+    public String getFormatName() {
+        return this.formatName;
+    }
+
+    /**
+     * Return flags of detected input format (<code>AVFMT_*</code>).
+     */
+    public int getFormatFlags() {
+        return this.formatFlags;
+    }
+
+    /**
+     * Return <code>true</code> if input format allows seek to byte position (see
+     * {@link Libavformat#AVSEEK_FLAG_BYTE}).
+     */
+    public boolean isByteSeekSupported() {
+        return (this.formatFlags & Libavformat.AVFMT_NO_BYTE_SEEK) == 0;
+    }
+
+    /**
+     * Read next packet. Previous data of packet is released.
+     *
+     * @return <code>true</code> if packet was read and <code>false</code> on end of input.
+     */
+    public boolean read(final Packet packet) throws IOException {
+        packet.unref();
+
+        final int ret = this.avc.getAvformat().av_read_frame(this.context, packet.getPointer());
+        if (ret == Libavutil.AVERROR_EOF) {
+            return false;
+        }
+        FFmpegException.check(this.avc.getAvutil(), ret, "av_read_frame");
+
+        return true;
+    }
+
+    /**
+     * Seek to keyframe at given timestamp. Decoders of input should be flushed after seek.
+     *
+     * @param streamIndex
+     *            Index of stream, which time base is used for timestamp, or <code>-1</code> for timestamp in
+     *            {@link Libavformat#AV_TIME_BASE} units.
+     * @param timestamp
+     *            Target timestamp.
+     * @param flags
+     *            Seek flags (for example, {@link Libavformat#AVSEEK_FLAG_BACKWARD}).
+     */
+    public void seek(final int streamIndex, final long timestamp, final int flags) throws IOException {
+        FFmpegException.check(this.avc.getAvutil(),
+                this.avc.getAvformat().av_seek_frame(this.context, streamIndex, timestamp, flags), "av_seek_frame");
+    }
+
+    /**
+     * Close input. Custom input (if any) is closed too.
+     */
+    @Override
+    public void close() {
+        if (this.contextRef.getValue() != null) {
+            this.avc.getAvformat().avformat_close_input(this.contextRef);
+        }
+        if (this.input != null) {
+            this.input.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.javaavc.JavaAVC;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Output, that writes into local file by {@link FileChannel} through custom <code>AVIOContext</code>, without FFmpeg
+ * file protocol.
+ *
+ * <p> Usage: <pre>
+ * try (Muxer muxer = new Muxer(avc, new FileOutput(avc, new File("output.mp4")), null)) {
+ *     // Add streams and write packets.
+ * }
+ * </pre> </p>
+ *
+ * <p> Data is written directly from I/O buffer of FFmpeg (without copy into Java heap), size of buffer defines how
+ * many bytes are written at once. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class FileOutput extends CustomOutput {
+
+    private final File        file;
+
+    private final FileChannel channel;
+
+    public FileOutput(final JavaAVC avc, final File file) throws IOException {
+        this(avc, file, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create (or truncate) file.
+     */
+    public FileOutput(final JavaAVC avc, final File file, final int bufferSize) throws IOException {
+        super(avc, bufferSize);
+
+        this.file = file;
+        try {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            super.close();
+            throw e;
+        }
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    @Override
+    public String getName() {
+        return this.file.getPath();
+    }
+
+    @Override
+    protected void write(final Pointer buffer, final int size) throws IOException {
+        final ByteBuffer src = buffer.getByteBuffer(0, size);
+        while (src.hasRemaining()) {
+            this.channel.write(src);
+        }
+    }
+
+    @Override
+    protected void seek(final long position) throws IOException {
+        this.channel.position(position);
+    }
+
+    @Override
+    protected long size() throws IOException {
+        return this.channel.size();
+    }
+
+    /**
+     * Release I/O context and close file.
+     */
+    @Override
+    public void close() {
+        super.close();
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            // Data was already passed to system by writes, nothing to flush.
+        }
+    }
+}
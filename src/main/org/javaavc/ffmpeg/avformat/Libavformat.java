@@ -18,16 +18,314 @@
  */
 package org.javaavc.ffmpeg.avformat;
 
+import com.sun.jna.Callback;
 import com.sun.jna.Library;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
 
 /**
  * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
  */
 public interface Libavformat extends Library {
 
+    /**
+     * Value of <code>AV_NOPTS_VALUE</code> macro: undefined timestamp.
+     */
+    public static final long AV_NOPTS_VALUE       = 0x8000000000000000L;
+
+    /**
+     * Value of <code>AV_TIME_BASE</code> macro: internal time base of FFmpeg (microseconds).
+     */
+    public static final int  AV_TIME_BASE         = 1000000;
+
+    /**
+     * Passing this as the <code>whence</code> parameter to a seek function causes it to return the file size without
+     * seeking anywhere.
+     */
+    public static final int  AVSEEK_SIZE          = 0x10000;
+
+    /**
+     * Passing this flag as the <code>whence</code> parameter to a seek function causes it to seek by any means (like
+     * reopening and linear reading).
+     */
+    public static final int  AVSEEK_FORCE         = 0x20000;
+
+    /**
+     * Value of <code>AVSEEK_FLAG_BACKWARD</code> macro: seek to the nearest keyframe before requested timestamp.
+     */
+    public static final int  AVSEEK_FLAG_BACKWARD = 1;
+
+    /**
+     * Value of <code>AVSEEK_FLAG_BYTE</code> macro: seek to byte position in input.
+     */
+    public static final int  AVSEEK_FLAG_BYTE     = 2;
+
+    /**
+     * Value of <code>AVSEEK_FLAG_ANY</code> macro: seek to any frame, even non-keyframes.
+     */
+    public static final int  AVSEEK_FLAG_ANY      = 4;
+
+    /**
+     * Value of <code>AVIO_FLAG_WRITE</code> macro: open resource for writing.
+     */
+    public static final int  AVIO_FLAG_WRITE      = 2;
+
+    /**
+     * Value of <code>AVFMT_NOFILE</code> macro: output format does not need opened <code>AVIOContext</code>.
+     */
+    public static final int  AVFMT_NOFILE         = 0x0001;
+
+    /**
+     * Value of <code>AVFMT_GLOBALHEADER</code> macro: output format wants global header (codec extradata).
+     */
+    public static final int  AVFMT_GLOBALHEADER   = 0x0040;
+
+    /**
+     * Value of <code>AVFMT_NO_BYTE_SEEK</code> macro: input format does not allow to seek by bytes.
+     */
+    public static final int  AVFMT_NO_BYTE_SEEK   = 0x8000;
+
     public int avformat_version();
 
     public String avformat_license();
 
     public String avformat_configuration();
+
+    /**
+     * Initialize libavformat and register all the muxers, demuxers and protocols.
+     *
+     * <p> Original signature: <code>void av_register_all(void)</code>. </p>
+     */
+    public void av_register_all();
+
+    /**
+     * Open an input stream and read the header.
+     *
+     * <p> Original signature: <code>int avformat_open_input(AVFormatContext **ps, const char *filename, AVInputFormat
+     * *fmt, AVDictionary **options)</code>. </p>
+     *
+     * @param ps
+     *            Pointer to user-supplied <code>AVFormatContext</code> (or to <code>NULL</code>).
+     * @param filename
+     *            Name of the stream to open.
+     * @param fmt
+     *            Forced input format or <code>NULL</code> for autodetect.
+     * @param options
+     *            Options of demuxer. On return will be replaced with options that were not found.
+     * @return <code>0</code> on success, a negative <code>AVERROR</code> on failure.
+     */
+    public int avformat_open_input(PointerByReference ps, String filename, Pointer fmt, PointerByReference options);
+
+    /**
+     * Read packets of a media file to get stream information.
+     *
+     * <p> Original signature: <code>int avformat_find_stream_info(AVFormatContext *ic, AVDictionary
+     * **options)</code>. </p>
+     *
+     * @return <code>&gt;= 0</code> on success, a negative <code>AVERROR</code> on failure.
+     */
+    public int avformat_find_stream_info(Pointer ic, Pointer options);
+
+    /**
+     * Return the next frame of a stream. Packet is reference-counted and should be freed with
+     * <code>av_free_packet()</code>.
+     *
+     * <p> Original signature: <code>int av_read_frame(AVFormatContext *s, AVPacket *pkt)</code>. </p>
+     *
+     * @return <code>0</code> if OK, <code>&lt; 0</code> on error or end of file.
+     */
+    public int av_read_frame(Pointer s, Pointer pkt);
+
+    /**
+     * Close an opened input <code>AVFormatContext</code>. Free it and all its contents and set <code>*s</code> to
+     * <code>NULL</code>.
+     *
+     * <p> Original signature: <code>void avformat_close_input(AVFormatContext **s)</code>. </p>
+     */
+    public void avformat_close_input(PointerByReference s);
+
+    /**
+     * Allocate an <code>AVFormatContext</code>. Can be passed to <code>avformat_open_input()</code> (for example, with
+     * custom I/O context).
+     *
+     * <p> Original signature: <code>AVFormatContext *avformat_alloc_context(void)</code>. </p>
+     */
+    public Pointer avformat_alloc_context();
+
+    /**
+     * Allocate and initialize an <code>AVIOContext</code> for buffered I/O. It must be later freed with
+     * <code>av_free()</code>.
+     *
+     * <p> Original signature: <code>AVIOContext *avio_alloc_context(unsigned char *buffer, int buffer_size, int
+     * write_flag, void *opaque, int (*read_packet)(void *opaque, uint8_t *buf, int buf_size), int (*write_packet)(void
+     * *opaque, uint8_t *buf, int buf_size), int64_t (*seek)(void *opaque, int64_t offset, int whence))</code>. </p>
+     *
+     * @param buffer
+     *            Memory block for buffered I/O, allocated by <code>av_malloc()</code>. It may be freed and replaced
+     *            with a new buffer by FFmpeg.
+     * @param buffer_size
+     *            The buffer size.
+     * @param write_flag
+     *            Set to <code>1</code> if the buffer should be writable, <code>0</code> otherwise.
+     * @param opaque
+     *            An opaque pointer to user-specific data.
+     * @param read_packet
+     *            A function for refilling the buffer, may be <code>NULL</code>.
+     * @param write_packet
+     *            A function for writing the buffer contents, may be <code>NULL</code>.
+     * @param seek
+     *            A function for seeking to specified byte position, may be <code>NULL</code>.
+     */
+    public Pointer avio_alloc_context(Pointer buffer, int buffer_size, int write_flag, Pointer opaque,
+            ReadPacketCallback read_packet, WritePacketCallback write_packet, SeekCallback seek);
+
+    /**
+     * Function for refilling the buffer of <code>AVIOContext</code>.
+     *
+     * <p> Original signature: <code>int (*read_packet)(void *opaque, uint8_t *buf, int buf_size)</code>. </p>
+     */
+    public static interface ReadPacketCallback extends Callback {
+
+        /**
+         * @return Number of bytes read, <code>AVERROR_EOF</code> on end of input or other negative
+         *         <code>AVERROR</code> on failure.
+         */
+        public int invoke(Pointer opaque, Pointer buf, int buf_size);
+    }
+
+    /**
+     * Function for writing the buffer contents of <code>AVIOContext</code>.
+     *
+     * <p> Original signature: <code>int (*write_packet)(void *opaque, uint8_t *buf, int buf_size)</code>. </p>
+     */
+    public static interface WritePacketCallback extends Callback {
+
+        /**
+         * @return Number of bytes written or negative <code>AVERROR</code> on failure.
+         */
+        public int invoke(Pointer opaque, Pointer buf, int buf_size);
+    }
+
+    /**
+     * Function for seeking to specified byte position of <code>AVIOContext</code>.
+     *
+     * <p> Original signature: <code>int64_t (*seek)(void *opaque, int64_t offset, int whence)</code>. </p>
+     */
+    public static interface SeekCallback extends Callback {
+
+        /**
+         * @param whence
+         *            <code>SEEK_SET</code>, <code>SEEK_CUR</code>, <code>SEEK_END</code> or {@link #AVSEEK_SIZE},
+         *            can be combined with {@link #AVSEEK_FORCE}.
+         * @return New position, size of stream (for {@link #AVSEEK_SIZE}) or negative <code>AVERROR</code> on
+         *         failure.
+         */
+        public long invoke(Pointer opaque, long offset, int whence);
+    }
+
+    /**
+     * Seek to the keyframe at timestamp.
+     *
+     * <p> Original signature: <code>int av_seek_frame(AVFormatContext *s, int stream_index, int64_t timestamp, int
+     * flags)</code>. </p>
+     *
+     * @param s
+     *            Media file handle.
+     * @param stream_index
+     *            If <code>-1</code>, a default stream is selected, and timestamp is in {@link #AV_TIME_BASE} units.
+     * @param timestamp
+     *            Timestamp in <code>AVStream.time_base</code> units.
+     * @param flags
+     *            Flags which select direction and seeking mode (<code>AVSEEK_FLAG_*</code>).
+     * @return <code>&gt;= 0</code> on success.
+     */
+    public int av_seek_frame(Pointer s, int stream_index, long timestamp, int flags);
+
+    /**
+     * Allocate an <code>AVFormatContext</code> for an output format.
+     *
+     * <p> Original signature: <code>int avformat_alloc_output_context2(AVFormatContext **ctx, AVOutputFormat *oformat,
+     * const char *format_name, const char *filename)</code>. </p>
+     *
+     * @param ctx
+     *            Is set to the created format context, or to <code>NULL</code> in case of failure.
+     * @param oformat
+     *            Format to use for allocating the context, if <code>NULL</code> <code>format_name</code> and
+     *            <code>filename</code> are used instead.
+     * @param format_name
+     *            The name of output format to use, if <code>NULL</code> <code>filename</code> is used instead.
+     * @param filename
+     *            The name of the file to use for allocating the context, may be <code>NULL</code>.
+     * @return <code>&gt;= 0</code> in case of success, a negative <code>AVERROR</code> code in case of failure.
+     */
+    public int avformat_alloc_output_context2(PointerByReference ctx, Pointer oformat, String format_name,
+            String filename);
+
+    /**
+     * Add a new stream to a media file.
+     *
+     * <p> Original signature: <code>AVStream *avformat_new_stream(AVFormatContext *s, const AVCodec *c)</code>. </p>
+     *
+     * @return Pointer to new <code>AVStream</code> or <code>NULL</code> on failure.
+     */
+    public Pointer avformat_new_stream(Pointer s, Pointer c);
+
+    /**
+     * Free an <code>AVFormatContext</code> and all its streams.
+     *
+     * <p> Original signature: <code>void avformat_free_context(AVFormatContext *s)</code>. </p>
+     */
+    public void avformat_free_context(Pointer s);
+
+    /**
+     * Create and initialize an <code>AVIOContext</code> for accessing the resource indicated by url.
+     *
+     * <p> Original signature: <code>int avio_open(AVIOContext **s, const char *url, int flags)</code>. </p>
+     *
+     * @param s
+     *            Used to return the pointer to the created <code>AVIOContext</code>.
+     * @param url
+     *            Resource to access.
+     * @param flags
+     *            Flags which control how the resource indicated by url is to be opened (<code>AVIO_FLAG_*</code>).
+     * @return <code>&gt;= 0</code> in case of success, a negative <code>AVERROR</code> code in case of failure.
+     */
+    public int avio_open(PointerByReference s, String url, int flags);
+
+    /**
+     * Close the resource accessed by the <code>AVIOContext</code> and free it.
+     *
+     * <p> Original signature: <code>int avio_close(AVIOContext *s)</code>. </p>
+     *
+     * @return <code>0</code> on success, a negative <code>AVERROR</code> on failure.
+     */
+    public int avio_close(Pointer s);
+
+    /**
+     * Allocate the stream private data and write the stream header to an output media file.
+     *
+     * <p> Original signature: <code>int avformat_write_header(AVFormatContext *s, AVDictionary **options)</code>. </p>
+     *
+     * @return <code>0</code> on success, a negative <code>AVERROR</code> on failure.
+     */
+    public int avformat_write_header(Pointer s, PointerByReference options);
+
+    /**
+     * Write a packet to an output media file ensuring correct interleaving. Reference to data of packet is taken by
+     * muxer, so packet should not be released by caller.
+     *
+     * <p> Original signature: <code>int av_interleaved_write_frame(AVFormatContext *s, AVPacket *pkt)</code>. </p>
+     *
+     * @return <code>0</code> on success, a negative <code>AVERROR</code> on error.
+     */
+    public int av_interleaved_write_frame(Pointer s, Pointer pkt);
+
+    /**
+     * Write the stream trailer to an output media file and free the file private data.
+     *
+     * <p> Original signature: <code>int av_write_trailer(AVFormatContext *s)</code>. </p>
+     *
+     * @return <code>0</code> on success, a negative <code>AVERROR</code> on failure.
+     */
+    public int av_write_trailer(Pointer s);
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Direct-mapped implementation of {@link Libavformat}. Methods are bound to native symbols by
+ * {@link com.sun.jna.Native#register(Class, com.sun.jna.NativeLibrary)} and called without proxy dispatch.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class LibavformatDirect implements Libavformat {
+
+    @Override
+    public native int avformat_version();
+
+    @Override
+    public native String avformat_license();
+
+    @Override
+    public native String avformat_configuration();
+
+    @Override
+    public native void av_register_all();
+
+    @Override
+    public native int avformat_open_input(PointerByReference ps, String filename, Pointer fmt,
+            PointerByReference options);
+
+    @Override
+    public native int avformat_find_stream_info(Pointer ic, Pointer options);
+
+    @Override
+    public native int av_read_frame(Pointer s, Pointer pkt);
+
+    @Override
+    public native void avformat_close_input(PointerByReference s);
+
+    @Override
+    public native Pointer avformat_alloc_context();
+
+    @Override
+    public native Pointer avio_alloc_context(Pointer buffer, int buffer_size, int write_flag, Pointer opaque,
+            ReadPacketCallback read_packet, WritePacketCallback write_packet, SeekCallback seek);
+
+    @Override
+    public native int av_seek_frame(Pointer s, int stream_index, long timestamp, int flags);
+
+    @Override
+    public native int avformat_alloc_output_context2(PointerByReference ctx, Pointer oformat, String format_name,
+            String filename);
+
+    @Override
+    public native Pointer avformat_new_stream(Pointer s, Pointer c);
+
+    @Override
+    public native void avformat_free_context(Pointer s);
+
+    @Override
+    public native int avio_open(PointerByReference s, String url, int flags);
+
+    @Override
+    public native int avio_close(Pointer s);
+
+    @Override
+    public native int avformat_write_header(Pointer s, PointerByReference options);
+
+    @Override
+    public native int av_interleaved_write_frame(Pointer s, Pointer pkt);
+
+    @Override
+    public native int av_write_trailer(Pointer s);
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * File, mapped into memory by {@link FileChannel#map(FileChannel.MapMode, long, long)}.
+ *
+ * <p> One instance can be shared between many concurrent readers (see {@link MappedInput}): all of them use the same
+ * mapping and the same pages of OS page cache. Instance is immutable and thread-safe. </p>
+ *
+ * <p> Mapping is released by garbage collector, when instance and all readers are not referenced anymore. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class MappedFile {
+
+    /**
+     * Maximal size of one mapped region (mapping of {@link ByteBuffer} is limited by <code>int</code> size).
+     */
+    public static final int          MAX_REGION_SIZE = 1 << 30;
+
+    private final File               file;
+
+    private final long               size;
+
+    private final MappedByteBuffer[] regions;
+
+    public MappedFile(final File file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File can not be null!");
+        }
+
+        this.file = file;
+
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+
+            this.size = channel.size();
+            this.regions = new MappedByteBuffer[(int) ((this.size + MAX_REGION_SIZE - 1) / MAX_REGION_SIZE)];
+            for (int i = 0; i < this.regions.length; ++i) {
+                final long start = (long) i * MAX_REGION_SIZE;
+                final long length = Math.min(MAX_REGION_SIZE, this.size - start);
+                this.regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+        } finally {
+            // Mapping stays valid after channel is closed.
+            raf.close();
+        }
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Load whole file into physical memory (read-ahead). Useful before many concurrent readers start.
+     */
+    public void load() {
+        for (MappedByteBuffer region : this.regions) {
+            region.load();
+        }
+    }
+
+    /**
+     * Return independent views of mapped regions. Each reader should have own views, because position and limit of
+     * {@link ByteBuffer} are not thread-safe.
+     */
+    protected ByteBuffer[] duplicateRegions() {
+        final ByteBuffer[] result = new ByteBuffer[this.regions.length];
+        for (int i = 0; i < this.regions.length; ++i) {
+            result[i] = this.regions[i].duplicate();
+        }
+
+        return result;
+    }
+}
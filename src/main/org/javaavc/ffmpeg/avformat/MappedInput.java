@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.javaavc.JavaAVC;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Input, that reads {@link MappedFile} through custom <code>AVIOContext</code>, without FFmpeg file protocol.
+ *
+ * <p> Usage: <pre>
+ * final MappedFile file = new MappedFile(new File("input.mp4")); // Can be shared between threads.
+ * try (Demuxer demuxer = new Demuxer(avc, new MappedInput(avc, file), null)) {
+ *     // Read packets.
+ * }
+ * </pre> </p>
+ *
+ * <p> Seek only changes position (no system calls). Read copies data from mapped memory into I/O buffer of FFmpeg,
+ * size of buffer defines how many bytes are read at once. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class MappedInput extends CustomInput {
+
+    private final MappedFile   file;
+
+    private final ByteBuffer[] regions;
+
+    private long               position;
+
+    public MappedInput(final JavaAVC avc, final MappedFile file) {
+        this(avc, file, DEFAULT_BUFFER_SIZE);
+    }
+
+    public MappedInput(final JavaAVC avc, final MappedFile file, final int bufferSize) {
+        super(avc, bufferSize);
+
+        this.file = file;
+        this.regions = file.duplicateRegions();
+    }
+
+    public MappedFile getFile() {
+        return this.file;
+    }
+
+    @Override
+    public String getName() {
+        return this.file.getFile().getPath();
+    }
+
+    @Override
+    protected int read(final Pointer buffer, final int size) throws IOException {
+        final long remaining = this.file.size() - this.position;
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        final ByteBuffer dst = buffer.getByteBuffer(0, (int) Math.min(size, remaining));
+        while (dst.hasRemaining()) {
+            final ByteBuffer region = this.regions[(int) (this.position / MappedFile.MAX_REGION_SIZE)];
+            final int regionPos = (int) (this.position % MappedFile.MAX_REGION_SIZE);
+            final int length = Math.min(dst.remaining(), region.capacity() - regionPos);
+
+            region.limit(regionPos + length);
+            region.position(regionPos);
+            dst.put(region);
+
+            this.position += length;
+        }
+
+        return dst.position();
+    }
+
+    @Override
+    protected void seek(final long position) throws IOException {
+        this.position = position;
+    }
+
+    @Override
+    protected long size() throws IOException {
+        return this.file.size();
+    }
+}
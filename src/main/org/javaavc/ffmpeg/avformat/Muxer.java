@@ -0,0 +1,308 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.FFmpegException;
+import org.javaavc.ffmpeg.avcodec.AVCodecContext;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avutil.AVRational;
+import org.javaavc.ffmpeg.avutil.Dictionary;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Muxing session: create output, add streams, write header, packets and trailer.
+ *
+ * <p> Usage: <pre>
+ * try (Muxer muxer = new Muxer(avc, "output.mkv")) {
+ *     final int index = muxer.addStream(encoder.getContext(), encoder.getTimeBase());
+ *     muxer.writeHeader(null);
+ *     // For each packet.
+ *     muxer.write(packet, index);
+ *     muxer.writeTrailer();
+ * }
+ * </pre> </p>
+ *
+ * <p> Output is opened by FFmpeg protocols or written through {@link CustomOutput} (for example, {@link FileOutput}
+ * with large I/O buffer). </p>
+ *
+ * <p> Packets are written with interleaving by FFmpeg. Written packet stays unchanged and belongs to caller (muxer
+ * takes own reference to data). </p>
+ *
+ * <p> Muxer is not thread-safe. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/group__lavf__encoding.html">Muxing --
+ * FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Muxer implements Closeable {
+
+    protected final JavaAVC          avc;
+
+    protected final String           url;
+
+    protected final Pointer          context;
+
+    protected final AVOutputFormat   format;
+
+    protected final CustomOutput     output;
+
+    protected final List<AVRational> sourceTimeBases = new ArrayList<AVRational>();
+
+    protected AVRational[]           streamTimeBases;
+
+    /*
+     * Copy of written packet: muxer takes ownership of data of packet, while original packet belongs to caller.
+     */
+    private final Packet             scratch;
+
+    private boolean                  ioOpened;
+
+    private boolean                  trailerWritten;
+
+    public Muxer(final JavaAVC avc, final String url) throws IOException {
+        this(avc, url, null);
+    }
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param url
+     *            File name or URL of output.
+     * @param formatName
+     *            Name of output format (see <code>ffmpeg -muxers</code>) or <code>null</code> for guess it by file
+     *            name.
+     */
+    public Muxer(final JavaAVC avc, final String url, final String formatName) throws IOException {
+        this(avc, null, url, formatName);
+    }
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param output
+     *            Custom output.
+     * @param formatName
+     *            Name of output format (see <code>ffmpeg -muxers</code>) or <code>null</code> for guess it by name of
+     *            output.
+     */
+    public Muxer(final JavaAVC avc, final CustomOutput output, final String formatName) throws IOException {
+        this(avc, output, output.getName(), formatName);
+    }
+
+    /**
+     * @param output
+     *            Custom output or <code>null</code> for use FFmpeg protocols.
+     * @param url
+     *            URL of output. For custom output it is used only as hint for format detection.
+     */
+    protected Muxer(final JavaAVC avc, final CustomOutput output, final String url, final String formatName)
+            throws IOException {
+        this.avc = avc;
+        this.output = output;
+        this.url = url;
+
+        final PointerByReference contextRef = new PointerByReference();
+        try {
+            FFmpegException.check(avc.getAvutil(),
+                    avc.getAvformat().avformat_alloc_output_context2(contextRef, null, formatName, url),
+                    "avformat_alloc_output_context2");
+        } catch (IOException e) {
+            if (output != null) {
+                output.close();
+            }
+            throw e;
+        }
+        this.context = contextRef.getValue();
+        this.format = new AVOutputFormat(new AVFormatContext(this.context).oformat);
+
+        this.scratch = new Packet(avc.getAvcodec());
+    }
+
+    /**
+     * Return pointer to native <code>AVFormatContext</code>.
+     */
+    public Pointer getContext() {
+        return this.context;
+    }
+
+    public String getFormatName() {
+        return this.format.name;
+    }
+
+    /**
+     * Return <code>true</code> if output format wants global headers, so encoders should be configured with
+     * {@link org.javaavc.ffmpeg.avcodec.Encoder#setGlobalHeader(boolean)}.
+     */
+    public boolean isGlobalHeader() {
+        return (this.format.flags & Libavformat.AVFMT_GLOBALHEADER) != 0;
+    }
+
+    /**
+     * Add stream with parameters, copied from codec context (of opened encoder or of input stream for stream copy).
+     *
+     * @param codecContext
+     *            Pointer to source <code>AVCodecContext</code>.
+     * @param timeBase
+     *            Time base of packets, which will be written into this stream.
+     * @return Index of new stream.
+     */
+    public int addStream(final Pointer codecContext, final AVRational timeBase) throws IOException {
+        if (this.streamTimeBases != null) {
+            throw new IllegalStateException("Header is already written!");
+        }
+
+        final Pointer stream = this.avc.getAvformat().avformat_new_stream(this.context, null);
+        if (stream == null) {
+            throw new OutOfMemoryError("Can not allocate AVStream!");
+        }
+        final AVStream st = new AVStream(stream);
+
+        FFmpegException.check(this.avc.getAvutil(), this.avc.getAvcodec().avcodec_copy_context(st.codec, codecContext),
+                "avcodec_copy_context");
+
+        // Let muxer choose tag, tag of input container can be incompatible with output one.
+        final AVCodecContext cc = new AVCodecContext(st.codec);
+        cc.codec_tag = 0;
+        cc.writeField("codec_tag");
+        if (isGlobalHeader()) {
+            cc.flags |= AVCodecContext.CODEC_FLAG_GLOBAL_HEADER;
+            cc.writeField("flags");
+        }
+
+        // Hint for muxer, it can choose another time base.
+        st.time_base.num = timeBase.num;
+        st.time_base.den = timeBase.den;
+        st.writeField("time_base");
+
+        this.sourceTimeBases.add(new AVRational(timeBase.num, timeBase.den));
+
+        return st.index;
+    }
+
+    /**
+     * Open output and write header. Streams can not be added after that.
+     *
+     * @param options
+     *            Options of muxer (see <code>ffmpeg -h muxer=...</code>), can be <code>null</code>.
+     */
+    public void writeHeader(final Map<String, String> options) throws IOException {
+        if (this.streamTimeBases != null) {
+            throw new IllegalStateException("Header is already written!");
+        }
+
+        final AVFormatContext fc = new AVFormatContext(this.context);
+        if ((this.format.flags & Libavformat.AVFMT_NOFILE) == 0) {
+            if (this.output != null) {
+                fc.pb = this.output.getContext();
+            } else {
+                final PointerByReference pb = new PointerByReference();
+                FFmpegException.check(this.avc.getAvutil(), this.avc.getAvformat().avio_open(pb, this.url,
+                        Libavformat.AVIO_FLAG_WRITE), "avio_open");
+                this.ioOpened = true;
+
+                fc.pb = pb.getValue();
+            }
+            fc.writeField("pb");
+        }
+
+        final PointerByReference dict = Dictionary.create(this.avc.getAvutil(), options);
+        try {
+            FFmpegException.check(this.avc.getAvutil(),
+                    this.avc.getAvformat().avformat_write_header(this.context, dict), "avformat_write_header");
+        } finally {
+            Dictionary.free(this.avc.getAvutil(), dict);
+        }
+
+        // Muxer can change time bases of streams in header.
+        final Pointer[] streams = new AVFormatContext(this.context).getStreams();
+        this.streamTimeBases = new AVRational[streams.length];
+        for (int i = 0; i < streams.length; ++i) {
+            final AVStream st = new AVStream(streams[i]);
+            this.streamTimeBases[i] = new AVRational(st.time_base.num, st.time_base.den);
+        }
+    }
+
+    /**
+     * Write packet into stream. Timestamps of packet should be in time base, passed to
+     * {@link #addStream(Pointer, AVRational)}. Packet itself is not changed.
+     */
+    public void write(final Packet packet, final int streamIndex) throws IOException {
+        if (this.streamTimeBases == null) {
+            throw new IllegalStateException("Header is not written!");
+        }
+        if (streamIndex < 0 || streamIndex >= this.streamTimeBases.length) {
+            throw new IllegalArgumentException(String.format("Incorrect stream index: %d!", streamIndex));
+        }
+
+        FFmpegException.check(this.avc.getAvutil(),
+                this.avc.getAvcodec().av_copy_packet(this.scratch.getPointer(), packet.getPointer()), "av_copy_packet");
+        try {
+            this.scratch.setStreamIndex(streamIndex);
+            this.scratch.rescaleTimestamps(this.avc.getAvutil(), this.sourceTimeBases.get(streamIndex),
+                    this.streamTimeBases[streamIndex]);
+
+            FFmpegException.check(this.avc.getAvutil(),
+                    this.avc.getAvformat().av_interleaved_write_frame(this.context, this.scratch.getPointer()),
+                    "av_interleaved_write_frame");
+        } finally {
+            // Data of copy belongs to muxer now.
+            this.scratch.detach();
+        }
+    }
+
+    /**
+     * Flush interleaved packets and write trailer.
+     */
+    public void writeTrailer() throws IOException {
+        if (this.streamTimeBases == null) {
+            throw new IllegalStateException("Header is not written!");
+        }
+        if (!this.trailerWritten) {
+            this.trailerWritten = true;
+            FFmpegException.check(this.avc.getAvutil(), this.avc.getAvformat().av_write_trailer(this.context),
+                    "av_write_trailer");
+        }
+    }
+
+    /**
+     * Close output and release context. Custom output (if any) is closed too. Trailer is not written automatically, so
+     * output is incomplete unless {@link #writeTrailer()} was called.
+     */
+    @Override
+    public void close() {
+        if (this.ioOpened) {
+            this.ioOpened = false;
+            this.avc.getAvformat().avio_close(new AVFormatContext(this.context).pb);
+        }
+        this.avc.getAvformat().avformat_free_context(this.context);
+        if (this.output != null) {
+            this.output.close();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import org.javaavc.ffmpeg.avcodec.AVCodecContext;
+import org.javaavc.ffmpeg.avcodec.Libavcodec;
+import org.javaavc.ffmpeg.avutil.AVRational;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.LongByReference;
+
+/**
+ * Description of stream of opened input. Values are read once, when input is opened.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class StreamInfo {
+
+    private final Pointer   stream;
+
+    private final Pointer   codecContext;
+
+    private final int       index;
+
+    private final MediaType mediaType;
+
+    private final int       codecId;
+
+    private final String    codecName;
+
+    private final int       timeBaseNum;
+
+    private final int       timeBaseDen;
+
+    private final long      startTime;
+
+    private final long      duration;
+
+    private final long      frames;
+
+    private final double    frameRate;
+
+    private final int       frameRateNum;
+
+    private final int       frameRateDen;
+
+    private final int       bitRate;
+
+    private final int       width;
+
+    private final int       height;
+
+    private final int       pixelFormat;
+
+    private final int       sampleRate;
+
+    private final int       channels;
+
+    private final long      channelLayout;
+
+    private final int       sampleFormat;
+
+    protected StreamInfo(final Libavutil avutil, final Libavcodec avcodec, final Pointer stream) {
+        final AVStream st = new AVStream(stream);
+        final AVCodecContext cc = new AVCodecContext(st.codec);
+
+        this.stream = stream;
+        this.codecContext = st.codec;
+
+        this.index = st.index;
+        this.mediaType = MediaType.valueOf(cc.codec_type);
+        this.codecId = cc.codec_id;
+        this.codecName = avcodec.avcodec_get_name(cc.codec_id);
+
+        this.timeBaseNum = st.time_base.num;
+        this.timeBaseDen = st.time_base.den;
+        this.startTime = st.start_time;
+        this.duration = st.duration;
+        this.frames = st.nb_frames;
+        this.frameRate = st.avg_frame_rate.doubleValue();
+        this.frameRateNum = st.avg_frame_rate.num;
+        this.frameRateDen = st.avg_frame_rate.den;
+        this.bitRate = cc.bit_rate;
+
+        this.width = cc.width;
+        this.height = cc.height;
+        this.pixelFormat = cc.pix_fmt;
+
+        this.sampleRate = (int) getOption(avutil, st.codec, "ar");
+        this.channels = (int) getOption(avutil, st.codec, "ac");
+        this.channelLayout = getOption(avutil, st.codec, "channel_layout");
+        this.sampleFormat = (int) getOption(avutil, st.codec, "sample_fmt");
+    }
+
+    private static long getOption(final Libavutil avutil, final Pointer obj, final String name) {
+        final LongByReference value = new LongByReference();
+        if (avutil.av_opt_get_int(obj, name, 0, value) < 0) {
+            return -1;
+        }
+
+        return value.getValue();
+    }
+
+    /**
+     * Return pointer to native <code>AVStream</code>.
+     */
+    public Pointer getStream() {
+        return this.stream;
+    }
+
+    /**
+     * Return pointer to native <code>AVCodecContext</code> of stream.
+     */
+    public Pointer getCodecContext() {
+        return this.codecContext;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public MediaType getMediaType() {
+        return this.mediaType;
+    }
+
+    /**
+     * Return value of <code>enum AVCodecID</code>.
+     */
+    public int getCodecId() {
+        return this.codecId;
+    }
+
+    public String getCodecName() {
+        return this.codecName;
+    }
+
+    /**
+     * Return time base, used for timestamps of packets of this stream.
+     */
+    public AVRational getTimeBase() {
+        return new AVRational(this.timeBaseNum, this.timeBaseDen);
+    }
+
+    /**
+     * Return start time in time base units or {@link Libavformat#AV_NOPTS_VALUE}.
+     */
+    public long getStartTime() {
+        return this.startTime;
+    }
+
+    /**
+     * Return duration in time base units or {@link Libavformat#AV_NOPTS_VALUE}.
+     */
+    public long getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * Return duration in seconds or <code>-1</code> if unknown.
+     */
+    public double getDurationSeconds() {
+        if (this.duration == Libavformat.AV_NOPTS_VALUE) {
+            return -1.0;
+        }
+
+        return this.duration * getTimeBase().doubleValue();
+    }
+
+    /**
+     * Return number of frames or <code>0</code> if unknown.
+     */
+    public long getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * Return average frame rate or <code>0</code> if unknown.
+     */
+    public double getFrameRate() {
+        return this.frameRate;
+    }
+
+    /**
+     * Return average frame rate as rational or <code>0/0</code> if unknown.
+     */
+    public AVRational getAverageFrameRate() {
+        return new AVRational(this.frameRateNum, this.frameRateDen);
+    }
+
+    public int getBitRate() {
+        return this.bitRate;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Return value of <code>enum AVPixelFormat</code>.
+     */
+    public int getPixelFormat() {
+        return this.pixelFormat;
+    }
+
+    public int getSampleRate() {
+        return this.sampleRate;
+    }
+
+    public int getChannels() {
+        return this.channels;
+    }
+
+    /**
+     * Return channel layout (<code>AV_CH_*</code> mask) of codec, <code>0</code> if layout is unknown or
+     * <code>-1</code> if it is not available.
+     */
+    public long getChannelLayout() {
+        return this.channelLayout;
+    }
+
+    /**
+     * Return value of <code>enum AVSampleFormat</code>.
+     */
+    public int getSampleFormat() {
+        return this.sampleFormat;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s %s", this.index, this.mediaType, this.codecName);
+    }
+}
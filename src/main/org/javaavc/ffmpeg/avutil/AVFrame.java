@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avutil;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Describes decoded (raw) audio or video data (FFmpeg 2.2 layout).
+ *
+ * <p> <strong>Only leading fields (up to <code>pkt_dts</code>) are mapped.</strong> Never allocate this structure
+ * from Java, use <code>av_frame_alloc()</code>. This structure is used mostly as description of memory layout: offsets
+ * of fields are published as constants, so {@link Frame} can read fields without {@link Structure#read()}. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/structAVFrame.html">AVFrame Struct
+ * Reference -- FFmpeg Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVFrame extends Structure {
+
+    /**
+     * Value of <code>AV_NUM_DATA_POINTERS</code> macro.
+     */
+    public static final int AV_NUM_DATA_POINTERS = 8;
+
+    /**
+     * Value of <code>AV_PICTURE_TYPE_NONE</code>: undefined picture type.
+     */
+    public static final int AV_PICTURE_TYPE_NONE = 0;
+
+    public Pointer[]        data                 = new Pointer[AV_NUM_DATA_POINTERS];
+
+    public int[]            linesize             = new int[AV_NUM_DATA_POINTERS];
+
+    public Pointer          extended_data;
+
+    public int              width;
+
+    public int              height;
+
+    public int              nb_samples;
+
+    public int              format;
+
+    public int              key_frame;
+
+    public int              pict_type;
+
+    public Pointer[]        base                 = new Pointer[AV_NUM_DATA_POINTERS];
+
+    public AVRational       sample_aspect_ratio;
+
+    public long             pts;
+
+    public long             pkt_pts;
+
+    public long             pkt_dts;
+
+    public static final int OFFSET_DATA;
+
+    public static final int OFFSET_LINESIZE;
+
+    public static final int OFFSET_EXTENDED_DATA;
+
+    public static final int OFFSET_WIDTH;
+
+    public static final int OFFSET_HEIGHT;
+
+    public static final int OFFSET_NB_SAMPLES;
+
+    public static final int OFFSET_FORMAT;
+
+    public static final int OFFSET_KEY_FRAME;
+
+    public static final int OFFSET_PICT_TYPE;
+
+    public static final int OFFSET_PTS;
+
+    public static final int OFFSET_PKT_DTS;
+
+    static {
+        final AVFrame layout = new AVFrame();
+        OFFSET_DATA = layout.fieldOffset("data");
+        OFFSET_LINESIZE = layout.fieldOffset("linesize");
+        OFFSET_EXTENDED_DATA = layout.fieldOffset("extended_data");
+        OFFSET_WIDTH = layout.fieldOffset("width");
+        OFFSET_HEIGHT = layout.fieldOffset("height");
+        OFFSET_NB_SAMPLES = layout.fieldOffset("nb_samples");
+        OFFSET_FORMAT = layout.fieldOffset("format");
+        OFFSET_KEY_FRAME = layout.fieldOffset("key_frame");
+        OFFSET_PICT_TYPE = layout.fieldOffset("pict_type");
+        OFFSET_PTS = layout.fieldOffset("pts");
+        OFFSET_PKT_DTS = layout.fieldOffset("pkt_dts");
+    }
+
+    public AVFrame() {
+        super();
+    }
+
+    public AVFrame(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        //@formatter:off
+        return Arrays.asList(
+                "data", "linesize", "extended_data", "width", "height", "nb_samples", "format", "key_frame",
+                "pict_type", "base", "sample_aspect_ratio", "pts", "pkt_pts", "pkt_dts"
+            );
+        //@formatter:on
+    }
+}
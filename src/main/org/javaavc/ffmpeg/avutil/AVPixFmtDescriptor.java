@@ -0,0 +1,60 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avutil;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Descriptor that unambiguously describes how the bits of a pixel are stored in the up to 4 data planes of an image.
+ *
+ * <p> <strong>Only leading fields (up to <code>log2_chroma_h</code>) are mapped.</strong> Instances should be
+ * obtained by <code>av_pix_fmt_desc_get()</code>. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVPixFmtDescriptor extends Structure {
+
+    public String name;
+
+    public byte   nb_components;
+
+    /**
+     * Amount to shift the luma width right to find the chroma width.
+     */
+    public byte   log2_chroma_w;
+
+    /**
+     * Amount to shift the luma height right to find the chroma height.
+     */
+    public byte   log2_chroma_h;
+
+    public AVPixFmtDescriptor(final Pointer p) {
+        super(p);
+        read();
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        return Arrays.asList("name", "nb_components", "log2_chroma_w", "log2_chroma_h");
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avutil;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.sun.jna.Structure;
+
+/**
+ * Rational number (pair of numerator and denominator).
+ *
+ * <p> Original signature: <code>typedef struct AVRational { int num; int den; } AVRational</code>. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class AVRational extends Structure {
+
+    public int num;
+
+    public int den;
+
+    public AVRational() {
+        super();
+    }
+
+    public AVRational(final int num, final int den) {
+        super();
+        this.num = num;
+        this.den = den;
+    }
+
+    @Override
+    protected List<String> getFieldOrder() {
+        return Arrays.asList("num", "den");
+    }
+
+    /**
+     * Convert rational to <code>double</code>. Return <code>0</code> if denominator is <code>0</code>.
+     */
+    public double doubleValue() {
+        return this.den == 0 ? 0.0 : (double) this.num / this.den;
+    }
+
+    /**
+     * Rescale value from one time base to another with rounding to nearest (like <code>av_rescale_q()</code>).
+     * Undefined timestamp (<code>AV_NOPTS_VALUE</code>) is passed unchanged.
+     */
+    public static long rescale(final Libavutil avutil, final long value, final AVRational from,
+            final AVRational to) {
+        return avutil.av_rescale_rnd(value, (long) from.num * to.den, (long) to.num * from.den,
+                Libavutil.AV_ROUND_NEAR_INF | Libavutil.AV_ROUND_PASS_MINMAX);
+    }
+
+    @Override
+    public String toString() {
+        return this.num + "/" + this.den;
+    }
+
+    public static class ByValue extends AVRational implements Structure.ByValue {
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avutil;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import org.javaavc.platform.NativeSize;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+/**
+ * Bounded pool of native buffers for frames and packets. Memory is allocated by <code>av_malloc()</code>, so it is
+ * aligned for SIMD code of FFmpeg.
+ *
+ * <p> Released buffers are kept in free lists, one list per {@link Key} (size, or resolution and pixel format for
+ * images), and are reused by next acquire with the same key. Limits: </p>
+ * <ul>
+ * <li><code>maxBytes</code> -- total size of all buffers (used and idle). If new buffer does not fit, idle buffers
+ * are evicted; if it still does not fit, {@link IllegalStateException} is thrown.</li>
+ * <li><code>maxIdleBytes</code> -- size of idle buffers. The least recently released buffers are evicted first.</li>
+ * <li><code>maxIdlePerKey</code> -- number of idle buffers in one free list.</li>
+ * </ul>
+ *
+ * <p> Pool is thread-safe. Statistics (hits, misses, evictions, used and idle sizes) can be read at any time. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class BufferPool implements Closeable {
+
+    /**
+     * Alignment of image line sizes.
+     */
+    public static final int                          LINE_ALIGN = 32;
+
+    private final Libavutil                          avutil;
+
+    private final long                               maxBytes;
+
+    private final long                               maxIdleBytes;
+
+    private final int                                maxIdlePerKey;
+
+    private final Map<Key, ArrayDeque<PooledBuffer>> free       = new HashMap<Key, ArrayDeque<PooledBuffer>>();
+
+    /*
+     * All idle buffers in order of release (oldest first), used for eviction.
+     */
+    private final LinkedHashSet<PooledBuffer>        idle       = new LinkedHashSet<PooledBuffer>();
+
+    private long                                     usedBytes;
+
+    private int                                      usedBuffers;
+
+    private long                                     idleBytes;
+
+    private long                                     hits;
+
+    private long                                     misses;
+
+    private long                                     evictions;
+
+    private boolean                                  closed;
+
+    /**
+     * @param avutil
+     *            Library for allocate memory.
+     * @param maxBytes
+     *            Limit of total size of all buffers (used and idle).
+     * @param maxIdleBytes
+     *            Limit of total size of idle buffers.
+     * @param maxIdlePerKey
+     *            Limit of number of idle buffers with the same key.
+     */
+    public BufferPool(final Libavutil avutil, final long maxBytes, final long maxIdleBytes, final int maxIdlePerKey) {
+        if (maxBytes <= 0 || maxIdleBytes < 0 || maxIdlePerKey < 0) {
+            throw new IllegalArgumentException("Pool limits should be positive!");
+        }
+
+        this.avutil = avutil;
+        this.maxBytes = maxBytes;
+        this.maxIdleBytes = Math.min(maxIdleBytes, maxBytes);
+        this.maxIdlePerKey = maxIdlePerKey;
+    }
+
+    /**
+     * Acquire buffer of given size (for example, for packet data).
+     */
+    public PooledBuffer acquire(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect buffer size: %d!", size));
+        }
+
+        return acquire(new Key(size, 0, 0, -1), new int[0], new long[0]);
+    }
+
+    /**
+     * Acquire buffer for image. Planes are placed one after another, line sizes are aligned to {@link #LINE_ALIGN}.
+     *
+     * @param width
+     *            Width of image.
+     * @param height
+     *            Height of image.
+     * @param pixelFormat
+     *            Value of <code>enum AVPixelFormat</code>.
+     */
+    public PooledBuffer acquireImage(final int width, final int height, final int pixelFormat) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect image size: %dx%d!", width, height));
+        }
+
+        final int[] lineSizes = new int[4];
+        checkImageCall(this.avutil.av_image_fill_linesizes(lineSizes, pixelFormat, align(width, LINE_ALIGN)));
+        for (int i = 0; i < lineSizes.length; ++i) {
+            lineSizes[i] = align(lineSizes[i], LINE_ALIGN);
+        }
+
+        final Memory planes = new Memory(4 * Pointer.SIZE);
+        final int size = checkImageCall(this.avutil.av_image_fill_pointers(planes, pixelFormat, height, null,
+                lineSizes));
+
+        // Pointers for NULL base are offsets of planes; unused planes are NULL (first plane is always used).
+        final long[] planeOffsets = new long[4];
+        for (int i = 0; i < planeOffsets.length; ++i) {
+            final Pointer plane = planes.getPointer(i * Pointer.SIZE);
+            planeOffsets[i] = i == 0 ? 0 : plane != null ? Pointer.nativeValue(plane) : -1;
+        }
+
+        return acquire(new Key(size, width, height, pixelFormat), lineSizes, planeOffsets);
+    }
+
+    private static int checkImageCall(final int ret) {
+        if (ret < 0) {
+            throw new IllegalArgumentException("Unsupported image format or size!");
+        }
+
+        return ret;
+    }
+
+    private static int align(final int value, final int align) {
+        return (value + align - 1) & ~(align - 1);
+    }
+
+    private PooledBuffer acquire(final Key key, final int[] lineSizes, final long[] planeOffsets) {
+        synchronized (this) {
+            if (this.closed) {
+                throw new IllegalStateException("Pool was closed!");
+            }
+
+            // Reuse idle buffer.
+            final ArrayDeque<PooledBuffer> list = this.free.get(key);
+            if (list != null && !list.isEmpty()) {
+                final PooledBuffer buffer = list.pollLast();
+                this.idle.remove(buffer);
+                this.idleBytes -= key.getSize();
+                markUsed(buffer);
+                ++this.hits;
+
+                return buffer;
+            }
+
+            // Make space for new buffer.
+            while (this.usedBytes + this.idleBytes + key.getSize() > this.maxBytes && !this.idle.isEmpty()) {
+                evictOldest();
+            }
+            if (this.usedBytes + this.idleBytes + key.getSize() > this.maxBytes) {
+                throw new IllegalStateException(String.format("Pool limit %d bytes is exceeded!", this.maxBytes));
+            }
+
+            // Reserve space before allocation.
+            this.usedBytes += key.getSize();
+            ++this.usedBuffers;
+            ++this.misses;
+        }
+
+        final Pointer data = this.avutil.av_malloc(new NativeSize(key.getSize()));
+        if (data == null) {
+            synchronized (this) {
+                this.usedBytes -= key.getSize();
+                --this.usedBuffers;
+            }
+            throw new OutOfMemoryError(String.format("Can not allocate %d bytes!", key.getSize()));
+        }
+
+        final PooledBuffer buffer = new PooledBuffer(this, key, data, lineSizes, planeOffsets);
+        buffer.acquired();
+
+        return buffer;
+    }
+
+    private void markUsed(final PooledBuffer buffer) {
+        this.usedBytes += buffer.getSize();
+        ++this.usedBuffers;
+        buffer.acquired();
+    }
+
+    private void evictOldest() {
+        final Iterator<PooledBuffer> it = this.idle.iterator();
+        final PooledBuffer buffer = it.next();
+        it.remove();
+
+        this.free.get(buffer.getKey()).remove(buffer);
+        this.idleBytes -= buffer.getSize();
+        ++this.evictions;
+
+        this.avutil.av_free(buffer.getPointer());
+    }
+
+    /**
+     * Return buffer to pool, called on last release.
+     */
+    void recycle(final PooledBuffer buffer) {
+        final Key key = buffer.getKey();
+
+        synchronized (this) {
+            this.usedBytes -= key.getSize();
+            --this.usedBuffers;
+
+            if (!this.closed && key.getSize() <= this.maxIdleBytes) {
+                ArrayDeque<PooledBuffer> list = this.free.get(key);
+                if (list == null) {
+                    list = new ArrayDeque<PooledBuffer>();
+                    this.free.put(key, list);
+                }
+
+                if (list.size() < this.maxIdlePerKey) {
+                    list.addLast(buffer);
+                    this.idle.add(buffer);
+                    this.idleBytes += key.getSize();
+
+                    while (this.idleBytes > this.maxIdleBytes) {
+                        evictOldest();
+                    }
+
+                    return;
+                }
+            }
+        }
+
+        this.avutil.av_free(buffer.getPointer());
+    }
+
+    /**
+     * Free all idle buffers.
+     */
+    public synchronized void trim() {
+        while (!this.idle.isEmpty()) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Free all idle buffers. Used buffers will be freed on last release.
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        trim();
+    }
+
+    /**
+     * Return number of acquires, served from free lists.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Return number of acquires, that allocated new buffers.
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Return number of idle buffers, freed because of limits (or {@link #trim()}).
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    public synchronized long getUsedBytes() {
+        return this.usedBytes;
+    }
+
+    public synchronized int getUsedBuffers() {
+        return this.usedBuffers;
+    }
+
+    public synchronized long getIdleBytes() {
+        return this.idleBytes;
+    }
+
+    public synchronized int getIdleBuffers() {
+        return this.idle.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        //@formatter:off
+        return String.format(
+                "BufferPool [used = %d (%d bytes), idle = %d (%d bytes), hits = %d, misses = %d, evictions = %d]",
+                this.usedBuffers, this.usedBytes, this.idle.size(), this.idleBytes,
+                this.hits, this.misses, this.evictions
+            );
+        //@formatter:on
+    }
+
+    /**
+     * Key of free list: size of buffer and (for images) resolution and pixel format.
+     */
+    public static final class Key {
+
+        private final int size;
+
+        private final int width;
+
+        private final int height;
+
+        private final int format;
+
+        public Key(final int size, final int width, final int height, final int format) {
+            this.size = size;
+            this.width = width;
+            this.height = height;
+            this.format = format;
+        }
+
+        public int getSize() {
+            return this.size;
+        }
+
+        public int getWidth() {
+            return this.width;
+        }
+
+        public int getHeight() {
+            return this.height;
+        }
+
+        /**
+         * Return value of <code>enum AVPixelFormat</code> or <code>-1</code> for not image buffers.
+         */
+        public int getFormat() {
+            return this.format;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.size;
+            result = 31 * result + this.width;
+            result = 31 * result + this.height;
+            result = 31 * result + this.format;
+
+            return result;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            final Key other = (Key) obj;
+            return this.size == other.size && this.width == other.width && this.height == other.height
+                    && this.format == other.format;
+        }
+
+        @Override
+        public String toString() {
+            if (this.format < 0) {
+                return String.format("%d bytes", this.size);
+            }
+
+            return String.format("%dx%d, format %d, %d bytes", this.width, this.height, this.format, this.size);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avutil;
+
+import java.util.Map;
+
+import org.javaavc.ffmpeg.FFmpegException;
+
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Helper for convert Java maps to <code>AVDictionary</code>, that used for pass options to FFmpeg.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public final class Dictionary {
+
+    private Dictionary() {
+    }
+
+    /**
+     * Create new <code>AVDictionary</code> with given values. Result should be released by
+     * {@link #free(Libavutil, PointerByReference)}.
+     *
+     * @return Reference to dictionary (reference to <code>NULL</code> if values are empty).
+     */
+    public static PointerByReference create(final Libavutil avutil, final Map<String, String> values)
+            throws FFmpegException {
+        final PointerByReference dict = new PointerByReference();
+
+        if (values != null) {
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                final int ret = avutil.av_dict_set(dict, entry.getKey(), entry.getValue(), 0);
+                if (ret < 0) {
+                    avutil.av_dict_free(dict);
+                    FFmpegException.check(avutil, ret, "av_dict_set");
+                }
+            }
+        }
+
+        return dict;
+    }
+
+    /**
+     * Release dictionary, created by {@link #create(Libavutil, Map)}. Entries that were not consumed by FFmpeg are
+     * released too.
+     */
+    public static void free(final Libavutil avutil, final PointerByReference dict) {
+        if (dict != null && dict.getValue() != null) {
+            avutil.av_dict_free(dict);
+        }
+    }
+}
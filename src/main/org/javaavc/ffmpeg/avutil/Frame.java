@@ -0,0 +1,277 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avutil;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Reusable native <code>AVFrame</code> with zero-copy access to planes.
+ *
+ * <p> Planes are returned as direct {@link ByteBuffer} views over native memory of the frame, nothing is copied into
+ * Java heap. </p>
+ *
+ * <p> <strong>Lifetime:</strong> views returned by {@link #getPlane(int)} are valid only while the frame holds its
+ * data, i.e. until {@link #unref()}, {@link #close()} or next decode into this frame. After that views point to
+ * released (or reused) native memory and must not be accessed. Copy data if it is needed longer. </p>
+ *
+ * <p> Frame is not thread-safe. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Frame implements Closeable {
+
+    private final Libavutil          avutil;
+
+    private final PointerByReference frameRef;
+
+    private final Pointer            frame;
+
+    private final ByteBuffer[]       planes = new ByteBuffer[AVFrame.AV_NUM_DATA_POINTERS];
+
+    public Frame(final Libavutil avutil) {
+        this.avutil = avutil;
+
+        this.frame = avutil.av_frame_alloc();
+        if (this.frame == null) {
+            throw new OutOfMemoryError("Can not allocate AVFrame!");
+        }
+        this.frameRef = new PointerByReference(this.frame);
+    }
+
+    /**
+     * Return pointer to native <code>AVFrame</code>.
+     */
+    public Pointer getPointer() {
+        return this.frame;
+    }
+
+    public int getWidth() {
+        return this.frame.getInt(AVFrame.OFFSET_WIDTH);
+    }
+
+    public int getHeight() {
+        return this.frame.getInt(AVFrame.OFFSET_HEIGHT);
+    }
+
+    /**
+     * Return number of audio samples (per channel).
+     */
+    public int getSamples() {
+        return this.frame.getInt(AVFrame.OFFSET_NB_SAMPLES);
+    }
+
+    public int getChannels() {
+        return this.avutil.av_frame_get_channels(this.frame);
+    }
+
+    /**
+     * Return channel layout of audio (<code>AV_CH_*</code> bit mask) or <code>0</code> if it is unknown.
+     */
+    public long getChannelLayout() {
+        return this.avutil.av_frame_get_channel_layout(this.frame);
+    }
+
+    /**
+     * Return sample rate of audio.
+     */
+    public int getSampleRate() {
+        return this.avutil.av_frame_get_sample_rate(this.frame);
+    }
+
+    /**
+     * Return value of <code>enum AVPixelFormat</code> for video or <code>enum AVSampleFormat</code> for audio.
+     */
+    public int getFormat() {
+        return this.frame.getInt(AVFrame.OFFSET_FORMAT);
+    }
+
+    public boolean isKeyFrame() {
+        return this.frame.getInt(AVFrame.OFFSET_KEY_FRAME) != 0;
+    }
+
+    /**
+     * Return value of <code>enum AVPictureType</code>.
+     */
+    public int getPictureType() {
+        return this.frame.getInt(AVFrame.OFFSET_PICT_TYPE);
+    }
+
+    /**
+     * Set value of <code>enum AVPictureType</code>. Encoders use it as hint, so decoded frames should be reset to
+     * {@link AVFrame#AV_PICTURE_TYPE_NONE} before encoding.
+     */
+    public void setPictureType(final int type) {
+        this.frame.setInt(AVFrame.OFFSET_PICT_TYPE, type);
+    }
+
+    public long getPts() {
+        return this.frame.getLong(AVFrame.OFFSET_PTS);
+    }
+
+    /**
+     * Set presentation timestamp, in time base of encoder.
+     */
+    public void setPts(final long pts) {
+        this.frame.setLong(AVFrame.OFFSET_PTS, pts);
+    }
+
+    public long getPktDts() {
+        return this.frame.getLong(AVFrame.OFFSET_PKT_DTS);
+    }
+
+    /**
+     * Return timestamp estimated using various heuristics, in stream time base.
+     */
+    public long getBestEffortTimestamp() {
+        return this.avutil.av_frame_get_best_effort_timestamp(this.frame);
+    }
+
+    /**
+     * Return size in bytes of each picture line of plane. For audio only plane <code>0</code> is set.
+     */
+    public int getLineSize(final int plane) {
+        checkPlane(plane);
+
+        return this.frame.getInt(AVFrame.OFFSET_LINESIZE + plane * 4);
+    }
+
+    /**
+     * Return address of plane data or <code>null</code> if plane is not used.
+     */
+    public Pointer getPlanePointer(final int plane) {
+        checkPlane(plane);
+
+        return this.frame.getPointer(AVFrame.OFFSET_DATA + plane * Pointer.SIZE);
+    }
+
+    /**
+     * Return address of array of plane pointers. For planar audio with many channels array contains more than
+     * {@link AVFrame#AV_NUM_DATA_POINTERS} planes, so it should be used instead of {@link #getPlanePointer(int)}.
+     */
+    public Pointer getExtendedData() {
+        return this.frame.getPointer(AVFrame.OFFSET_EXTENDED_DATA);
+    }
+
+    /**
+     * Return number of planes, used by frame.
+     */
+    public int getPlanes() {
+        final int format = getFormat();
+        if (format < 0) {
+            return 0;
+        }
+
+        if (isAudio()) {
+            return this.avutil.av_sample_fmt_is_planar(format) != 0 ? getChannels() : 1;
+        } else {
+            return Math.max(this.avutil.av_pix_fmt_count_planes(format), 0);
+        }
+    }
+
+    /**
+     * Return size of plane in bytes.
+     */
+    public int getPlaneSize(final int plane) {
+        checkPlane(plane);
+
+        final int format = getFormat();
+        if (plane >= getPlanes()) {
+            return 0;
+        }
+
+        if (isAudio()) {
+            final int channels = this.avutil.av_sample_fmt_is_planar(format) != 0 ? 1 : getChannels();
+            return getSamples() * channels * this.avutil.av_get_bytes_per_sample(format);
+        } else {
+            return getLineSize(plane) * getPlaneHeight(format, plane);
+        }
+    }
+
+    private int getPlaneHeight(final int format, final int plane) {
+        final int height = getHeight();
+
+        // Chroma planes are 1 and 2, plane 3 is alpha.
+        if (plane == 1 || plane == 2) {
+            final Pointer desc = this.avutil.av_pix_fmt_desc_get(format);
+            if (desc != null) {
+                final int shift = new AVPixFmtDescriptor(desc).log2_chroma_h;
+                return -((-height) >> shift);
+            }
+        }
+
+        return height;
+    }
+
+    /**
+     * Return view of plane over native memory (without copy) or <code>null</code> if plane is not used. View is valid
+     * until frame will be released or refilled (see class description).
+     *
+     * <p> For video plane contains {@link #getLineSize(int)} bytes for each line (line size can be larger than width
+     * because of alignment). For planar audio each plane contains samples of one channel. </p>
+     */
+    public ByteBuffer getPlane(final int plane) {
+        checkPlane(plane);
+
+        if (this.planes[plane] == null) {
+            final Pointer data = getPlanePointer(plane);
+            final int size = getPlaneSize(plane);
+            if (data == null || size <= 0) {
+                return null;
+            }
+            this.planes[plane] = data.getByteBuffer(0, size);
+        }
+
+        return this.planes[plane].duplicate();
+    }
+
+    private boolean isAudio() {
+        return getSamples() > 0;
+    }
+
+    private static void checkPlane(final int plane) {
+        if (plane < 0 || plane >= AVFrame.AV_NUM_DATA_POINTERS) {
+            throw new IndexOutOfBoundsException(String.format("Incorrect plane index: %d!", plane));
+        }
+    }
+
+    /**
+     * Release data of frame. All views, returned by {@link #getPlane(int)}, became invalid. Frame can be reused after
+     * that.
+     */
+    public void unref() {
+        Arrays.fill(this.planes, null);
+        this.avutil.av_frame_unref(this.frame);
+    }
+
+    /**
+     * Release data and native frame itself. Frame can not be used after that.
+     */
+    @Override
+    public void close() {
+        Arrays.fill(this.planes, null);
+        if (this.frameRef.getValue() != null) {
+            this.avutil.av_frame_free(this.frameRef);
+        }
+    }
+}
@@ -18,16 +18,311 @@
  */
 package org.javaavc.ffmpeg.avutil;
 
+import org.javaavc.platform.NativeSize;
+
 import com.sun.jna.Library;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.LongByReference;
+import com.sun.jna.ptr.PointerByReference;
 
 /**
  * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
  */
 public interface Libavutil extends Library {
 
+    /**
+     * End of file. Value of <code>AVERROR_EOF</code> macro (<code>FFERRTAG('E', 'O', 'F', ' ')</code>).
+     */
+    public static final int AVERROR_EOF              = -('E' | ('O' << 8) | ('F' << 16) | (' ' << 24));
+
+    /**
+     * Resource temporarily unavailable. Value of <code>AVERROR(EAGAIN)</code> macro.
+     */
+    public static final int AVERROR_EAGAIN           = -11;
+
+    /**
+     * I/O error. Value of <code>AVERROR(EIO)</code> macro.
+     */
+    public static final int AVERROR_EIO              = -5;
+
+    /**
+     * Invalid argument. Value of <code>AVERROR(EINVAL)</code> macro.
+     */
+    public static final int AVERROR_EINVAL           = -22;
+
+    /**
+     * Size of buffer for {@link #av_strerror(int, byte[], NativeSize)}. Value of
+     * <code>AV_ERROR_MAX_STRING_SIZE</code> macro.
+     */
+    public static final int AV_ERROR_MAX_STRING_SIZE = 64;
+
+    /**
+     * Value of <code>AV_ROUND_NEAR_INF</code> rounding mode: round to nearest and halfway cases away from zero.
+     */
+    public static final int AV_ROUND_NEAR_INF        = 5;
+
+    /**
+     * Value of <code>AV_ROUND_UP</code> rounding mode: round toward +infinity.
+     */
+    public static final int AV_ROUND_UP              = 3;
+
+    /**
+     * Value of <code>AV_ROUND_PASS_MINMAX</code> flag: pass <code>INT64_MIN</code>/<code>INT64_MAX</code> (like
+     * <code>AV_NOPTS_VALUE</code>) through unchanged.
+     */
+    public static final int AV_ROUND_PASS_MINMAX     = 8192;
+
+    /**
+     * Value of <code>AV_SAMPLE_FMT_S16</code>: signed 16 bits, packed.
+     */
+    public static final int AV_SAMPLE_FMT_S16        = 1;
+
+    /**
+     * Value of <code>AV_SAMPLE_FMT_FLT</code>: float, packed.
+     */
+    public static final int AV_SAMPLE_FMT_FLT        = 3;
+
+    /**
+     * Value of <code>AV_SAMPLE_FMT_S16P</code>: signed 16 bits, planar.
+     */
+    public static final int AV_SAMPLE_FMT_S16P       = 6;
+
+    /**
+     * Value of <code>AV_SAMPLE_FMT_FLTP</code>: float, planar.
+     */
+    public static final int AV_SAMPLE_FMT_FLTP       = 8;
+
     public int avutil_version();
 
     public String avutil_license();
 
     public String avutil_configuration();
+
+    /**
+     * Put a description of the error code into buffer.
+     *
+     * <p> Original signature: <code>int av_strerror(int errnum, char *errbuf, size_t errbuf_size)</code>. </p>
+     *
+     * @return <code>0</code> on success, negative value if description was not found.
+     */
+    public int av_strerror(int errnum, byte[] errbuf, NativeSize errbuf_size);
+
+    /**
+     * Set the given entry in dictionary. Dictionary will be allocated if <code>*pm</code> is <code>NULL</code>.
+     *
+     * <p> Original signature: <code>int av_dict_set(AVDictionary **pm, const char *key, const char *value, int
+     * flags)</code>. </p>
+     *
+     * @return <code>&gt;= 0</code> on success, otherwise an error code.
+     */
+    public int av_dict_set(PointerByReference pm, String key, String value, int flags);
+
+    /**
+     * Free all the memory allocated for dictionary and set <code>*m</code> to <code>NULL</code>.
+     *
+     * <p> Original signature: <code>void av_dict_free(AVDictionary **m)</code>. </p>
+     */
+    public void av_dict_free(PointerByReference m);
+
+    /**
+     * Read value of option with given name from object with <code>AVClass</code> (for example,
+     * <code>AVCodecContext</code>).
+     *
+     * <p> Original signature: <code>int av_opt_get_int(void *obj, const char *name, int search_flags, int64_t
+     * *out_val)</code>. </p>
+     *
+     * @return <code>&gt;= 0</code> on success, otherwise an error code.
+     */
+    public int av_opt_get_int(Pointer obj, String name, int search_flags, LongByReference out_val);
+
+    /**
+     * Allocate an <code>AVFrame</code> and set its fields to default values. Must be freed with
+     * <code>av_frame_free()</code>.
+     *
+     * <p> Original signature: <code>AVFrame *av_frame_alloc(void)</code>. </p>
+     */
+    public Pointer av_frame_alloc();
+
+    /**
+     * Free the frame and any dynamically allocated objects in it, set <code>*frame</code> to <code>NULL</code>.
+     *
+     * <p> Original signature: <code>void av_frame_free(AVFrame **frame)</code>. </p>
+     */
+    public void av_frame_free(PointerByReference frame);
+
+    /**
+     * Unreference all the buffers referenced by frame and reset the frame fields.
+     *
+     * <p> Original signature: <code>void av_frame_unref(AVFrame *frame)</code>. </p>
+     */
+    public void av_frame_unref(Pointer frame);
+
+    /**
+     * Return frame timestamp estimated using various heuristics, in stream time base.
+     *
+     * <p> Original signature: <code>int64_t av_frame_get_best_effort_timestamp(const AVFrame *frame)</code>. </p>
+     */
+    public long av_frame_get_best_effort_timestamp(Pointer frame);
+
+    /**
+     * Return number of audio channels of frame.
+     *
+     * <p> Original signature: <code>int av_frame_get_channels(const AVFrame *frame)</code>. </p>
+     */
+    public int av_frame_get_channels(Pointer frame);
+
+    /**
+     * Return a pixel format descriptor for provided pixel format or <code>NULL</code> if this pixel format is unknown.
+     *
+     * <p> Original signature: <code>const AVPixFmtDescriptor *av_pix_fmt_desc_get(enum AVPixelFormat pix_fmt)</code>.
+     * </p>
+     */
+    public Pointer av_pix_fmt_desc_get(int pix_fmt);
+
+    /**
+     * Return number of planes in pixel format or a negative <code>AVERROR</code> if pixel format is not valid.
+     *
+     * <p> Original signature: <code>int av_pix_fmt_count_planes(enum AVPixelFormat pix_fmt)</code>. </p>
+     */
+    public int av_pix_fmt_count_planes(int pix_fmt);
+
+    /**
+     * Return number of bytes per sample or <code>0</code> if sample format is unknown.
+     *
+     * <p> Original signature: <code>int av_get_bytes_per_sample(enum AVSampleFormat sample_fmt)</code>. </p>
+     */
+    public int av_get_bytes_per_sample(int sample_fmt);
+
+    /**
+     * Check if the sample format is planar.
+     *
+     * <p> Original signature: <code>int av_sample_fmt_is_planar(enum AVSampleFormat sample_fmt)</code>. </p>
+     *
+     * @return <code>1</code> if the sample format is planar, <code>0</code> if it is interleaved.
+     */
+    public int av_sample_fmt_is_planar(int sample_fmt);
+
+    /**
+     * Allocate a memory block with alignment suitable for all memory accesses (including vectors if available on the
+     * CPU). Must be freed with <code>av_free()</code>.
+     *
+     * <p> Original signature: <code>void *av_malloc(size_t size)</code>. </p>
+     *
+     * @return Pointer to the allocated block or <code>NULL</code> if the block cannot be allocated.
+     */
+    public Pointer av_malloc(NativeSize size);
+
+    /**
+     * Free a memory block which has been allocated with <code>av_malloc()</code> or <code>av_realloc()</code>.
+     *
+     * <p> Original signature: <code>void av_free(void *ptr)</code>. </p>
+     */
+    public void av_free(Pointer ptr);
+
+    /**
+     * Compute the size of an image line with format <code>pix_fmt</code> and width <code>width</code> for each plane.
+     *
+     * <p> Original signature: <code>int av_image_fill_linesizes(int linesizes[4], enum AVPixelFormat pix_fmt, int
+     * width)</code>. </p>
+     *
+     * @return <code>&gt;= 0</code> in case of success, a negative <code>AVERROR</code> code in case of failure.
+     */
+    public int av_image_fill_linesizes(int[] linesizes, int pix_fmt, int width);
+
+    /**
+     * Fill plane data pointers for an image with pixel format <code>pix_fmt</code> and height <code>height</code>.
+     *
+     * <p> Original signature: <code>int av_image_fill_pointers(uint8_t *data[4], enum AVPixelFormat pix_fmt, int
+     * height, uint8_t *ptr, const int linesizes[4])</code>. </p>
+     *
+     * @param data
+     *            Array of 4 pointers to be filled.
+     * @param pix_fmt
+     *            Pixel format.
+     * @param height
+     *            Height of image.
+     * @param ptr
+     *            Pointer to image data buffer (can be <code>NULL</code> for compute size only).
+     * @param linesizes
+     *            Line sizes of planes, filled by <code>av_image_fill_linesizes()</code>.
+     * @return The size in bytes required for the image buffer, a negative <code>AVERROR</code> code in case of failure.
+     */
+    public int av_image_fill_pointers(Pointer data, int pix_fmt, int height, Pointer ptr, int[] linesizes);
+
+    /**
+     * Set value of integer option with given name of object with <code>AVClass</code> (for example,
+     * <code>AVCodecContext</code>).
+     *
+     * <p> Original signature: <code>int av_opt_set_int(void *obj, const char *name, int64_t val, int
+     * search_flags)</code>. </p>
+     *
+     * @return <code>&gt;= 0</code> on success, otherwise an error code.
+     */
+    public int av_opt_set_int(Pointer obj, String name, long val, int search_flags);
+
+    /**
+     * Set value of option with given name of object with <code>AVClass</code>. Value is parsed from string (for
+     * example, <code>"frame+slice"</code> for flags).
+     *
+     * <p> Original signature: <code>int av_opt_set(void *obj, const char *name, const char *val, int
+     * search_flags)</code>. </p>
+     *
+     * @return <code>&gt;= 0</code> on success, otherwise an error code.
+     */
+    public int av_opt_set(Pointer obj, String name, String val, int search_flags);
+
+    /**
+     * Rescale a 64-bit integer with specified rounding: <code>a * b / c</code>.
+     *
+     * <p> Original signature: <code>int64_t av_rescale_rnd(int64_t a, int64_t b, int64_t c, enum AVRounding
+     * rnd)</code>. </p>
+     *
+     * @param rnd
+     *            Rounding mode ({@link #AV_ROUND_NEAR_INF}, can be combined with {@link #AV_ROUND_PASS_MINMAX}).
+     * @return Rescaled value.
+     */
+    public long av_rescale_rnd(long a, long b, long c, int rnd);
+
+    /**
+     * Return short name of pixel format or <code>null</code> if pixel format is unknown.
+     *
+     * <p> Original signature: <code>const char *av_get_pix_fmt_name(enum AVPixelFormat pix_fmt)</code>. </p>
+     */
+    public String av_get_pix_fmt_name(int pix_fmt);
+
+    /**
+     * Return name of sample format or <code>null</code> if sample format is unknown.
+     *
+     * <p> Original signature: <code>const char *av_get_sample_fmt_name(enum AVSampleFormat sample_fmt)</code>. </p>
+     */
+    public String av_get_sample_fmt_name(int sample_fmt);
+
+    /**
+     * Return channel layout of audio frame or 0 if it is unknown.
+     *
+     * <p> Original signature: <code>int64_t av_frame_get_channel_layout(const AVFrame *frame)</code>. </p>
+     */
+    public long av_frame_get_channel_layout(Pointer frame);
+
+    /**
+     * Return sample rate of audio frame.
+     *
+     * <p> Original signature: <code>int av_frame_get_sample_rate(const AVFrame *frame)</code>. </p>
+     */
+    public int av_frame_get_sample_rate(Pointer frame);
+
+    /**
+     * Return default channel layout for a given number of channels.
+     *
+     * <p> Original signature: <code>int64_t av_get_default_channel_layout(int nb_channels)</code>. </p>
+     */
+    public long av_get_default_channel_layout(int nb_channels);
+
+    /**
+     * Duplicate the string. Result is allocated by <code>av_malloc()</code> and should be freed by
+     * <code>av_free()</code>.
+     *
+     * <p> Original signature: <code>char *av_strdup(const char *s)</code>. </p>
+     */
+    public Pointer av_strdup(String s);
 }
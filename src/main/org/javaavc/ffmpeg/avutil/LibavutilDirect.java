@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avutil;
+
+import org.javaavc.platform.NativeSize;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.LongByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Direct-mapped implementation of {@link Libavutil}. Methods are bound to native symbols by
+ * {@link com.sun.jna.Native#register(Class, com.sun.jna.NativeLibrary)} and called without proxy dispatch.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class LibavutilDirect implements Libavutil {
+
+    @Override
+    public native int avutil_version();
+
+    @Override
+    public native String avutil_license();
+
+    @Override
+    public native String avutil_configuration();
+
+    @Override
+    public native int av_strerror(int errnum, byte[] errbuf, NativeSize errbuf_size);
+
+    @Override
+    public native int av_dict_set(PointerByReference pm, String key, String value, int flags);
+
+    @Override
+    public native void av_dict_free(PointerByReference m);
+
+    @Override
+    public native int av_opt_get_int(Pointer obj, String name, int search_flags, LongByReference out_val);
+
+    @Override
+    public native Pointer av_frame_alloc();
+
+    @Override
+    public native void av_frame_free(PointerByReference frame);
+
+    @Override
+    public native void av_frame_unref(Pointer frame);
+
+    @Override
+    public native long av_frame_get_best_effort_timestamp(Pointer frame);
+
+    @Override
+    public native int av_frame_get_channels(Pointer frame);
+
+    @Override
+    public native Pointer av_pix_fmt_desc_get(int pix_fmt);
+
+    @Override
+    public native int av_pix_fmt_count_planes(int pix_fmt);
+
+    @Override
+    public native int av_get_bytes_per_sample(int sample_fmt);
+
+    @Override
+    public native int av_sample_fmt_is_planar(int sample_fmt);
+
+    @Override
+    public native Pointer av_malloc(NativeSize size);
+
+    @Override
+    public native void av_free(Pointer ptr);
+
+    @Override
+    public native int av_image_fill_linesizes(int[] linesizes, int pix_fmt, int width);
+
+    @Override
+    public native int av_image_fill_pointers(Pointer data, int pix_fmt, int height, Pointer ptr, int[] linesizes);
+
+    @Override
+    public native int av_opt_set_int(Pointer obj, String name, long val, int search_flags);
+
+    @Override
+    public native int av_opt_set(Pointer obj, String name, String val, int search_flags);
+
+    @Override
+    public native long av_rescale_rnd(long a, long b, long c, int rnd);
+
+    @Override
+    public native String av_get_pix_fmt_name(int pix_fmt);
+
+    @Override
+    public native String av_get_sample_fmt_name(int sample_fmt);
+
+    @Override
+    public native long av_frame_get_channel_layout(Pointer frame);
+
+    @Override
+    public native int av_frame_get_sample_rate(Pointer frame);
+
+    @Override
+    public native long av_get_default_channel_layout(int nb_channels);
+
+    @Override
+    public native Pointer av_strdup(String s);
+}
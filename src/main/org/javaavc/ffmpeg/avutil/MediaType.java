@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avutil;
+
+/**
+ * Type of media stream.
+ *
+ * <p> Original signature: <code>enum AVMediaType</code>. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public enum MediaType {
+    UNKNOWN(-1), VIDEO(0), AUDIO(1), DATA(2), SUBTITLE(3), ATTACHMENT(4);
+
+    private final int value;
+
+    private MediaType(final int value) {
+        this.value = value;
+    }
+
+    /**
+     * Return native value of <code>enum AVMediaType</code>.
+     */
+    public int getValue() {
+        return this.value;
+    }
+
+    /**
+     * Return type for native value of <code>enum AVMediaType</code>.
+     */
+    public static MediaType valueOf(final int value) {
+        for (MediaType type : values()) {
+            if (type.value == value) {
+                return type;
+            }
+        }
+
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avutil;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Reference-counted native buffer, allocated by {@link BufferPool}.
+ *
+ * <p> Buffer is acquired with one reference. Each {@link #retain()} should be paired with {@link #release()}. When the
+ * last reference is released, buffer returns to free list of pool (or is freed, if pool is full or closed). Buffer and
+ * all views of it must not be used after last release. </p>
+ *
+ * <p> Reference counting is thread-safe, content of buffer is not synchronized. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class PooledBuffer {
+
+    private final BufferPool     pool;
+
+    private final BufferPool.Key key;
+
+    private final Pointer        data;
+
+    private final int[]          lineSizes;
+
+    private final Pointer[]      planes;
+
+    private final AtomicInteger  refCount = new AtomicInteger();
+
+    private ByteBuffer           view;
+
+    protected PooledBuffer(final BufferPool pool, final BufferPool.Key key, final Pointer data, final int[] lineSizes,
+            final long[] planeOffsets) {
+        this.pool = pool;
+        this.key = key;
+        this.data = data;
+        this.lineSizes = lineSizes;
+        this.planes = new Pointer[planeOffsets.length];
+        for (int i = 0; i < planeOffsets.length; ++i) {
+            this.planes[i] = planeOffsets[i] >= 0 ? data.share(planeOffsets[i]) : null;
+        }
+    }
+
+    public BufferPool.Key getKey() {
+        return this.key;
+    }
+
+    /**
+     * Return address of buffer.
+     */
+    public Pointer getPointer() {
+        return this.data;
+    }
+
+    public int getSize() {
+        return this.key.getSize();
+    }
+
+    /**
+     * Return line sizes of image planes (for image buffers) or empty array.
+     */
+    public int[] getLineSizes() {
+        return this.lineSizes.clone();
+    }
+
+    /**
+     * Return pointers to image planes (for image buffers) or empty array. Unused planes are <code>null</code>.
+     */
+    public Pointer[] getPlanePointers() {
+        return this.planes.clone();
+    }
+
+    /**
+     * Return line size of image plane (for image buffers).
+     */
+    public int getLineSize(final int plane) {
+        return this.lineSizes[plane];
+    }
+
+    /**
+     * Return view of buffer over native memory (without copy). View is valid until last reference is released.
+     */
+    public ByteBuffer getByteBuffer() {
+        if (this.view == null) {
+            this.view = this.data.getByteBuffer(0, getSize());
+        }
+
+        return this.view.duplicate();
+    }
+
+    public int getRefCount() {
+        return this.refCount.get();
+    }
+
+    /**
+     * Add reference to buffer.
+     */
+    public PooledBuffer retain() {
+        for (;;) {
+            final int count = this.refCount.get();
+            if (count <= 0) {
+                throw new IllegalStateException("Buffer was already released!");
+            }
+            if (this.refCount.compareAndSet(count, count + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Remove reference from buffer. Last release returns buffer to pool.
+     */
+    public void release() {
+        final int count = this.refCount.decrementAndGet();
+        if (count == 0) {
+            this.pool.recycle(this);
+        } else if (count < 0) {
+            this.refCount.incrementAndGet();
+            throw new IllegalStateException("Buffer was already released!");
+        }
+    }
+
+    /**
+     * Set first reference, when buffer is taken from pool.
+     */
+    void acquired() {
+        this.refCount.set(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [refs = %d]", this.key, getRefCount());
+    }
+}
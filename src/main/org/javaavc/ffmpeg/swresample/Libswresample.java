@@ -19,6 +19,8 @@
 package org.javaavc.ffmpeg.swresample;
 
 import com.sun.jna.Library;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
 
 /**
  * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
@@ -30,4 +32,47 @@ public interface Libswresample extends Library {
     public String swresample_license();
 
     public String swresample_configuration();
+
+    /**
+     * Allocate context if needed and set/reset common parameters. Context should be initialized by
+     * <code>swr_init()</code> after that. Return <code>NULL</code> on error.
+     *
+     * <p> Original signature: <code>struct SwrContext *swr_alloc_set_opts(struct SwrContext *s, int64_t out_ch_layout,
+     * enum AVSampleFormat out_sample_fmt, int out_sample_rate, int64_t in_ch_layout, enum AVSampleFormat in_sample_fmt,
+     * int in_sample_rate, int log_offset, void *log_ctx)</code>. </p>
+     */
+    public Pointer swr_alloc_set_opts(Pointer s, long out_ch_layout, int out_sample_fmt, int out_sample_rate,
+            long in_ch_layout, int in_sample_fmt, int in_sample_rate, int log_offset, Pointer log_ctx);
+
+    /**
+     * Initialize context after user parameters have been set. Return a negative error code on failure.
+     *
+     * <p> Original signature: <code>int swr_init(struct SwrContext *s)</code>. </p>
+     */
+    public int swr_init(Pointer s);
+
+    /**
+     * Free the given context and set the pointer to <code>NULL</code>.
+     *
+     * <p> Original signature: <code>void swr_free(struct SwrContext **s)</code>. </p>
+     */
+    public void swr_free(PointerByReference s);
+
+    /**
+     * Convert audio. Input and output are arrays of plane pointers (one plane for packed formats). If input is
+     * <code>NULL</code>, buffered samples are flushed. Return number of samples output per channel or a negative error
+     * code.
+     *
+     * <p> Original signature: <code>int swr_convert(struct SwrContext *s, uint8_t **out, int out_count, const uint8_t
+     * **in, int in_count)</code>. </p>
+     */
+    public int swr_convert(Pointer s, Pointer out, int out_count, Pointer in, int in_count);
+
+    /**
+     * Return the delay of buffered samples in units of <code>1 / base</code>: with base equal to input or output sample
+     * rate the delay is returned in input or output samples.
+     *
+     * <p> Original signature: <code>int64_t swr_get_delay(struct SwrContext *s, int64_t base)</code>. </p>
+     */
+    public long swr_get_delay(Pointer s, long base);
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.swresample;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Direct-mapped implementation of {@link Libswresample}. Methods are bound to native symbols by
+ * {@link com.sun.jna.Native#register(Class, com.sun.jna.NativeLibrary)} and called without proxy dispatch.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class LibswresampleDirect implements Libswresample {
+
+    @Override
+    public native int swresample_version();
+
+    @Override
+    public native String swresample_license();
+
+    @Override
+    public native String swresample_configuration();
+
+    @Override
+    public native Pointer swr_alloc_set_opts(Pointer s, long out_ch_layout, int out_sample_fmt, int out_sample_rate,
+            long in_ch_layout, int in_sample_fmt, int in_sample_rate, int log_offset, Pointer log_ctx);
+
+    @Override
+    public native int swr_init(Pointer s);
+
+    @Override
+    public native void swr_free(PointerByReference s);
+
+    @Override
+    public native int swr_convert(Pointer s, Pointer out, int out_count, Pointer in, int in_count);
+
+    @Override
+    public native long swr_get_delay(Pointer s, long base);
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.swresample;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.FFmpegException;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.platform.NativeSize;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Streaming audio resampler: converts sample rate, channel layout and sample format of decoded audio frames.
+ *
+ * <p> One <code>SwrContext</code> is used for whole stream, so filter state and buffered samples are kept between
+ * frames. Resampler is configured by parameters of the first input frame; if they are changed, context is
+ * re-initialized and buffered samples are dropped (call {@link #flush()} before that). </p>
+ *
+ * <p> Usage: <pre>
+ * try (Resampler resampler = new Resampler(avc, 16000, 1, Libavutil.AV_SAMPLE_FMT_S16)) {
+ *     while (decoder.receive(frame)) {
+ *         if (resampler.convert(frame) > 0) {
+ *             write(resampler.getShortBuffer(0));
+ *         }
+ *     }
+ *     // Drain delayed samples.
+ *     while (resampler.flush() > 0) {
+ *         write(resampler.getShortBuffer(0));
+ *     }
+ * }
+ * </pre> </p>
+ *
+ * <p> Result is stored in native buffer of resampler and is returned as views (without copy) in native byte order.
+ * Views are valid until next conversion or {@link #close()}. For packed formats all channels are interleaved in plane
+ * <code>0</code>, for planar formats each channel has own plane. </p>
+ *
+ * <p> Resampler is not thread-safe. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/group__lswr.html">Libswresample -- FFmpeg
+ * Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Resampler implements Closeable {
+
+    /**
+     * Alignment of output planes.
+     */
+    private static final int         PLANE_ALIGN  = 32;
+
+    private final Libavutil          avutil;
+
+    private final Libswresample      swresample;
+
+    private final int                outSampleRate;
+
+    private final int                outChannels;
+
+    private final long               outChannelLayout;
+
+    private final int                outFormat;
+
+    private final int                bytesPerSample;
+
+    private final boolean            planar;
+
+    private final Memory             planes;
+
+    private final PointerByReference context      = new PointerByReference();
+
+    private int                      inSampleRate = -1;
+
+    private long                     inChannelLayout;
+
+    private int                      inFormat     = -1;
+
+    private Pointer                  buffer;
+
+    /*
+     * Capacity of output buffer in samples per channel.
+     */
+    private int                      capacity;
+
+    private int                      planeSize;
+
+    private int                      samples;
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param sampleRate
+     *            Output sample rate.
+     * @param channels
+     *            Number of output channels (default channel layout is used).
+     * @param format
+     *            Output sample format, value of <code>enum AVSampleFormat</code> (see <code>AV_SAMPLE_FMT_*</code>
+     *            constants of {@link Libavutil}).
+     */
+    public Resampler(final JavaAVC avc, final int sampleRate, final int channels, final int format) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect sample rate: %d!", sampleRate));
+        }
+        if (channels <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect number of channels: %d!", channels));
+        }
+
+        this.avutil = avc.getAvutil();
+        this.swresample = avc.getSwresample();
+
+        this.bytesPerSample = this.avutil.av_get_bytes_per_sample(format);
+        if (this.bytesPerSample <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect sample format: %d!", format));
+        }
+
+        this.outSampleRate = sampleRate;
+        this.outChannels = channels;
+        this.outChannelLayout = this.avutil.av_get_default_channel_layout(channels);
+        this.outFormat = format;
+        this.planar = this.avutil.av_sample_fmt_is_planar(format) != 0;
+        this.planes = new Memory(getPlanes() * Pointer.SIZE);
+    }
+
+    public int getSampleRate() {
+        return this.outSampleRate;
+    }
+
+    public int getChannels() {
+        return this.outChannels;
+    }
+
+    /**
+     * Return output sample format, value of <code>enum AVSampleFormat</code>.
+     */
+    public int getFormat() {
+        return this.outFormat;
+    }
+
+    /**
+     * Return number of output planes: number of channels for planar formats or <code>1</code> for packed formats.
+     */
+    public int getPlanes() {
+        return this.planar ? this.outChannels : 1;
+    }
+
+    /**
+     * Configure input parameters. Context is re-initialized only if parameters are changed.
+     *
+     * @param sampleRate
+     *            Input sample rate.
+     * @param channelLayout
+     *            Input channel layout (<code>AV_CH_*</code> bit mask).
+     * @param format
+     *            Input sample format, value of <code>enum AVSampleFormat</code>.
+     */
+    public void setInput(final int sampleRate, final long channelLayout, final int format) throws IOException {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect sample rate: %d!", sampleRate));
+        }
+        if (this.context.getValue() != null && sampleRate == this.inSampleRate
+                && channelLayout == this.inChannelLayout && format == this.inFormat) {
+            return;
+        }
+
+        // Existing context is reset by new parameters.
+        final Pointer ctx = this.swresample.swr_alloc_set_opts(this.context.getValue(), this.outChannelLayout,
+                this.outFormat, this.outSampleRate, channelLayout, format, sampleRate, 0, null);
+        if (ctx == null) {
+            throw new OutOfMemoryError("Can not allocate SwrContext!");
+        }
+        this.context.setValue(ctx);
+        this.inSampleRate = -1;
+
+        FFmpegException.check(this.avutil, this.swresample.swr_init(ctx), "swr_init");
+        this.inSampleRate = sampleRate;
+        this.inChannelLayout = channelLayout;
+        this.inFormat = format;
+    }
+
+    /**
+     * Convert decoded audio frame. Result can be shorter than input (or empty), because resampler buffers samples.
+     *
+     * @return Number of output samples per channel.
+     */
+    public int convert(final Frame frame) throws IOException {
+        long layout = frame.getChannelLayout();
+        if (layout == 0) {
+            layout = this.avutil.av_get_default_channel_layout(frame.getChannels());
+        }
+        setInput(frame.getSampleRate(), layout, frame.getFormat());
+
+        return convert(frame.getExtendedData(), frame.getSamples());
+    }
+
+    /**
+     * Convert input samples in configured format (see {@link #setInput(int, long, int)}).
+     *
+     * @param in
+     *            Array of input plane pointers (one plane for packed formats).
+     * @param inSamples
+     *            Number of input samples per channel.
+     * @return Number of output samples per channel.
+     */
+    public int convert(final Pointer in, final int inSamples) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Input is null!");
+        }
+        if (inSamples < 0) {
+            throw new IllegalArgumentException(String.format("Incorrect number of samples: %d!", inSamples));
+        }
+
+        return doConvert(in, inSamples);
+    }
+
+    /**
+     * Drain samples, buffered by resampler. Should be called until it returns <code>0</code>.
+     *
+     * @return Number of output samples per channel.
+     */
+    public int flush() throws IOException {
+        if (this.context.getValue() == null) {
+            this.samples = 0;
+            return 0;
+        }
+
+        return doConvert(null, 0);
+    }
+
+    private int doConvert(final Pointer in, final int inSamples) throws IOException {
+        final Pointer ctx = this.context.getValue();
+        if (ctx == null || this.inSampleRate < 0) {
+            throw new IllegalStateException("Input parameters are not configured!");
+        }
+
+        // Delay and input, in output samples.
+        final long delay = this.swresample.swr_get_delay(ctx, this.inSampleRate);
+        final long count = this.avutil.av_rescale_rnd(delay + inSamples, this.outSampleRate, this.inSampleRate,
+                Libavutil.AV_ROUND_UP);
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Too many samples: %d!", count));
+        }
+        ensureCapacity((int) count);
+
+        this.samples = 0;
+        final int ret = this.swresample.swr_convert(ctx, this.planes, this.capacity, in, inSamples);
+        this.samples = FFmpegException.check(this.avutil, ret, "swr_convert");
+
+        return this.samples;
+    }
+
+    private void ensureCapacity(final int count) {
+        if (count <= this.capacity && this.buffer != null) {
+            return;
+        }
+
+        // Grow geometrically, so buffer is reallocated only at the beginning of stream.
+        final int newCapacity = Math.max(count, this.capacity + this.capacity / 2);
+        final int bytes = newCapacity * this.bytesPerSample * (this.planar ? 1 : this.outChannels);
+        final int newPlaneSize = (bytes + PLANE_ALIGN - 1) & ~(PLANE_ALIGN - 1);
+
+        final Pointer newBuffer = this.avutil.av_malloc(new NativeSize((long) newPlaneSize * getPlanes()));
+        if (newBuffer == null) {
+            throw new OutOfMemoryError(String.format("Can not allocate %d bytes!", (long) newPlaneSize * getPlanes()));
+        }
+        freeBuffer();
+
+        this.buffer = newBuffer;
+        this.capacity = newCapacity;
+        this.planeSize = newPlaneSize;
+        for (int i = 0; i < getPlanes(); ++i) {
+            this.planes.setPointer((long) i * Pointer.SIZE, this.buffer.share((long) i * this.planeSize));
+        }
+    }
+
+    private void freeBuffer() {
+        if (this.buffer != null) {
+            this.avutil.av_free(this.buffer);
+            this.buffer = null;
+            this.capacity = 0;
+            this.samples = 0;
+        }
+    }
+
+    /**
+     * Return number of output samples per channel of last conversion.
+     */
+    public int getSamples() {
+        return this.samples;
+    }
+
+    /**
+     * Return number of buffered samples (in output sample rate), which will be returned by next conversions or
+     * {@link #flush()}.
+     */
+    public long getDelay() {
+        final Pointer ctx = this.context.getValue();
+        if (ctx == null) {
+            return 0;
+        }
+
+        return this.swresample.swr_get_delay(ctx, this.outSampleRate);
+    }
+
+    /**
+     * Return view of output plane of last conversion.
+     */
+    public ByteBuffer getBuffer(final int plane) {
+        if (plane < 0 || plane >= getPlanes()) {
+            throw new IndexOutOfBoundsException(String.format("Incorrect plane index: %d!", plane));
+        }
+        if (this.samples == 0) {
+            return ByteBuffer.allocateDirect(0).order(ByteOrder.nativeOrder());
+        }
+
+        final int size = this.samples * this.bytesPerSample * (this.planar ? 1 : this.outChannels);
+        return this.buffer.getByteBuffer((long) plane * this.planeSize, size).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Return view of output plane of last conversion for <code>AV_SAMPLE_FMT_S16</code> and
+     * <code>AV_SAMPLE_FMT_S16P</code> formats.
+     */
+    public ShortBuffer getShortBuffer(final int plane) {
+        if (this.outFormat != Libavutil.AV_SAMPLE_FMT_S16 && this.outFormat != Libavutil.AV_SAMPLE_FMT_S16P) {
+            throw new IllegalStateException(String.format("Output format %d is not 16-bit integer!", this.outFormat));
+        }
+
+        return getBuffer(plane).asShortBuffer();
+    }
+
+    /**
+     * Return view of output plane of last conversion for <code>AV_SAMPLE_FMT_FLT</code> and
+     * <code>AV_SAMPLE_FMT_FLTP</code> formats.
+     */
+    public FloatBuffer getFloatBuffer(final int plane) {
+        if (this.outFormat != Libavutil.AV_SAMPLE_FMT_FLT && this.outFormat != Libavutil.AV_SAMPLE_FMT_FLTP) {
+            throw new IllegalStateException(String.format("Output format %d is not float!", this.outFormat));
+        }
+
+        return getBuffer(plane).asFloatBuffer();
+    }
+
+    /**
+     * Free context and output buffer. All views became invalid.
+     */
+    @Override
+    public void close() {
+        if (this.context.getValue() != null) {
+            this.swresample.swr_free(this.context);
+        }
+        freeBuffer();
+    }
+}
@@ -19,15 +19,87 @@
 package org.javaavc.ffmpeg.swscale;
 
 import com.sun.jna.Library;
+import com.sun.jna.Pointer;
 
 /**
  * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
  */
 public interface Libswscale extends Library {
 
+    /**
+     * Value of <code>SWS_FAST_BILINEAR</code>: fast bilinear scaling algorithm.
+     */
+    public static final int SWS_FAST_BILINEAR = 1;
+
+    /**
+     * Value of <code>SWS_BILINEAR</code>: bilinear scaling algorithm.
+     */
+    public static final int SWS_BILINEAR      = 2;
+
+    /**
+     * Value of <code>SWS_BICUBIC</code>: bicubic scaling algorithm.
+     */
+    public static final int SWS_BICUBIC       = 4;
+
+    /**
+     * Value of <code>SWS_POINT</code>: nearest neighbor scaling algorithm.
+     */
+    public static final int SWS_POINT         = 0x10;
+
+    /**
+     * Value of <code>SWS_AREA</code>: averaging area scaling algorithm.
+     */
+    public static final int SWS_AREA          = 0x20;
+
     public int swscale_version();
 
     public String swscale_license();
 
     public String swscale_configuration();
+
+    /**
+     * Return a positive value if pixel format is supported as input format, 0 otherwise.
+     *
+     * <p> Original signature: <code>int sws_isSupportedInput(enum AVPixelFormat pix_fmt)</code>. </p>
+     */
+    public int sws_isSupportedInput(int pix_fmt);
+
+    /**
+     * Return a positive value if pixel format is supported as output format, 0 otherwise.
+     *
+     * <p> Original signature: <code>int sws_isSupportedOutput(enum AVPixelFormat pix_fmt)</code>. </p>
+     */
+    public int sws_isSupportedOutput(int pix_fmt);
+
+    /**
+     * Check if context can be reused, otherwise free it and allocate new context with specified parameters. If context
+     * is <code>NULL</code>, just allocate new context. Return <code>NULL</code> on error.
+     *
+     * <p> Filters and extra parameters are not supported by wrapper and should be <code>null</code>. </p>
+     *
+     * <p> Original signature: <code>struct SwsContext *sws_getCachedContext(struct SwsContext *context, int srcW, int
+     * srcH, enum AVPixelFormat srcFormat, int dstW, int dstH, enum AVPixelFormat dstFormat, int flags, SwsFilter
+     * *srcFilter, SwsFilter *dstFilter, const double *param)</code>. </p>
+     */
+    public Pointer sws_getCachedContext(Pointer context, int srcW, int srcH, int srcFormat, int dstW, int dstH,
+            int dstFormat, int flags, Pointer srcFilter, Pointer dstFilter, Pointer param);
+
+    /**
+     * Scale the image slice in source and put the resulting scaled slice in destination. Slices have to be provided in
+     * sequential order, either in top-bottom or bottom-top order. Return the height of the output slice.
+     *
+     * <p> Source and destination are arrays of 4 plane pointers. </p>
+     *
+     * <p> Original signature: <code>int sws_scale(struct SwsContext *c, const uint8_t *const srcSlice[], const int
+     * srcStride[], int srcSliceY, int srcSliceH, uint8_t *const dst[], const int dstStride[])</code>. </p>
+     */
+    public int sws_scale(Pointer c, Pointer srcSlice, int[] srcStride, int srcSliceY, int srcSliceH, Pointer dst,
+            int[] dstStride);
+
+    /**
+     * Free the swscaler context. If context is <code>NULL</code>, then does nothing.
+     *
+     * <p> Original signature: <code>void sws_freeContext(struct SwsContext *swsContext)</code>. </p>
+     */
+    public void sws_freeContext(Pointer swsContext);
 }
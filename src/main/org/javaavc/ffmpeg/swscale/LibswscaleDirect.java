@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.swscale;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Direct-mapped implementation of {@link Libswscale}. Methods are bound to native symbols by
+ * {@link com.sun.jna.Native#register(Class, com.sun.jna.NativeLibrary)} and called without proxy dispatch.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class LibswscaleDirect implements Libswscale {
+
+    @Override
+    public native int swscale_version();
+
+    @Override
+    public native String swscale_license();
+
+    @Override
+    public native String swscale_configuration();
+
+    @Override
+    public native int sws_isSupportedInput(int pix_fmt);
+
+    @Override
+    public native int sws_isSupportedOutput(int pix_fmt);
+
+    @Override
+    public native Pointer sws_getCachedContext(Pointer context, int srcW, int srcH, int srcFormat, int dstW, int dstH,
+            int dstFormat, int flags, Pointer srcFilter, Pointer dstFilter, Pointer param);
+
+    @Override
+    public native int sws_scale(Pointer c, Pointer srcSlice, int[] srcStride, int srcSliceY, int srcSliceH, Pointer dst,
+            int[] dstStride);
+
+    @Override
+    public native void sws_freeContext(Pointer swsContext);
+}
@@ -0,0 +1,574 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.swscale;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avutil.AVPixFmtDescriptor;
+import org.javaavc.ffmpeg.avutil.BufferPool;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.ffmpeg.avutil.PooledBuffer;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+/**
+ * Pixel format converter and scaler of video frames.
+ *
+ * <p> Scaler contexts are expensive to create, so they are cached by key (source and destination size and
+ * pixel format, flags) and reused by next conversions with the same geometry. When cache is full, the least recently
+ * used context is re-initialized by <code>sws_getCachedContext()</code> for new geometry. </p>
+ *
+ * <p> Result is written into image buffer of {@link BufferPool} (see {@link BufferPool#acquireImage(int, int, int)}),
+ * caller should release it. </p>
+ *
+ * <p> If executor is specified, large frames are split into horizontal slices, which are converted in parallel, each
+ * with own context. Each slice is converted as separate image, so slicing is used only when no line of result depends
+ * on lines of other slices: height is not changed (pixel format conversion and horizontal scaling) and both formats
+ * have chroma of full height. Vertically subsampled chroma (like <code>yuv420p</code>) is interpolated from
+ * neighbour chroma lines, so slices would have seams at their borders, and such frames are converted as a whole.
+ * Borders of slices are aligned to {@link #SLICE_ALIGN} lines, so ordered dither pattern is not shifted. </p>
+ *
+ * <p> Usage: <pre>
+ * try (Scaler scaler = new Scaler(avc, pool)) {
+ *     while (decoder.receive(frame)) {
+ *         final PooledBuffer rgb = scaler.scale(frame, 320, 240, RGB24);
+ *         try {
+ *             // Process image.
+ *         } finally {
+ *             rgb.release();
+ *         }
+ *     }
+ * }
+ * </pre> </p>
+ *
+ * <p> Scaler is thread-safe. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://www.ffmpeg.org/doxygen/2.2/group__libsws.html">Libswscale -- FFmpeg
+ * Doxygen</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Scaler implements Closeable {
+
+    /**
+     * Default scaling algorithm.
+     */
+    public static final int           DEFAULT_FLAGS        = Libswscale.SWS_BICUBIC;
+
+    /**
+     * Default maximal number of idle contexts.
+     */
+    public static final int           DEFAULT_MAX_CONTEXTS = 16;
+
+    /**
+     * Minimal number of lines in slice. Smaller frames are not split.
+     */
+    public static final int           MIN_SLICE_HEIGHT     = 64;
+
+    /**
+     * Alignment of borders of slices in lines: period of ordered dither matrices of <code>swscale</code>.
+     */
+    public static final int           SLICE_ALIGN          = 16;
+
+    private static final int          PLANES               = 4;
+
+    private final Libavutil           avutil;
+
+    private final Libswscale          swscale;
+
+    private final BufferPool          pool;
+
+    private final ExecutorService     executor;
+
+    private final int                 slices;
+
+    /*
+     * Idle contexts in order of release (oldest first).
+     */
+    private final ArrayDeque<Context> idle                 = new ArrayDeque<Context>();
+
+    private int                       maxContexts          = DEFAULT_MAX_CONTEXTS;
+
+    private int                       flags                = DEFAULT_FLAGS;
+
+    private long                      hits;
+
+    private long                      misses;
+
+    private boolean                   closed;
+
+    /**
+     * Create scaler, which converts frames in caller thread.
+     */
+    public Scaler(final JavaAVC avc, final BufferPool pool) {
+        this(avc, pool, null, 1);
+    }
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param pool
+     *            Pool of result images.
+     * @param executor
+     *            Worker pool for slices or <code>null</code> to convert frames in caller thread. Executor is not
+     *            closed by scaler.
+     * @param slices
+     *            Maximal number of slices of one frame.
+     */
+    public Scaler(final JavaAVC avc, final BufferPool pool, final ExecutorService executor, final int slices) {
+        if (slices <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect number of slices: %d!", slices));
+        }
+
+        this.avutil = avc.getAvutil();
+        this.swscale = avc.getSwscale();
+        this.pool = pool;
+        this.executor = executor;
+        this.slices = executor != null ? slices : 1;
+    }
+
+    public synchronized int getFlags() {
+        return this.flags;
+    }
+
+    /**
+     * Set scaling algorithm and options (see <code>SWS_*</code> constants of {@link Libswscale}).
+     */
+    public synchronized void setFlags(final int flags) {
+        this.flags = flags;
+    }
+
+    public synchronized int getMaxContexts() {
+        return this.maxContexts;
+    }
+
+    /**
+     * Set maximal number of idle contexts. Extra contexts are freed.
+     */
+    public synchronized void setMaxContexts(final int maxContexts) {
+        if (maxContexts < 0) {
+            throw new IllegalArgumentException(String.format("Incorrect number of contexts: %d!", maxContexts));
+        }
+
+        this.maxContexts = maxContexts;
+        while (this.idle.size() > this.maxContexts) {
+            this.swscale.sws_freeContext(this.idle.pollFirst().pointer);
+        }
+    }
+
+    /**
+     * Return <code>true</code> if conversion from source to destination pixel format is supported.
+     */
+    public boolean isSupported(final int srcFormat, final int dstFormat) {
+        return this.swscale.sws_isSupportedInput(srcFormat) > 0 && this.swscale.sws_isSupportedOutput(dstFormat) > 0;
+    }
+
+    /**
+     * Convert video frame into new image from pool.
+     *
+     * @param frame
+     *            Decoded video frame.
+     * @param dstWidth
+     *            Width of result.
+     * @param dstHeight
+     *            Height of result.
+     * @param dstFormat
+     *            Pixel format of result, value of <code>enum AVPixelFormat</code>.
+     * @return Image with one reference, which should be released by caller.
+     */
+    public PooledBuffer scale(final Frame frame, final int dstWidth, final int dstHeight, final int dstFormat) {
+        final PooledBuffer image = this.pool.acquireImage(dstWidth, dstHeight, dstFormat);
+        try {
+            scale(frame, image);
+        } catch (RuntimeException e) {
+            image.release();
+            throw e;
+        }
+
+        return image;
+    }
+
+    /**
+     * Convert video frame into image of pool. Size and pixel format of result are taken from key of image.
+     */
+    public void scale(final Frame frame, final PooledBuffer image) {
+        final BufferPool.Key key = image.getKey();
+        if (key.getFormat() < 0) {
+            throw new IllegalArgumentException("Buffer is not an image!");
+        }
+
+        final Pointer[] srcData = new Pointer[PLANES];
+        final int[] srcStride = new int[PLANES];
+        for (int i = 0; i < PLANES; ++i) {
+            srcData[i] = frame.getPlanePointer(i);
+            srcStride[i] = frame.getLineSize(i);
+        }
+
+        scale(srcData, srcStride, frame.getWidth(), frame.getHeight(), frame.getFormat(), image.getPlanePointers(),
+                image.getLineSizes(), key.getWidth(), key.getHeight(), key.getFormat());
+    }
+
+    /**
+     * Convert image, described by plane pointers and line sizes (up to 4 planes).
+     */
+    public void scale(final Pointer[] srcData, final int[] srcStride, final int srcWidth, final int srcHeight,
+            final int srcFormat, final Pointer[] dstData, final int[] dstStride, final int dstWidth,
+            final int dstHeight, final int dstFormat) {
+        if (srcWidth <= 0 || srcHeight <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect image size: %dx%d!", srcWidth, srcHeight));
+        }
+        if (!isSupported(srcFormat, dstFormat)) {
+            throw new IllegalArgumentException(String.format("Unsupported conversion: %d -> %d!", srcFormat,
+                    dstFormat));
+        }
+
+        final int flags = getFlags();
+
+        final int sliceHeight = getSliceHeight(srcHeight, dstHeight, srcFormat, dstFormat);
+        if (sliceHeight >= srcHeight) {
+            new Slice(new Key(srcWidth, srcHeight, srcFormat, dstWidth, dstHeight, dstFormat, flags), srcData,
+                    srcStride, dstData, dstStride).run();
+            return;
+        }
+
+        final int srcPlanes = this.avutil.av_pix_fmt_count_planes(srcFormat);
+        final int dstPlanes = this.avutil.av_pix_fmt_count_planes(dstFormat);
+
+        final List<Slice> tasks = new ArrayList<Slice>();
+        for (int y = 0; y < srcHeight; y += sliceHeight) {
+            final int h = Math.min(sliceHeight, srcHeight - y);
+            tasks.add(new Slice(new Key(srcWidth, h, srcFormat, dstWidth, h, dstFormat, flags),
+                    offset(srcData, srcStride, srcPlanes, y), srcStride, offset(dstData, dstStride, dstPlanes, y),
+                    dstStride));
+        }
+        run(tasks);
+    }
+
+    /**
+     * Return height of slices or height of image, if image should not be split.
+     */
+    private int getSliceHeight(final int srcHeight, final int dstHeight, final int srcFormat, final int dstFormat) {
+        if (this.slices <= 1 || srcHeight != dstHeight || srcHeight < 2 * MIN_SLICE_HEIGHT) {
+            return srcHeight;
+        }
+
+        // Vertical chroma filter needs lines of neighbour slices.
+        if (getChromaShift(srcFormat) != 0 || getChromaShift(dstFormat) != 0) {
+            return srcHeight;
+        }
+
+        final int height = Math.max((srcHeight + this.slices - 1) / this.slices, MIN_SLICE_HEIGHT);
+
+        return (height + SLICE_ALIGN - 1) / SLICE_ALIGN * SLICE_ALIGN;
+    }
+
+    private int getChromaShift(final int format) {
+        final Pointer desc = this.avutil.av_pix_fmt_desc_get(format);
+        if (desc == null) {
+            throw new IllegalArgumentException(String.format("Unknown pixel format: %d!", format));
+        }
+
+        return new AVPixFmtDescriptor(desc).log2_chroma_h;
+    }
+
+    /**
+     * Move plane pointers to line <code>y</code> (sliced formats have planes of full height). Planes, which are not
+     * used by format (for example, palette), are not moved.
+     */
+    private static Pointer[] offset(final Pointer[] data, final int[] stride, final int planes, final int y) {
+        final Pointer[] result = data.clone();
+        for (int i = 0; i < Math.min(planes, result.length); ++i) {
+            if (result[i] != null) {
+                result[i] = result[i].share((long) y * stride[i]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Run slices in executor. Caller thread converts the first slice and waits others even if it is interrupted,
+     * because they write into destination image.
+     */
+    private void run(final List<Slice> tasks) {
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+        RuntimeException error = null;
+        try {
+            for (Slice task : tasks.subList(1, tasks.size())) {
+                futures.add(this.executor.submit(task));
+            }
+            tasks.get(0).run();
+        } catch (RuntimeException e) {
+            error = e;
+        }
+
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            for (;;) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                                : new IllegalStateException(e.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private Context acquireContext(final Key key) {
+        Context old = null;
+        synchronized (this) {
+            if (this.closed) {
+                throw new IllegalStateException("Scaler was closed!");
+            }
+
+            // The most recently used context with the same key.
+            final Iterator<Context> it = this.idle.descendingIterator();
+            while (it.hasNext()) {
+                final Context context = it.next();
+                if (context.key.equals(key)) {
+                    it.remove();
+                    ++this.hits;
+                    return context;
+                }
+            }
+            ++this.misses;
+
+            // Re-initialize the least recently used context, when cache is full.
+            if (!this.idle.isEmpty() && this.idle.size() >= this.maxContexts) {
+                old = this.idle.pollFirst();
+            }
+        }
+
+        final Pointer pointer = this.swscale.sws_getCachedContext(old != null ? old.pointer : null, key.srcWidth,
+                key.srcHeight, key.srcFormat, key.dstWidth, key.dstHeight, key.dstFormat, key.flags, null, null, null);
+        if (pointer == null) {
+            throw new IllegalStateException(String.format("Can not create scaler context for %s!", key));
+        }
+
+        return new Context(key, pointer);
+    }
+
+    private void releaseContext(final Context context) {
+        synchronized (this) {
+            if (!this.closed && this.maxContexts > 0) {
+                this.idle.addLast(context);
+                if (this.idle.size() <= this.maxContexts) {
+                    return;
+                }
+                this.swscale.sws_freeContext(this.idle.pollFirst().pointer);
+                return;
+            }
+        }
+
+        this.swscale.sws_freeContext(context.pointer);
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized int getIdleContexts() {
+        return this.idle.size();
+    }
+
+    /**
+     * Free idle contexts. Contexts, which are used by running conversions, are freed when conversions are finished.
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        while (!this.idle.isEmpty()) {
+            this.swscale.sws_freeContext(this.idle.pollFirst().pointer);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s [hits = %d, misses = %d, idle = %d]", getClass().getSimpleName(), this.hits,
+                this.misses, this.idle.size());
+    }
+
+    /**
+     * Conversion of one slice with own context.
+     */
+    private class Slice implements Runnable {
+
+        private final Key       key;
+
+        private final Pointer[] srcData;
+
+        private final int[]     srcStride;
+
+        private final Pointer[] dstData;
+
+        private final int[]     dstStride;
+
+        public Slice(final Key key, final Pointer[] srcData, final int[] srcStride, final Pointer[] dstData,
+                final int[] dstStride) {
+            this.key = key;
+            this.srcData = srcData;
+            this.srcStride = srcStride;
+            this.dstData = dstData;
+            this.dstStride = dstStride;
+        }
+
+        @Override
+        public void run() {
+            final Context context = acquireContext(this.key);
+            try {
+                final int ret = Scaler.this.swscale.sws_scale(context.pointer, context.setSrc(this.srcData),
+                        this.srcStride, 0, this.key.srcHeight, context.setDst(this.dstData), this.dstStride);
+                if (ret <= 0) {
+                    throw new IllegalStateException(String.format("Can not scale image %s!", this.key));
+                }
+            } finally {
+                releaseContext(context);
+            }
+        }
+    }
+
+    /**
+     * Native <code>SwsContext</code> and its parameters. Context owns native arrays of plane pointers, which are
+     * reused by each conversion (context is used by one thread at a time).
+     */
+    private static class Context {
+
+        private final Key     key;
+
+        private final Pointer pointer;
+
+        private final Memory  src = new Memory(PLANES * Pointer.SIZE);
+
+        private final Memory  dst = new Memory(PLANES * Pointer.SIZE);
+
+        public Context(final Key key, final Pointer pointer) {
+            this.key = key;
+            this.pointer = pointer;
+        }
+
+        public Memory setSrc(final Pointer[] data) {
+            return fill(this.src, data);
+        }
+
+        public Memory setDst(final Pointer[] data) {
+            return fill(this.dst, data);
+        }
+
+        private static Memory fill(final Memory array, final Pointer[] data) {
+            for (int i = 0; i < PLANES; ++i) {
+                array.setPointer(i * Pointer.SIZE, i < data.length ? data[i] : null);
+            }
+
+            return array;
+        }
+    }
+
+    /**
+     * Parameters of scaler context.
+     */
+    private static class Key {
+
+        private final int srcWidth;
+
+        private final int srcHeight;
+
+        private final int srcFormat;
+
+        private final int dstWidth;
+
+        private final int dstHeight;
+
+        private final int dstFormat;
+
+        private final int flags;
+
+        public Key(final int srcWidth, final int srcHeight, final int srcFormat, final int dstWidth,
+                final int dstHeight, final int dstFormat, final int flags) {
+            this.srcWidth = srcWidth;
+            this.srcHeight = srcHeight;
+            this.srcFormat = srcFormat;
+            this.dstWidth = dstWidth;
+            this.dstHeight = dstHeight;
+            this.dstFormat = dstFormat;
+            this.flags = flags;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.srcWidth;
+            result = 31 * result + this.srcHeight;
+            result = 31 * result + this.srcFormat;
+            result = 31 * result + this.dstWidth;
+            result = 31 * result + this.dstHeight;
+            result = 31 * result + this.dstFormat;
+            result = 31 * result + this.flags;
+
+            return result;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            final Key other = (Key) obj;
+            return this.srcWidth == other.srcWidth && this.srcHeight == other.srcHeight
+                    && this.srcFormat == other.srcFormat && this.dstWidth == other.dstWidth
+                    && this.dstHeight == other.dstHeight && this.dstFormat == other.dstFormat
+                    && this.flags == other.flags;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%dx%d (%d) -> %dx%d (%d), flags = %d", this.srcWidth, this.srcHeight,
+                    this.srcFormat, this.dstWidth, this.dstHeight, this.dstFormat, this.flags);
+        }
+    }
+}
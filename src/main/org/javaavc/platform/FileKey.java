@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.platform;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Identity of state of file: canonical path, size and time of last modification. Used as key of caches of data,
+ * which is computed from content of file, so changed file is processed again.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class FileKey {
+
+    private final String path;
+
+    private final long   size;
+
+    private final long   lastModified;
+
+    public FileKey(final String path, final long size, final long lastModified) {
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Return key of current state of file. Key should be taken before file is processed, so changes during
+     * processing are not missed.
+     */
+    public static FileKey of(final File file) throws IOException {
+        if (!file.isFile()) {
+            throw new IOException(String.format("File '%s' is not found!", file));
+        }
+
+        return new FileKey(file.getCanonicalPath(), file.length(), file.lastModified());
+    }
+
+    public String getPath() {
+        return this.path;
+    }
+
+    public long getSize() {
+        return this.size;
+    }
+
+    public long getLastModified() {
+        return this.lastModified;
+    }
+
+    @Override
+    public int hashCode() {
+        return (this.path.hashCode() * 31 + Long.hashCode(this.size)) * 31 + Long.hashCode(this.lastModified);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FileKey)) {
+            return false;
+        }
+
+        final FileKey other = (FileKey) obj;
+        return this.path.equals(other.path) && this.size == other.size && this.lastModified == other.lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%d bytes, %d]", this.path, this.size, this.lastModified);
+    }
+}
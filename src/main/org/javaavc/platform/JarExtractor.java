@@ -0,0 +1,312 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.platform;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts content of JAR-file into directory.
+ *
+ * <p> JAR-file is read with random access ({@link ZipFile}), so entries are extracted in parallel. Each worker thread
+ * has own direct buffer: inflated data is collected into it and written into file by large writes (stream of entry is
+ * not a file, so {@link FileChannel#transferFrom(ReadableByteChannel, long, long)} would copy it through small
+ * internal buffer). Executable bits are taken from UNIX attributes of central directory of JAR-file (if JAR-file was
+ * created with them). </p>
+ *
+ * <p>
+ * <h6>Links:</h6>
+ * <ol>
+ * <li><a href="https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT">ZIP File Format Specification</a>.</li>
+ * </ol>
+ * </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class JarExtractor {
+
+    /**
+     * Size of copy buffer of one worker thread.
+     */
+    public static final int     BUFFER_SIZE        = 1024 * 1024;
+
+    private static final int    EOCD_SIGNATURE     = 0x06054b50;
+    private static final int    EOCD_SIZE          = 22;
+    private static final int    EOCD_MAX_COMMENT   = 0xFFFF;
+    private static final int    CEN_SIGNATURE      = 0x02014b50;
+    private static final int    CEN_SIZE           = 46;
+    private static final int    HOST_UNIX          = 3;
+    private static final int    EXECUTABLE_MASK    = 0111;
+
+    private final File          jarFile;
+
+    private final int           threads;
+
+    /**
+     * @param jarFile
+     *            JAR-file.
+     * @param threads
+     *            Maximal number of parallel copies.
+     */
+    public JarExtractor(final File jarFile, final int threads) {
+        if (jarFile == null || !jarFile.isFile()) {
+            throw new IllegalArgumentException(String.format("Incorrect JAR-file '%s'!", jarFile));
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException(String.format("Incorrect number of threads: %d!", threads));
+        }
+
+        this.jarFile = jarFile;
+        this.threads = threads;
+    }
+
+    /**
+     * Use number of available processors as number of parallel copies.
+     */
+    public JarExtractor(final File jarFile) {
+        this(jarFile, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Extract all entries of JAR-file into directory.
+     */
+    public void extractTo(final File outputDir) throws IOException {
+        if (outputDir == null || !outputDir.isDirectory()) {
+            throw new IllegalArgumentException(String.format("Incorrect output directory '%s'!", outputDir));
+        }
+
+        final Path basePath = outputDir.toPath().toAbsolutePath().normalize();
+        final Set<String> executables = readExecutableNames();
+        final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>() {
+
+            @Override
+            protected ByteBuffer initialValue() {
+                return ByteBuffer.allocateDirect(BUFFER_SIZE);
+            }
+        };
+
+        final ZipFile zip = new ZipFile(this.jarFile);
+        try {
+            // Directories are created first, so files can be written in any order.
+            final List<ZipEntry> files = new ArrayList<ZipEntry>();
+            for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements();) {
+                final ZipEntry entry = e.nextElement();
+                final Path path = resolve(basePath, entry);
+                if (entry.isDirectory()) {
+                    Files.createDirectories(path);
+                } else {
+                    Files.createDirectories(path.getParent());
+                    files.add(entry);
+                }
+            }
+
+            final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for (final ZipEntry entry : files) {
+                tasks.add(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws IOException {
+                        final File file = resolve(basePath, entry).toFile();
+                        copy(zip, entry, file, buffers.get());
+                        if (executables.contains(entry.getName()) && !file.setExecutable(true, true)) {
+                            throw new IOException(String.format("Can not make file '%s' executable!", file));
+                        }
+                        return null;
+                    }
+                });
+            }
+
+            run(tasks);
+        } finally {
+            // Buffer of caller thread (used, if entries are extracted without pool).
+            buffers.remove();
+            zip.close();
+        }
+    }
+
+    private void run(final List<Callable<Void>> tasks) throws IOException {
+        final int threadsNum = Math.min(this.threads, tasks.size());
+        if (threadsNum <= 1) {
+            for (Callable<Void> task : tasks) {
+                try {
+                    task.call();
+                } catch (IOException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threadsNum);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Extraction was interrupted!", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Path resolve(final Path basePath, final ZipEntry entry) throws IOException {
+        final Path path = basePath.resolve(entry.getName()).normalize();
+        if (!path.startsWith(basePath)) {
+            throw new IOException(String.format("Entry '%s' is outside of output directory!", entry.getName()));
+        }
+
+        return path;
+    }
+
+    private static void copy(final ZipFile zip, final ZipEntry entry, final File file, final ByteBuffer buffer)
+            throws IOException {
+        final InputStream is = zip.getInputStream(entry);
+        try {
+            final ReadableByteChannel in = Channels.newChannel(is);
+            final FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                long position = 0;
+                boolean eof = false;
+                while (!eof) {
+                    // Fill whole buffer (stream returns small parts), then write it at once.
+                    buffer.clear();
+                    while (buffer.hasRemaining()) {
+                        if (in.read(buffer) < 0) {
+                            eof = true;
+                            break;
+                        }
+                    }
+
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        position += out.write(buffer);
+                    }
+                }
+                if (entry.getSize() >= 0 && position != entry.getSize()) {
+                    throw new IOException(String.format("Entry '%s' was not extracted completely!",
+                            entry.getName()));
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Return names of entries which have executable UNIX attributes in central directory. If attributes can not be
+     * read (for example, for ZIP64 files), return empty set.
+     */
+    private Set<String> readExecutableNames() throws IOException {
+        final FileChannel channel = FileChannel.open(this.jarFile.toPath(), StandardOpenOption.READ);
+        try {
+            // Find end of central directory record.
+            final long fileSize = channel.size();
+            final int tailSize = (int) Math.min(fileSize, EOCD_SIZE + EOCD_MAX_COMMENT);
+            final ByteBuffer tail = ByteBuffer.allocate(tailSize).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, tail, fileSize - tailSize);
+
+            int eocd = -1;
+            for (int i = tailSize - EOCD_SIZE; i >= 0; --i) {
+                if (tail.getInt(i) == EOCD_SIGNATURE) {
+                    eocd = i;
+                    break;
+                }
+            }
+            if (eocd < 0) {
+                return Collections.emptySet();
+            }
+
+            final long cenSize = tail.getInt(eocd + 12) & 0xFFFFFFFFL;
+            final long cenOffset = tail.getInt(eocd + 16) & 0xFFFFFFFFL;
+            if (cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL || cenOffset + cenSize > fileSize) {
+                return Collections.emptySet();
+            }
+
+            // Read entries of central directory.
+            final ByteBuffer cen = ByteBuffer.allocate((int) cenSize).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, cen, cenOffset);
+
+            final Set<String> result = new HashSet<String>();
+            for (int pos = 0; pos + CEN_SIZE <= cenSize && cen.getInt(pos) == CEN_SIGNATURE;) {
+                final int host = (cen.getShort(pos + 4) >> 8) & 0xFF;
+                final int nameLength = cen.getShort(pos + 28) & 0xFFFF;
+                final int extraLength = cen.getShort(pos + 30) & 0xFFFF;
+                final int commentLength = cen.getShort(pos + 32) & 0xFFFF;
+                final int mode = cen.getInt(pos + 38) >>> 16;
+
+                if (host == HOST_UNIX && (mode & EXECUTABLE_MASK) != 0) {
+                    final byte[] name = new byte[nameLength];
+                    cen.position(pos + CEN_SIZE);
+                    cen.get(name);
+                    result.add(new String(name, "UTF-8"));
+                }
+
+                pos += CEN_SIZE + nameLength + extraLength + commentLength;
+            }
+
+            return result;
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of JAR-file!");
+            }
+        }
+    }
+}
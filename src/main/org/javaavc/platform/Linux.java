@@ -20,6 +20,10 @@ package org.javaavc.platform;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Contains code specific for Linux.
@@ -37,29 +41,45 @@ public final class Linux extends Platform {
     }
 
     /**
-     * Run executable file in separate process. Supported Linux and Windows.
+     * Name of environment variable with search paths of shared libraries.
+     */
+    public static final String LIBRARY_PATH = "LD_LIBRARY_PATH";
+
+    /**
+     * Run executable file in separate process directly (without shell). Directory of executable file is added into
+     * search paths of shared libraries. Executable permissions are set once, when native library is unpacked.
      *
      * <p> For Linux -- see shared library search paths: <ol> <li><a
      * href="http://tldp.org/HOWTO/Program-Library-HOWTO/shared-libraries.html">Shared Libraries -- tldp.org</a>. </li>
      * </ol> </p>
      */
     @Override
-    public Process getNativeProcess(final File binFile, final String command) throws IOException {
-        //@formatter:off
-        return Runtime.getRuntime().exec(
-                new String[]{ 
-                    "/bin/sh", 
-                    "-c",
-                    String.format(
-                            "chmod u+x %s; export LD_LIBRARY_PATH=$LD_LIBRARY_PATH:%s; exec %s %s",
-                            binFile.getAbsolutePath(), 
-                            binFile.getParent(), 
-                            binFile.getAbsolutePath(), 
-                            command
-                        )
-                }
-            );
-        //@formatter:on
+    public Process getNativeProcess(final File binFile, final List<String> arguments) throws IOException {
+        final List<String> command = new ArrayList<String>(arguments.size() + 1);
+        command.add(binFile.getAbsolutePath());
+        command.addAll(arguments);
+
+        final ProcessBuilder builder = new ProcessBuilder(command);
+
+        final Map<String, String> environment = builder.environment();
+        final String libraryPath = environment.get(LIBRARY_PATH);
+        if (libraryPath == null || libraryPath.isEmpty()) {
+            environment.put(LIBRARY_PATH, binFile.getParent());
+        } else {
+            environment.put(LIBRARY_PATH, libraryPath + File.pathSeparator + binFile.getParent());
+        }
+
+        return builder.start();
+    }
+
+    /**
+     * Pattern of names like <code>libavutil.so</code> and <code>libavutil.so.52.66.100</code>.
+     */
+    public static final Pattern SHARED_LIB_PATTERN = Pattern.compile("lib(.+?)\\.so((?:\\.\\d+)*)");
+
+    @Override
+    protected Pattern getSharedLibPattern() {
+        return SHARED_LIB_PATTERN;
     }
 
     @Override
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.platform;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent cache of unpacked native libraries.
+ *
+ * <p> Each JAR-file is unpacked into own directory, which name contains checksum of content of JAR-file (names, sizes
+ * and CRC of entries from central directory, so checksum is computed without decompression). Unpacking is done into
+ * temporary directory, then content is verified with CRC of entries and directory is renamed into cache atomically.
+ * Warm start only checks marker and sizes of files and skips unpacking. Several JVMs can start at the same time:
+ * only one of installations wins, others are dropped. </p>
+ *
+ * <p> Directory of cache is defined by {@link #CACHE_DIR_PROPERTY} system property, by default it is
+ * <code>javaavc-cache</code> in temporary directory of Java. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class NativeCache {
+
+    /**
+     * Name of system property with directory of cache.
+     */
+    public static final String CACHE_DIR_PROPERTY = "javaavc.cache.dir";
+
+    /**
+     * Name of default directory of cache (in temporary directory of Java).
+     */
+    public static final String DEFAULT_CACHE_DIR  = "javaavc-cache";
+
+    /**
+     * Name of marker file of complete installation.
+     */
+    public static final String MARKER             = ".installed";
+
+    /**
+     * Length of checksum in name of directory (in hexadecimal digits).
+     */
+    public static final int    KEY_LENGTH         = 16;
+
+    private final Platform     platform;
+
+    private final File         cacheDir;
+
+    public NativeCache(final Platform platform, final File cacheDir) {
+        this.platform = platform;
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Return default directory of cache (see {@link #CACHE_DIR_PROPERTY}).
+     */
+    public static File getDefaultCacheDir() {
+        final String dir = System.getProperty(CACHE_DIR_PROPERTY);
+        if (dir != null && !dir.isEmpty()) {
+            return new File(dir);
+        }
+
+        return new File(System.getProperty(Platform.JAVA_TEMP_DIR), DEFAULT_CACHE_DIR);
+    }
+
+    public File getCacheDir() {
+        return this.cacheDir;
+    }
+
+    /**
+     * Return directory with unpacked content of JAR-file. JAR-file is unpacked only if cache has no verified copy of
+     * it.
+     *
+     * @param jarFile
+     *            JAR-file.
+     * @param name
+     *            Name of directory with content inside of JAR-file (also used as prefix of directory name).
+     */
+    public File install(final File jarFile, final String name) throws IOException {
+        final JarFile jar = new JarFile(jarFile);
+        try {
+            final List<JarEntry> entries = getEntries(jar);
+            final File installDir = new File(this.cacheDir, name + Platform.SEPARATOR + getKey(entries));
+
+            if (!isInstalled(installDir, entries)) {
+                unpack(jarFile, entries, installDir, name);
+            }
+
+            return installDir;
+        } finally {
+            jar.close();
+        }
+    }
+
+    /**
+     * Return entries of JAR-file, sorted by name.
+     */
+    private static List<JarEntry> getEntries(final JarFile jar) {
+        final List<JarEntry> entries = new ArrayList<JarEntry>();
+        for (Enumeration<JarEntry> e = jar.entries(); e.hasMoreElements();) {
+            entries.add(e.nextElement());
+        }
+        Collections.sort(entries, new Comparator<JarEntry>() {
+
+            @Override
+            public int compare(final JarEntry e1, final JarEntry e2) {
+                return e1.getName().compareTo(e2.getName());
+            }
+        });
+
+        return entries;
+    }
+
+    /**
+     * Return checksum of content of JAR-file: SHA-256 of names, sizes and CRC of entries.
+     */
+    private static String getKey(final List<JarEntry> entries) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        for (JarEntry entry : entries) {
+            digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update(String.format(":%d:%d;", entry.getSize(), entry.getCrc()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b & 0xFF));
+        }
+
+        return sb.substring(0, KEY_LENGTH);
+    }
+
+    private static boolean isInstalled(final File installDir, final List<JarEntry> entries) {
+        if (!new File(installDir, MARKER).isFile()) {
+            return false;
+        }
+
+        for (JarEntry entry : entries) {
+            final File file = new File(installDir, entry.getName());
+            if (entry.isDirectory() ? !file.isDirectory() : file.length() != entry.getSize()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void unpack(final File jarFile, final List<JarEntry> entries, final File installDir, final String name)
+            throws IOException {
+        if (!this.cacheDir.isDirectory() && !this.cacheDir.mkdirs() && !this.cacheDir.isDirectory()) {
+            throw new IOException(String.format("Can not create cache directory '%s'!", this.cacheDir));
+        }
+
+        final Path tempDir = Files.createTempDirectory(this.cacheDir.toPath(), installDir.getName() + ".tmp-");
+        try {
+            this.platform.unpackJarToDir(jarFile, tempDir.toFile());
+
+            // Verify content.
+            for (JarEntry entry : entries) {
+                final File file = new File(tempDir.toFile(), entry.getName());
+                if (entry.isDirectory()) {
+                    if (!file.isDirectory()) {
+                        throw new IOException(String.format("Directory '%s' was not unpacked!", entry.getName()));
+                    }
+                } else if (entry.getCrc() != -1 && getCrc(file) != entry.getCrc()) {
+                    throw new IOException(String.format("Checksum of unpacked file '%s' is incorrect!", file));
+                }
+            }
+            this.platform.prepareNativeFiles(new File(tempDir.toFile(), name));
+
+            Files.createFile(tempDir.resolve(MARKER));
+
+            // Other process could install the same content while we were unpacking.
+            if (isInstalled(installDir, entries)) {
+                return;
+            }
+
+            // Remove broken installation (if any), then publish new one.
+            if (installDir.exists()) {
+                final Path stale = Files.createTempDirectory(this.cacheDir.toPath(), installDir.getName() + ".old-");
+                Files.delete(stale);
+                try {
+                    Files.move(installDir.toPath(), stale, StandardCopyOption.ATOMIC_MOVE);
+                    delete(stale);
+                } catch (IOException e) {
+                    // Other process replaced it already.
+                }
+            }
+            try {
+                Files.move(tempDir, installDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                // Other process installed the same content concurrently.
+            } catch (AtomicMoveNotSupportedException e) {
+                throw new IOException(String.format("File system of '%s' does not support atomic move!",
+                        this.cacheDir), e);
+            }
+        } finally {
+            if (Files.exists(tempDir)) {
+                delete(tempDir);
+            }
+        }
+    }
+
+    private static long getCrc(final File file) throws IOException {
+        final CRC32 crc = new CRC32();
+        final InputStream is = new BufferedInputStream(new FileInputStream(file));
+        try {
+            final byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } finally {
+            is.close();
+        }
+
+        return crc.getValue();
+    }
+
+    /**
+     * Delete directory recursively.
+     */
+    private static void delete(final Path dir) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path directory, final IOException e) throws IOException {
+                Files.delete(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
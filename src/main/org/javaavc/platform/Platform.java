@@ -18,12 +18,8 @@
  */
 package org.javaavc.platform;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
@@ -33,8 +29,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
 
 import com.sun.jna.Native;
 
@@ -53,6 +49,8 @@ public abstract class Platform {
 
     public static final String JNA_LIBRARY_PATH = "jna.library.path";
 
+    private static volatile SharedLibIndex sharedLibIndex = null;
+
     private final String id;
 
     private final Arch arch;
@@ -82,8 +80,98 @@ public abstract class Platform {
 
     /**
      * Run executable file in separate process. Supported Linux and Windows.
+     *
+     * <p> Command is split into arguments by {@link #splitCommand(String)}, shell is not used. </p>
+     */
+    public Process getNativeProcess(final File binFile, final String command) throws IOException {
+        return getNativeProcess(binFile, splitCommand(command));
+    }
+
+    /**
+     * Run executable file in separate process with given arguments. Supported Linux and Windows.
+     */
+    public abstract Process getNativeProcess(final File binFile, final List<String> arguments) throws IOException;
+
+    /**
+     * Split command line into arguments like POSIX shell does: arguments are separated by whitespaces, single quotes
+     * keep text as is, double quotes keep text except escaped <code>\"</code> and <code>\\</code>, backslash
+     * escapes next character outside of quotes. Variables and patterns are not expanded.
+     */
+    public List<String> splitCommand(final String command) {
+        final List<String> arguments = new ArrayList<String>();
+        final StringBuilder current = new StringBuilder();
+
+        boolean inArgument = false;
+        char quote = 0;
+        for (int i = 0; i < command.length(); ++i) {
+            final char c = command.charAt(i);
+
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (quote == '"') {
+                if (c == '"') {
+                    quote = 0;
+                } else if (c == '\\' && i + 1 < command.length()
+                        && (command.charAt(i + 1) == '"' || command.charAt(i + 1) == '\\')) {
+                    current.append(command.charAt(++i));
+                } else {
+                    current.append(c);
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (inArgument) {
+                    arguments.add(current.toString());
+                    current.setLength(0);
+                    inArgument = false;
+                }
+            } else {
+                inArgument = true;
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '\\' && i + 1 < command.length()) {
+                    current.append(command.charAt(++i));
+                } else {
+                    current.append(c);
+                }
+            }
+        }
+
+        if (quote != 0) {
+            throw new IllegalArgumentException(String.format("Unclosed quote in command: %s!", command));
+        }
+        if (inArgument) {
+            arguments.add(current.toString());
+        }
+
+        return arguments;
+    }
+
+    /**
+     * Quote argument, so {@link #splitCommand(String)} returns it as one argument without changes.
+     */
+    public String quoteArgument(final String argument) {
+        return "'" + argument.replace("'", "'\\''") + "'";
+    }
+
+    /**
+     * Prepare unpacked files of native library: make them executable. Called once after unpack, so processes can be
+     * started without any preparations.
      */
-    public abstract Process getNativeProcess(final File binFile, final String command) throws IOException;
+    protected void prepareNativeFiles(final File dir) throws IOException {
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (file.isFile() && !file.canExecute() && !file.setExecutable(true, true)) {
+                throw new IOException(String.format("Can not make file '%s' executable!", file));
+            }
+        }
+    }
 
     /**
      * Return extension of platform-specific file extension of shared library.
@@ -92,6 +180,33 @@ public abstract class Platform {
 
     protected abstract String getStdIOLibraryName();
 
+    /**
+     * Return pattern of file name of shared library. First group is name of library, second group is version.
+     */
+    protected abstract Pattern getSharedLibPattern();
+
+    /**
+     * Return index of shared libraries from directories of {@link #JNA_LIBRARY_PATH}. Index is created once and
+     * recreated only when path is changed by {@link #addJnaPathFile(File)}.
+     */
+    public SharedLibIndex getSharedLibIndex() throws IOException {
+        SharedLibIndex index = sharedLibIndex;
+
+        if (index == null) {
+            synchronized (Platform.class) {
+                index = sharedLibIndex;
+                if (index == null) {
+                    sharedLibIndex = index = new SharedLibIndex(getSharedLibPattern(), getJnaPathFiles());
+                }
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Return files of shared library, sorted by version (the latest is last).
+     */
     public List<File> findSharedLibs(final String libName) throws IOException {
         /*
          * Check values.
@@ -101,41 +216,47 @@ public abstract class Platform {
         /*
          * Find results.
          */
-        final List<File> result = new ArrayList<File>();
-
-        for (File dir : getJnaPathFiles()) {
-            for (File f : dir.listFiles()) {
-                final String fileName = f.getName();
-
-                final int nameIdx = fileName.indexOf(libName);
-                final int extIdx = fileName.indexOf(getSharedLibExtension());
+        return getSharedLibIndex().find(libName);
+    }
 
-                if (nameIdx >= 0 && extIdx >= 0 && nameIdx + fileName.length() > extIdx) {
-                    result.add(f.getCanonicalFile());
-                }
-            }
+    /**
+     * Extracts a JAR-file with some resource to defined directory.
+     */
+    public void unpackJarToDir(final URL jarUrl, final File outputDir) throws IOException {
+        /*
+         * Check values.
+         */
+        if (jarUrl == null) {
+            throw new IllegalArgumentException("JAR-file URL can not be null!");
         }
 
-        Collections.sort(result, new Comparator<File>() {
+        unpackJarToDir(getJarFile(jarUrl), outputDir);
+    }
 
-            @Override
-            public int compare(final File f1, final File f2) {
-                return f1.getPath().compareTo(f2.getPath());
+    /**
+     * Return JAR-file which contains resource with defined {@link URL}.
+     */
+    public static File getJarFile(final URL jarUrl) throws IOException {
+        final JarURLConnection conn = (JarURLConnection) jarUrl.openConnection();
+        final JarFile jar = conn.getJarFile();
+        try {
+            return new File(jar.getName());
+        } finally {
+            if (!conn.getUseCaches()) {
+                jar.close();
             }
-        });
-
-        return result;
+        }
     }
 
     /**
-     * Extracts a JAR-file with some resource to defined directory.
+     * Extracts a JAR-file to defined directory. Entries are extracted in parallel (see {@link JarExtractor}).
      */
-    public void unpackJarToDir(final URL jarUrl, final File outputDir) throws IOException {
+    public void unpackJarToDir(final File jarFile, final File outputDir) throws IOException {
         /*
          * Check values.
          */
-        if (jarUrl == null) {
-            throw new IllegalArgumentException("JAR-file URL can not be null!");
+        if (jarFile == null || !jarFile.isFile()) {
+            throw new IllegalArgumentException(String.format("Incorrect JAR-file '%s'!", jarFile));
         }
         if (outputDir == null || !outputDir.exists() || outputDir.isFile()) {
             throw new IllegalArgumentException(String.format("Incorrect output directory '%s'!", outputDir));
@@ -144,35 +265,16 @@ public abstract class Platform {
         /*
          * Unpacking.
          */
-        final JarURLConnection conn = (JarURLConnection) jarUrl.openConnection();
-        final JarInputStream jis = new JarInputStream(new FileInputStream(new File(conn.getJarFile().getName())));
-        final String basePath = outputDir.getAbsolutePath() + File.separator;
-
-        // Unpack files and directories from JAR-file.
-        final byte[] buffer = new byte[4096];
-        for (JarEntry entry = jis.getNextJarEntry(); entry != null; entry = jis.getNextJarEntry()) {
-            final File fout = new File(basePath + entry.getName());
-
-            if (!entry.isDirectory()) {
-                final OutputStream os = new BufferedOutputStream(new FileOutputStream(fout));
-                for (int read = 0; read != -1; read = jis.read(buffer)) {
-                    os.write(buffer, 0, read);
-                }
-                os.close();
-            } else {
-                fout.mkdir();
-            }
-            jis.closeEntry();
-        }
-        jis.close();
+        new JarExtractor(jarFile).extractTo(outputDir);
     }
 
     /**
-     * Unpack native library from JAR-file to temporary directory and return {@link File} to it.
+     * Unpack native library from JAR-file to cache directory and return {@link File} to it.
      *
      * <p> Will be found resource in format <code>LibName_OsName_Arch</code> (for example, <code>mylib_linux_64</code>),
-     * copied into temporary directory and returned {@link File} of this copy (for example,
-     * <code>/tmp/mylib_linux_64</code>). </p>
+     * copied into cache directory and returned {@link File} of this copy (for example,
+     * <code>/tmp/javaavc-cache/mylib_linux_64-0123456789abcdef/mylib_linux_64</code>). If cache already contains the
+     * same content, JAR-file is not unpacked again (see {@link NativeCache}). </p>
      */
     public File unpackNativeLibrary(final String libName, final String libVer) throws IOException {
         /*
@@ -185,7 +287,6 @@ public abstract class Platform {
          * Unpacking.
          */
         final String nativeLibDirName = getLibraryNativeName(libName, libVer);
-        final File tempDirFile = getJavaTempDirectoryFile();
 
         /*
          * Remember that:
@@ -195,13 +296,14 @@ public abstract class Platform {
         final String resName = "/" + nativeLibDirName;
 
         final URL url = Class.class.getResource(resName);
-        if (url != null) {
-            unpackJarToDir(url, tempDirFile);
-        } else {
+        if (url == null) {
             throw new IOException(String.format("Can not find JAR-file with resource '%s'!", resName));
         }
 
-        final File newPathFile = new File(tempDirFile.getCanonicalPath() + File.separatorChar + nativeLibDirName);
+        final NativeCache cache = new NativeCache(this, NativeCache.getDefaultCacheDir());
+        final File installDir = cache.install(getJarFile(url), nativeLibDirName);
+
+        final File newPathFile = new File(installDir.getCanonicalPath() + File.separatorChar + nativeLibDirName);
         addJnaPathFile(newPathFile);
 
         return newPathFile;
@@ -323,7 +425,10 @@ public abstract class Platform {
      * Add new path to JNA native code search (based on "jna.library.path" system property).
      */
     public static void addJnaPathFile(final File newClassPath) {
-        addPathFile(JNA_LIBRARY_PATH, newClassPath);
+        synchronized (Platform.class) {
+            addPathFile(JNA_LIBRARY_PATH, newClassPath);
+            sharedLibIndex = null;
+        }
     }
 
     private static File getFileProperty(final String propertyName) {
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.platform;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index of shared libraries from list of directories: name of library to files of this library.
+ *
+ * <p> Names of files are parsed with platform-specific pattern (see {@link Platform#getSharedLibPattern()}), so
+ * <code>libavutil.so.52.66.100</code> and <code>avutil-52.dll</code> are both files of library <code>avutil</code>
+ * with versions <code>52.66.100</code> and <code>52</code>. Directories are scanned once, when index is created. </p>
+ *
+ * <p> If pattern is case-insensitive (like names of DLLs on Windows), names of libraries are case-insensitive too:
+ * <code>AVUTIL-52.dll</code> is found by name <code>avutil</code>. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class SharedLibIndex {
+
+    private final Map<String, List<File>> libs = new HashMap<String, List<File>>();
+
+    private final boolean                 caseInsensitive;
+
+    /**
+     * @param pattern
+     *            Pattern of name of shared library file. First group is name of library, second group (optional) is
+     *            version.
+     * @param dirs
+     *            Directories to scan.
+     */
+    public SharedLibIndex(final Pattern pattern, final List<File> dirs) throws IOException {
+        this.caseInsensitive = (pattern.flags() & Pattern.CASE_INSENSITIVE) != 0;
+
+        // Name of library -> canonical file -> the most specific version of this file.
+        final Map<String, Map<File, int[]>> found = new HashMap<String, Map<File, int[]>>();
+
+        for (File dir : dirs) {
+            final File[] files = dir.listFiles();
+            if (files == null) {
+                continue;
+            }
+
+            for (File f : files) {
+                final Matcher matcher = pattern.matcher(f.getName());
+                if (!matcher.matches()) {
+                    continue;
+                }
+
+                final String name = normalize(matcher.group(1));
+                Map<File, int[]> versions = found.get(name);
+                if (versions == null) {
+                    versions = new LinkedHashMap<File, int[]>();
+                    found.put(name, versions);
+                }
+
+                // Symbolic links (libavutil.so -> libavutil.so.52.66.100) point to the same file.
+                final File file = f.getCanonicalFile();
+                final int[] version = parseVersion(matcher.groupCount() > 1 ? matcher.group(2) : null);
+                final int[] old = versions.get(file);
+                if (old == null || compareVersions(old, version) < 0) {
+                    versions.put(file, version);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Map<File, int[]>> entry : found.entrySet()) {
+            final Map<File, int[]> versions = entry.getValue();
+            final List<File> files = new ArrayList<File>(versions.keySet());
+            Collections.sort(files, new Comparator<File>() {
+
+                @Override
+                public int compare(final File f1, final File f2) {
+                    final int result = compareVersions(versions.get(f1), versions.get(f2));
+                    return result != 0 ? result : f1.getPath().compareTo(f2.getPath());
+                }
+            });
+
+            this.libs.put(entry.getKey(), Collections.unmodifiableList(files));
+        }
+    }
+
+    /**
+     * Return name of library as key of index: in lower case, if names are case-insensitive.
+     */
+    private String normalize(final String libName) {
+        return this.caseInsensitive ? libName.toLowerCase(Locale.ROOT) : libName;
+    }
+
+    /**
+     * Parse version like <code>52.66.100</code>. Return empty array, if there is no version.
+     */
+    public static int[] parseVersion(final String version) {
+        if (version == null || version.isEmpty()) {
+            return new int[0];
+        }
+
+        final List<Integer> parts = new ArrayList<Integer>();
+        for (String part : version.split("\\D+")) {
+            if (!part.isEmpty()) {
+                parts.add(Integer.valueOf(part));
+            }
+        }
+
+        final int[] result = new int[parts.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = parts.get(i);
+        }
+
+        return result;
+    }
+
+    /**
+     * Compare versions part by part. If one version is a prefix of other one, the shorter one is less.
+     */
+    public static int compareVersions(final int[] v1, final int[] v2) {
+        for (int i = 0; i < Math.min(v1.length, v2.length); ++i) {
+            if (v1[i] != v2[i]) {
+                return v1[i] < v2[i] ? -1 : 1;
+            }
+        }
+
+        return Integer.compare(v1.length, v2.length);
+    }
+
+    /**
+     * Return files of library, sorted by version (the latest is last). If library is not found, return empty list.
+     */
+    public List<File> find(final String libName) {
+        final List<File> result = this.libs.get(normalize(libName));
+        return result != null ? result : Collections.<File> emptyList();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, List<File>> entry : this.libs.entrySet()) {
+            sb.append(entry.getKey());
+            sb.append("=");
+            sb.append(Arrays.toString(entry.getValue().toArray()));
+            sb.append("\n");
+        }
+
+        return sb.toString();
+    }
+}
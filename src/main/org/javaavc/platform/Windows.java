@@ -20,6 +20,9 @@ package org.javaavc.platform;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Contains code specific for Windows.
@@ -45,15 +48,75 @@ public final class Windows extends Platform {
      * used.</strong> </p>
      */
     @Override
-    public Process getNativeProcess(final File binFile, final String command) throws IOException {
-        //@formatter:off
-        return Runtime.getRuntime().exec(new String[]{ 
-                    "cmd.exe", 
-                    "/c", 
-                    String.format("%s %s", binFile.getAbsolutePath(), command)
+    public Process getNativeProcess(final File binFile, final List<String> arguments) throws IOException {
+        final List<String> command = new ArrayList<String>(arguments.size() + 1);
+        command.add(binFile.getAbsolutePath());
+        command.addAll(arguments);
+
+        return new ProcessBuilder(command).start();
+    }
+
+    /**
+     * Split command line into arguments like <code>cmd.exe</code> does: backslash is separator of path, so only
+     * double quotes are special.
+     */
+    @Override
+    public List<String> splitCommand(final String command) {
+        final List<String> arguments = new ArrayList<String>();
+        final StringBuilder current = new StringBuilder();
+
+        boolean inArgument = false;
+        boolean quoted = false;
+        for (int i = 0; i < command.length(); ++i) {
+            final char c = command.charAt(i);
+
+            if (c == '"') {
+                quoted = !quoted;
+                inArgument = true;
+            } else if (!quoted && Character.isWhitespace(c)) {
+                if (inArgument) {
+                    arguments.add(current.toString());
+                    current.setLength(0);
+                    inArgument = false;
                 }
-            );
-        //@formatter:on
+            } else {
+                current.append(c);
+                inArgument = true;
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException(String.format("Unclosed quote in command: %s!", command));
+        }
+        if (inArgument) {
+            arguments.add(current.toString());
+        }
+
+        return arguments;
+    }
+
+    /**
+     * Quote argument with double quotes. Arguments with double quotes are not supported (they are not allowed in names
+     * of files).
+     */
+    @Override
+    public String quoteArgument(final String argument) {
+        if (argument.indexOf('"') >= 0) {
+            throw new IllegalArgumentException(String.format("Argument can not contain double quotes: %s!", argument));
+        }
+
+        return "\"" + argument + "\"";
+    }
+
+    /**
+     * Pattern of names like <code>avutil.dll</code> and <code>avutil-52.dll</code>.
+     */
+    public static final Pattern SHARED_LIB_PATTERN = Pattern.compile("(?:lib)?(.+?)(?:-(\\d+(?:\\.\\d+)*))?\\.dll",
+            Pattern.CASE_INSENSITIVE);
+
+    @Override
+    protected Pattern getSharedLibPattern() {
+        return SHARED_LIB_PATTERN;
     }
 
     @Override
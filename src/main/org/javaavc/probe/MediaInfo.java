@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.probe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+/**
+ * Description of media file: container, duration, bit rate and streams. Unknown numeric values are <code>-1</code>,
+ * unknown strings are <code>null</code>.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class MediaInfo {
+
+    private final String            url;
+
+    private final String            formatName;
+
+    private final double            duration;
+
+    private final long              bitRate;
+
+    private final long              size;
+
+    private final List<MediaStream> streams;
+
+    public MediaInfo(final String url, final String formatName, final double duration, final long bitRate,
+            final long size, final List<MediaStream> streams) {
+        this.url = url;
+        this.formatName = formatName;
+        this.duration = duration;
+        this.bitRate = bitRate;
+        this.size = size;
+        this.streams = Collections.unmodifiableList(new ArrayList<MediaStream>(streams));
+    }
+
+    /**
+     * Return name of file or URL of media.
+     */
+    public String getUrl() {
+        return this.url;
+    }
+
+    /**
+     * Return short name of container format (for example, <code>mov,mp4,m4a,3gp,3g2,mj2</code>).
+     */
+    public String getFormatName() {
+        return this.formatName;
+    }
+
+    /**
+     * Return duration in seconds.
+     */
+    public double getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * Return total bit rate in bits per second.
+     */
+    public long getBitRate() {
+        return this.bitRate;
+    }
+
+    /**
+     * Return size in bytes.
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    public List<MediaStream> getStreams() {
+        return this.streams;
+    }
+
+    /**
+     * Return the first stream of defined type or <code>null</code>.
+     */
+    public MediaStream findStream(final MediaType type) {
+        for (MediaStream stream : this.streams) {
+            if (stream.getMediaType() == type) {
+                return stream;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s, %.3f s, %d b/s] %s", this.url, this.formatName, this.duration, this.bitRate,
+                this.streams);
+    }
+}
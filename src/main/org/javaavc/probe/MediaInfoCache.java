@@ -0,0 +1,144 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.probe;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.javaavc.platform.FileKey;
+
+/**
+ * Bounded LRU cache of {@link MediaInfo}. Entries are identified by canonical path of file and validated by size and
+ * time of last modification (see {@link FileKey}), so changed file is probed again.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class MediaInfoCache {
+
+    /**
+     * Default maximal number of entries.
+     */
+    public static final int               DEFAULT_CAPACITY = 1024;
+
+    private final int                     capacity;
+
+    private final Map<String, CacheEntry> entries;
+
+    private long                          hits;
+
+    private long                          misses;
+
+    private long                          evictions;
+
+    public MediaInfoCache(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Incorrect capacity: %d!", capacity));
+        }
+
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+                if (size() > MediaInfoCache.this.capacity) {
+                    ++MediaInfoCache.this.evictions;
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    public MediaInfoCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Return cached description or <code>null</code>. Outdated entry (file was changed) is removed.
+     */
+    public synchronized MediaInfo get(final FileKey key) {
+        final CacheEntry entry = this.entries.get(key.getPath());
+        if (entry != null && entry.key.equals(key)) {
+            ++this.hits;
+            return entry.info;
+        }
+
+        if (entry != null) {
+            this.entries.remove(key.getPath());
+        }
+        ++this.misses;
+
+        return null;
+    }
+
+    public synchronized void put(final FileKey key, final MediaInfo info) {
+        this.entries.put(key.getPath(), new CacheEntry(key, info));
+    }
+
+    /**
+     * Remove entry of file.
+     */
+    public synchronized void invalidate(final File file) throws IOException {
+        this.entries.remove(file.getCanonicalPath());
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    private static class CacheEntry {
+
+        private final FileKey   key;
+
+        private final MediaInfo info;
+
+        public CacheEntry(final FileKey key, final MediaInfo info) {
+            this.key = key;
+            this.info = info;
+        }
+    }
+}
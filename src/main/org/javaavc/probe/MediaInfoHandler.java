@@ -0,0 +1,230 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.probe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.javaavc.process.OutputHandler;
+
+/**
+ * Parser of output of <code>ffprobe -print_format flat -show_format -show_streams</code>.
+ *
+ * <p> Output is a list of <code>section.key=value</code> lines, for example
+ * <code>streams.stream.0.codec_name="h264"</code> or <code>format.duration="10.000000"</code>. Strings are quoted,
+ * unknown values are <code>N/A</code>. Nested sections (tags, disposition) are ignored. </p>
+ *
+ * <p>
+ * <h6>Links:</h6>
+ * <ol>
+ * <li><a href="http://ffmpeg.org/ffprobe.html#flat">ffprobe flat writer -- FFmpeg Documentation</a>.</li>
+ * </ol>
+ * </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class MediaInfoHandler extends OutputHandler {
+
+    private static final String                     FORMAT_PREFIX = "format.";
+
+    private static final String                     STREAM_PREFIX = "streams.stream.";
+
+    private final Map<String, String>               format        = new HashMap<String, String>();
+
+    private final Map<Integer, Map<String, String>> streams       = new TreeMap<Integer, Map<String, String>>();
+
+    @Override
+    public void handle(final InputStream stream) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            parse(line);
+        }
+    }
+
+    /**
+     * Parse one line of output.
+     */
+    protected void parse(final String line) {
+        final int separator = line.indexOf('=');
+        if (separator <= 0) {
+            return;
+        }
+        final String key = line.substring(0, separator).trim();
+        final String value = unquote(line.substring(separator + 1).trim());
+
+        if (key.startsWith(FORMAT_PREFIX)) {
+            final String name = key.substring(FORMAT_PREFIX.length());
+            if (name.indexOf('.') < 0) {
+                this.format.put(name, value);
+            }
+        } else if (key.startsWith(STREAM_PREFIX)) {
+            final int dot = key.indexOf('.', STREAM_PREFIX.length());
+            if (dot < 0) {
+                return;
+            }
+            final String name = key.substring(dot + 1);
+            if (name.indexOf('.') >= 0) {
+                return;
+            }
+
+            final int index;
+            try {
+                index = Integer.parseInt(key.substring(STREAM_PREFIX.length(), dot));
+            } catch (NumberFormatException e) {
+                return;
+            }
+
+            Map<String, String> values = this.streams.get(index);
+            if (values == null) {
+                values = new HashMap<String, String>();
+                this.streams.put(index, values);
+            }
+            values.put(name, value);
+        }
+    }
+
+    /**
+     * Return parsed description of media.
+     *
+     * @param url
+     *            Name of file or URL, used if output does not contain it.
+     */
+    public MediaInfo getMediaInfo(final String url) {
+        final List<MediaStream> result = new ArrayList<MediaStream>();
+        for (Map.Entry<Integer, Map<String, String>> entry : this.streams.entrySet()) {
+            final Map<String, String> values = entry.getValue();
+            result.add(new MediaStream(entry.getKey(), parseMediaType(values.get("codec_type")),
+                    parseString(values.get("codec_name")), parseLong(values.get("bit_rate")),
+                    parseDouble(values.get("duration")), (int) parseLong(values.get("width")),
+                    (int) parseLong(values.get("height")), parseString(values.get("pix_fmt")),
+                    parseRational(values.get("avg_frame_rate")), (int) parseLong(values.get("sample_rate")),
+                    (int) parseLong(values.get("channels")), parseString(values.get("sample_fmt"))));
+        }
+
+        final String fileName = parseString(this.format.get("filename"));
+        return new MediaInfo(fileName != null ? fileName : url, parseString(this.format.get("format_name")),
+                parseDouble(this.format.get("duration")), parseLong(this.format.get("bit_rate")),
+                parseLong(this.format.get("size")), result);
+    }
+
+    /**
+     * Remove quotes and escapes of string value.
+     */
+    private static String unquote(final String value) {
+        if (value.length() < 2 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+            return value;
+        }
+
+        final StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 1; i < value.length() - 1; ++i) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length() - 1) {
+                c = value.charAt(++i);
+                switch (c) {
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    default:
+                        break;
+                }
+            }
+            sb.append(c);
+        }
+
+        return sb.toString();
+    }
+
+    private static boolean isUnknown(final String value) {
+        return value == null || value.isEmpty() || "N/A".equals(value);
+    }
+
+    private static String parseString(final String value) {
+        return isUnknown(value) ? null : value;
+    }
+
+    private static long parseLong(final String value) {
+        if (isUnknown(value)) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static double parseDouble(final String value) {
+        if (isUnknown(value)) {
+            return -1;
+        }
+
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parse value like <code>30000/1001</code>.
+     */
+    private static double parseRational(final String value) {
+        if (isUnknown(value)) {
+            return -1;
+        }
+
+        final int separator = value.indexOf('/');
+        if (separator < 0) {
+            return parseDouble(value);
+        }
+
+        final double num = parseDouble(value.substring(0, separator));
+        final double den = parseDouble(value.substring(separator + 1));
+        return num >= 0 && den > 0 ? num / den : -1;
+    }
+
+    private static MediaType parseMediaType(final String value) {
+        if (isUnknown(value)) {
+            return MediaType.UNKNOWN;
+        }
+
+        try {
+            return MediaType.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return MediaType.UNKNOWN;
+        }
+    }
+}
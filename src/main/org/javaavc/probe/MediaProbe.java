@@ -0,0 +1,247 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.probe;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.platform.FileKey;
+import org.javaavc.platform.Platform;
+import org.javaavc.process.OutputHandler;
+import org.javaavc.process.ProcessResult;
+import org.javaavc.process.ProcessScheduler;
+import org.javaavc.process.ProcessThreads;
+
+/**
+ * Service of probe of media files by <code>ffprobe</code> with cache of results.
+ *
+ * <p> Results are stored in {@link MediaInfoCache}, so repeated probes of the same (not changed) file do not start
+ * processes. Concurrent probes of the same file share one process. Number of parallel processes is limited by
+ * {@link ProcessScheduler}. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class MediaProbe implements Closeable {
+
+    /**
+     * Options of <code>ffprobe</code>: machine-readable description of container and streams.
+     */
+    public static final String                                         PROBE_OPTIONS   = "-v error -print_format flat "
+            + "-show_format -show_streams";
+
+    /**
+     * Maximal time of one probe in seconds.
+     */
+    public static final long                                           DEFAULT_TIMEOUT = 60;
+
+    private final Platform                                             platform;
+
+    private final ProcessScheduler                                     scheduler;
+
+    private final MediaInfoCache                                       cache;
+
+    private final ConcurrentMap<FileKey, CompletableFuture<MediaInfo>> pending;
+
+    /**
+     * @param avc
+     *            Instance of wrapper.
+     * @param maxProcesses
+     *            Maximal number of parallel <code>ffprobe</code> processes.
+     * @param cacheCapacity
+     *            Maximal number of cached results.
+     */
+    public MediaProbe(final JavaAVC avc, final int maxProcesses, final int cacheCapacity) {
+        this.platform = Platform.getPlatform();
+        this.scheduler = new ProcessScheduler(avc, maxProcesses);
+        this.cache = new MediaInfoCache(cacheCapacity);
+        this.pending = new ConcurrentHashMap<FileKey, CompletableFuture<MediaInfo>>();
+    }
+
+    /**
+     * Use number of available processors as maximal number of processes and {@link MediaInfoCache#DEFAULT_CAPACITY}.
+     */
+    public MediaProbe(final JavaAVC avc) {
+        this(avc, Runtime.getRuntime().availableProcessors(), MediaInfoCache.DEFAULT_CAPACITY);
+    }
+
+    public MediaInfoCache getCache() {
+        return this.cache;
+    }
+
+    /**
+     * Probe file asynchronously. Result is taken from cache, if file was not changed since last probe.
+     */
+    public CompletableFuture<MediaInfo> probeAsync(final File file) {
+        final FileKey key;
+        try {
+            key = FileKey.of(file);
+        } catch (IOException e) {
+            final CompletableFuture<MediaInfo> failed = new CompletableFuture<MediaInfo>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+
+        final MediaInfo cached = this.cache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        final CompletableFuture<MediaInfo> result = new CompletableFuture<MediaInfo>();
+        final CompletableFuture<MediaInfo> running = this.pending.putIfAbsent(key, result);
+        if (running != null) {
+            return running;
+        }
+
+        result.whenComplete(new BiConsumer<MediaInfo, Throwable>() {
+
+            @Override
+            public void accept(final MediaInfo info, final Throwable failure) {
+                if (info != null) {
+                    MediaProbe.this.cache.put(key, info);
+                }
+                MediaProbe.this.pending.remove(key, result);
+            }
+        });
+
+        try {
+            start(file, result);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
+
+    private void start(final File file, final CompletableFuture<MediaInfo> result) {
+        final MediaInfoHandler output = new MediaInfoHandler();
+        final StringBuilder errors = new StringBuilder();
+
+        final Future<ProcessResult> execution = this.scheduler.submit(JavaAVC.BIN_PROBE,
+                PROBE_OPTIONS + " " + this.platform.quoteArgument(file.getPath()), ProcessScheduler.DEFAULT_PRIORITY,
+                DEFAULT_TIMEOUT, TimeUnit.SECONDS, output, OutputHandler.lines(new Consumer<String>() {
+
+                    @Override
+                    public void accept(final String line) {
+                        errors.append(line).append('\n');
+                    }
+                }));
+
+        // Scheduler returns blocking future, so wait for it in separate (virtual, if available) thread.
+        ProcessThreads.getExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    final ProcessResult processResult = execution.get();
+                    if (processResult.isTimedOut()) {
+                        throw new IOException(String.format("Probe of '%s' was timed out!", file));
+                    }
+                    if (!processResult.isSuccess()) {
+                        throw new IOException(String.format("Can not probe '%s': %s", file, errors.toString().trim()));
+                    }
+
+                    result.complete(output.getMediaInfo(file.getPath()));
+                } catch (InterruptedException e) {
+                    execution.cancel(true);
+                    result.completeExceptionally(e);
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (IOException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Probe file and wait for result.
+     */
+    public MediaInfo probe(final File file) throws IOException {
+        return get(probeAsync(file));
+    }
+
+    /**
+     * Probe several files concurrently and wait for all results.
+     *
+     * @return Descriptions of files in order of given collection.
+     * @throws IOException
+     *             If any file can not be probed (after all probes are finished).
+     */
+    public Map<File, MediaInfo> probeAll(final Collection<File> files) throws IOException {
+        final List<CompletableFuture<MediaInfo>> futures = new ArrayList<CompletableFuture<MediaInfo>>(files.size());
+        for (File file : files) {
+            futures.add(probeAsync(file));
+        }
+
+        final Map<File, MediaInfo> result = new LinkedHashMap<File, MediaInfo>();
+        IOException failure = null;
+        int i = 0;
+        for (File file : files) {
+            try {
+                result.put(file, get(futures.get(i++)));
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        return result;
+    }
+
+    private static MediaInfo get(final CompletableFuture<MediaInfo> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Stop started processes and release resources.
+     */
+    @Override
+    public void close() {
+        this.scheduler.close();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.probe;
+
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+/**
+ * Description of one stream of media file (see {@link MediaInfo}). Unknown numeric values are <code>-1</code>, unknown
+ * strings are <code>null</code>.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class MediaStream {
+
+    private final int       index;
+
+    private final MediaType mediaType;
+
+    private final String    codecName;
+
+    private final long      bitRate;
+
+    private final double    duration;
+
+    private final int       width;
+
+    private final int       height;
+
+    private final String    pixelFormat;
+
+    private final double    frameRate;
+
+    private final int       sampleRate;
+
+    private final int       channels;
+
+    private final String    sampleFormat;
+
+    public MediaStream(final int index, final MediaType mediaType, final String codecName, final long bitRate,
+            final double duration, final int width, final int height, final String pixelFormat,
+            final double frameRate, final int sampleRate, final int channels, final String sampleFormat) {
+        this.index = index;
+        this.mediaType = mediaType;
+        this.codecName = codecName;
+        this.bitRate = bitRate;
+        this.duration = duration;
+        this.width = width;
+        this.height = height;
+        this.pixelFormat = pixelFormat;
+        this.frameRate = frameRate;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.sampleFormat = sampleFormat;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public MediaType getMediaType() {
+        return this.mediaType;
+    }
+
+    public String getCodecName() {
+        return this.codecName;
+    }
+
+    /**
+     * Return bit rate in bits per second.
+     */
+    public long getBitRate() {
+        return this.bitRate;
+    }
+
+    /**
+     * Return duration in seconds.
+     */
+    public double getDuration() {
+        return this.duration;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public String getPixelFormat() {
+        return this.pixelFormat;
+    }
+
+    /**
+     * Return average frame rate.
+     */
+    public double getFrameRate() {
+        return this.frameRate;
+    }
+
+    public int getSampleRate() {
+        return this.sampleRate;
+    }
+
+    public int getChannels() {
+        return this.channels;
+    }
+
+    public String getSampleFormat() {
+        return this.sampleFormat;
+    }
+
+    @Override
+    public String toString() {
+        if (this.mediaType == MediaType.VIDEO) {
+            return String.format("#%d %s %s %dx%d %.2f fps", this.index, this.mediaType, this.codecName, this.width,
+                    this.height, this.frameRate);
+        }
+        if (this.mediaType == MediaType.AUDIO) {
+            return String.format("#%d %s %s %d Hz %d ch", this.index, this.mediaType, this.codecName,
+                    this.sampleRate, this.channels);
+        }
+
+        return String.format("#%d %s %s", this.index, this.mediaType, this.codecName);
+    }
+}
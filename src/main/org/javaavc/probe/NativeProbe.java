@@ -0,0 +1,198 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.probe;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.Libavformat;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+/**
+ * Probe of media inside of JVM (<code>avformat_open_input()</code> and <code>avformat_find_stream_info()</code>),
+ * without start of <code>ffprobe</code> process.
+ *
+ * <p> Time of probe is defined by amount of analyzed data: {@link #setProbeSize(long)},
+ * {@link #setAnalyzeDuration(long)} and {@link #setFpsProbeSize(int)}. By default FFmpeg reads up to 5 MB and analyzes
+ * up to 5 seconds of input. {@link #fast(JavaAVC)} probe reads only beginning of input: it returns in milliseconds, but
+ * some values (for example, duration of files without index or frame rate) can be estimated less accurately or stay
+ * unknown. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://ffmpeg.org/ffmpeg-formats.html#Format-Options">Format Options -- FFmpeg
+ * Documentation</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class NativeProbe {
+
+    /**
+     * Value of options, that means default value of FFmpeg.
+     */
+    public static final long    DEFAULT                 = -1;
+
+    /**
+     * Size of probed data for fast probe (in bytes).
+     */
+    public static final long    FAST_PROBE_SIZE         = 32 * 1024;
+
+    /**
+     * Analyzed duration for fast probe (in microseconds).
+     */
+    public static final long    FAST_ANALYZE_DURATION   = 100 * 1000;
+
+    /**
+     * Number of frames used to probe frame rate for fast probe.
+     */
+    public static final int     FAST_FPS_PROBE_SIZE     = 0;
+
+    /**
+     * Minimal size of probed data, allowed by FFmpeg.
+     */
+    public static final long    MIN_PROBE_SIZE          = 32;
+
+    private static final double MICROSECONDS_PER_SECOND = 1e6;
+
+    private final JavaAVC       avc;
+
+    private long                probeSize               = DEFAULT;
+
+    private long                analyzeDuration         = DEFAULT;
+
+    private int                 fpsProbeSize            = (int) DEFAULT;
+
+    public NativeProbe(final JavaAVC avc) {
+        this.avc = avc;
+    }
+
+    /**
+     * Create probe, that analyze only beginning of input.
+     */
+    public static NativeProbe fast(final JavaAVC avc) {
+        final NativeProbe probe = new NativeProbe(avc);
+        probe.setProbeSize(FAST_PROBE_SIZE);
+        probe.setAnalyzeDuration(FAST_ANALYZE_DURATION);
+        probe.setFpsProbeSize(FAST_FPS_PROBE_SIZE);
+        return probe;
+    }
+
+    public long getProbeSize() {
+        return this.probeSize;
+    }
+
+    /**
+     * Set maximal size of data (in bytes), read to detect format and find streams, or {@link #DEFAULT}.
+     */
+    public void setProbeSize(final long probeSize) {
+        if (probeSize != DEFAULT && probeSize < MIN_PROBE_SIZE) {
+            throw new IllegalArgumentException(String.format("Incorrect probe size: %d!", probeSize));
+        }
+
+        this.probeSize = probeSize;
+    }
+
+    public long getAnalyzeDuration() {
+        return this.analyzeDuration;
+    }
+
+    /**
+     * Set maximal duration of input (in microseconds), analyzed to find streams, or {@link #DEFAULT}.
+     */
+    public void setAnalyzeDuration(final long analyzeDuration) {
+        if (analyzeDuration != DEFAULT && analyzeDuration < 1) {
+            throw new IllegalArgumentException(String.format("Incorrect analyze duration: %d!", analyzeDuration));
+        }
+
+        this.analyzeDuration = analyzeDuration;
+    }
+
+    public int getFpsProbeSize() {
+        return this.fpsProbeSize;
+    }
+
+    /**
+     * Set number of frames, used to probe frame rate, or {@link #DEFAULT}.
+     */
+    public void setFpsProbeSize(final int fpsProbeSize) {
+        if (fpsProbeSize != DEFAULT && fpsProbeSize < 0) {
+            throw new IllegalArgumentException(String.format("Incorrect FPS probe size: %d!", fpsProbeSize));
+        }
+
+        this.fpsProbeSize = fpsProbeSize;
+    }
+
+    /**
+     * Return options of demuxer for current settings.
+     */
+    public Map<String, String> getOptions() {
+        final Map<String, String> options = new HashMap<String, String>();
+        if (this.probeSize != DEFAULT) {
+            options.put("probesize", Long.toString(this.probeSize));
+        }
+        if (this.analyzeDuration != DEFAULT) {
+            options.put("analyzeduration", Long.toString(this.analyzeDuration));
+        }
+        if (this.fpsProbeSize != DEFAULT) {
+            options.put("fpsprobesize", Integer.toString(this.fpsProbeSize));
+        }
+
+        return options;
+    }
+
+    /**
+     * Probe file or URL.
+     */
+    public MediaInfo probe(final String url) throws IOException {
+        final Libavutil avutil = this.avc.getAvutil();
+
+        final Demuxer demuxer = new Demuxer(this.avc, url, getOptions());
+        try {
+            final List<MediaStream> streams = new ArrayList<MediaStream>();
+            for (StreamInfo stream : demuxer.getStreams()) {
+                final boolean video = stream.getMediaType() == MediaType.VIDEO;
+                final boolean audio = stream.getMediaType() == MediaType.AUDIO;
+
+                streams.add(new MediaStream(stream.getIndex(), stream.getMediaType(), stream.getCodecName(),
+                        stream.getBitRate() > 0 ? stream.getBitRate() : -1, stream.getDurationSeconds(),
+                        video ? stream.getWidth() : -1, video ? stream.getHeight() : -1,
+                        video ? avutil.av_get_pix_fmt_name(stream.getPixelFormat()) : null,
+                        video && stream.getFrameRate() > 0 ? stream.getFrameRate() : -1,
+                        audio ? stream.getSampleRate() : -1, audio ? stream.getChannels() : -1,
+                        audio ? avutil.av_get_sample_fmt_name(stream.getSampleFormat()) : null));
+            }
+
+            final double duration = demuxer.getDuration() != Libavformat.AV_NOPTS_VALUE ? demuxer.getDuration()
+                    / MICROSECONDS_PER_SECOND : -1;
+            final long bitRate = demuxer.getBitRate() > 0 ? demuxer.getBitRate() : -1;
+            final File file = new File(url);
+
+            return new MediaInfo(url, demuxer.getFormatName(), duration, bitRate, file.isFile() ? file.length() : -1,
+                    streams);
+        } finally {
+            demuxer.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.process;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Handler of output stream of process. Handler reads stream until end of it (stream is closed by caller).
+ *
+ * <p> Handlers are called concurrently for standard and error output of process, in threads of
+ * {@link ProcessThreads}. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public abstract class OutputHandler {
+
+    /**
+     * Size of buffer for read of output.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Read stream until end of it.
+     */
+    public abstract void handle(final InputStream stream) throws IOException;
+
+    /**
+     * Pass each line of output (without line terminator) to consumer.
+     */
+    public static OutputHandler lines(final Consumer<String> consumer) {
+        return new OutputHandler() {
+
+            @Override
+            public void handle(final InputStream stream) throws IOException {
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    consumer.accept(line);
+                }
+            }
+        };
+    }
+
+    /**
+     * Pass raw chunks of output to consumer. Buffer is reused for next chunk, so consumer should not keep reference to
+     * it after return.
+     */
+    public static OutputHandler chunks(final Consumer<ByteBuffer> consumer) {
+        return new OutputHandler() {
+
+            @Override
+            public void handle(final InputStream stream) throws IOException {
+                final byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+                final ByteBuffer view = ByteBuffer.wrap(buffer);
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    if (read > 0) {
+                        view.clear();
+                        view.limit(read);
+                        consumer.accept(view);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Print each line of output into given stream (for example, {@link System#out}).
+     */
+    public static OutputHandler print(final PrintStream out) {
+        return lines(new Consumer<String>() {
+
+            @Override
+            public void accept(final String line) {
+                out.println(line);
+            }
+        });
+    }
+
+    /**
+     * Read and drop output. Output should be read anyway: process can stall on full pipe.
+     */
+    public static OutputHandler discard() {
+        return new OutputHandler() {
+
+            @Override
+            public void handle(final InputStream stream) throws IOException {
+                final byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+                while (stream.read(buffer) != -1) {
+                    // Drop.
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.process;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Process of FFmpeg utils with streaming input and output through pipes (<code>pipe:0</code> and
+ * <code>pipe:1</code>), without temporary files.
+ *
+ * <p> Data, written into {@link #getInput()}, is read by process from <code>pipe:0</code>; data, written by process
+ * into <code>pipe:1</code>, is read from {@link #getOutput()}. Error output is drained concurrently by handler. </p>
+ *
+ * <p> Usage: <pre>
+ * try (PipedProcess process = avc.commandLineExecutePiped(JavaAVC.BIN_FFMPEG,
+ *         "-i pipe:0 -f matroska pipe:1", OutputHandler.discard())) {
+ *     process.transferFrom(upload);
+ *     process.transferTo(response);
+ *     if (process.getExitCode().get() != 0) {
+ *         // Handle error.
+ *     }
+ * }
+ * </pre> Input and output should be handled by different threads (or asynchronously by
+ * {@link #transferFrom(InputStream)}): process can block on writing into output while caller blocks on writing into
+ * input. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class PipedProcess implements Closeable {
+
+    private final Process                    process;
+
+    private final CompletableFuture<Integer> exitCode;
+
+    /**
+     * @param process
+     *            Started process.
+     * @param error
+     *            Handler of error output.
+     */
+    public PipedProcess(final Process process, final OutputHandler error) {
+        this.process = process;
+        this.exitCode = ProcessThreads.execute(process, null, error);
+    }
+
+    /**
+     * Return stream, connected to <code>pipe:0</code> of process. It should be closed to signal end of input.
+     */
+    public OutputStream getInput() {
+        return this.process.getOutputStream();
+    }
+
+    /**
+     * Return stream, connected to <code>pipe:1</code> of process.
+     */
+    public InputStream getOutput() {
+        return this.process.getInputStream();
+    }
+
+    /**
+     * Return channel, connected to <code>pipe:0</code> of process. It should be closed to signal end of input.
+     */
+    public WritableByteChannel getInputChannel() {
+        return Channels.newChannel(getInput());
+    }
+
+    /**
+     * Return channel, connected to <code>pipe:1</code> of process.
+     */
+    public ReadableByteChannel getOutputChannel() {
+        return Channels.newChannel(getOutput());
+    }
+
+    /**
+     * Copy source into input of process asynchronously. Input of process is closed at the end of source.
+     *
+     * @return Future of number of copied bytes.
+     */
+    public CompletableFuture<Long> transferFrom(final InputStream source) {
+        return CompletableFuture.supplyAsync(new Supplier<Long>() {
+
+            @Override
+            public Long get() {
+                try {
+                    final OutputStream input = getInput();
+                    try {
+                        return copy(source, input);
+                    } finally {
+                        input.close();
+                    }
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }
+        }, ProcessThreads.getExecutor());
+    }
+
+    /**
+     * Copy output of process into target until end of output (in current thread). Target is not closed.
+     *
+     * @return Number of copied bytes.
+     */
+    public long transferTo(final OutputStream target) throws IOException {
+        return copy(getOutput(), target);
+    }
+
+    private static long copy(final InputStream from, final OutputStream to) throws IOException {
+        final byte[] buffer = new byte[OutputHandler.DEFAULT_BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = from.read(buffer)) != -1) {
+            to.write(buffer, 0, read);
+            total += read;
+        }
+        to.flush();
+
+        return total;
+    }
+
+    /**
+     * Return future of exit code. It is completed when process is finished and error output is read.
+     */
+    public CompletableFuture<Integer> getExitCode() {
+        return this.exitCode;
+    }
+
+    /**
+     * Close pipes and kill process, if it is still running.
+     */
+    @Override
+    public void close() {
+        closeQuietly(getInput());
+        closeQuietly(getOutput());
+        if (!this.exitCode.isDone()) {
+            this.exitCode.cancel(true);
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Pipe is already broken.
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.process;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of process of FFmpeg utils, executed by {@link ProcessScheduler}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class ProcessResult {
+
+    private final int     exitCode;
+
+    private final boolean timedOut;
+
+    private final long    queueTime;
+
+    private final long    executionTime;
+
+    /**
+     * @param exitCode
+     *            Exit code of process.
+     * @param timedOut
+     *            <code>true</code> if process was killed by timeout.
+     * @param queueTime
+     *            Time in queue in nanoseconds.
+     * @param executionTime
+     *            Time of execution in nanoseconds.
+     */
+    public ProcessResult(final int exitCode, final boolean timedOut, final long queueTime, final long executionTime) {
+        this.exitCode = exitCode;
+        this.timedOut = timedOut;
+        this.queueTime = queueTime;
+        this.executionTime = executionTime;
+    }
+
+    public int getExitCode() {
+        return this.exitCode;
+    }
+
+    /**
+     * Return <code>true</code> if process was finished by itself with zero exit code.
+     */
+    public boolean isSuccess() {
+        return !this.timedOut && this.exitCode == 0;
+    }
+
+    /**
+     * Return <code>true</code> if process was killed, because timeout of job was exceeded.
+     */
+    public boolean isTimedOut() {
+        return this.timedOut;
+    }
+
+    /**
+     * Return time between submit of job and start of process.
+     */
+    public long getQueueTime(final TimeUnit unit) {
+        return unit.convert(this.queueTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Return time between start and finish of process.
+     */
+    public long getExecutionTime(final TimeUnit unit) {
+        return unit.convert(this.executionTime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("exit code: %d, timed out: %b, queue: %d ms, execution: %d ms", this.exitCode,
+                this.timedOut, getQueueTime(TimeUnit.MILLISECONDS), getExecutionTime(TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.process;
+
+import java.io.Closeable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.javaavc.JavaAVC;
+
+/**
+ * Managed executor for command line of FFmpeg utils.
+ *
+ * <p> Scheduler limits number of concurrently running processes. Jobs above the limit wait in priority queue: jobs
+ * with higher priority are started first, jobs with equal priority are started in order of submit. Number of waiting
+ * jobs can be limited too, then job above the limit is rejected with {@link RejectedExecutionException}. Process is
+ * killed if it runs longer than timeout of job. </p>
+ *
+ * <p> Usage: <pre>
+ * try (ProcessScheduler scheduler = new ProcessScheduler(avc, 4)) {
+ *     final Future&lt;ProcessResult&gt; result = scheduler.submit(JavaAVC.BIN_FFMPEG, "-i input.mp4 output.mkv",
+ *             ProcessScheduler.DEFAULT_PRIORITY, 10, TimeUnit.MINUTES);
+ *     if (!result.get().isSuccess()) {
+ *         // Handle error.
+ *     }
+ * }
+ * </pre> </p>
+ *
+ * <p> By default output of processes is printed into {@link System#out} and {@link System#err} (like
+ * {@link JavaAVC#commandLineExecute(String, String)}), but own {@link OutputHandler} can be passed for each job.
+ * Scheduler is thread-safe. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class ProcessScheduler implements Closeable {
+
+    /**
+     * Default priority of job.
+     */
+    public static final int                DEFAULT_PRIORITY = 0;
+
+    /**
+     * Value of timeout, which means "no timeout".
+     */
+    public static final long               NO_TIMEOUT       = 0;
+
+    /**
+     * Value of queue capacity, which means "unbounded queue".
+     */
+    public static final int                UNBOUNDED        = 0;
+
+    protected final JavaAVC                avc;
+
+    protected final int                    maxProcesses;
+
+    protected final int                    maxQueued;
+
+    private final ThreadPoolExecutor       executor;
+
+    private final ScheduledExecutorService timer;
+
+    private final AtomicLong               sequence         = new AtomicLong();
+
+    private final Object                   submitLock       = new Object();
+
+    /*
+     * Metrics.
+     */
+    private final AtomicInteger            running          = new AtomicInteger();
+
+    private final AtomicLong               submitted        = new AtomicLong();
+
+    private final AtomicLong               rejected         = new AtomicLong();
+
+    private final AtomicLong               completed        = new AtomicLong();
+
+    private final AtomicLong               failed           = new AtomicLong();
+
+    private final AtomicLong               timedOut         = new AtomicLong();
+
+    private final AtomicLong               started          = new AtomicLong();
+
+    private final AtomicLong               totalQueueTime   = new AtomicLong();
+
+    private final AtomicLong               maxQueueTime     = new AtomicLong();
+
+    private final AtomicLong               totalExecTime    = new AtomicLong();
+
+    /**
+     * Create scheduler with unbounded queue.
+     */
+    public ProcessScheduler(final JavaAVC avc, final int maxProcesses) {
+        this(avc, maxProcesses, UNBOUNDED);
+    }
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param maxProcesses
+     *            Maximal number of concurrently running processes.
+     * @param maxQueued
+     *            Maximal number of waiting jobs or {@link #UNBOUNDED}.
+     */
+    public ProcessScheduler(final JavaAVC avc, final int maxProcesses, final int maxQueued) {
+        if (maxProcesses < 1) {
+            throw new IllegalArgumentException(String.format("Incorrect number of processes: %d!", maxProcesses));
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException(String.format("Incorrect capacity of queue: %d!", maxQueued));
+        }
+
+        this.avc = avc;
+        this.maxProcesses = maxProcesses;
+        this.maxQueued = maxQueued;
+
+        this.executor = new ThreadPoolExecutor(maxProcesses, maxProcesses, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>(), new ProcessThreads.DaemonThreadFactory("javaavc-process"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                new ProcessThreads.DaemonThreadFactory("javaavc-timeout"));
+    }
+
+    /**
+     * Submit job with {@link #DEFAULT_PRIORITY} and without timeout.
+     */
+    public Future<ProcessResult> submit(final String binName, final String command) {
+        return submit(binName, command, DEFAULT_PRIORITY, NO_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Submit job. Cancel of returned future kills running process.
+     *
+     * @param binName
+     *            Name of binary file (use <code>JavaAVC.BIN_*</code> constants).
+     * @param command
+     *            Command to execute.
+     * @param priority
+     *            Priority of job: jobs with higher priority are started first.
+     * @param timeout
+     *            Maximal time of execution (time in queue is not counted) or {@link #NO_TIMEOUT}.
+     * @param unit
+     *            Unit of timeout.
+     * @throws RejectedExecutionException
+     *             If queue is full or scheduler is closed.
+     */
+    public Future<ProcessResult> submit(final String binName, final String command, final int priority,
+            final long timeout, final TimeUnit unit) {
+        return submit(binName, command, priority, timeout, unit, OutputHandler.print(System.out),
+                OutputHandler.print(System.err));
+    }
+
+    /**
+     * Submit job with own handlers of output.
+     *
+     * @param output
+     *            Handler of standard output.
+     * @param error
+     *            Handler of error output.
+     * @see #submit(String, String, int, long, TimeUnit)
+     */
+    public Future<ProcessResult> submit(final String binName, final String command, final int priority,
+            final long timeout, final TimeUnit unit, final OutputHandler output, final OutputHandler error) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException(String.format("Incorrect timeout: %d!", timeout));
+        }
+        final long submitTime = System.nanoTime();
+        final long timeoutNanos = unit.toNanos(timeout);
+        final Job job = new Job(priority, this.sequence.getAndIncrement(), new Callable<ProcessResult>() {
+
+            @Override
+            public ProcessResult call() throws Exception {
+                return execute(binName, command, submitTime, timeoutNanos, output, error);
+            }
+        });
+
+        // Check of depth and enqueue are atomic, so concurrent submits can not overfill queue. Workers take jobs
+        // without lock, but it only makes queue shorter.
+        synchronized (this.submitLock) {
+            if (this.maxQueued != UNBOUNDED && this.executor.getQueue().size() >= this.maxQueued) {
+                this.rejected.incrementAndGet();
+                throw new RejectedExecutionException(String.format("Queue is full: %d jobs!", this.maxQueued));
+            }
+
+            this.submitted.incrementAndGet();
+            try {
+                this.executor.execute(job);
+            } catch (RejectedExecutionException e) {
+                this.submitted.decrementAndGet();
+                this.rejected.incrementAndGet();
+                throw e;
+            }
+        }
+
+        return job;
+    }
+
+    private ProcessResult execute(final String binName, final String command, final long submitTime,
+            final long timeoutNanos, final OutputHandler output, final OutputHandler error) throws Exception {
+        final long startTime = System.nanoTime();
+        final long queueTime = startTime - submitTime;
+        this.started.incrementAndGet();
+        this.totalQueueTime.addAndGet(queueTime);
+        updateMax(this.maxQueueTime, queueTime);
+
+        this.running.incrementAndGet();
+        try {
+            final Process process = this.avc.startProcess(binName, command);
+
+            final AtomicBoolean killed = new AtomicBoolean();
+            ScheduledFuture<?> killer = null;
+            if (timeoutNanos != NO_TIMEOUT) {
+                killer = this.timer.schedule(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        killed.set(true);
+                        process.destroy();
+                    }
+                }, timeoutNanos, TimeUnit.NANOSECONDS);
+            }
+
+            // Current thread only waits, so it can be interrupted by cancel of job.
+            final CompletableFuture<Integer> execution = ProcessThreads.execute(process, output, error);
+            int exitCode;
+            try {
+                exitCode = execution.get();
+            } catch (InterruptedException e) {
+                // Job was cancelled or scheduler was closed.
+                execution.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                // Output of killed process can be broken, it is not a failure of job.
+                if (!killed.get()) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+                exitCode = process.waitFor();
+            } finally {
+                if (killer != null) {
+                    killer.cancel(false);
+                }
+            }
+
+            final long executionTime = System.nanoTime() - startTime;
+            this.totalExecTime.addAndGet(executionTime);
+            if (killed.get()) {
+                this.timedOut.incrementAndGet();
+            } else {
+                this.completed.incrementAndGet();
+            }
+
+            return new ProcessResult(exitCode, killed.get(), queueTime, executionTime);
+        } catch (Exception e) {
+            this.failed.incrementAndGet();
+            throw e;
+        } finally {
+            this.running.decrementAndGet();
+        }
+    }
+
+    private static void updateMax(final AtomicLong max, final long value) {
+        long current;
+        while ((current = max.get()) < value) {
+            if (max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    public int getMaxProcesses() {
+        return this.maxProcesses;
+    }
+
+    /**
+     * Return maximal number of waiting jobs or {@link #UNBOUNDED}.
+     */
+    public int getMaxQueued() {
+        return this.maxQueued;
+    }
+
+    /**
+     * Return number of jobs, waiting in queue.
+     */
+    public int getQueueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * Return number of running processes.
+     */
+    public int getRunning() {
+        return this.running.get();
+    }
+
+    public long getSubmitted() {
+        return this.submitted.get();
+    }
+
+    /**
+     * Return number of jobs, rejected because queue was full or scheduler was closed.
+     */
+    public long getRejected() {
+        return this.rejected.get();
+    }
+
+    /**
+     * Return number of processes, which were finished by itself (with any exit code).
+     */
+    public long getCompleted() {
+        return this.completed.get();
+    }
+
+    /**
+     * Return number of jobs, failed with exception (including cancelled jobs).
+     */
+    public long getFailed() {
+        return this.failed.get();
+    }
+
+    /**
+     * Return number of processes, killed by timeout.
+     */
+    public long getTimedOut() {
+        return this.timedOut.get();
+    }
+
+    /**
+     * Return average time between submit and start of job.
+     */
+    public long getAverageQueueTime(final TimeUnit unit) {
+        final long count = this.started.get();
+        return count == 0 ? 0 : unit.convert(this.totalQueueTime.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Return maximal time between submit and start of job.
+     */
+    public long getMaxQueueTime(final TimeUnit unit) {
+        return unit.convert(this.maxQueueTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Return average time of execution of finished processes (including killed by timeout).
+     */
+    public long getAverageExecutionTime(final TimeUnit unit) {
+        final long count = this.completed.get() + this.timedOut.get();
+        return count == 0 ? 0 : unit.convert(this.totalExecTime.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stop accept of new jobs. Waiting jobs are executed.
+     */
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * Wait until all jobs will be finished after {@link #shutdown()}.
+     *
+     * @return <code>true</code> if all jobs were finished and <code>false</code> if timeout elapsed.
+     */
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return this.executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Stop scheduler: waiting jobs are cancelled and running processes are killed.
+     */
+    @Override
+    public void close() {
+        for (Runnable job : this.executor.shutdownNow()) {
+            ((Job) job).cancel(false);
+        }
+        this.timer.shutdownNow();
+    }
+
+    /**
+     * Job in priority queue: higher priority first, then first submitted.
+     */
+    private static class Job extends FutureTask<ProcessResult> implements Comparable<Job> {
+
+        private final int  priority;
+
+        private final long sequence;
+
+        public Job(final int priority, final long sequence, final Callable<ProcessResult> callable) {
+            super(callable);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(final Job other) {
+            if (this.priority != other.priority) {
+                return this.priority > other.priority ? -1 : 1;
+            }
+
+            return this.sequence < other.sequence ? -1 : (this.sequence == other.sequence ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shared threads for drain output and wait of processes.
+ *
+ * <p> Each running process needs up to three blocked threads (standard output, error output and exit). If virtual
+ * threads are available (Java 21 or newer), they are used, so one JVM can drive hundreds of processes. Otherwise
+ * cached pool of daemon threads is used. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="https://openjdk.org/jeps/444">JEP 444: Virtual Threads</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public final class ProcessThreads {
+
+    private static final boolean         VIRTUAL;
+
+    private static final ExecutorService EXECUTOR;
+
+    static {
+        ExecutorService executor;
+        boolean virtual;
+        try {
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            executor = (ExecutorService) factory.invoke(null);
+            virtual = true;
+        } catch (Exception e) {
+            // Virtual threads are not supported by this JVM.
+            executor = Executors.newCachedThreadPool(new DaemonThreadFactory("javaavc-process-io"));
+            virtual = false;
+        }
+
+        EXECUTOR = executor;
+        VIRTUAL = virtual;
+    }
+
+    private ProcessThreads() {
+    }
+
+    /**
+     * Return shared executor. It should not be shut down.
+     */
+    public static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Return <code>true</code> if executor uses virtual threads.
+     */
+    public static boolean isVirtual() {
+        return VIRTUAL;
+    }
+
+    /**
+     * Drain standard and error output of started process concurrently and wait for it without block of caller.
+     *
+     * <p> If handler fails, process is killed. If returned future is cancelled (or completed by caller), process is
+     * killed too. </p>
+     *
+     * @param process
+     *            Started process.
+     * @param output
+     *            Handler of standard output or <code>null</code> if caller reads standard output by itself.
+     * @param error
+     *            Handler of error output.
+     * @return Future of exit code. It is completed when process is finished and both outputs are read.
+     */
+    public static CompletableFuture<Integer> execute(final Process process, final OutputHandler output,
+            final OutputHandler error) {
+        final CompletableFuture<Void> outputDrain = output == null ? CompletableFuture.completedFuture((Void) null)
+                : drain(process, process.getInputStream(), output);
+        final CompletableFuture<Void> errorDrain = drain(process, process.getErrorStream(), error);
+        final CompletableFuture<Integer> exit = CompletableFuture.supplyAsync(new Supplier<Integer>() {
+
+            @Override
+            public Integer get() {
+                try {
+                    return process.waitFor();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                }
+            }
+        }, EXECUTOR);
+
+        final CompletableFuture<Integer> result = CompletableFuture.allOf(outputDrain, errorDrain, exit).thenApply(
+                new Function<Void, Integer>() {
+
+                    @Override
+                    public Integer apply(final Void ignored) {
+                        return exit.join();
+                    }
+                });
+        result.whenComplete(new BiConsumer<Integer, Throwable>() {
+
+            @Override
+            public void accept(final Integer exitCode, final Throwable failure) {
+                if (failure != null) {
+                    process.destroy();
+                }
+            }
+        });
+
+        return result;
+    }
+
+    private static CompletableFuture<Void> drain(final Process process, final InputStream stream,
+            final OutputHandler handler) {
+        return CompletableFuture.runAsync(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    try {
+                        handler.handle(stream);
+                    } finally {
+                        stream.close();
+                    }
+                } catch (IOException e) {
+                    // Stream is closed, when process is killed.
+                    if (process.isAlive()) {
+                        process.destroy();
+                        throw new CompletionException(e);
+                    }
+                } catch (RuntimeException e) {
+                    process.destroy();
+                    throw e;
+                }
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Factory of named daemon threads: threads should not keep JVM alive.
+     */
+    static class DaemonThreadFactory implements ThreadFactory {
+
+        private final String        prefix;
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        public DaemonThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, this.prefix + "-" + this.counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.process;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress of <code>ffmpeg</code> run, reported by <code>-progress</code> option.
+ *
+ * <p> Unknown values (<code>N/A</code> in report) are <code>-1</code>. </p>
+ *
+ * <p> <h6>Links:</h6> <ol> <li><a href="http://ffmpeg.org/ffmpeg.html#Advanced-options">ffmpeg -- FFmpeg
+ * Documentation</a>.</li> </ol> </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Progress {
+
+    private final long    frame;
+
+    private final double  fps;
+
+    private final double  bitrate;
+
+    private final long    totalSize;
+
+    private final long    outTime;
+
+    private final long    dupFrames;
+
+    private final long    dropFrames;
+
+    private final double  speed;
+
+    private final long    elapsed;
+
+    private final boolean end;
+
+    /**
+     * @param frame
+     *            Number of encoded frames.
+     * @param fps
+     *            Current encoding rate in frames per second.
+     * @param bitrate
+     *            Current bit rate of output in kbit/s.
+     * @param totalSize
+     *            Size of output in bytes.
+     * @param outTime
+     *            Timestamp of output in microseconds.
+     * @param dupFrames
+     *            Number of duplicated frames.
+     * @param dropFrames
+     *            Number of dropped frames.
+     * @param speed
+     *            Ratio of output time to wall-clock time.
+     * @param elapsed
+     *            Wall-clock time since start of process in nanoseconds.
+     * @param end
+     *            <code>true</code> for final report.
+     */
+    public Progress(final long frame, final double fps, final double bitrate, final long totalSize, final long outTime,
+            final long dupFrames, final long dropFrames, final double speed, final long elapsed, final boolean end) {
+        this.frame = frame;
+        this.fps = fps;
+        this.bitrate = bitrate;
+        this.totalSize = totalSize;
+        this.outTime = outTime;
+        this.dupFrames = dupFrames;
+        this.dropFrames = dropFrames;
+        this.speed = speed;
+        this.elapsed = elapsed;
+        this.end = end;
+    }
+
+    public long getFrame() {
+        return this.frame;
+    }
+
+    public double getFps() {
+        return this.fps;
+    }
+
+    /**
+     * Return bit rate of output in kbit/s.
+     */
+    public double getBitrate() {
+        return this.bitrate;
+    }
+
+    /**
+     * Return size of output in bytes.
+     */
+    public long getTotalSize() {
+        return this.totalSize;
+    }
+
+    /**
+     * Return timestamp of output in microseconds.
+     */
+    public long getOutTime() {
+        return this.outTime;
+    }
+
+    public long getDupFrames() {
+        return this.dupFrames;
+    }
+
+    public long getDropFrames() {
+        return this.dropFrames;
+    }
+
+    /**
+     * Return ratio of output time to wall-clock time (<code>1.0</code> is real-time). If <code>ffmpeg</code> does not
+     * report speed, it is computed from output time and elapsed time.
+     */
+    public double getSpeed() {
+        return this.speed;
+    }
+
+    /**
+     * Return wall-clock time since start of process.
+     */
+    public long getElapsed(final TimeUnit unit) {
+        return unit.convert(this.elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Return <code>true</code> for final report of run.
+     */
+    public boolean isEnd() {
+        return this.end;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("frame=%d fps=%.1f bitrate=%.1fkbits/s size=%d time=%dus speed=%.2fx%s", this.frame,
+                this.fps, this.bitrate, this.totalSize, this.outTime, this.speed, this.end ? " (end)" : "");
+    }
+}
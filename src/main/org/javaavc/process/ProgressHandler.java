@@ -0,0 +1,185 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.process;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * Parser of machine-readable progress of <code>ffmpeg</code> (output of <code>-progress pipe:1</code>).
+ *
+ * <p> Report is a block of <code>key=value</code> lines, terminated by <code>progress=continue</code> or
+ * <code>progress=end</code>. Unknown keys are ignored. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class ProgressHandler extends OutputHandler {
+
+    private static final double    MICROSECONDS_PER_NANOSECOND = 1e-3;
+
+    private final ProgressListener listener;
+
+    private final long             startTime;
+
+    private volatile Progress      last;
+
+    /*
+     * Values of current block.
+     */
+    private long                   frame;
+
+    private double                 fps;
+
+    private double                 bitrate;
+
+    private long                   totalSize;
+
+    private long                   outTime;
+
+    private long                   dupFrames;
+
+    private long                   dropFrames;
+
+    private double                 speed;
+
+    /**
+     * @param listener
+     *            Listener of progress, can be <code>null</code>.
+     */
+    public ProgressHandler(final ProgressListener listener) {
+        this.listener = listener;
+        this.startTime = System.nanoTime();
+        reset();
+    }
+
+    /**
+     * Return last progress report or <code>null</code> if there were no reports.
+     */
+    public Progress getLastProgress() {
+        return this.last;
+    }
+
+    @Override
+    public void handle(final InputStream stream) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            parse(line);
+        }
+    }
+
+    /**
+     * Parse one line of report.
+     */
+    protected void parse(final String line) {
+        final int separator = line.indexOf('=');
+        if (separator <= 0) {
+            return;
+        }
+        final String key = line.substring(0, separator).trim();
+        final String value = line.substring(separator + 1).trim();
+
+        switch (key) {
+            case "frame":
+                this.frame = parseLong(value);
+                break;
+            case "fps":
+                this.fps = parseDouble(value);
+                break;
+            case "bitrate":
+                this.bitrate = parseDouble(strip(value, "kbits/s"));
+                break;
+            case "total_size":
+                this.totalSize = parseLong(value);
+                break;
+            case "out_time_ms":
+                // Despite of name, value is in microseconds.
+                this.outTime = parseLong(value);
+                break;
+            case "dup_frames":
+                this.dupFrames = parseLong(value);
+                break;
+            case "drop_frames":
+                this.dropFrames = parseLong(value);
+                break;
+            case "speed":
+                this.speed = parseDouble(strip(value, "x"));
+                break;
+            case "progress":
+                report("end".equals(value));
+                break;
+            default:
+                // Ignore other values (like "stream_0_0_q" or "out_time").
+                break;
+        }
+    }
+
+    private void report(final boolean end) {
+        final long elapsed = System.nanoTime() - this.startTime;
+
+        double currentSpeed = this.speed;
+        if (currentSpeed < 0 && this.outTime >= 0 && elapsed > 0) {
+            currentSpeed = this.outTime / (elapsed * MICROSECONDS_PER_NANOSECOND);
+        }
+
+        final Progress progress = new Progress(this.frame, this.fps, this.bitrate, this.totalSize, this.outTime,
+                this.dupFrames, this.dropFrames, currentSpeed, elapsed, end);
+        this.last = progress;
+        reset();
+
+        if (this.listener != null) {
+            this.listener.onProgress(progress);
+        }
+    }
+
+    private void reset() {
+        this.frame = -1;
+        this.fps = -1;
+        this.bitrate = -1;
+        this.totalSize = -1;
+        this.outTime = -1;
+        this.dupFrames = -1;
+        this.dropFrames = -1;
+        this.speed = -1;
+    }
+
+    private static String strip(final String value, final String suffix) {
+        return value.endsWith(suffix) ? value.substring(0, value.length() - suffix.length()).trim() : value;
+    }
+
+    private static long parseLong(final String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            // "N/A".
+            return -1;
+        }
+    }
+
+    private static double parseDouble(final String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            // "N/A".
+            return -1;
+        }
+    }
+}
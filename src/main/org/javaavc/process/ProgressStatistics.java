@@ -0,0 +1,118 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.process;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Final statistics of <code>ffmpeg</code> run with progress reports.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class ProgressStatistics {
+
+    private static final double NANOSECONDS_PER_SECOND = 1e9;
+
+    private final int           exitCode;
+
+    private final Progress      progress;
+
+    private final long          elapsed;
+
+    /**
+     * @param exitCode
+     *            Exit code of process.
+     * @param progress
+     *            Last progress report or <code>null</code> if there were no reports.
+     * @param elapsed
+     *            Wall-clock time of run in nanoseconds.
+     */
+    public ProgressStatistics(final int exitCode, final Progress progress, final long elapsed) {
+        this.exitCode = exitCode;
+        this.progress = progress;
+        this.elapsed = elapsed;
+    }
+
+    public int getExitCode() {
+        return this.exitCode;
+    }
+
+    /**
+     * Return last progress report or <code>null</code> if process did not report progress (for example, because of
+     * incorrect arguments).
+     */
+    public Progress getLastProgress() {
+        return this.progress;
+    }
+
+    /**
+     * Return wall-clock time of run.
+     */
+    public long getElapsed(final TimeUnit unit) {
+        return unit.convert(this.elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Return number of encoded frames or <code>-1</code> if unknown.
+     */
+    public long getFrames() {
+        return this.progress == null ? -1 : this.progress.getFrame();
+    }
+
+    /**
+     * Return average number of encoded frames per second of wall-clock time or <code>-1</code> if unknown.
+     */
+    public double getAverageFps() {
+        if (getFrames() < 0 || this.elapsed <= 0) {
+            return -1;
+        }
+
+        return getFrames() * NANOSECONDS_PER_SECOND / this.elapsed;
+    }
+
+    /**
+     * Return average ratio of output time to wall-clock time or <code>-1</code> if unknown.
+     */
+    public double getAverageSpeed() {
+        if (this.progress == null || this.progress.getOutTime() < 0 || this.elapsed <= 0) {
+            return -1;
+        }
+
+        return this.progress.getOutTime() * 1e3 / this.elapsed;
+    }
+
+    /**
+     * Return average bit rate of output in kbit/s or <code>-1</code> if unknown.
+     */
+    public double getAverageBitrate() {
+        if (this.progress == null || this.progress.getTotalSize() < 0 || this.progress.getOutTime() <= 0) {
+            return -1;
+        }
+
+        // Bits per microsecond is equal to kbit per millisecond, so scale by 1000 to get kbit/s.
+        return this.progress.getTotalSize() * 8.0 * 1e3 / this.progress.getOutTime();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("exit code: %d, frames: %d, fps: %.1f, speed: %.2fx, bitrate: %.1fkbits/s, time: %d ms",
+                this.exitCode, getFrames(), getAverageFps(), getAverageSpeed(), getAverageBitrate(),
+                getElapsed(TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.seek;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.Libavformat;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.AVRational;
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+/**
+ * Index of keyframes of one stream of media file: timestamp and byte offset of each keyframe packet.
+ *
+ * <p> Index is built by one pass over packets of file (without decoding) and then used for random access: demuxer is
+ * moved directly to byte offset of keyframe before target time (see {@link #seek(Demuxer, long)}), instead of
+ * container-level seek, which is slow and inaccurate for formats without index (like FLV). For formats, which do not
+ * allow seek by bytes (like MP4), demuxer seeks to exact timestamp of keyframe. </p>
+ *
+ * <p> Index can be stored in compact binary sidecar file (see {@link #write(File)} and {@link #read(File)}):
+ * timestamps and offsets are stored as variable-length deltas, so one entry takes a few bytes. Sidecar keeps size and
+ * time of last modification of indexed file to detect outdated index. </p>
+ *
+ * <p> Index is immutable and thread-safe. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class SeekIndex {
+
+    private static final int    MAGIC   = 0x4A534B49;  // "JSKI"
+
+    private static final int    VERSION = 1;
+
+    private final int           streamIndex;
+
+    private final AVRational    timeBase;
+
+    private final long[]        timestamps;
+
+    private final long[]        positions;
+
+    private final long          fileSize;
+
+    private final long          lastModified;
+
+    public SeekIndex(final int streamIndex, final AVRational timeBase, final long[] timestamps,
+            final long[] positions, final long fileSize, final long lastModified) {
+        if (streamIndex < 0) {
+            throw new IllegalArgumentException(String.format("Incorrect stream index: %d!", streamIndex));
+        }
+        if (timeBase == null || timeBase.num <= 0 || timeBase.den <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect time base: %s!", timeBase));
+        }
+        if (timestamps.length != positions.length) {
+            throw new IllegalArgumentException(
+                    String.format("Incorrect number of positions: %d!", positions.length));
+        }
+
+        this.streamIndex = streamIndex;
+        this.timeBase = new AVRational(timeBase.num, timeBase.den);
+        this.timestamps = timestamps;
+        this.positions = positions;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Build index of video stream (or audio stream, if there is no video) of file by reading of all packets.
+     */
+    public static SeekIndex scan(final JavaAVC avc, final String url) throws IOException {
+        final File file = new File(url);
+        final long fileSize = file.isFile() ? file.length() : -1L;
+        final long lastModified = file.isFile() ? file.lastModified() : 0L;
+
+        try (Demuxer demuxer = new Demuxer(avc, url); Packet packet = new Packet(avc.getAvcodec())) {
+            StreamInfo stream = demuxer.findStream(MediaType.VIDEO);
+            if (stream == null) {
+                stream = demuxer.findStream(MediaType.AUDIO);
+            }
+            if (stream == null) {
+                throw new IOException(String.format("Input '%s' has no video or audio streams!", url));
+            }
+
+            long[] timestamps = new long[1024];
+            long[] positions = new long[1024];
+            int size = 0;
+            while (demuxer.read(packet)) {
+                if (packet.getStreamIndex() != stream.getIndex() || !packet.isKeyFrame() || packet.getPos() < 0) {
+                    continue;
+                }
+
+                final long timestamp = packet.getPts() != Libavformat.AV_NOPTS_VALUE ? packet.getPts()
+                        : packet.getDts();
+                // Keep entries strictly increasing, so binary search and delta coding work.
+                if (timestamp == Libavformat.AV_NOPTS_VALUE
+                        || size > 0 && (timestamp <= timestamps[size - 1] || packet.getPos() <= positions[size - 1])) {
+                    continue;
+                }
+
+                if (size == timestamps.length) {
+                    timestamps = Arrays.copyOf(timestamps, 2 * size);
+                    positions = Arrays.copyOf(positions, 2 * size);
+                }
+                timestamps[size] = timestamp;
+                positions[size] = packet.getPos();
+                ++size;
+            }
+
+            return new SeekIndex(stream.getIndex(), stream.getTimeBase(), Arrays.copyOf(timestamps, size),
+                    Arrays.copyOf(positions, size), fileSize, lastModified);
+        }
+    }
+
+    /**
+     * Return index of stream, which keyframes are indexed.
+     */
+    public int getStreamIndex() {
+        return this.streamIndex;
+    }
+
+    /**
+     * Return time base of timestamps (time base of indexed stream).
+     */
+    public AVRational getTimeBase() {
+        return new AVRational(this.timeBase.num, this.timeBase.den);
+    }
+
+    /**
+     * Return number of keyframes.
+     */
+    public int size() {
+        return this.timestamps.length;
+    }
+
+    public long getTimestamp(final int index) {
+        return this.timestamps[index];
+    }
+
+    /**
+     * Return time of keyframe in seconds.
+     */
+    public double getTime(final int index) {
+        return (double) this.timestamps[index] * this.timeBase.num / this.timeBase.den;
+    }
+
+    /**
+     * Return byte offset of keyframe packet in file.
+     */
+    public long getPosition(final int index) {
+        return this.positions[index];
+    }
+
+    /**
+     * Return size of indexed file or <code>-1</code> if input is not a local file.
+     */
+    public long getFileSize() {
+        return this.fileSize;
+    }
+
+    /**
+     * Return time of last modification of indexed file.
+     */
+    public long getLastModified() {
+        return this.lastModified;
+    }
+
+    /**
+     * Convert time in seconds to timestamp in time base of index.
+     */
+    public long toTimestamp(final double time) {
+        return Math.round(time * this.timeBase.den / this.timeBase.num);
+    }
+
+    /**
+     * Return index of last keyframe at or before given timestamp, first keyframe if timestamp is before it or
+     * <code>-1</code> if index is empty.
+     */
+    public int find(final long timestamp) {
+        if (this.timestamps.length == 0) {
+            return -1;
+        }
+
+        final int index = Arrays.binarySearch(this.timestamps, timestamp);
+        if (index >= 0) {
+            return index;
+        }
+
+        // Insertion point is the first greater timestamp.
+        return Math.max(-index - 2, 0);
+    }
+
+    /**
+     * Move demuxer to keyframe at or before given timestamp. Next packet of indexed stream is this keyframe. Decoders
+     * of input should be flushed after seek.
+     *
+     * @param demuxer
+     *            Demuxer of indexed file.
+     * @param timestamp
+     *            Target timestamp in time base of index.
+     * @return Timestamp of keyframe or {@link Libavformat#AV_NOPTS_VALUE} if index is empty (demuxer is moved by
+     *         container-level seek).
+     */
+    public long seek(final Demuxer demuxer, final long timestamp) throws IOException {
+        final int index = find(timestamp);
+        if (index < 0) {
+            demuxer.seek(this.streamIndex, timestamp, Libavformat.AVSEEK_FLAG_BACKWARD);
+            return Libavformat.AV_NOPTS_VALUE;
+        }
+
+        if (demuxer.isByteSeekSupported()) {
+            demuxer.seek(-1, this.positions[index], Libavformat.AVSEEK_FLAG_BYTE);
+        } else {
+            demuxer.seek(this.streamIndex, this.timestamps[index], Libavformat.AVSEEK_FLAG_BACKWARD);
+        }
+
+        return this.timestamps[index];
+    }
+
+    /**
+     * Write index into file. File is replaced atomically (if file system supports it), so readers never see partial
+     * index.
+     */
+    public void write(final File file) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 4 * this.timestamps.length);
+        writeInt(bytes, MAGIC);
+        writeInt(bytes, VERSION);
+        writeVarLong(bytes, this.fileSize);
+        writeVarLong(bytes, this.lastModified);
+        writeVarLong(bytes, this.streamIndex);
+        writeVarLong(bytes, this.timeBase.num);
+        writeVarLong(bytes, this.timeBase.den);
+        writeVarLong(bytes, this.timestamps.length);
+        long timestamp = 0L;
+        long position = 0L;
+        for (int i = 0; i < this.timestamps.length; ++i) {
+            writeVarLong(bytes, this.timestamps[i] - timestamp);
+            writeVarLong(bytes, this.positions[i] - position);
+            timestamp = this.timestamps[i];
+            position = this.positions[i];
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        writeInt(bytes, (int) crc.getValue());
+
+        final File dir = file.getAbsoluteFile().getParentFile();
+        final File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            try (OutputStream out = new FileOutputStream(temp)) {
+                bytes.writeTo(out);
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Read index from file, written by {@link #write(File)}.
+     *
+     * @throws IOException
+     *             If file can not be read or it is corrupted.
+     */
+    public static SeekIndex read(final File file) throws IOException {
+        final byte[] data = Files.readAllBytes(file.toPath());
+        if (data.length < 12) {
+            throw new IOException(String.format("Seek index '%s' is corrupted!", file));
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        final ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.getInt(data.length - 4) != (int) crc.getValue() || buffer.getInt() != MAGIC) {
+            throw new IOException(String.format("Seek index '%s' is corrupted!", file));
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported version of seek index '%s': %d!", file, version));
+        }
+
+        try {
+            final long fileSize = readVarLong(buffer);
+            final long lastModified = readVarLong(buffer);
+            final int streamIndex = (int) readVarLong(buffer);
+            final AVRational timeBase = new AVRational((int) readVarLong(buffer), (int) readVarLong(buffer));
+            final long size = readVarLong(buffer);
+            // Each entry takes at least two bytes.
+            if (size < 0 || size > (data.length - buffer.position()) / 2) {
+                throw new IOException(String.format("Seek index '%s' is corrupted!", file));
+            }
+
+            final long[] timestamps = new long[(int) size];
+            final long[] positions = new long[(int) size];
+            long timestamp = 0L;
+            long position = 0L;
+            for (int i = 0; i < size; ++i) {
+                timestamp += readVarLong(buffer);
+                position += readVarLong(buffer);
+                timestamps[i] = timestamp;
+                positions[i] = position;
+            }
+            if (buffer.position() != data.length - 4) {
+                throw new IOException(String.format("Seek index '%s' is corrupted!", file));
+            }
+
+            return new SeekIndex(streamIndex, timeBase, timestamps, positions, fileSize, lastModified);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException(String.format("Seek index '%s' is corrupted!", file), e);
+        }
+    }
+
+    private static void writeInt(final ByteArrayOutputStream out, final int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * Write value in ZigZag encoding by groups of 7 bits (small positive and negative values take one byte).
+     */
+    private static void writeVarLong(final ByteArrayOutputStream out, final long value) {
+        long bits = (value << 1) ^ (value >> 63);
+        while ((bits & ~0x7FL) != 0) {
+            out.write((int) (bits & 0x7F) | 0x80);
+            bits >>>= 7;
+        }
+        out.write((int) bits);
+    }
+
+    private static long readVarLong(final ByteBuffer buffer) throws IOException {
+        long bits = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = buffer.get();
+            bits |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (bits >>> 1) ^ -(bits & 1);
+            }
+        }
+
+        throw new IOException("Variable-length value is too long!");
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.seek;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.platform.FileKey;
+
+/**
+ * Two-level cache of {@link SeekIndex}: bounded LRU cache in memory and sidecar files on disk.
+ *
+ * <p> Index of file is looked up in memory, then in sidecar file and only if both are missing (or outdated) file is
+ * scanned and new sidecar is written. Entries are validated by size and time of last modification of file, so changed
+ * file is scanned again. Sidecar is stored next to media file (<code>video.flv.seekidx</code>) or in separate
+ * directory, if media files are read-only. Sidecar, which can not be written, is ignored. </p>
+ *
+ * <p> Cache is thread-safe. Files are scanned without lock, so the same file can be scanned concurrently by several
+ * threads when it is requested for the first time. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class SeekIndexCache {
+
+    /**
+     * Default maximal number of entries in memory.
+     */
+    public static final int               DEFAULT_CAPACITY = 256;
+
+    /**
+     * Suffix of sidecar files.
+     */
+    public static final String            SIDECAR_SUFFIX   = ".seekidx";
+
+    private final JavaAVC                 avc;
+
+    private final int                     capacity;
+
+    private final File                    sidecarDir;
+
+    private final Map<String, CacheEntry> entries;
+
+    private long                          hits;
+
+    private long                          sidecarHits;
+
+    private long                          scans;
+
+    /**
+     * @param capacity
+     *            Maximal number of entries in memory.
+     * @param sidecarDir
+     *            Directory of sidecar files or <code>null</code> to store sidecar next to media file.
+     */
+    public SeekIndexCache(final JavaAVC avc, final int capacity, final File sidecarDir) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Incorrect capacity: %d!", capacity));
+        }
+
+        this.avc = avc;
+        this.capacity = capacity;
+        this.sidecarDir = sidecarDir;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+                return size() > SeekIndexCache.this.capacity;
+            }
+        };
+    }
+
+    public SeekIndexCache(final JavaAVC avc) {
+        this(avc, DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Return sidecar file of media file. Sidecars in separate directory are distinguished by hash of path of media
+     * file, so files with the same name from different directories do not collide.
+     */
+    public File getSidecarFile(final File file) throws IOException {
+        if (this.sidecarDir == null) {
+            return new File(file.getCanonicalPath() + SIDECAR_SUFFIX);
+        }
+
+        final String path = file.getCanonicalPath();
+        return new File(this.sidecarDir,
+                String.format("%s-%08x%s", file.getName(), path.hashCode(), SIDECAR_SUFFIX));
+    }
+
+    /**
+     * Return index of file. File is scanned, if there is no actual index in memory or in sidecar.
+     */
+    public SeekIndex get(final File file) throws IOException {
+        // Key should be taken before scan, so changes during scan are not missed.
+        final FileKey key = FileKey.of(file);
+
+        synchronized (this) {
+            final CacheEntry entry = this.entries.get(key.getPath());
+            if (entry != null && entry.key.equals(key)) {
+                ++this.hits;
+                return entry.index;
+            }
+        }
+
+        final File sidecar = getSidecarFile(file);
+        SeekIndex index = null;
+        if (sidecar.isFile()) {
+            try {
+                index = SeekIndex.read(sidecar);
+            } catch (IOException e) {
+                // Corrupted sidecar is replaced.
+            }
+        }
+
+        if (index != null && index.getFileSize() == key.getSize() && index.getLastModified() == key.getLastModified()) {
+            synchronized (this) {
+                ++this.sidecarHits;
+            }
+        } else {
+            index = SeekIndex.scan(this.avc, file.getPath());
+            if (index.getFileSize() == key.getSize() && index.getLastModified() == key.getLastModified()) {
+                try {
+                    if (this.sidecarDir != null) {
+                        this.sidecarDir.mkdirs();
+                    }
+                    index.write(sidecar);
+                } catch (IOException e) {
+                    // Index is still usable from memory.
+                }
+            }
+            synchronized (this) {
+                ++this.scans;
+            }
+        }
+
+        synchronized (this) {
+            this.entries.put(key.getPath(), new CacheEntry(key, index));
+        }
+
+        return index;
+    }
+
+    /**
+     * Remove index of file from memory and its sidecar.
+     */
+    public void invalidate(final File file) throws IOException {
+        synchronized (this) {
+            this.entries.remove(file.getCanonicalPath());
+        }
+
+        final File sidecar = getSidecarFile(file);
+        if (sidecar.exists() && !sidecar.delete()) {
+            throw new IOException(String.format("Can not delete sidecar '%s'!", sidecar));
+        }
+    }
+
+    /**
+     * Remove all entries from memory. Sidecars are kept.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public File getSidecarDir() {
+        return this.sidecarDir;
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Return number of requests, served from memory.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Return number of requests, served from sidecar files.
+     */
+    public synchronized long getSidecarHits() {
+        return this.sidecarHits;
+    }
+
+    /**
+     * Return number of scanned files.
+     */
+    public synchronized long getScans() {
+        return this.scans;
+    }
+
+    private static class CacheEntry {
+
+        private final FileKey   key;
+
+        private final SeekIndex index;
+
+        public CacheEntry(final FileKey key, final SeekIndex index) {
+            this.key = key;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.thumbnail;
+
+import java.nio.ByteBuffer;
+
+import org.javaavc.ffmpeg.avutil.PooledBuffer;
+
+/**
+ * Thumbnail of video: scaled image of keyframe and its time.
+ *
+ * <p> Image belongs to {@link org.javaavc.ffmpeg.avutil.BufferPool} of {@link Thumbnailer} and should be released by
+ * {@link #release()}, when it is not needed anymore. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Thumbnail {
+
+    private final double       time;
+
+    private final PooledBuffer image;
+
+    public Thumbnail(final double time, final PooledBuffer image) {
+        this.time = time;
+        this.image = image;
+    }
+
+    /**
+     * Return presentation time of keyframe in seconds.
+     */
+    public double getTime() {
+        return this.time;
+    }
+
+    public int getWidth() {
+        return this.image.getKey().getWidth();
+    }
+
+    public int getHeight() {
+        return this.image.getKey().getHeight();
+    }
+
+    /**
+     * Return value of <code>enum AVPixelFormat</code>.
+     */
+    public int getPixelFormat() {
+        return this.image.getKey().getFormat();
+    }
+
+    /**
+     * Return size of image line in bytes (can be larger than width because of alignment).
+     */
+    public int getLineSize() {
+        return this.image.getLineSize(0);
+    }
+
+    public PooledBuffer getImage() {
+        return this.image;
+    }
+
+    /**
+     * Return view of image (without copy). View is valid until {@link #release()}.
+     */
+    public ByteBuffer getData() {
+        return this.image.getByteBuffer();
+    }
+
+    /**
+     * Return image to pool.
+     */
+    public void release() {
+        this.image.release();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.3f s, %dx%d", this.time, getWidth(), getHeight());
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.thumbnail;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avcodec.CodecThreading;
+import org.javaavc.ffmpeg.avcodec.Decoder;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.Libavformat;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.AVRational;
+import org.javaavc.ffmpeg.avutil.BufferPool;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.javaavc.ffmpeg.avutil.PooledBuffer;
+import org.javaavc.ffmpeg.swscale.Scaler;
+
+/**
+ * Extractor of evenly spaced thumbnails from video, which decodes only keyframes.
+ *
+ * <p> Duration of video is split into equal intervals and one thumbnail is taken for each interval: demuxer seeks to
+ * keyframe before the middle of interval, packets of other frames are skipped without decoding and decoder drops
+ * non-key frames (<code>skip_frame=nokey</code>). If intervals are shorter than distance between keyframes, the next
+ * keyframe is used, so thumbnails are not repeated (and there can be less thumbnails than requested). Decoded
+ * keyframe is converted and scaled into image of pool in one pass. </p>
+ *
+ * <p> Files of batch are processed concurrently on work-stealing pool, each file by single thread. </p>
+ *
+ * <p> Usage: <pre>
+ * try (Thumbnailer thumbnailer = new Thumbnailer(avc, pool, 320, -1)) {
+ *     for (Thumbnail thumbnail : thumbnailer.extract("input.mp4", 10)) {
+ *         save(thumbnail.getData());
+ *         thumbnail.release();
+ *     }
+ * }
+ * </pre> </p>
+ *
+ * <p> Thumbnailer is thread-safe. Settings should not be changed while extraction is in progress. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Thumbnailer implements Closeable {
+
+    /**
+     * Default pixel format of thumbnails, value of <code>AV_PIX_FMT_RGB24</code>.
+     */
+    public static final int                  DEFAULT_PIXEL_FORMAT = 2;
+
+    private static final AVRational          MICROSECONDS         = new AVRational(1, Libavformat.AV_TIME_BASE);
+
+    /**
+     * Options of decoder: drop all frames except keyframes.
+     */
+    private static final Map<String, String> DECODER_OPTIONS      = Collections.singletonMap("skip_frame", "nokey");
+
+    protected final JavaAVC                  avc;
+
+    protected final BufferPool               pool;
+
+    protected final Scaler                   scaler;
+
+    protected final int                      width;
+
+    protected final int                      height;
+
+    protected final ExecutorService          executor;
+
+    private int                              pixelFormat          = DEFAULT_PIXEL_FORMAT;
+
+    /**
+     * Create thumbnailer with own work-stealing pool for batches (created for each batch).
+     */
+    public Thumbnailer(final JavaAVC avc, final BufferPool pool, final int width, final int height) {
+        this(avc, pool, width, height, null);
+    }
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param pool
+     *            Pool of thumbnail images.
+     * @param width
+     *            Width of thumbnails or <code>-1</code> to keep aspect ratio of video.
+     * @param height
+     *            Height of thumbnails or <code>-1</code> to keep aspect ratio of video.
+     * @param executor
+     *            Executor for files of batch (for example, {@link Executors#newWorkStealingPool()}) or
+     *            <code>null</code> for own pool. Executor is not closed by thumbnailer.
+     */
+    public Thumbnailer(final JavaAVC avc, final BufferPool pool, final int width, final int height,
+            final ExecutorService executor) {
+        if (width <= 0 && height <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect thumbnail size: %dx%d!", width, height));
+        }
+
+        this.avc = avc;
+        this.pool = pool;
+        this.scaler = new Scaler(avc, pool);
+        this.width = width;
+        this.height = height;
+        this.executor = executor;
+    }
+
+    public int getPixelFormat() {
+        return this.pixelFormat;
+    }
+
+    /**
+     * Set pixel format of thumbnails, value of <code>enum AVPixelFormat</code>.
+     */
+    public void setPixelFormat(final int pixelFormat) {
+        this.pixelFormat = pixelFormat;
+    }
+
+    /**
+     * Extract thumbnails of video.
+     *
+     * @param url
+     *            File name or URL of input.
+     * @param count
+     *            Number of thumbnails.
+     * @return Thumbnails in order of time, which should be released by caller.
+     */
+    public List<Thumbnail> extract(final String url, final int count) throws IOException {
+        if (count <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect number of thumbnails: %d!", count));
+        }
+
+        final List<Thumbnail> result = new ArrayList<Thumbnail>(count);
+        boolean completed = false;
+        try (Demuxer demuxer = new Demuxer(this.avc, url);
+                Packet packet = new Packet(this.avc.getAvcodec());
+                Frame frame = new Frame(this.avc.getAvutil())) {
+            final StreamInfo stream = demuxer.findStream(MediaType.VIDEO);
+            if (stream == null) {
+                throw new IOException(String.format("Video stream is not found in '%s'!", url));
+            }
+
+            final AVRational timeBase = stream.getTimeBase();
+            final long start = stream.getStartTime() != Libavformat.AV_NOPTS_VALUE ? stream.getStartTime() : 0;
+            long duration = stream.getDuration();
+            if (duration == Libavformat.AV_NOPTS_VALUE || duration <= 0) {
+                duration = demuxer.getDuration() != Libavformat.AV_NOPTS_VALUE
+                        ? AVRational.rescale(this.avc.getAvutil(), demuxer.getDuration(), MICROSECONDS, timeBase)
+                        : 0;
+            }
+
+            try (Decoder decoder = new Decoder(this.avc, stream.getCodecContext(), CodecThreading.getSingleThread(),
+                    DECODER_OPTIONS)) {
+                long last = Libavformat.AV_NOPTS_VALUE;
+                for (int i = 0; i < count; ++i) {
+                    // Middle of interval.
+                    final long target = start + (long) (duration * ((2.0 * i + 1) / (2.0 * count)));
+
+                    demuxer.seek(stream.getIndex(), target, Libavformat.AVSEEK_FLAG_BACKWARD);
+                    decoder.flush();
+                    if (!decodeKeyFrame(demuxer, decoder, stream.getIndex(), packet, frame, last)) {
+                        break;
+                    }
+
+                    final long timestamp = frame.getBestEffortTimestamp();
+                    if (timestamp != Libavformat.AV_NOPTS_VALUE) {
+                        last = timestamp;
+                    }
+                    final double time = (timestamp != Libavformat.AV_NOPTS_VALUE ? timestamp : target)
+                            * timeBase.doubleValue();
+                    result.add(new Thumbnail(time, scale(frame)));
+                }
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                release(result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Read packets from current position and decode the first keyframe, which is later than <code>after</code>.
+     *
+     * @return <code>true</code> if keyframe was decoded and <code>false</code> on end of input.
+     */
+    private static boolean decodeKeyFrame(final Demuxer demuxer, final Decoder decoder, final int streamIndex,
+            final Packet packet, final Frame frame, final long after) throws IOException {
+        while (demuxer.read(packet)) {
+            // Other frames are not decoded, so skip them before decoder.
+            if (packet.getStreamIndex() != streamIndex || !packet.isKeyFrame()) {
+                continue;
+            }
+
+            decoder.send(packet);
+            while (decoder.receive(frame)) {
+                if (isAfter(frame.getBestEffortTimestamp(), after)) {
+                    return true;
+                }
+            }
+        }
+
+        decoder.send(null);
+        while (decoder.receive(frame)) {
+            if (isAfter(frame.getBestEffortTimestamp(), after)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isAfter(final long timestamp, final long after) {
+        return timestamp == Libavformat.AV_NOPTS_VALUE || after == Libavformat.AV_NOPTS_VALUE || timestamp > after;
+    }
+
+    private PooledBuffer scale(final Frame frame) {
+        int w = this.width;
+        int h = this.height;
+        if (h <= 0) {
+            h = (int) Math.round((double) w * frame.getHeight() / frame.getWidth());
+        } else if (w <= 0) {
+            w = (int) Math.round((double) h * frame.getWidth() / frame.getHeight());
+        }
+
+        // Chroma subsampled formats need even size.
+        return this.scaler.scale(frame, Math.max(2, w & ~1), Math.max(2, h & ~1), this.pixelFormat);
+    }
+
+    /**
+     * Extract thumbnails of batch of files concurrently.
+     *
+     * @param urls
+     *            File names or URLs of inputs.
+     * @param count
+     *            Number of thumbnails of each file.
+     * @return Thumbnails of each file (in order of inputs), which should be released by caller.
+     */
+    public List<List<Thumbnail>> extractAll(final List<String> urls, final int count) throws IOException {
+        final ExecutorService service = this.executor != null ? this.executor : Executors.newWorkStealingPool();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final List<Future<List<Thumbnail>>> futures = new ArrayList<Future<List<Thumbnail>>>();
+        final List<List<Thumbnail>> result = new ArrayList<List<Thumbnail>>(urls.size());
+        try {
+            for (final String url : urls) {
+                futures.add(service.submit(new Callable<List<Thumbnail>>() {
+
+                    @Override
+                    public List<Thumbnail> call() throws IOException {
+                        if (failed.get()) {
+                            return Collections.emptyList();
+                        }
+
+                        return extract(url, count);
+                    }
+                }));
+            }
+
+            for (Future<List<Thumbnail>> future : futures) {
+                try {
+                    result.add(future.get());
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IOException(cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Extraction was interrupted!", e);
+                }
+            }
+        } finally {
+            if (result.size() < futures.size()) {
+                // Batch failed: not started tasks are skipped, images of finished tasks are returned to pool.
+                failed.set(true);
+                for (List<Thumbnail> list : result) {
+                    release(list);
+                }
+                releaseRemaining(futures.subList(result.size(), futures.size()));
+            }
+            if (this.executor == null) {
+                service.shutdown();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Wait for tasks, which results were not collected, and release their thumbnails. Waiting is not interruptible
+     * (interrupt is restored after all tasks are finished), otherwise images of running tasks are never returned to
+     * pool. Tasks are not cancelled: result of cancelled running task is lost.
+     */
+    private static void releaseRemaining(final List<Future<List<Thumbnail>>> futures) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            for (Future<List<Thumbnail>> future : futures) {
+                while (true) {
+                    try {
+                        release(future.get());
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        // Task was failed, nothing to release.
+                        break;
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void release(final List<Thumbnail> thumbnails) {
+        for (Thumbnail thumbnail : thumbnails) {
+            thumbnail.release();
+        }
+    }
+
+    /**
+     * Free cached scaler contexts. Pool is not closed.
+     */
+    @Override
+    public void close() {
+        this.scaler.close();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.transcode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.CustomOutput;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.FileOutput;
+import org.javaavc.ffmpeg.avformat.MappedFile;
+import org.javaavc.ffmpeg.avformat.MappedInput;
+import org.javaavc.ffmpeg.avformat.Muxer;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+/**
+ * Remuxer, which copies packets of input into output of other container without decoding and encoding (like
+ * <code>ffmpeg -i input.flv -c copy output.mp4</code>).
+ *
+ * <p> Timestamps of packets are rescaled from time bases of input streams into time bases of output streams. Local
+ * files are read through {@link MappedInput} and written through {@link FileOutput} with large I/O buffer (see
+ * {@link #setBufferSize(int)}); other URLs are opened by FFmpeg protocols. </p>
+ *
+ * <p> Codecs of copied streams should be supported by output container. </p>
+ *
+ * <p> Usage: <pre>
+ * final Remuxer remuxer = new Remuxer(avc);
+ * remuxer.remux("input.flv", "output.mp4");
+ * </pre> </p>
+ *
+ * <p> Settings should not be changed while remuxing is in progress. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class Remuxer {
+
+    protected final JavaAVC     avc;
+
+    private Set<MediaType>      mediaTypes = EnumSet.of(MediaType.VIDEO, MediaType.AUDIO);
+
+    private int                 bufferSize = CustomOutput.DEFAULT_BUFFER_SIZE;
+
+    private String              formatName;
+
+    private Map<String, String> options;
+
+    public Remuxer(final JavaAVC avc) {
+        this.avc = avc;
+    }
+
+    public Set<MediaType> getMediaTypes() {
+        return EnumSet.copyOf(this.mediaTypes);
+    }
+
+    /**
+     * Set types of streams, which are copied into output. Streams of other types are skipped. By default video and
+     * audio are copied.
+     */
+    public void setMediaTypes(final MediaType... mediaTypes) {
+        if (mediaTypes.length == 0) {
+            throw new IllegalArgumentException("Media types are not specified!");
+        }
+
+        this.mediaTypes = EnumSet.copyOf(Arrays.asList(mediaTypes));
+    }
+
+    public int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    /**
+     * Set size of I/O buffer of local output file (see {@link CustomOutput#DEFAULT_BUFFER_SIZE}).
+     */
+    public void setBufferSize(final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException(String.format("Incorrect buffer size: %d!", bufferSize));
+        }
+
+        this.bufferSize = bufferSize;
+    }
+
+    public String getFormatName() {
+        return this.formatName;
+    }
+
+    /**
+     * Set name of output format or <code>null</code> for guess it by file name.
+     */
+    public void setFormatName(final String formatName) {
+        this.formatName = formatName;
+    }
+
+    public Map<String, String> getOptions() {
+        return this.options;
+    }
+
+    /**
+     * Set options of muxer (for example, <code>movflags=faststart</code>, see <code>ffmpeg -h muxer=...</code>), can
+     * be <code>null</code>.
+     */
+    public void setOptions(final Map<String, String> options) {
+        this.options = options;
+    }
+
+    /**
+     * Copy streams of input into output.
+     *
+     * @param input
+     *            File name or URL of input.
+     * @param output
+     *            File name or URL of output.
+     * @return Number of copied packets.
+     */
+    public long remux(final String input, final String output) throws IOException {
+        try (Demuxer demuxer = openInput(input);
+                Packet packet = new Packet(this.avc.getAvcodec());
+                Muxer muxer = openOutput(output)) {
+            final int[] mapping = new int[demuxer.getStreams().size()];
+            for (StreamInfo stream : demuxer.getStreams()) {
+                if (this.mediaTypes.contains(stream.getMediaType())) {
+                    mapping[stream.getIndex()] = muxer.addStream(stream.getCodecContext(), stream.getTimeBase());
+                } else {
+                    mapping[stream.getIndex()] = -1;
+                }
+            }
+
+            muxer.writeHeader(this.options);
+
+            long packets = 0;
+            while (demuxer.read(packet)) {
+                final int index = packet.getStreamIndex();
+                if (index < mapping.length && mapping[index] >= 0) {
+                    muxer.write(packet, mapping[index]);
+                    ++packets;
+                }
+            }
+
+            muxer.writeTrailer();
+
+            return packets;
+        }
+    }
+
+    protected Demuxer openInput(final String input) throws IOException {
+        final File file = new File(input);
+        if (file.isFile()) {
+            return new Demuxer(this.avc, new MappedInput(this.avc, new MappedFile(file)), null);
+        }
+
+        return new Demuxer(this.avc, input);
+    }
+
+    protected Muxer openOutput(final String output) throws IOException {
+        if (isLocalFile(output)) {
+            return new Muxer(this.avc, new FileOutput(this.avc, new File(output), this.bufferSize), this.formatName);
+        }
+
+        return new Muxer(this.avc, output, this.formatName);
+    }
+
+    /**
+     * Return <code>true</code> if output is path of local file, not URL of FFmpeg protocol (like
+     * <code>rtmp://...</code> or <code>pipe:1</code>).
+     */
+    private static boolean isLocalFile(final String output) {
+        final int colon = output.indexOf(':');
+        if (colon < 0) {
+            return true;
+        }
+
+        // Drive letter of Windows path.
+        return colon == 1 && output.length() > 2 && (output.charAt(2) == '\\' || output.charAt(2) == '/');
+    }
+}
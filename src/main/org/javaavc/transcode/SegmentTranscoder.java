@@ -0,0 +1,641 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.transcode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avcodec.CodecThreading;
+import org.javaavc.ffmpeg.avcodec.Decoder;
+import org.javaavc.ffmpeg.avcodec.Encoder;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.Libavformat;
+import org.javaavc.ffmpeg.avformat.Muxer;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.AVFrame;
+import org.javaavc.ffmpeg.avutil.AVRational;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.MediaType;
+
+/**
+ * Transcoder, which splits video of input at keyframes into segments and encodes segments concurrently.
+ *
+ * <p> Transcoding is done in three passes: <ol> <li>Keyframes of video stream are found (packets are read without
+ * decoding).</li> <li>Each segment is decoded and encoded by own task with own demuxer, decoder and encoder into
+ * temporary file.</li> <li>Encoded segments are joined into output without re-encoding. Audio and subtitle streams
+ * are copied from input as is.</li> </ol> </p>
+ *
+ * <p> Each segment starts from keyframe of input and from keyframe of output, so joins do not require re-encoding.
+ * Timestamps of input are kept, so copied streams stay in sync. For inputs with open GOPs frames, which precede
+ * boundary keyframe in presentation order, are encoded by previous segment. </p>
+ *
+ * <p> Encoded segments are independent streams, so encoder should produce the same global header for the same
+ * settings (this holds for FFmpeg encoders). Pixel format of input should be supported by encoder (conversion is not
+ * performed). </p>
+ *
+ * <p> Usage: <pre>
+ * final SegmentTranscoder transcoder = new SegmentTranscoder(avc, Runtime.getRuntime().availableProcessors());
+ * transcoder.setBitRate(2000000);
+ * transcoder.transcode("input.mp4", "output.mkv");
+ * </pre> </p>
+ *
+ * <p> Settings should not be changed while transcoding is in progress. </p>
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class SegmentTranscoder {
+
+    /**
+     * Default video encoder.
+     */
+    public static final String      DEFAULT_CODEC  = "mpeg4";
+
+    /**
+     * Format of temporary segment files.
+     */
+    public static final String      SEGMENT_FORMAT = "matroska";
+
+    private static final AVRational MICROSECONDS   = new AVRational(1, Libavformat.AV_TIME_BASE);
+
+    protected final JavaAVC         avc;
+
+    protected final int             segments;
+
+    protected final ExecutorService executor;
+
+    private String                  codecName      = DEFAULT_CODEC;
+
+    private int                     bitRate;
+
+    private int                     gopSize;
+
+    private String                  formatName;
+
+    private Map<String, String>     options;
+
+    private File                    tempDir;
+
+    /**
+     * Create transcoder with own pool of threads (one thread per segment, created for each transcoding).
+     *
+     * @param avc
+     *            Loaded wrapper.
+     * @param segments
+     *            Maximal number of segments.
+     */
+    public SegmentTranscoder(final JavaAVC avc, final int segments) {
+        this(avc, segments, null);
+    }
+
+    /**
+     * @param avc
+     *            Loaded wrapper.
+     * @param segments
+     *            Maximal number of segments.
+     * @param executor
+     *            Executor for segment tasks or <code>null</code> for own pool of threads.
+     */
+    public SegmentTranscoder(final JavaAVC avc, final int segments, final ExecutorService executor) {
+        if (segments < 1) {
+            throw new IllegalArgumentException(String.format("Incorrect number of segments: %d!", segments));
+        }
+
+        this.avc = avc;
+        this.segments = segments;
+        this.executor = executor;
+    }
+
+    public String getCodecName() {
+        return this.codecName;
+    }
+
+    /**
+     * Set name of video encoder (see <code>ffmpeg -encoders</code>).
+     */
+    public void setCodecName(final String codecName) {
+        this.codecName = codecName;
+    }
+
+    public int getBitRate() {
+        return this.bitRate;
+    }
+
+    /**
+     * Set average bit rate of video in bit/s or <code>0</code> for default of encoder.
+     */
+    public void setBitRate(final int bitRate) {
+        this.bitRate = bitRate;
+    }
+
+    public int getGopSize() {
+        return this.gopSize;
+    }
+
+    /**
+     * Set maximal distance between keyframes of output (in frames) or <code>0</code> for default of encoder.
+     */
+    public void setGopSize(final int gopSize) {
+        this.gopSize = gopSize;
+    }
+
+    public String getFormatName() {
+        return this.formatName;
+    }
+
+    /**
+     * Set name of output format or <code>null</code> for guess it by file name.
+     */
+    public void setFormatName(final String formatName) {
+        this.formatName = formatName;
+    }
+
+    public Map<String, String> getOptions() {
+        return this.options;
+    }
+
+    /**
+     * Set options of video encoder (see <code>ffmpeg -h encoder=...</code>), can be <code>null</code>.
+     */
+    public void setOptions(final Map<String, String> options) {
+        this.options = options;
+    }
+
+    public File getTempDir() {
+        return this.tempDir;
+    }
+
+    /**
+     * Set directory for temporary segment files or <code>null</code> for default temporary directory.
+     */
+    public void setTempDir(final File tempDir) {
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Transcode video of input into output.
+     *
+     * @param input
+     *            File name or URL of input. Input is opened several times, so it should be seekable.
+     * @param output
+     *            File name or URL of output.
+     */
+    public void transcode(final String input, final String output) throws IOException {
+        final long[] boundaries = split(findKeyFrames(input));
+
+        final List<File> files = new ArrayList<File>();
+        try {
+            for (int i = 0; i + 1 < boundaries.length; ++i) {
+                files.add(File.createTempFile("segment-", ".mkv", this.tempDir));
+            }
+
+            encodeSegments(input, boundaries, files);
+            join(input, files, output);
+        } finally {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Return timestamps of keyframes of video stream (in time base of stream), sorted in ascending order.
+     */
+    protected List<Long> findKeyFrames(final String input) throws IOException {
+        final List<Long> keyFrames = new ArrayList<Long>();
+
+        try (Demuxer demuxer = new Demuxer(this.avc, input); Packet packet = new Packet(this.avc.getAvcodec())) {
+            final int videoIndex = findVideoStream(demuxer).getIndex();
+
+            while (demuxer.read(packet)) {
+                if (packet.getStreamIndex() == videoIndex && packet.isKeyFrame()) {
+                    final long timestamp = getTimestamp(packet);
+                    if (timestamp != Libavformat.AV_NOPTS_VALUE) {
+                        keyFrames.add(timestamp);
+                    }
+                }
+            }
+        }
+
+        if (keyFrames.isEmpty()) {
+            throw new IOException(String.format("Input '%s' has no keyframes with timestamps!", input));
+        }
+        Collections.sort(keyFrames);
+
+        return keyFrames;
+    }
+
+    /**
+     * Select boundaries of segments from keyframes: segments have nearly equal duration. Segment <code>i</code>
+     * covers timestamps in <code>[boundaries[i], boundaries[i + 1])</code>, last boundary is
+     * {@link Long#MAX_VALUE}.
+     */
+    protected long[] split(final List<Long> keyFrames) {
+        final long first = keyFrames.get(0);
+        final long last = keyFrames.get(keyFrames.size() - 1);
+
+        final List<Long> boundaries = new ArrayList<Long>();
+        boundaries.add(Long.MIN_VALUE);
+
+        int position = 1;
+        for (int i = 1; i < this.segments && position < keyFrames.size(); ++i) {
+            final long target = first + (long) ((double) (last - first) * i / this.segments);
+            while (position < keyFrames.size() && keyFrames.get(position) < target) {
+                ++position;
+            }
+            if (position < keyFrames.size()) {
+                boundaries.add(keyFrames.get(position));
+                ++position;
+            }
+        }
+        boundaries.add(Long.MAX_VALUE);
+
+        final long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = boundaries.get(i);
+        }
+
+        return result;
+    }
+
+    private void encodeSegments(final String input, final long[] boundaries, final List<File> files)
+            throws IOException {
+        final int count = files.size();
+
+        // Share cores between segments.
+        final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / count);
+        final CodecThreading threading = threads == 1 ? CodecThreading.getSingleThread()
+                : new CodecThreading(threads, CodecThreading.Type.FRAME, CodecThreading.Type.SLICE);
+
+        final ExecutorService service = this.executor != null ? this.executor : Executors.newFixedThreadPool(count);
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        try {
+            for (int i = 0; i < count; ++i) {
+                final long start = boundaries[i];
+                final long end = boundaries[i + 1];
+                final File file = files.get(i);
+
+                futures.add(service.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws IOException {
+                        encodeSegment(input, start, end, file, threading);
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IOException(cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Transcoding was interrupted!", e);
+                }
+            }
+        } finally {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+            if (this.executor == null) {
+                service.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Decode frames of video in <code>[start, end)</code> and encode them into segment file.
+     */
+    protected void encodeSegment(final String input, final long start, final long end, final File file,
+            final CodecThreading threading) throws IOException {
+        try (Demuxer demuxer = new Demuxer(this.avc, input);
+                Packet packet = new Packet(this.avc.getAvcodec());
+                Packet encoded = new Packet(this.avc.getAvcodec());
+                Frame frame = new Frame(this.avc.getAvutil())) {
+            final StreamInfo stream = findVideoStream(demuxer);
+            final int videoIndex = stream.getIndex();
+            final AVRational streamTimeBase = stream.getTimeBase();
+
+            try (Decoder decoder = new Decoder(this.avc, stream.getCodecContext(), threading, null);
+                    Encoder encoder = new Encoder(this.avc, this.codecName);
+                    Muxer muxer = new Muxer(this.avc, file.getPath(), SEGMENT_FORMAT)) {
+                if (!encoder.isPixelFormatSupported(stream.getPixelFormat())) {
+                    throw new IOException(String.format("Encoder '%s' does not support pixel format %d!",
+                            this.codecName, stream.getPixelFormat()));
+                }
+
+                encoder.setSize(stream.getWidth(), stream.getHeight());
+                encoder.setPixelFormat(stream.getPixelFormat());
+                encoder.setTimeBase(getEncoderTimeBase(stream));
+                if (this.bitRate > 0) {
+                    encoder.setBitRate(this.bitRate);
+                }
+                if (this.gopSize > 0) {
+                    encoder.setGopSize(this.gopSize);
+                }
+                encoder.setGlobalHeader(muxer.isGlobalHeader());
+                encoder.open(threading, this.options);
+
+                final int segmentIndex = muxer.addStream(encoder.getContext(), encoder.getTimeBase());
+                final SegmentWriter writer = new SegmentWriter(encoder, muxer, segmentIndex, encoded, streamTimeBase,
+                        start, end);
+                muxer.writeHeader(null);
+
+                if (start != Long.MIN_VALUE) {
+                    demuxer.seek(videoIndex, start, Libavformat.AVSEEK_FLAG_BACKWARD);
+                }
+
+                boolean afterEnd = false;
+                while (demuxer.read(packet)) {
+                    if (packet.getStreamIndex() != videoIndex) {
+                        continue;
+                    }
+
+                    // After next boundary keyframe only frames, which precede it in presentation order, are needed.
+                    final long timestamp = getTimestamp(packet);
+                    if (afterEnd && timestamp != Libavformat.AV_NOPTS_VALUE && timestamp >= end) {
+                        break;
+                    }
+                    if (packet.isKeyFrame() && timestamp != Libavformat.AV_NOPTS_VALUE && timestamp >= end) {
+                        afterEnd = true;
+                    }
+
+                    decoder.send(packet);
+                    while (decoder.receive(frame)) {
+                        writer.write(frame);
+                    }
+                }
+
+                decoder.send(null);
+                while (decoder.receive(frame)) {
+                    writer.write(frame);
+                }
+                writer.flush();
+
+                muxer.writeTrailer();
+            }
+        }
+    }
+
+    /**
+     * Join encoded segments and copy other streams of input into output.
+     */
+    protected void join(final String input, final List<File> files, final String output) throws IOException {
+        try (Demuxer source = new Demuxer(this.avc, input);
+                Packet sourcePacket = new Packet(this.avc.getAvcodec());
+                Packet videoPacket = new Packet(this.avc.getAvcodec());
+                Muxer muxer = new Muxer(this.avc, output, this.formatName)) {
+            final VideoReader video = new VideoReader(files);
+            try {
+                final AVRational videoTimeBase = video.getStream().getTimeBase();
+                final int videoIndex = muxer.addStream(video.getStream().getCodecContext(), videoTimeBase);
+
+                // Copy audio and subtitles, skip video and other streams of input.
+                final int[] mapping = new int[source.getStreams().size()];
+                final AVRational[] timeBases = new AVRational[mapping.length];
+                for (StreamInfo stream : source.getStreams()) {
+                    final int index = stream.getIndex();
+                    timeBases[index] = stream.getTimeBase();
+                    if (stream.getMediaType() == MediaType.AUDIO || stream.getMediaType() == MediaType.SUBTITLE) {
+                        mapping[index] = muxer.addStream(stream.getCodecContext(), timeBases[index]);
+                    } else {
+                        mapping[index] = -1;
+                    }
+                }
+
+                muxer.writeHeader(null);
+
+                // Merge packets of both inputs in order of decoding timestamps.
+                boolean hasVideo = video.read(videoPacket);
+                boolean hasSource = readMapped(source, sourcePacket, mapping);
+                long videoTime = Long.MIN_VALUE;
+                long sourceTime = Long.MIN_VALUE;
+                while (hasVideo || hasSource) {
+                    if (hasVideo) {
+                        videoTime = getTime(videoPacket, videoTimeBase, videoTime);
+                    }
+                    if (hasSource) {
+                        sourceTime = getTime(sourcePacket, timeBases[sourcePacket.getStreamIndex()], sourceTime);
+                    }
+
+                    if (hasVideo && (!hasSource || videoTime <= sourceTime)) {
+                        muxer.write(videoPacket, videoIndex);
+                        hasVideo = video.read(videoPacket);
+                    } else {
+                        muxer.write(sourcePacket, mapping[sourcePacket.getStreamIndex()]);
+                        hasSource = readMapped(source, sourcePacket, mapping);
+                    }
+                }
+
+                muxer.writeTrailer();
+            } finally {
+                video.close();
+            }
+        }
+    }
+
+    private static boolean readMapped(final Demuxer demuxer, final Packet packet, final int[] mapping)
+            throws IOException {
+        while (demuxer.read(packet)) {
+            final int index = packet.getStreamIndex();
+            if (index < mapping.length && mapping[index] >= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Return decoding time of packet in microseconds or previous time, if packet has no timestamps.
+     */
+    private long getTime(final Packet packet, final AVRational timeBase, final long previous) {
+        long timestamp = packet.getDts();
+        if (timestamp == Libavformat.AV_NOPTS_VALUE) {
+            timestamp = packet.getPts();
+        }
+        if (timestamp == Libavformat.AV_NOPTS_VALUE) {
+            return previous;
+        }
+
+        return AVRational.rescale(this.avc.getAvutil(), timestamp, timeBase, MICROSECONDS);
+    }
+
+    private static long getTimestamp(final Packet packet) {
+        return packet.getPts() != Libavformat.AV_NOPTS_VALUE ? packet.getPts() : packet.getDts();
+    }
+
+    private static StreamInfo findVideoStream(final Demuxer demuxer) throws IOException {
+        final StreamInfo stream = demuxer.findStream(MediaType.VIDEO);
+        if (stream == null) {
+            throw new IOException("Input has no video stream!");
+        }
+
+        return stream;
+    }
+
+    /**
+     * Return time base of encoder: period of frame if frame rate is known, otherwise time base of stream.
+     */
+    private static AVRational getEncoderTimeBase(final StreamInfo stream) {
+        final AVRational frameRate = stream.getAverageFrameRate();
+        if (frameRate.num > 0 && frameRate.den > 0) {
+            return new AVRational(frameRate.den, frameRate.num);
+        }
+
+        return stream.getTimeBase();
+    }
+
+    /**
+     * Encoder of frames of one segment.
+     */
+    private class SegmentWriter {
+
+        private final Encoder    encoder;
+
+        private final Muxer      muxer;
+
+        private final int        streamIndex;
+
+        private final Packet     packet;
+
+        private final AVRational streamTimeBase;
+
+        private final AVRational encoderTimeBase;
+
+        private final long       start;
+
+        private final long       end;
+
+        private long             lastPts = Long.MIN_VALUE;
+
+        public SegmentWriter(final Encoder encoder, final Muxer muxer, final int streamIndex, final Packet packet,
+                final AVRational streamTimeBase, final long start, final long end) {
+            this.encoder = encoder;
+            this.muxer = muxer;
+            this.streamIndex = streamIndex;
+            this.packet = packet;
+            this.streamTimeBase = streamTimeBase;
+            this.encoderTimeBase = encoder.getTimeBase();
+            this.start = start;
+            this.end = end;
+        }
+
+        public void write(final Frame frame) throws IOException {
+            final long timestamp = frame.getBestEffortTimestamp();
+            if (timestamp == Libavformat.AV_NOPTS_VALUE || timestamp < this.start || timestamp >= this.end) {
+                return;
+            }
+
+            // Encoders require strictly increasing timestamps.
+            long pts = AVRational.rescale(SegmentTranscoder.this.avc.getAvutil(), timestamp, this.streamTimeBase,
+                    this.encoderTimeBase);
+            if (this.lastPts != Long.MIN_VALUE && pts <= this.lastPts) {
+                pts = this.lastPts + 1;
+            }
+            this.lastPts = pts;
+
+            frame.setPts(pts);
+            frame.setPictureType(AVFrame.AV_PICTURE_TYPE_NONE);
+
+            this.encoder.send(frame);
+            while (this.encoder.receive(this.packet)) {
+                this.muxer.write(this.packet, this.streamIndex);
+            }
+        }
+
+        public void flush() throws IOException {
+            this.encoder.send(null);
+            while (this.encoder.receive(this.packet)) {
+                this.muxer.write(this.packet, this.streamIndex);
+            }
+        }
+    }
+
+    /**
+     * Sequential reader of video packets from segment files.
+     */
+    private class VideoReader {
+
+        private final List<File> files;
+
+        private Demuxer          demuxer;
+
+        private int              next;
+
+        public VideoReader(final List<File> files) throws IOException {
+            this.files = files;
+            this.demuxer = new Demuxer(SegmentTranscoder.this.avc, files.get(0).getPath());
+            this.next = 1;
+        }
+
+        /**
+         * Return video stream of first segment. All segments have the same parameters.
+         */
+        public StreamInfo getStream() {
+            return this.demuxer.getStream(0);
+        }
+
+        public boolean read(final Packet packet) throws IOException {
+            while (this.demuxer != null) {
+                if (this.demuxer.read(packet)) {
+                    return true;
+                }
+
+                this.demuxer.close();
+                this.demuxer = null;
+                if (this.next < this.files.size()) {
+                    this.demuxer = new Demuxer(SegmentTranscoder.this.avc, this.files.get(this.next).getPath());
+                    ++this.next;
+                }
+            }
+
+            return false;
+        }
+
+        public void close() {
+            if (this.demuxer != null) {
+                this.demuxer.close();
+                this.demuxer = null;
+            }
+        }
+    }
+}
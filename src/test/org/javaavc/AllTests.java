@@ -18,6 +18,28 @@
  */
 package org.javaavc;
 
+import org.javaavc.ffmpeg.avcodec.CodecThreadingTest;
+import org.javaavc.ffmpeg.avcodec.DecoderTest;
+import org.javaavc.ffmpeg.avfilter.FilterGraphTest;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.ffmpeg.avutil.BufferPoolTest;
+import org.javaavc.ffmpeg.swresample.ResamplerTest;
+import org.javaavc.ffmpeg.swscale.ScalerTest;
+import org.javaavc.platform.FileKeyTest;
+import org.javaavc.platform.JarExtractorTest;
+import org.javaavc.platform.NativeCacheTest;
+import org.javaavc.platform.PlatformTest;
+import org.javaavc.platform.SharedLibIndexTest;
+import org.javaavc.probe.MediaInfoCacheTest;
+import org.javaavc.probe.MediaInfoHandlerTest;
+import org.javaavc.probe.MediaProbeTest;
+import org.javaavc.probe.NativeProbeTest;
+import org.javaavc.process.ProcessSchedulerTest;
+import org.javaavc.process.ProgressHandlerTest;
+import org.javaavc.seek.SeekIndexTest;
+import org.javaavc.thumbnail.ThumbnailerTest;
+import org.javaavc.transcode.RemuxerTest;
+import org.javaavc.transcode.SegmentTranscoderTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
@@ -30,7 +52,29 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 //@formatter:off
 @SuiteClasses({
-    JavaAvcTest.class
+    JavaAvcTest.class,
+    DemuxerTest.class,
+    DecoderTest.class,
+    CodecThreadingTest.class,
+    BufferPoolTest.class,
+    ScalerTest.class,
+    ResamplerTest.class,
+    FilterGraphTest.class,
+    ThumbnailerTest.class,
+    SegmentTranscoderTest.class,
+    RemuxerTest.class,
+    SeekIndexTest.class,
+    ProcessSchedulerTest.class,
+    ProgressHandlerTest.class,
+    PlatformTest.class,
+    JarExtractorTest.class,
+    SharedLibIndexTest.class,
+    NativeCacheTest.class,
+    FileKeyTest.class,
+    MediaInfoHandlerTest.class,
+    MediaInfoCacheTest.class,
+    MediaProbeTest.class,
+    NativeProbeTest.class
 })
 //@formatter:on
 public class AllTests {
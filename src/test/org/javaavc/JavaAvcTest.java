@@ -18,13 +18,25 @@
  */
 package org.javaavc;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.process.OutputHandler;
+import org.javaavc.process.PipedProcess;
 
 import org.junit.Test;
 
@@ -44,46 +56,57 @@ public class JavaAvcTest {
         assertNotNull(avc);
 
         // AVUtil.
-        assertNotNull(avc.avutil);
-        assertNotNull(avc.avutil.avutil_version());
-        assertNotNull(avc.avutil.avutil_license());
-        assertNotNull(avc.avutil.avutil_configuration());
+        assertNotNull(avc.getAvutil());
+        assertNotNull(avc.getAvutil().avutil_version());
+        assertNotNull(avc.getAvutil().avutil_license());
+        assertNotNull(avc.getAvutil().avutil_configuration());
 
         // AVCodec.
-        assertNotNull(avc.avcodec);
-        assertNotNull(avc.avcodec.avcodec_version());
-        assertNotNull(avc.avcodec.avcodec_license());
-        assertNotNull(avc.avcodec.avcodec_configuration());
+        assertNotNull(avc.getAvcodec());
+        assertNotNull(avc.getAvcodec().avcodec_version());
+        assertNotNull(avc.getAvcodec().avcodec_license());
+        assertNotNull(avc.getAvcodec().avcodec_configuration());
 
         // AVFormat.
-        assertNotNull(avc.avformat);
-        assertNotNull(avc.avformat.avformat_version());
-        assertNotNull(avc.avformat.avformat_license());
-        assertNotNull(avc.avformat.avformat_configuration());
+        assertNotNull(avc.getAvformat());
+        assertNotNull(avc.getAvformat().avformat_version());
+        assertNotNull(avc.getAvformat().avformat_license());
+        assertNotNull(avc.getAvformat().avformat_configuration());
 
         // SWResample.
-        assertNotNull(avc.swresample);
-        assertNotNull(avc.swresample.swresample_version());
-        assertNotNull(avc.swresample.swresample_license());
-        assertNotNull(avc.swresample.swresample_configuration());
+        assertNotNull(avc.getSwresample());
+        assertNotNull(avc.getSwresample().swresample_version());
+        assertNotNull(avc.getSwresample().swresample_license());
+        assertNotNull(avc.getSwresample().swresample_configuration());
 
         // SWScale.
-        assertNotNull(avc.swscale);
-        assertNotNull(avc.swscale.swscale_version());
-        assertNotNull(avc.swscale.swscale_license());
-        assertNotNull(avc.swscale.swscale_configuration());
+        assertNotNull(avc.getSwscale());
+        assertNotNull(avc.getSwscale().swscale_version());
+        assertNotNull(avc.getSwscale().swscale_license());
+        assertNotNull(avc.getSwscale().swscale_configuration());
 
         // AVFilter.
-        assertNotNull(avc.avfilter);
-        assertNotNull(avc.avfilter.avfilter_version());
-        assertNotNull(avc.avfilter.avfilter_license());
-        assertNotNull(avc.avfilter.avfilter_configuration());
+        assertNotNull(avc.getAvfilter());
+        assertNotNull(avc.getAvfilter().avfilter_version());
+        assertNotNull(avc.getAvfilter().avfilter_license());
+        assertNotNull(avc.getAvfilter().avfilter_configuration());
 
         // AVDevice.
-        assertNotNull(avc.avdevice);
-        assertNotNull(avc.avdevice.avdevice_version());
-        assertNotNull(avc.avdevice.avdevice_license());
-        assertNotNull(avc.avdevice.avdevice_configuration());
+        assertNotNull(avc.getAvdevice());
+        assertNotNull(avc.getAvdevice().avdevice_version());
+        assertNotNull(avc.getAvdevice().avdevice_license());
+        assertNotNull(avc.getAvdevice().avdevice_configuration());
+    }
+
+    @Test
+    public void testLazyLoading() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        // Library is loaded together with its dependencies.
+        assertNotNull(avc.getAvformat());
+        assertTrue(avc.isLoaded("avformat"));
+        assertTrue(avc.isLoaded("avcodec"));
+        assertTrue(avc.isLoaded("avutil"));
     }
 
     @Test
@@ -113,4 +136,50 @@ public class JavaAvcTest {
         avc.commandLineExecute(JavaAVC.BIN_FFMPEG, "-formats");
         avc.commandLineExecute(JavaAVC.BIN_FFMPEG, "-codecs");
     }
+
+    @Test
+    public void testCmdAsync() throws IOException, InterruptedException, ExecutionException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        final List<String> lines = Collections.synchronizedList(new ArrayList<String>());
+        final List<CompletableFuture<Integer>> executions = new ArrayList<CompletableFuture<Integer>>();
+        for (int i = 0; i < 8; ++i) {
+            executions.add(avc.commandLineExecuteAsync(JavaAVC.BIN_FFMPEG, "-version",
+                    OutputHandler.lines(new Consumer<String>() {
+
+                        @Override
+                        public void accept(final String line) {
+                            lines.add(line);
+                        }
+                    }), OutputHandler.discard()));
+        }
+
+        for (CompletableFuture<Integer> execution : executions) {
+            assertEquals(Integer.valueOf(0), execution.get());
+        }
+        assertTrue(lines.size() >= executions.size());
+    }
+
+    @Test
+    public void testCmdPiped() throws IOException, InterruptedException, ExecutionException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        final PipedProcess process = avc.commandLineExecutePiped(JavaAVC.BIN_FFMPEG,
+                "-i pipe:0 -c copy -f matroska pipe:1", OutputHandler.discard());
+        final FileInputStream source = new FileInputStream(DemuxerTest.FLV_FILE);
+        try {
+            final CompletableFuture<Long> written = process.transferFrom(source);
+
+            final ByteArrayOutputStream target = new ByteArrayOutputStream();
+            final long read = process.transferTo(target);
+
+            assertTrue(written.get() > 0);
+            assertTrue(read > 0);
+            assertEquals(read, target.size());
+            assertEquals(Integer.valueOf(0), process.getExitCode().get());
+        } finally {
+            source.close();
+            process.close();
+        }
+    }
 }
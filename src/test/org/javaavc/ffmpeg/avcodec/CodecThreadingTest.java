@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.EnumSet;
+
+import org.javaavc.ffmpeg.avcodec.CodecThreading.Type;
+import org.junit.Test;
+
+/**
+ * Test class for {@link CodecThreading}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class CodecThreadingTest {
+
+    /**
+     * Value of <code>FF_THREAD_FRAME</code>.
+     */
+    private static final int FF_THREAD_FRAME = 1;
+
+    /**
+     * Value of <code>FF_THREAD_SLICE</code>.
+     */
+    private static final int FF_THREAD_SLICE = 2;
+
+    @Test
+    public void testDefault() {
+        final CodecThreading threading = CodecThreading.getDefault();
+        final int processors = Runtime.getRuntime().availableProcessors();
+        assertEquals(Math.min(processors, CodecThreading.MAX_AUTO_THREADS), threading.getCount());
+        assertTrue(threading.getCount() >= 1);
+        assertTrue(threading.getCount() <= CodecThreading.MAX_AUTO_THREADS);
+        assertEquals(EnumSet.of(Type.FRAME, Type.SLICE), threading.getTypes());
+        assertEquals(FF_THREAD_FRAME | FF_THREAD_SLICE, threading.getTypeFlags());
+    }
+
+    @Test
+    public void testSingleThread() {
+        final CodecThreading threading = CodecThreading.getSingleThread();
+        assertEquals(1, threading.getCount());
+        assertEquals(FF_THREAD_FRAME | FF_THREAD_SLICE, threading.getTypeFlags());
+    }
+
+    @Test
+    public void testTypeFlags() {
+        assertEquals(FF_THREAD_FRAME, new CodecThreading(4, Type.FRAME).getTypeFlags());
+        assertEquals(FF_THREAD_SLICE, new CodecThreading(4, Type.SLICE).getTypeFlags());
+        assertEquals(FF_THREAD_FRAME | FF_THREAD_SLICE,
+                new CodecThreading(CodecThreading.AUTO, Type.SLICE, Type.FRAME, Type.SLICE).getTypeFlags());
+    }
+
+    @Test
+    public void testIncorrectSettings() {
+        try {
+            new CodecThreading(-1, Type.FRAME);
+            fail("Number of threads is negative!");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+
+        try {
+            new CodecThreading(1);
+            fail("Type of threading is not defined!");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+
+        try {
+            new CodecThreading(1, Type.FRAME).getTypes().add(Type.SLICE);
+            fail("Settings are immutable!");
+        } catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avcodec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.junit.Test;
+
+/**
+ * Test class for {@link Decoder}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class DecoderTest {
+
+    private void checkFrame(final StreamInfo stream, final Frame frame) {
+        if (stream.getMediaType() == MediaType.VIDEO) {
+            assertEquals(stream.getWidth(), frame.getWidth());
+            assertEquals(stream.getHeight(), frame.getHeight());
+            assertTrue(frame.getLineSize(0) >= frame.getWidth());
+        } else {
+            assertTrue(frame.getSamples() > 0);
+        }
+
+        assertTrue(frame.getPlanes() > 0);
+        for (int i = 0; i < frame.getPlanes(); ++i) {
+            final ByteBuffer plane = frame.getPlane(i);
+            assertNotNull(plane);
+            assertTrue(plane.isDirect());
+            assertEquals(frame.getPlaneSize(i), plane.capacity());
+        }
+    }
+
+    private int decode(final String fileName, final MediaType type) throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        int frames = 0;
+
+        final Demuxer demuxer = new Demuxer(avc, fileName);
+        final Packet packet = new Packet(avc.getAvcodec());
+        final Frame frame = new Frame(avc.getAvutil());
+        try {
+            final StreamInfo stream = demuxer.findStream(type);
+            assertNotNull(stream);
+
+            final Decoder decoder = new Decoder(avc, stream.getCodecContext());
+            try {
+                while (demuxer.read(packet)) {
+                    if (packet.getStreamIndex() == stream.getIndex()) {
+                        decoder.send(packet);
+                        while (decoder.receive(frame)) {
+                            checkFrame(stream, frame);
+                            ++frames;
+                        }
+                    }
+                }
+
+                decoder.send(null);
+                while (decoder.receive(frame)) {
+                    checkFrame(stream, frame);
+                    ++frames;
+                }
+            } finally {
+                decoder.close();
+            }
+        } finally {
+            frame.close();
+            packet.close();
+            demuxer.close();
+        }
+
+        return frames;
+    }
+
+    @Test
+    public void testDecodeVideo() throws IOException {
+        assertTrue(decode(DemuxerTest.MP4_FILE, MediaType.VIDEO) > 0);
+        assertTrue(decode(DemuxerTest.FLV_FILE, MediaType.VIDEO) > 0);
+    }
+
+    @Test
+    public void testDecodeAudio() throws IOException {
+        assertTrue(decode(DemuxerTest.MP4_FILE, MediaType.AUDIO) > 0);
+    }
+}
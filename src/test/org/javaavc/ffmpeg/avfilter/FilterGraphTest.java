@@ -0,0 +1,149 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avfilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.FFmpegException;
+import org.javaavc.ffmpeg.avcodec.Decoder;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.junit.Test;
+
+/**
+ * Test class for {@link FilterGraph}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class FilterGraphTest {
+
+    private static final int WIDTH  = 160;
+
+    private static final int HEIGHT = 120;
+
+    private int pull(final FilterGraph graph, final Frame frame) throws IOException {
+        int frames = 0;
+        while (graph.receive(frame)) {
+            assertEquals(WIDTH, frame.getWidth());
+            assertEquals(HEIGHT, frame.getHeight());
+            ++frames;
+        }
+
+        return frames;
+    }
+
+    @Test
+    public void testVideo() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        int decoded = 0;
+        int filtered = 0;
+
+        final Demuxer demuxer = new Demuxer(avc, DemuxerTest.MP4_FILE);
+        final Packet packet = new Packet(avc.getAvcodec());
+        final Frame frame = new Frame(avc.getAvutil());
+        final Frame out = new Frame(avc.getAvutil());
+        try {
+            final StreamInfo stream = demuxer.findStream(MediaType.VIDEO);
+            assertNotNull(stream);
+
+            final FilterGraph graph = new FilterGraph(avc, stream, String.format("scale=%d:%d", WIDTH, HEIGHT));
+            final Decoder decoder = new Decoder(avc, stream.getCodecContext());
+            try {
+                assertEquals(WIDTH, graph.getOutputWidth());
+                assertEquals(HEIGHT, graph.getOutputHeight());
+                assertEquals(stream.getTimeBase().toString(), graph.getOutputTimeBase().toString());
+
+                while (demuxer.read(packet)) {
+                    if (packet.getStreamIndex() == stream.getIndex()) {
+                        decoder.send(packet);
+                        while (decoder.receive(frame)) {
+                            ++decoded;
+                            graph.send(frame);
+                            filtered += pull(graph, out);
+                        }
+                    }
+                }
+
+                decoder.send(null);
+                while (decoder.receive(frame)) {
+                    ++decoded;
+                    graph.send(frame);
+                    filtered += pull(graph, out);
+                }
+
+                graph.send(null);
+                filtered += pull(graph, out);
+                assertTrue(graph.isFinished());
+            } finally {
+                decoder.close();
+                graph.close();
+            }
+        } finally {
+            out.close();
+            frame.close();
+            packet.close();
+            demuxer.close();
+        }
+
+        assertTrue(decoded > 0);
+        assertEquals(decoded, filtered);
+    }
+
+    @Test
+    public void testAudioSourceArgs() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        final Demuxer demuxer = new Demuxer(avc, DemuxerTest.MP4_FILE);
+        try {
+            final StreamInfo stream = demuxer.findStream(MediaType.AUDIO);
+            final long layout = stream.getChannelLayout() > 0 ? stream.getChannelLayout()
+                    : avc.getAvutil().av_get_default_channel_layout(stream.getChannels());
+            assertTrue(FilterGraph.getSourceArgs(avc.getAvutil(), stream)
+                    .endsWith(String.format(":channel_layout=0x%x", layout)));
+        } finally {
+            demuxer.close();
+        }
+    }
+
+    @Test
+    public void testIncorrectDescription() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        final Demuxer demuxer = new Demuxer(avc, DemuxerTest.MP4_FILE);
+        try {
+            new FilterGraph(avc, demuxer.findStream(MediaType.AUDIO), "no_such_filter=1").close();
+            fail("Filter does not exist!");
+        } catch (FFmpegException e) {
+            // Expected.
+        } finally {
+            demuxer.close();
+        }
+    }
+}
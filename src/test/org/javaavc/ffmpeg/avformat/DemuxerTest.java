@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avformat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.FFmpegException;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.junit.Test;
+
+/**
+ * Test class for {@link Demuxer}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class DemuxerTest {
+
+    public static final String MP4_FILE = "resources/Castle.mp4";
+
+    public static final String FLV_FILE = "resources/Castle.flv";
+
+    private int checkRead(final Demuxer demuxer) throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        final Packet packet = new Packet(avc.getAvcodec());
+        try {
+            assertFalse(demuxer.getStreams().isEmpty());
+            assertTrue(demuxer.getDuration() > 0);
+
+            final StreamInfo video = demuxer.findStream(MediaType.VIDEO);
+            assertNotNull(video);
+            assertTrue(video.getWidth() > 0);
+            assertTrue(video.getHeight() > 0);
+
+            int packets = 0;
+            int keyFrames = 0;
+            while (demuxer.read(packet)) {
+                assertTrue(packet.getStreamIndex() < demuxer.getStreams().size());
+                assertTrue(packet.getSize() > 0);
+                if (packet.getStreamIndex() == video.getIndex() && packet.isKeyFrame()) {
+                    ++keyFrames;
+                }
+                ++packets;
+            }
+            assertTrue(packets > 0);
+            assertTrue(keyFrames > 0);
+
+            // End of input is stable.
+            assertFalse(demuxer.read(packet));
+
+            return packets;
+        } finally {
+            packet.close();
+            demuxer.close();
+        }
+    }
+
+    private void checkReadMapped(final String fileName) throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        final int packets = checkRead(new Demuxer(avc, fileName));
+
+        // Mapped file is shared between readers.
+        final MappedFile file = new MappedFile(new File(fileName));
+        assertEquals(packets, checkRead(new Demuxer(avc, new MappedInput(avc, file), null)));
+        assertEquals(packets, checkRead(new Demuxer(avc, new MappedInput(avc, file, 4096), null)));
+    }
+
+    @Test
+    public void testReadMp4() throws IOException {
+        checkRead(new Demuxer(JavaAVC.getInstance(), MP4_FILE));
+    }
+
+    @Test
+    public void testReadFlv() throws IOException {
+        checkRead(new Demuxer(JavaAVC.getInstance(), FLV_FILE));
+    }
+
+    @Test
+    public void testReadMappedMp4() throws IOException {
+        checkReadMapped(MP4_FILE);
+    }
+
+    @Test
+    public void testReadMappedFlv() throws IOException {
+        checkReadMapped(FLV_FILE);
+    }
+
+    @Test
+    public void testOpenMissingFile() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+        try {
+            new Demuxer(avc, "resources/missing.mp4").close();
+        } catch (FFmpegException e) {
+            assertEquals("avformat_open_input", e.getFunction());
+            assertTrue(e.getErrorCode() < 0);
+            return;
+        }
+        fail("Missing file was opened!");
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.avutil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.javaavc.JavaAVC;
+import org.junit.Test;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Test class for {@link BufferPool}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class BufferPoolTest {
+
+    /**
+     * Value of <code>AV_PIX_FMT_YUV420P</code>.
+     */
+    public static final int YUV420P = 0;
+
+    @Test
+    public void testReuse() throws IOException {
+        final BufferPool pool = new BufferPool(JavaAVC.getInstance().getAvutil(), 1 << 20, 1 << 20, 4);
+        try {
+            final PooledBuffer first = pool.acquire(4096);
+            assertEquals(1, first.getRefCount());
+            assertEquals(4096, first.getByteBuffer().capacity());
+
+            first.retain();
+            first.release();
+            assertEquals(1, pool.getUsedBuffers());
+
+            first.release();
+            assertEquals(0, pool.getUsedBuffers());
+            assertEquals(1, pool.getIdleBuffers());
+
+            final PooledBuffer second = pool.acquire(4096);
+            assertSame(first, second);
+            assertEquals(1, pool.getHits());
+            assertEquals(1, pool.getMisses());
+            second.release();
+
+            try {
+                second.release();
+                fail("Buffer was released twice!");
+            } catch (IllegalStateException e) {
+                // Expected.
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testImage() throws IOException {
+        final BufferPool pool = new BufferPool(JavaAVC.getInstance().getAvutil(), 1 << 24, 1 << 24, 4);
+        try {
+            final PooledBuffer image = pool.acquireImage(1920, 1080, YUV420P);
+            assertTrue(image.getLineSize(0) >= 1920);
+            assertTrue(image.getLineSize(0) % BufferPool.LINE_ALIGN == 0);
+            assertTrue(image.getSize() >= 1920 * 1080 * 3 / 2);
+
+            // Planes follow each other: Y, U, V.
+            final Pointer[] planes = image.getPlanePointers();
+            assertEquals(image.getPointer(), planes[0]);
+            assertEquals(image.getPointer().share(1080L * image.getLineSize(0)), planes[1]);
+            assertEquals(planes[1].share(540L * image.getLineSize(1)), planes[2]);
+            assertNull(planes[3]);
+            image.release();
+
+            // Other resolution uses other free list.
+            final PooledBuffer other = pool.acquireImage(1280, 720, YUV420P);
+            assertEquals(2, pool.getMisses());
+            other.release();
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testLimits() throws IOException {
+        final BufferPool pool = new BufferPool(JavaAVC.getInstance().getAvutil(), 3000, 2000, 1);
+        try {
+            final PooledBuffer a = pool.acquire(1000);
+            final PooledBuffer b = pool.acquire(1000);
+            final PooledBuffer c = pool.acquire(1000);
+            try {
+                pool.acquire(1000);
+                fail("Pool limit was exceeded!");
+            } catch (IllegalStateException e) {
+                // Expected.
+            }
+
+            // Only one idle buffer per key is kept.
+            a.release();
+            b.release();
+            assertEquals(1, pool.getIdleBuffers());
+
+            // Idle buffer is evicted to make space for buffer of other size.
+            final PooledBuffer d = pool.acquire(2000);
+            assertEquals(0, pool.getIdleBuffers());
+            assertEquals(1, pool.getEvictions());
+
+            c.release();
+            d.release();
+            assertEquals(0, pool.getUsedBytes());
+            assertTrue(pool.getIdleBytes() <= 2000);
+        } finally {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.swresample;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ShortBuffer;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avcodec.Decoder;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.Libavutil;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.junit.Test;
+
+/**
+ * Test class for {@link Resampler}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class ResamplerTest {
+
+    private static final int SAMPLE_RATE = 16000;
+
+    private void check(final Resampler resampler, final int samples) {
+        final ShortBuffer buffer = resampler.getShortBuffer(0);
+        assertTrue(buffer.isDirect());
+        assertEquals(samples * resampler.getChannels(), buffer.remaining());
+    }
+
+    @Test
+    public void testResample() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        long inSamples = 0;
+        long outSamples = 0;
+        int inSampleRate = 0;
+
+        final Demuxer demuxer = new Demuxer(avc, DemuxerTest.MP4_FILE);
+        final Packet packet = new Packet(avc.getAvcodec());
+        final Frame frame = new Frame(avc.getAvutil());
+        final Resampler resampler = new Resampler(avc, SAMPLE_RATE, 1, Libavutil.AV_SAMPLE_FMT_S16);
+        try {
+            final StreamInfo stream = demuxer.findStream(MediaType.AUDIO);
+            assertNotNull(stream);
+
+            final Decoder decoder = new Decoder(avc, stream.getCodecContext());
+            try {
+                while (demuxer.read(packet)) {
+                    if (packet.getStreamIndex() == stream.getIndex()) {
+                        decoder.send(packet);
+                        while (decoder.receive(frame)) {
+                            inSamples += frame.getSamples();
+                            inSampleRate = frame.getSampleRate();
+
+                            final int samples = resampler.convert(frame);
+                            check(resampler, samples);
+                            outSamples += samples;
+                        }
+                    }
+                }
+            } finally {
+                decoder.close();
+            }
+
+            int samples;
+            while ((samples = resampler.flush()) > 0) {
+                check(resampler, samples);
+                outSamples += samples;
+            }
+            assertEquals(0, resampler.getDelay());
+
+            // All input samples are converted (up to rounding).
+            final long expected = inSamples * SAMPLE_RATE / inSampleRate;
+            assertTrue(Math.abs(expected - outSamples) <= 2);
+
+            try {
+                resampler.getFloatBuffer(0);
+                fail("Output format is not float!");
+            } catch (IllegalStateException e) {
+                // Expected.
+            }
+        } finally {
+            resampler.close();
+            frame.close();
+            packet.close();
+            demuxer.close();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.ffmpeg.swscale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avcodec.Decoder;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.BufferPool;
+import org.javaavc.ffmpeg.avutil.Frame;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.javaavc.ffmpeg.avutil.PooledBuffer;
+import org.junit.Test;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Test class for {@link Scaler}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class ScalerTest {
+
+    /**
+     * Value of <code>AV_PIX_FMT_RGB24</code>.
+     */
+    public static final int  RGB24  = 2;
+
+    /**
+     * Value of <code>AV_PIX_FMT_BGR24</code>.
+     */
+    public static final int  BGR24  = 3;
+
+    private static final int WIDTH  = 640;
+
+    private static final int HEIGHT = 480;
+
+    /**
+     * Decode first video frame of file.
+     */
+    private void decodeFirstFrame(final JavaAVC avc, final String fileName, final Frame frame) throws IOException {
+        final Demuxer demuxer = new Demuxer(avc, fileName);
+        final Packet packet = new Packet(avc.getAvcodec());
+        try {
+            final StreamInfo stream = demuxer.findStream(MediaType.VIDEO);
+            final Decoder decoder = new Decoder(avc, stream.getCodecContext());
+            try {
+                while (demuxer.read(packet)) {
+                    if (packet.getStreamIndex() == stream.getIndex()) {
+                        decoder.send(packet);
+                        if (decoder.receive(frame)) {
+                            return;
+                        }
+                    }
+                }
+                decoder.send(null);
+                assertTrue(decoder.receive(frame));
+            } finally {
+                decoder.close();
+            }
+        } finally {
+            packet.close();
+            demuxer.close();
+        }
+    }
+
+    @Test
+    public void testContextReuse() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+        final BufferPool pool = new BufferPool(avc.getAvutil(), 1 << 24, 1 << 24, 4);
+        final Scaler scaler = new Scaler(avc, pool);
+        final Frame frame = new Frame(avc.getAvutil());
+        try {
+            decodeFirstFrame(avc, DemuxerTest.MP4_FILE, frame);
+
+            for (int i = 0; i < 3; ++i) {
+                final PooledBuffer rgb = scaler.scale(frame, WIDTH, HEIGHT, RGB24);
+                assertTrue(rgb.getLineSize(0) >= 3 * WIDTH);
+                rgb.release();
+            }
+            assertEquals(1, scaler.getMisses());
+            assertEquals(2, scaler.getHits());
+            assertEquals(1, scaler.getIdleContexts());
+
+            // Other geometry needs other context.
+            scaler.scale(frame, WIDTH / 2, HEIGHT / 2, RGB24).release();
+            assertEquals(2, scaler.getMisses());
+            assertEquals(2, scaler.getIdleContexts());
+
+            // The least recently used context is re-initialized, when cache is full.
+            scaler.setMaxContexts(1);
+            assertEquals(1, scaler.getIdleContexts());
+            scaler.scale(frame, WIDTH, HEIGHT, RGB24).release();
+            assertEquals(3, scaler.getMisses());
+            assertEquals(1, scaler.getIdleContexts());
+        } finally {
+            frame.close();
+            scaler.close();
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testSlices() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+        final BufferPool pool = new BufferPool(avc.getAvutil(), 1 << 24, 1 << 24, 4);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final Scaler scaler = new Scaler(avc, pool);
+        final Scaler sliced = new Scaler(avc, pool, executor, 4);
+        final Frame frame = new Frame(avc.getAvutil());
+        try {
+            decodeFirstFrame(avc, DemuxerTest.MP4_FILE, frame);
+            final PooledBuffer rgb = scaler.scale(frame, WIDTH, HEIGHT, RGB24);
+
+            // Packed formats are converted line by line, so slices should not change result.
+            final Pointer[] data = new Pointer[] { rgb.getPointer() };
+            final int[] stride = rgb.getLineSizes();
+            final PooledBuffer expected = pool.acquireImage(WIDTH, HEIGHT, BGR24);
+            scaler.scale(data, stride, WIDTH, HEIGHT, RGB24, new Pointer[] { expected.getPointer() },
+                    expected.getLineSizes(), WIDTH, HEIGHT, BGR24);
+            final PooledBuffer actual = pool.acquireImage(WIDTH, HEIGHT, BGR24);
+            assertNotSame(expected, actual);
+            sliced.scale(data, stride, WIDTH, HEIGHT, RGB24, new Pointer[] { actual.getPointer() },
+                    actual.getLineSizes(), WIDTH, HEIGHT, BGR24);
+
+            // Slices have the same key, so context, released by one worker, can be reused by another one.
+            assertEquals(4, sliced.getMisses() + sliced.getHits());
+            assertTrue(sliced.getMisses() >= 1);
+            for (int y = 0; y < HEIGHT; ++y) {
+                for (int x = 0; x < 3 * WIDTH; ++x) {
+                    final long offset = (long) y * expected.getLineSize(0) + x;
+                    assertEquals(expected.getPointer().getByte(offset), actual.getPointer().getByte(offset));
+                }
+            }
+
+            rgb.release();
+            expected.release();
+            actual.release();
+        } finally {
+            frame.close();
+            sliced.close();
+            scaler.close();
+            pool.close();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSlicesSubsampledChroma() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+        final BufferPool pool = new BufferPool(avc.getAvutil(), 1 << 25, 1 << 25, 4);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final Scaler scaler = new Scaler(avc, pool);
+        final Scaler sliced = new Scaler(avc, pool, executor, 4);
+        final Frame frame = new Frame(avc.getAvutil());
+        try {
+            decodeFirstFrame(avc, DemuxerTest.MP4_FILE, frame);
+            assertTrue(frame.getHeight() >= 2 * Scaler.MIN_SLICE_HEIGHT);
+
+            // Chroma of 4:2:0 is interpolated vertically, so result of sliced scaler should not have seams.
+            final PooledBuffer expected = scaler.scale(frame, frame.getWidth(), frame.getHeight(), RGB24);
+            final PooledBuffer actual = sliced.scale(frame, frame.getWidth(), frame.getHeight(), RGB24);
+            for (int y = 0; y < frame.getHeight(); ++y) {
+                for (int x = 0; x < 3 * frame.getWidth(); ++x) {
+                    final long offset = (long) y * expected.getLineSize(0) + x;
+                    assertEquals(expected.getPointer().getByte(offset), actual.getPointer().getByte(offset));
+                }
+            }
+            assertEquals(1, sliced.getMisses() + sliced.getHits());
+
+            expected.release();
+            actual.release();
+        } finally {
+            frame.close();
+            sliced.close();
+            scaler.close();
+            pool.close();
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.platform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link FileKey}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class FileKeyTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testKey() throws IOException {
+        final File file = this.temp.newFile();
+
+        final FileKey key = FileKey.of(file);
+        assertEquals(file.getCanonicalPath(), key.getPath());
+        assertEquals(0, key.getSize());
+        assertEquals(key, FileKey.of(file));
+        assertEquals(key.hashCode(), FileKey.of(file).hashCode());
+
+        // Changed file has other key.
+        Files.write(file.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        assertFalse(key.equals(FileKey.of(file)));
+        assertEquals(key.getPath(), FileKey.of(file).getPath());
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingFile() throws IOException {
+        FileKey.of(new File(this.temp.getRoot(), "missing.mp4"));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.platform;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link JarExtractor}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class JarExtractorTest {
+
+    private static final int FILES_NUM = 32;
+
+    @Rule
+    public TemporaryFolder   temp      = new TemporaryFolder();
+
+    private static byte[] getContent(final int idx) {
+        final byte[] content = new byte[idx * 1024 + 1];
+        for (int i = 0; i < content.length; ++i) {
+            content[i] = (byte) (i * 31 + idx);
+        }
+
+        return content;
+    }
+
+    private File createJar(final String... names) throws IOException {
+        final File jarFile = this.temp.newFile();
+        final ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(jarFile));
+        try {
+            for (int i = 0; i < names.length; ++i) {
+                zos.putNextEntry(new ZipEntry(names[i]));
+                zos.write(getContent(i));
+                zos.closeEntry();
+            }
+        } finally {
+            zos.close();
+        }
+
+        return jarFile;
+    }
+
+    /**
+     * Mark all entries of central directory as UNIX files with <code>rwxr-xr-x</code> mode.
+     */
+    private static void makeExecutable(final File jarFile) throws IOException {
+        final ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(jarFile.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i + 4 <= bytes.limit(); ++i) {
+            if (bytes.getInt(i) == 0x02014b50) {
+                bytes.put(i + 5, (byte) 3);
+                bytes.putInt(i + 38, 0100755 << 16);
+            }
+        }
+        Files.write(jarFile.toPath(), bytes.array());
+    }
+
+    @Test
+    public void testExtract() throws IOException {
+        final String[] names = new String[FILES_NUM];
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = String.format("dir%d/sub/file%d.bin", i % 3, i);
+        }
+        final File outputDir = this.temp.newFolder();
+
+        new JarExtractor(createJar(names), 4).extractTo(outputDir);
+
+        for (int i = 0; i < names.length; ++i) {
+            final File file = new File(outputDir, names[i]);
+            assertArrayEquals(getContent(i), Files.readAllBytes(file.toPath()));
+            assertFalse(file.canExecute());
+        }
+    }
+
+    @Test
+    public void testExecutableBits() throws IOException {
+        final File jarFile = createJar("bin/ffmpeg", "bin/ffprobe");
+        makeExecutable(jarFile);
+        final File outputDir = this.temp.newFolder();
+
+        new JarExtractor(jarFile).extractTo(outputDir);
+
+        assertTrue(new File(outputDir, "bin/ffmpeg").canExecute());
+        assertTrue(new File(outputDir, "bin/ffprobe").canExecute());
+    }
+
+    @Test(expected = IOException.class)
+    public void testEntryOutsideOfDirectory() throws IOException {
+        new JarExtractor(createJar("../evil.bin")).extractTo(this.temp.newFolder());
+    }
+}
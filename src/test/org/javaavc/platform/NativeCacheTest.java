@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.platform;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link NativeCache}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class NativeCacheTest {
+
+    private static final String NAME = "testlib_linux_64";
+
+    @Rule
+    public TemporaryFolder      temp = new TemporaryFolder();
+
+    private File createJar(final String content) throws IOException {
+        final File jarFile = this.temp.newFile();
+        final JarOutputStream jos = new JarOutputStream(new FileOutputStream(jarFile));
+        try {
+            jos.putNextEntry(new JarEntry(NAME + "/"));
+            jos.closeEntry();
+            jos.putNextEntry(new JarEntry(NAME + "/libtest.so"));
+            jos.write(content.getBytes(StandardCharsets.UTF_8));
+            jos.closeEntry();
+        } finally {
+            jos.close();
+        }
+
+        return jarFile;
+    }
+
+    @Test
+    public void testInstall() throws IOException {
+        final NativeCache cache = new NativeCache(Platform.getPlatform(), this.temp.newFolder());
+        final File jarFile = createJar("content");
+
+        final File dir = cache.install(jarFile, NAME);
+        final File lib = new File(dir, NAME + File.separator + "libtest.so");
+        assertTrue(new File(dir, NativeCache.MARKER).isFile());
+        assertArrayEquals("content".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(lib.toPath()));
+
+        // Warm start: the same directory, file is not unpacked again.
+        assertTrue(lib.setLastModified(0));
+        assertEquals(dir, cache.install(jarFile, NAME));
+        assertEquals(0, lib.lastModified());
+
+        // Other content: other directory.
+        assertNotEquals(dir, cache.install(createJar("other content"), NAME));
+
+        // Only installed directories are left.
+        assertEquals(2, cache.getCacheDir().list().length);
+    }
+
+    @Test
+    public void testReinstallBroken() throws IOException {
+        final NativeCache cache = new NativeCache(Platform.getPlatform(), this.temp.newFolder());
+        final File jarFile = createJar("content");
+
+        final File dir = cache.install(jarFile, NAME);
+        final File lib = new File(dir, NAME + File.separator + "libtest.so");
+        Files.write(lib.toPath(), "broken".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(dir, cache.install(jarFile, NAME));
+        assertArrayEquals("content".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(lib.toPath()));
+        assertEquals(1, cache.getCacheDir().list().length);
+    }
+}
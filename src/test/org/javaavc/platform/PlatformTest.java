@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.platform;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link Platform}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class PlatformTest {
+
+    @Test
+    public void testSplitCommand() {
+        final Platform platform = Platform.getPlatform();
+
+        assertEquals(Arrays.asList("-i", "input.mp4", "output.mkv"),
+                platform.splitCommand("  -i input.mp4\toutput.mkv "));
+        assertEquals(Arrays.asList("-i", "my video.mp4", "-vf", "scale=320:240"),
+                platform.splitCommand("-i \"my video.mp4\" -vf 'scale=320:240'"));
+        assertEquals(Arrays.asList("-metadata", "title="),
+                platform.splitCommand("-metadata title=\"\""));
+    }
+
+    @Test
+    public void testSplitCommandEscapes() {
+        final Platform platform = Platform.getPlatform();
+        if (!(platform instanceof Linux)) {
+            return;
+        }
+
+        assertEquals(Arrays.asList("my video.mp4", "say \"hi\""),
+                platform.splitCommand("my\\ video.mp4 \"say \\\"hi\\\"\""));
+        assertEquals(Arrays.asList(""), platform.splitCommand("''"));
+    }
+
+    @Test
+    public void testQuoteArgument() {
+        final Platform platform = Platform.getPlatform();
+
+        final String argument = platform instanceof Linux ? "it's my video.mp4" : "my video.mp4";
+        assertEquals(Arrays.asList("-i", argument), platform.splitCommand("-i " + platform.quoteArgument(argument)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSplitCommandUnclosedQuote() {
+        Platform.getPlatform().splitCommand("-i \"input.mp4");
+    }
+}
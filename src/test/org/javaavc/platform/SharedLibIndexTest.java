@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.platform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link SharedLibIndex}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class SharedLibIndexTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testLinux() throws IOException {
+        final File dir = this.temp.newFolder();
+        final File v52 = new File(dir, "libavutil.so.52.66.100");
+        final File v9 = new File(dir, "libavutil.so.9.1");
+        final File codec = new File(dir, "libavcodec.so.55");
+        for (File f : Arrays.asList(v52, v9, codec, new File(dir, "libavutil-extra.so"),
+                new File(dir, "avutil.txt"))) {
+            assertTrue(f.createNewFile());
+        }
+
+        final SharedLibIndex index = new SharedLibIndex(Linux.SHARED_LIB_PATTERN, Arrays.asList(dir));
+        assertEquals(Arrays.asList(v9.getCanonicalFile(), v52.getCanonicalFile()), index.find("avutil"));
+        assertEquals(Arrays.asList(codec.getCanonicalFile()), index.find("avcodec"));
+        assertEquals(Collections.emptyList(), index.find("avformat"));
+    }
+
+    @Test
+    public void testWindows() throws IOException {
+        final File dir = this.temp.newFolder();
+        final File plain = new File(dir, "avutil.dll");
+        final File v52 = new File(dir, "avutil-52.dll");
+        for (File f : Arrays.asList(v52, plain, new File(dir, "swresample-0.dll"))) {
+            assertTrue(f.createNewFile());
+        }
+
+        final SharedLibIndex index = new SharedLibIndex(Windows.SHARED_LIB_PATTERN, Arrays.asList(dir));
+        assertEquals(Arrays.asList(plain.getCanonicalFile(), v52.getCanonicalFile()), index.find("avutil"));
+        assertEquals(1, index.find("swresample").size());
+    }
+
+    @Test
+    public void testCaseInsensitive() throws IOException {
+        final File dir = this.temp.newFolder();
+        final File dll = new File(dir, "AVCODEC-55.dll");
+        final File so = new File(dir, "libAVCODEC.so.55");
+        for (File f : Arrays.asList(dll, so)) {
+            assertTrue(f.createNewFile());
+        }
+
+        // Names of DLLs are case-insensitive.
+        final SharedLibIndex windows = new SharedLibIndex(Windows.SHARED_LIB_PATTERN, Arrays.asList(dir));
+        assertEquals(Arrays.asList(dll.getCanonicalFile()), windows.find("avcodec"));
+        assertEquals(Arrays.asList(dll.getCanonicalFile()), windows.find("AvCodec"));
+
+        // Names of shared objects are not.
+        final SharedLibIndex linux = new SharedLibIndex(Linux.SHARED_LIB_PATTERN, Arrays.asList(dir));
+        assertEquals(Collections.emptyList(), linux.find("avcodec"));
+        assertEquals(Arrays.asList(so.getCanonicalFile()), linux.find("AVCODEC"));
+    }
+
+    @Test
+    public void testCompareVersions() {
+        assertTrue(SharedLibIndex.compareVersions(SharedLibIndex.parseVersion("52"),
+                SharedLibIndex.parseVersion("52.66.100")) < 0);
+        assertTrue(SharedLibIndex.compareVersions(SharedLibIndex.parseVersion("9.1"),
+                SharedLibIndex.parseVersion("52")) < 0);
+        assertEquals(0, SharedLibIndex.compareVersions(SharedLibIndex.parseVersion(".52.66"),
+                SharedLibIndex.parseVersion("52.66")));
+    }
+}
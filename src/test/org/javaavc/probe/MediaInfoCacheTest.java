@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.probe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.javaavc.platform.FileKey;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link MediaInfoCache}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class MediaInfoCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static MediaInfo createInfo(final File file) {
+        return new MediaInfo(file.getPath(), "test", 1.0, 1000, file.length(), Collections.<MediaStream> emptyList());
+    }
+
+    @Test
+    public void testInvalidation() throws IOException {
+        final MediaInfoCache cache = new MediaInfoCache();
+        final File file = this.temp.newFile();
+
+        assertNull(cache.get(FileKey.of(file)));
+
+        final MediaInfo info = createInfo(file);
+        cache.put(FileKey.of(file), info);
+        assertSame(info, cache.get(FileKey.of(file)));
+
+        // Changed file is not taken from cache.
+        Files.write(file.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        assertNull(cache.get(FileKey.of(file)));
+        assertEquals(0, cache.size());
+
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        final MediaInfoCache cache = new MediaInfoCache(2);
+        final File f1 = this.temp.newFile();
+        final File f2 = this.temp.newFile();
+        final File f3 = this.temp.newFile();
+
+        cache.put(FileKey.of(f1), createInfo(f1));
+        cache.put(FileKey.of(f2), createInfo(f2));
+        // Use the first one, so the second one is the eldest.
+        assertTrue(cache.get(FileKey.of(f1)) != null);
+        cache.put(FileKey.of(f3), createInfo(f3));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(FileKey.of(f2)));
+        assertTrue(cache.get(FileKey.of(f1)) != null);
+        assertTrue(cache.get(FileKey.of(f3)) != null);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.probe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.junit.Test;
+
+/**
+ * Test class for {@link MediaInfoHandler}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class MediaInfoHandlerTest {
+
+    private static final String OUTPUT = "streams.stream.0.index=0\n"
+            + "streams.stream.0.codec_name=\"h264\"\n"
+            + "streams.stream.0.codec_type=\"video\"\n"
+            + "streams.stream.0.width=320\n"
+            + "streams.stream.0.height=240\n"
+            + "streams.stream.0.pix_fmt=\"yuv420p\"\n"
+            + "streams.stream.0.avg_frame_rate=\"30000/1001\"\n"
+            + "streams.stream.0.duration=\"10.010000\"\n"
+            + "streams.stream.0.bit_rate=\"400000\"\n"
+            + "streams.stream.0.disposition.default=1\n"
+            + "streams.stream.0.tags.language=\"und\"\n"
+            + "streams.stream.1.index=1\n"
+            + "streams.stream.1.codec_name=\"aac\"\n"
+            + "streams.stream.1.codec_type=\"audio\"\n"
+            + "streams.stream.1.sample_fmt=\"fltp\"\n"
+            + "streams.stream.1.sample_rate=\"44100\"\n"
+            + "streams.stream.1.channels=2\n"
+            + "streams.stream.1.avg_frame_rate=\"0/0\"\n"
+            + "streams.stream.1.bit_rate=\"N/A\"\n"
+            + "format.filename=\"my \\\"video\\\".mp4\"\n"
+            + "format.nb_streams=2\n"
+            + "format.format_name=\"mov,mp4,m4a,3gp,3g2,mj2\"\n"
+            + "format.duration=\"10.026667\"\n"
+            + "format.size=\"530424\"\n"
+            + "format.bit_rate=\"423219\"\n"
+            + "format.tags.encoder=\"Lavf55.33.100\"\n";
+
+    @Test
+    public void testParse() throws IOException {
+        final MediaInfoHandler handler = new MediaInfoHandler();
+        handler.handle(new ByteArrayInputStream(OUTPUT.getBytes(StandardCharsets.UTF_8)));
+
+        final MediaInfo info = handler.getMediaInfo("input.mp4");
+        assertEquals("my \"video\".mp4", info.getUrl());
+        assertEquals("mov,mp4,m4a,3gp,3g2,mj2", info.getFormatName());
+        assertEquals(10.026667, info.getDuration(), 1e-9);
+        assertEquals(530424, info.getSize());
+        assertEquals(423219, info.getBitRate());
+        assertEquals(2, info.getStreams().size());
+
+        final MediaStream video = info.findStream(MediaType.VIDEO);
+        assertEquals(0, video.getIndex());
+        assertEquals("h264", video.getCodecName());
+        assertEquals(320, video.getWidth());
+        assertEquals(240, video.getHeight());
+        assertEquals("yuv420p", video.getPixelFormat());
+        assertEquals(29.97, video.getFrameRate(), 0.01);
+        assertEquals(400000, video.getBitRate());
+
+        final MediaStream audio = info.findStream(MediaType.AUDIO);
+        assertEquals(1, audio.getIndex());
+        assertEquals(44100, audio.getSampleRate());
+        assertEquals(2, audio.getChannels());
+        assertEquals("fltp", audio.getSampleFormat());
+        assertEquals(-1, audio.getBitRate());
+        assertEquals(-1, audio.getFrameRate(), 0);
+        assertNull(audio.getPixelFormat());
+
+        assertNull(info.findStream(MediaType.SUBTITLE));
+    }
+
+    @Test
+    public void testEmpty() {
+        final MediaInfo info = new MediaInfoHandler().getMediaInfo("input.mp4");
+        assertEquals("input.mp4", info.getUrl());
+        assertNull(info.getFormatName());
+        assertEquals(-1, info.getDuration(), 0);
+        assertEquals(0, info.getStreams().size());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.probe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.junit.Test;
+
+/**
+ * Test class for {@link MediaProbe}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class MediaProbeTest {
+
+    @Test
+    public void testProbe() throws IOException {
+        final MediaProbe probe = new MediaProbe(JavaAVC.getInstance());
+        try {
+            final MediaInfo info = probe.probe(new File(DemuxerTest.MP4_FILE));
+            assertTrue(info.getDuration() > 0);
+            assertTrue(info.getBitRate() > 0);
+
+            final MediaStream video = info.findStream(MediaType.VIDEO);
+            assertNotNull(video);
+            assertTrue(video.getWidth() > 0);
+            assertTrue(video.getHeight() > 0);
+            assertNotNull(info.findStream(MediaType.AUDIO));
+
+            // The second probe is taken from cache.
+            assertSame(info, probe.probe(new File(DemuxerTest.MP4_FILE)));
+            assertEquals(1, probe.getCache().getHits());
+        } finally {
+            probe.close();
+        }
+    }
+
+    @Test
+    public void testProbeAll() throws IOException {
+        final MediaProbe probe = new MediaProbe(JavaAVC.getInstance());
+        try {
+            final Map<File, MediaInfo> infos = probe.probeAll(Arrays.asList(new File(DemuxerTest.MP4_FILE),
+                    new File(DemuxerTest.FLV_FILE)));
+            assertEquals(2, infos.size());
+            for (MediaInfo info : infos.values()) {
+                assertNotNull(info.findStream(MediaType.VIDEO));
+            }
+        } finally {
+            probe.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testProbeMissing() throws IOException {
+        final MediaProbe probe = new MediaProbe(JavaAVC.getInstance());
+        try {
+            probe.probe(new File("missing.mp4"));
+        } finally {
+            probe.close();
+        }
+    }
+}
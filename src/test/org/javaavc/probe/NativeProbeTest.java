@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.probe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.junit.Test;
+
+/**
+ * Test class for {@link NativeProbe}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class NativeProbeTest {
+
+    private void checkInfo(final MediaInfo info) {
+        assertNotNull(info.getFormatName());
+        assertTrue(info.getSize() > 0);
+
+        final MediaStream video = info.findStream(MediaType.VIDEO);
+        assertNotNull(video);
+        assertNotNull(video.getCodecName());
+        assertTrue(video.getWidth() > 0);
+        assertTrue(video.getHeight() > 0);
+        assertNotNull(video.getPixelFormat());
+    }
+
+    @Test
+    public void testProbe() throws IOException {
+        final MediaInfo info = new NativeProbe(JavaAVC.getInstance()).probe(DemuxerTest.MP4_FILE);
+        checkInfo(info);
+        assertTrue(info.getDuration() > 0);
+
+        final MediaStream audio = info.findStream(MediaType.AUDIO);
+        assertNotNull(audio);
+        assertTrue(audio.getSampleRate() > 0);
+        assertNotNull(audio.getSampleFormat());
+    }
+
+    @Test
+    public void testFastProbe() throws IOException {
+        checkInfo(NativeProbe.fast(JavaAVC.getInstance()).probe(DemuxerTest.MP4_FILE));
+        checkInfo(NativeProbe.fast(JavaAVC.getInstance()).probe(DemuxerTest.FLV_FILE));
+    }
+
+    @Test
+    public void testOptions() throws IOException {
+        final NativeProbe probe = new NativeProbe(JavaAVC.getInstance());
+        assertTrue(probe.getOptions().isEmpty());
+
+        probe.setProbeSize(NativeProbe.FAST_PROBE_SIZE);
+        probe.setFpsProbeSize(NativeProbe.FAST_FPS_PROBE_SIZE);
+        final Map<String, String> options = probe.getOptions();
+        assertEquals(2, options.size());
+        assertEquals(Long.toString(NativeProbe.FAST_PROBE_SIZE), options.get("probesize"));
+        assertEquals("0", options.get("fpsprobesize"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectProbeSize() throws IOException {
+        new NativeProbe(JavaAVC.getInstance()).setProbeSize(1);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.javaavc.JavaAVC;
+import org.junit.Test;
+
+/**
+ * Test class for {@link ProcessScheduler}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class ProcessSchedulerTest {
+
+    @Test
+    public void testExecute() throws IOException, InterruptedException, ExecutionException {
+        final ProcessScheduler scheduler = new ProcessScheduler(JavaAVC.getInstance(), 2);
+        try {
+            final List<Future<ProcessResult>> results = new ArrayList<Future<ProcessResult>>();
+            for (int i = 0; i < 6; ++i) {
+                results.add(scheduler.submit(JavaAVC.BIN_FFMPEG, "-version"));
+            }
+
+            for (Future<ProcessResult> result : results) {
+                assertTrue(result.get().isSuccess());
+            }
+
+            assertEquals(6, scheduler.getSubmitted());
+            assertEquals(6, scheduler.getCompleted());
+            assertEquals(0, scheduler.getQueueDepth());
+            assertEquals(0, scheduler.getRunning());
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    public void testTimeout() throws IOException, InterruptedException, ExecutionException {
+        final ProcessScheduler scheduler = new ProcessScheduler(JavaAVC.getInstance(), 1);
+        try {
+            // Endless input from test source.
+            final ProcessResult result = scheduler.submit(JavaAVC.BIN_FFMPEG, "-f lavfi -i nullsrc -f null -",
+                    ProcessScheduler.DEFAULT_PRIORITY, 1, TimeUnit.SECONDS).get();
+
+            assertTrue(result.isTimedOut());
+            assertFalse(result.isSuccess());
+            assertEquals(1, scheduler.getTimedOut());
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    public void testConcurrentSubmit() throws IOException, InterruptedException {
+        final ProcessScheduler scheduler = new ProcessScheduler(JavaAVC.getInstance(), 1, 2);
+        try {
+            // Occupy the only process, so submitted jobs stay in queue.
+            scheduler.submit(JavaAVC.BIN_FFMPEG, "-f lavfi -i nullsrc -f null -", ProcessScheduler.DEFAULT_PRIORITY,
+                    1, TimeUnit.MINUTES);
+            while (scheduler.getRunning() == 0) {
+                Thread.sleep(10);
+            }
+
+            final int threads = 16;
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicInteger accepted = new AtomicInteger();
+            final List<Thread> submitters = new ArrayList<Thread>();
+            for (int i = 0; i < threads; ++i) {
+                final Thread thread = new Thread() {
+
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                            scheduler.submit(JavaAVC.BIN_FFMPEG, "-version");
+                            accepted.incrementAndGet();
+                        } catch (RejectedExecutionException e) {
+                            // Expected for jobs above the limit.
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                };
+                thread.start();
+                submitters.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : submitters) {
+                thread.join();
+            }
+
+            assertEquals(2, accepted.get());
+            assertEquals(2, scheduler.getQueueDepth());
+            assertEquals(threads - 2, scheduler.getRejected());
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectLimit() throws IOException {
+        new ProcessScheduler(JavaAVC.getInstance(), 0);
+    }
+}
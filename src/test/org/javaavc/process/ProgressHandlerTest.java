@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link ProgressHandler}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class ProgressHandlerTest {
+
+    //@formatter:off
+    private static final String REPORT =
+            "frame=25\n" +
+            "fps=12.5\n" +
+            "stream_0_0_q=2.0\n" +
+            "bitrate= 512.3kbits/s\n" +
+            "total_size=65536\n" +
+            "out_time_ms=1000000\n" +
+            "out_time=00:00:01.000000\n" +
+            "dup_frames=1\n" +
+            "drop_frames=0\n" +
+            "progress=continue\n" +
+            "frame=50\n" +
+            "fps=N/A\n" +
+            "bitrate=N/A\n" +
+            "total_size=131072\n" +
+            "out_time_ms=2000000\n" +
+            "out_time=00:00:02.000000\n" +
+            "dup_frames=1\n" +
+            "drop_frames=0\n" +
+            "progress=end\n";
+    //@formatter:on
+
+    @Test
+    public void testParse() throws IOException {
+        final List<Progress> reports = new ArrayList<Progress>();
+        final ProgressHandler handler = new ProgressHandler(new ProgressListener() {
+
+            @Override
+            public void onProgress(final Progress progress) {
+                reports.add(progress);
+            }
+        });
+        handler.handle(new ByteArrayInputStream(REPORT.getBytes("UTF-8")));
+
+        assertEquals(2, reports.size());
+
+        final Progress first = reports.get(0);
+        assertFalse(first.isEnd());
+        assertEquals(25, first.getFrame());
+        assertEquals(12.5, first.getFps(), 1e-9);
+        assertEquals(512.3, first.getBitrate(), 1e-9);
+        assertEquals(65536, first.getTotalSize());
+        assertEquals(1000000, first.getOutTime());
+        assertEquals(1, first.getDupFrames());
+        assertEquals(0, first.getDropFrames());
+        assertTrue(first.getSpeed() > 0);
+
+        final Progress last = handler.getLastProgress();
+        assertNotNull(last);
+        assertTrue(last.isEnd());
+        assertEquals(50, last.getFrame());
+        assertEquals(-1, last.getFps(), 1e-9);
+        assertEquals(-1, last.getBitrate(), 1e-9);
+    }
+
+    @Test
+    public void testStatistics() {
+        final Progress progress = new Progress(50, 25, 1000, 250000, 2000000, 0, 0, 1, 1000000000L, true);
+        final ProgressStatistics statistics = new ProgressStatistics(0, progress, 1000000000L);
+
+        assertEquals(50, statistics.getFrames());
+        assertEquals(50.0, statistics.getAverageFps(), 1e-9);
+        assertEquals(2.0, statistics.getAverageSpeed(), 1e-9);
+        assertEquals(1000.0, statistics.getAverageBitrate(), 1e-9);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.seek;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link SeekIndex} and {@link SeekIndexCache}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class SeekIndexTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testScan() throws IOException {
+        final SeekIndex index = SeekIndex.scan(JavaAVC.getInstance(), DemuxerTest.FLV_FILE);
+        assertTrue(index.size() > 1);
+        assertEquals(new File(DemuxerTest.FLV_FILE).length(), index.getFileSize());
+        for (int i = 1; i < index.size(); ++i) {
+            assertTrue(index.getTimestamp(i) > index.getTimestamp(i - 1));
+            assertTrue(index.getPosition(i) > index.getPosition(i - 1));
+        }
+
+        assertEquals(0, index.find(index.getTimestamp(0) - 1));
+        assertEquals(1, index.find(index.getTimestamp(1)));
+        assertEquals(1, index.find(index.getTimestamp(2) - 1));
+        assertEquals(index.size() - 1, index.find(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        final SeekIndex index = SeekIndex.scan(JavaAVC.getInstance(), DemuxerTest.MP4_FILE);
+        final File file = new File(this.temp.getRoot(), "index" + SeekIndexCache.SIDECAR_SUFFIX);
+        index.write(file);
+        // Compact: a few bytes per entry.
+        assertTrue(file.length() < 64 + 16 * index.size());
+
+        final SeekIndex copy = SeekIndex.read(file);
+        assertEquals(index.getStreamIndex(), copy.getStreamIndex());
+        assertEquals(index.getTimeBase().toString(), copy.getTimeBase().toString());
+        assertEquals(index.getFileSize(), copy.getFileSize());
+        assertEquals(index.getLastModified(), copy.getLastModified());
+        assertEquals(index.size(), copy.size());
+        for (int i = 0; i < index.size(); ++i) {
+            assertEquals(index.getTimestamp(i), copy.getTimestamp(i));
+            assertEquals(index.getPosition(i), copy.getPosition(i));
+        }
+
+        // Damaged file is detected.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(file.length() / 2);
+            final int b = raf.read();
+            raf.seek(file.length() / 2);
+            raf.write(b ^ 0xFF);
+        }
+        try {
+            SeekIndex.read(file);
+            fail("Index is corrupted!");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    private static void checkSeek(final String url) throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+        final SeekIndex index = SeekIndex.scan(avc, url);
+        assertTrue(index.size() > 1);
+
+        try (Demuxer demuxer = new Demuxer(avc, url); Packet packet = new Packet(avc.getAvcodec())) {
+            // From the end to the beginning, so each seek goes backward.
+            for (int i = index.size() - 1; i >= 0; --i) {
+                final long target = i + 1 < index.size() ? index.getTimestamp(i + 1) - 1 : Long.MAX_VALUE;
+                assertEquals(index.getTimestamp(i), index.seek(demuxer, target));
+
+                do {
+                    assertTrue(demuxer.read(packet));
+                } while (packet.getStreamIndex() != index.getStreamIndex());
+                assertTrue(packet.isKeyFrame());
+                assertEquals(index.getTimestamp(i), packet.getPts());
+            }
+        }
+    }
+
+    @Test
+    public void testSeekFlv() throws IOException {
+        checkSeek(DemuxerTest.FLV_FILE);
+    }
+
+    @Test
+    public void testSeekMp4() throws IOException {
+        checkSeek(DemuxerTest.MP4_FILE);
+    }
+
+    @Test
+    public void testCache() throws IOException {
+        final File dir = this.temp.newFolder();
+        final File file = new File(DemuxerTest.FLV_FILE);
+        final SeekIndexCache cache = new SeekIndexCache(JavaAVC.getInstance(), 4, dir);
+        final File sidecar = cache.getSidecarFile(file);
+        assertEquals(dir, sidecar.getParentFile());
+
+        final SeekIndex index = cache.get(file);
+        assertEquals(1, cache.getScans());
+        assertTrue(sidecar.isFile());
+
+        assertTrue(index == cache.get(file));
+        assertEquals(1, cache.getHits());
+
+        // Index is restored from sidecar.
+        cache.clear();
+        assertEquals(index.size(), cache.get(file).size());
+        assertEquals(1, cache.getSidecarHits());
+        assertEquals(1, cache.getScans());
+
+        cache.invalidate(file);
+        assertTrue(!sidecar.exists());
+        assertEquals(0, cache.size());
+    }
+}
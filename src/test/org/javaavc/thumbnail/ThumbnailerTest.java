@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.thumbnail;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.ffmpeg.avutil.BufferPool;
+import org.junit.Test;
+
+/**
+ * Test class for {@link Thumbnailer}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class ThumbnailerTest {
+
+    private static final int WIDTH = 160;
+
+    private static final int COUNT = 5;
+
+    private void check(final List<Thumbnail> thumbnails) {
+        assertTrue(thumbnails.size() > 0);
+        assertTrue(thumbnails.size() <= COUNT);
+
+        double last = -1.0;
+        for (Thumbnail thumbnail : thumbnails) {
+            assertEquals(WIDTH, thumbnail.getWidth());
+            assertTrue(thumbnail.getHeight() > 0);
+            assertTrue(thumbnail.getLineSize() >= 3 * WIDTH);
+            assertTrue(thumbnail.getTime() > last);
+            last = thumbnail.getTime();
+        }
+    }
+
+    private static void release(final List<Thumbnail> thumbnails) {
+        for (Thumbnail thumbnail : thumbnails) {
+            thumbnail.release();
+        }
+    }
+
+    @Test
+    public void testExtract() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+        final BufferPool pool = new BufferPool(avc.getAvutil(), 1 << 24, 1 << 24, COUNT);
+        final Thumbnailer thumbnailer = new Thumbnailer(avc, pool, WIDTH, -1);
+        try {
+            final List<Thumbnail> thumbnails = thumbnailer.extract(DemuxerTest.MP4_FILE, COUNT);
+            check(thumbnails);
+            release(thumbnails);
+            assertEquals(0, pool.getUsedBuffers());
+        } finally {
+            thumbnailer.close();
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testExtractAll() throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+        final BufferPool pool = new BufferPool(avc.getAvutil(), 1 << 24, 1 << 24, COUNT);
+        final Thumbnailer thumbnailer = new Thumbnailer(avc, pool, WIDTH, -1);
+        try {
+            final List<List<Thumbnail>> batch = thumbnailer.extractAll(
+                    Arrays.asList(DemuxerTest.MP4_FILE, DemuxerTest.FLV_FILE, DemuxerTest.MP4_FILE), COUNT);
+            assertEquals(3, batch.size());
+            for (List<Thumbnail> thumbnails : batch) {
+                check(thumbnails);
+                release(thumbnails);
+            }
+
+            // Thumbnails of successful files are released, if batch fails.
+            try {
+                thumbnailer.extractAll(Arrays.asList(DemuxerTest.MP4_FILE, "resources/NotExists.mp4"), COUNT);
+                fail("File does not exist!");
+            } catch (IOException e) {
+                // Expected.
+            }
+            assertEquals(0, pool.getUsedBuffers());
+        } finally {
+            thumbnailer.close();
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testExtractAllInterrupted() throws IOException, InterruptedException {
+        final JavaAVC avc = JavaAVC.getInstance();
+        final BufferPool pool = new BufferPool(avc.getAvutil(), 1 << 24, 1 << 24, 2 * COUNT);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Thumbnailer thumbnailer = new Thumbnailer(avc, pool, WIDTH, -1, executor);
+        try {
+            // Tasks of batch are started only after caller is interrupted.
+            final CountDownLatch latch = new CountDownLatch(1);
+            executor.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            final Thread unblocker = new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        // Release anyway.
+                    }
+                    latch.countDown();
+                }
+            };
+            unblocker.start();
+
+            Thread.currentThread().interrupt();
+            try {
+                thumbnailer.extractAll(Arrays.asList(DemuxerTest.MP4_FILE, DemuxerTest.FLV_FILE), COUNT);
+                fail("Extraction was interrupted!");
+            } catch (IOException e) {
+                // Expected.
+            }
+            assertTrue(Thread.interrupted());
+            unblocker.join();
+
+            // Started tasks are waited for and their thumbnails are returned to pool.
+            assertEquals(0, pool.getUsedBuffers());
+        } finally {
+            Thread.interrupted();
+            thumbnailer.close();
+            executor.shutdown();
+            pool.close();
+        }
+    }
+}
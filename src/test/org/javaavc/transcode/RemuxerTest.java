@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.transcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.junit.Test;
+
+/**
+ * Test class for {@link Remuxer}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class RemuxerTest {
+
+    private long countPackets(final String fileName) throws IOException {
+        long packets = 0;
+
+        final JavaAVC avc = JavaAVC.getInstance();
+        final Demuxer demuxer = new Demuxer(avc, fileName);
+        final Packet packet = new Packet(avc.getAvcodec());
+        try {
+            while (demuxer.read(packet)) {
+                final MediaType type = demuxer.getStream(packet.getStreamIndex()).getMediaType();
+                if (type == MediaType.VIDEO || type == MediaType.AUDIO) {
+                    ++packets;
+                }
+            }
+        } finally {
+            packet.close();
+            demuxer.close();
+        }
+
+        return packets;
+    }
+
+    private void checkRemux(final String input, final String suffix, final String formatName) throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        final File output = File.createTempFile("remuxed-", suffix);
+        try {
+            final Remuxer remuxer = new Remuxer(avc);
+            remuxer.setBufferSize(256 * 1024);
+            final long packets = remuxer.remux(input, output.getPath());
+            assertEquals(countPackets(input), packets);
+
+            final Demuxer source = new Demuxer(avc, input);
+            final Demuxer demuxer = new Demuxer(avc, output.getPath());
+            try {
+                assertEquals(formatName, demuxer.getFormatName());
+
+                final StreamInfo video = demuxer.findStream(MediaType.VIDEO);
+                assertNotNull(video);
+                assertEquals(source.findStream(MediaType.VIDEO).getCodecName(), video.getCodecName());
+                assertNotNull(demuxer.findStream(MediaType.AUDIO));
+
+                // Streams are copied without re-encoding, so duration is kept.
+                final double sourceDuration = source.getDuration() / 1e6;
+                assertTrue(Math.abs(demuxer.getDuration() / 1e6 - sourceDuration) < 0.5);
+            } finally {
+                demuxer.close();
+                source.close();
+            }
+            assertEquals(packets, countPackets(output.getPath()));
+        } finally {
+            output.delete();
+        }
+    }
+
+    @Test
+    public void testFlvToMp4() throws IOException {
+        checkRemux(DemuxerTest.FLV_FILE, ".mp4", "mov,mp4,m4a,3gp,3g2,mj2");
+    }
+
+    @Test
+    public void testMp4ToMatroska() throws IOException {
+        checkRemux(DemuxerTest.MP4_FILE, ".mkv", "matroska,webm");
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012-2018 JavaAVC Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * This class is part of Java Audio/Video Codec (JavaAVC) Library.
+ */
+package org.javaavc.transcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.javaavc.JavaAVC;
+import org.javaavc.ffmpeg.avcodec.Packet;
+import org.javaavc.ffmpeg.avformat.Demuxer;
+import org.javaavc.ffmpeg.avformat.DemuxerTest;
+import org.javaavc.ffmpeg.avformat.Libavformat;
+import org.javaavc.ffmpeg.avformat.StreamInfo;
+import org.javaavc.ffmpeg.avutil.MediaType;
+import org.junit.Test;
+
+/**
+ * Test class for {@link SegmentTranscoder}.
+ *
+ * @author Dmitry Zavodnikov (d.zavodnikov@gmail.com)
+ */
+public class SegmentTranscoderTest {
+
+    /**
+     * Statistics of packets of video stream.
+     */
+    private static class VideoStats {
+
+        private int    packets;
+
+        private long   firstPts = Long.MAX_VALUE;
+
+        private long   lastPts  = Long.MIN_VALUE;
+
+        private double duration;
+    }
+
+    /**
+     * Read all packets of video stream. Decoding timestamps should strictly increase (also across joins of
+     * segments).
+     */
+    private static VideoStats readVideo(final String url) throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+        final VideoStats stats = new VideoStats();
+
+        final Demuxer demuxer = new Demuxer(avc, url);
+        final Packet packet = new Packet(avc.getAvcodec());
+        try {
+            final StreamInfo video = demuxer.findStream(MediaType.VIDEO);
+            assertNotNull(video);
+
+            long lastDts = Long.MIN_VALUE;
+            while (demuxer.read(packet)) {
+                if (packet.getStreamIndex() != video.getIndex()) {
+                    continue;
+                }
+
+                ++stats.packets;
+                if (packet.getDts() != Libavformat.AV_NOPTS_VALUE) {
+                    assertTrue(String.format("DTS %d after %d", packet.getDts(), lastDts), packet.getDts() > lastDts);
+                    lastDts = packet.getDts();
+                }
+                if (packet.getPts() != Libavformat.AV_NOPTS_VALUE) {
+                    stats.firstPts = Math.min(stats.firstPts, packet.getPts());
+                    stats.lastPts = Math.max(stats.lastPts, packet.getPts());
+                }
+            }
+
+            assertTrue(stats.packets > 0);
+            stats.duration = (stats.lastPts - stats.firstPts) * video.getTimeBase().doubleValue();
+        } finally {
+            packet.close();
+            demuxer.close();
+        }
+
+        return stats;
+    }
+
+    private void checkTranscode(final int segments) throws IOException {
+        final JavaAVC avc = JavaAVC.getInstance();
+
+        final File output = File.createTempFile("transcoded-", ".mkv");
+        try {
+            final SegmentTranscoder transcoder = new SegmentTranscoder(avc, segments);
+            transcoder.transcode(DemuxerTest.MP4_FILE, output.getPath());
+
+            final Demuxer demuxer = new Demuxer(avc, output.getPath());
+            try {
+                final StreamInfo video = demuxer.findStream(MediaType.VIDEO);
+                assertNotNull(video);
+                assertEquals(SegmentTranscoder.DEFAULT_CODEC, video.getCodecName());
+                assertNotNull(demuxer.findStream(MediaType.AUDIO));
+            } finally {
+                demuxer.close();
+            }
+
+            // Each frame of input is encoded once, timeline is kept.
+            final VideoStats input = readVideo(DemuxerTest.MP4_FILE);
+            final VideoStats result = readVideo(output.getPath());
+            assertTrue(String.format("%d frames of %d", result.packets, input.packets),
+                    Math.abs(result.packets - input.packets) <= 2);
+            assertEquals(input.duration, result.duration, Math.max(0.1, 0.02 * input.duration));
+        } finally {
+            output.delete();
+        }
+    }
+
+    @Test
+    public void testSingleSegment() throws IOException {
+        checkTranscode(1);
+    }
+
+    @Test
+    public void testSeveralSegments() throws IOException {
+        checkTranscode(4);
+    }
+}